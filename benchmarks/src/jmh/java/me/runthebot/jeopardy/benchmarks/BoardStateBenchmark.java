@@ -0,0 +1,61 @@
+package me.runthebot.jeopardy.benchmarks;
+
+import com.badlogic.gdx.utils.Array;
+import java.util.concurrent.TimeUnit;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.model.GameEngine;
+import me.runthebot.jeopardy.model.GameState;
+import me.runthebot.jeopardy.model.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The board bookkeeping done when a game is saved or loaded: copying which clues
+ * have been played, and the engine counting them as it resumes. Boards wider than
+ * the game's own show how both grow with the board.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BoardStateBenchmark {
+    private static final int TIERS = GameConfig.QUESTIONS_PER_CATEGORY;
+
+    @Param({"5", "20", "100"})
+    public int columns;
+
+    private boolean[][] board;
+    private Array<Player> players;
+    private GameEngine engine;
+
+    @Setup
+    public void setUp() {
+        board = new boolean[columns][TIERS];
+        for (int column = 0; column < columns; column++) {
+            for (int tier = 0; tier < TIERS; tier++) {
+                board[column][tier] = (column + tier) % 2 == 0;
+            }
+        }
+        players = new Array<>();
+        players.add(new Player("Player 1"));
+        players.add(new Player("Player 2"));
+        engine = new GameEngine(players, columns);
+    }
+
+    @Benchmark
+    public boolean[][] copyBoard() {
+        return GameState.copyBoard(board);
+    }
+
+    @Benchmark
+    public int load() {
+        // The engine keeps the array as it is, so loading the same one again is fair
+        engine.load(players, board, 0);
+        return engine.getAnsweredCount();
+    }
+}
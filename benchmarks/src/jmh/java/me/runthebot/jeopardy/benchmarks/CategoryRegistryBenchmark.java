@@ -0,0 +1,56 @@
+package me.runthebot.jeopardy.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import me.runthebot.jeopardy.model.CategoryRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Turning category display names into IDs and back, with registries of different
+ * sizes. Names are looked up in upper case, as typed names may not match the bank's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CategoryRegistryBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int categories;
+
+    private String[] names;
+    private int[] ids;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        names = new String[categories];
+        ids = new int[categories];
+        for (int i = 0; i < categories; i++) {
+            ids[i] = CategoryRegistry.register(SyntheticBank.categoryName(i));
+            names[i] = SyntheticBank.categoryName(i).toUpperCase(Locale.ROOT);
+        }
+    }
+
+    @Benchmark
+    public int find() {
+        next = (next + 1) % names.length;
+        return CategoryRegistry.find(names[next]);
+    }
+
+    @Benchmark
+    public int findMissing() {
+        return CategoryRegistry.find("Not a category");
+    }
+
+    @Benchmark
+    public String getName() {
+        next = (next + 1) % ids.length;
+        return CategoryRegistry.getName(ids[next]);
+    }
+}
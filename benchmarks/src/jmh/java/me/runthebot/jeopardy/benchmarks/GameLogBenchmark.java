@@ -0,0 +1,97 @@
+package me.runthebot.jeopardy.benchmarks;
+
+import com.badlogic.gdx.utils.Array;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.data.QuestionData;
+import me.runthebot.jeopardy.model.CategoryRegistry;
+import me.runthebot.jeopardy.model.GameEngine;
+import me.runthebot.jeopardy.model.GameLog;
+import me.runthebot.jeopardy.model.GameState;
+import me.runthebot.jeopardy.model.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Rebuilding a game from its log, and reading a saved log back. Each board is
+ * played to the end with buzzers, so the log holds a whole game's events. The
+ * worst point to rebuild is the last event before a snapshot, which replays
+ * {@link GameLog#SNAPSHOT_EVERY} - 1 events on top of the snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameLogBenchmark {
+    private static final int TIERS = GameConfig.QUESTIONS_PER_CATEGORY;
+    private static final int PLAYERS = 4;
+
+    @Param({"5", "20", "100"})
+    public int columns;
+
+    private GameLog log;
+    private byte[] saved;
+    private int worst;
+
+    @Setup
+    public void setUp() {
+        Array<Player> players = new Array<>();
+        for (int i = 0; i < PLAYERS; i++) {
+            players.add(new Player("Player " + (i + 1)));
+        }
+        int[] categories = new int[columns];
+        QuestionData[][] board = new QuestionData[columns][TIERS];
+        int[][] clues = new int[columns][TIERS];
+        for (int column = 0; column < columns; column++) {
+            categories[column] = CategoryRegistry.register("Category " + column);
+            for (int tier = 0; tier < TIERS; tier++) {
+                board[column][tier] = new QuestionData(categories[column], GameEngine.valueOf(tier),
+                    "Question " + column + "-" + tier, "A", new String[] {"A", "B", "C", "D"});
+            }
+        }
+
+        GameEngine engine = new GameEngine(players, columns);
+        engine.setBuzzIn(true);
+        log = new GameLog(new GameState(GameState.copyBoard(engine.getAnswered()), players, 0, 1L, categories, clues));
+        engine.setListener(log);
+        engine.setBoard(board);
+        Random random = new Random(1);
+        for (int column = 0; column < columns; column++) {
+            for (int tier = 0; tier < TIERS; tier++) {
+                engine.selectClue(column, tier);
+                if (random.nextInt(4) == 0) {
+                    engine.timeout();
+                } else {
+                    engine.buzz(random.nextInt(PLAYERS));
+                    engine.answer(random.nextInt(4));
+                }
+            }
+        }
+
+        saved = new byte[log.getLength()];
+        System.arraycopy(log.getBuffer(), 0, saved, 0, saved.length);
+        int events = log.getEventCount();
+        worst = events < GameLog.SNAPSHOT_EVERY ? events : (events / GameLog.SNAPSHOT_EVERY) * GameLog.SNAPSHOT_EVERY - 1;
+    }
+
+    @Benchmark
+    public GameState rebuildLatest() {
+        return log.rebuild();
+    }
+
+    @Benchmark
+    public GameState rebuildWorst() {
+        return log.rebuild(worst);
+    }
+
+    @Benchmark
+    public GameLog read() {
+        return GameLog.read(saved, 0, saved.length);
+    }
+}
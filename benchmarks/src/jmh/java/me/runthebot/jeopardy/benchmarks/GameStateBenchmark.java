@@ -0,0 +1,99 @@
+package me.runthebot.jeopardy.benchmarks;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import java.util.concurrent.TimeUnit;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.model.CategoryRegistry;
+import me.runthebot.jeopardy.model.GameState;
+import me.runthebot.jeopardy.model.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Saving and loading a game mid-way through, and the players on their own, for
+ * different numbers of players. Players are read back one at a time the way
+ * GameState does, which works on GWT.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GameStateBenchmark {
+    private static final int COLUMNS = GameConfig.CATEGORIES_PER_BOARD;
+    private static final int TIERS = GameConfig.QUESTIONS_PER_CATEGORY;
+
+    @Param({"1", "6", "32"})
+    public int players;
+
+    private GameState state;
+    private String stateJson;
+    private Array<Player> playerArray;
+    private String playersJson;
+    private String playerJson;
+    private final Json json = new Json();
+
+    @Setup
+    public void setUp() {
+        json.setTypeName(null);
+        playerArray = new Array<>();
+        for (int i = 0; i < players; i++) {
+            Player player = new Player("Player " + i);
+            player.updateScore(200 * i);
+            playerArray.add(player);
+        }
+        boolean[][] board = new boolean[COLUMNS][TIERS];
+        int[] categories = new int[COLUMNS];
+        int[][] clues = new int[COLUMNS][TIERS];
+        for (int column = 0; column < COLUMNS; column++) {
+            categories[column] = CategoryRegistry.register(SyntheticBank.categoryName(column));
+            for (int tier = 0; tier < TIERS; tier++) {
+                // About half the board played
+                board[column][tier] = (column + tier) % 2 == 0;
+                clues[column][tier] = column * TIERS + tier;
+            }
+        }
+        state = new GameState(board, playerArray, 0, 42, categories, clues);
+        stateJson = state.toJson();
+        playersJson = json.toJson(playerArray, Array.class, Player.class);
+        playerJson = json.toJson(playerArray.first(), Player.class);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return state.toJson();
+    }
+
+    @Benchmark
+    public GameState fromJson() {
+        return GameState.fromJson(stateJson);
+    }
+
+    @Benchmark
+    public String playersToJson() {
+        return json.toJson(playerArray, Array.class, Player.class);
+    }
+
+    @Benchmark
+    public Array<Player> playersFromJson() {
+        Array<Player> result = new Array<>();
+        for (JsonValue value = new JsonReader().parse(playersJson).child; value != null; value = value.next) {
+            Player player = new Player();
+            player.read(json, value);
+            result.add(player);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Player playerFromJson() {
+        return Player.fromJson(playerJson);
+    }
+}
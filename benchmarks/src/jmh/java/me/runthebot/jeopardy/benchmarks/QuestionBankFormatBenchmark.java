@@ -0,0 +1,68 @@
+package me.runthebot.jeopardy.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.data.QuestionData;
+import me.runthebot.jeopardy.data.QuestionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * The compiled question pack against the JSON manifest and category files it is
+ * compiled from, holding the same clues. {@link #load} opens the bank and loads
+ * every category, reading and indexing it for search, which is what the first
+ * games after startup pay for between them;
+ * {@link #getQuestion} draws from a bank that is already fully read. The pack
+ * decodes a clue each time it is drawn, where the JSON bank has all of them decoded
+ * up front.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuestionBankFormatBenchmark {
+    private static final int CATEGORIES = 50;
+    private static final int TIERS = GameConfig.QUESTIONS_PER_CATEGORY;
+
+    @Param({"jqp", "json"})
+    public String format;
+
+    @Param({"1000", "10000", "100000"})
+    public int clues;
+
+    private FileHandle file;
+    private int[] categories;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = new FileHandle("jqp".equals(format)
+            ? SyntheticBank.writePack(clues, CATEGORIES)
+            : SyntheticBank.writeJson(clues, CATEGORIES));
+        categories = load();
+    }
+
+    @Benchmark
+    public int[] load() {
+        QuestionManager.setBank(file);
+        int[] ids = QuestionManager.getCategoryIds();
+        for (int id : ids) {
+            QuestionManager.getQuestionCount(id, 0);
+        }
+        return ids;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public QuestionData getQuestion() {
+        int slot = next++ & 0xffff;
+        return QuestionManager.getQuestion(categories[slot / TIERS % categories.length], slot % TIERS);
+    }
+}
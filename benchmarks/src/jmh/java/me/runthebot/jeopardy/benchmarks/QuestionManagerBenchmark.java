@@ -0,0 +1,174 @@
+package me.runthebot.jeopardy.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.data.QuestionData;
+import me.runthebot.jeopardy.data.QuestionManager;
+import me.runthebot.jeopardy.data.QuestionStore;
+import me.runthebot.jeopardy.model.GameEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Drawing a question for a board slot, by category ID and by display name, from
+ * banks of different sizes. Every category is loaded before measuring, so only the
+ * lookups are timed, not reading the pack.
+ *
+ * {@link #getQuestion} goes through QuestionManager to the pack, which decodes the
+ * clue it returns. The store and map benchmarks hold the same clues already
+ * decoded, in a {@link QuestionStore} and in the nested
+ * Map&lt;CategoryType, Map&lt;Integer, List&lt;QuestionData&gt;&gt;&gt; the manager used
+ * before it, looked up the way it was (containsKey then get, with the value boxed),
+ * so they compare the two layouts alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuestionManagerBenchmark {
+    private static final int CATEGORIES = 50;
+    private static final int TIERS = GameConfig.QUESTIONS_PER_CATEGORY;
+
+    @Param({"1000", "10000", "100000"})
+    public int clues;
+
+    private int[] categories;
+    private String[] names;
+    private int next;
+
+    private QuestionStore store;
+    private LegacyCategory[] legacyCategories;
+    private Map<LegacyCategory, Map<Integer, List<QuestionData>>> questions;
+    // The map path drew with one shared Random, and so does the store here
+    private final Random random = new Random();
+
+    /**
+     * Stands in for the CategoryType enum the map was keyed by, which hashed and
+     * compared by identity
+     */
+    static final class LegacyCategory {
+        final String displayName;
+
+        LegacyCategory(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        QuestionManager.setBank(new FileHandle(SyntheticBank.writePack(clues, CATEGORIES)));
+        categories = QuestionManager.getCategoryIds();
+        names = new String[categories.length];
+        for (int i = 0; i < categories.length; i++) {
+            QuestionManager.getQuestionCount(categories[i], 0);
+            names[i] = SyntheticBank.categoryName(i);
+        }
+
+        legacyCategories = new LegacyCategory[CATEGORIES];
+        for (int i = 0; i < CATEGORIES; i++) {
+            legacyCategories[i] = new LegacyCategory(names[i]);
+        }
+        questions = new HashMap<>();
+        final Array<Array<QuestionData>> slots = new Array<>(CATEGORIES * TIERS);
+        for (int i = 0; i < CATEGORIES * TIERS; i++) {
+            slots.add(new Array<>(QuestionData.class));
+        }
+        SyntheticBank.generate(clues, CATEGORIES, new SyntheticBank.Clues() {
+            @Override
+            public void add(int category, int value, String question, String answer, String[] choices) {
+                QuestionData data = new QuestionData(categories[category], value, question, answer, choices);
+                slots.get(category * TIERS + QuestionStore.tierOf(value)).add(data);
+                addToMap(legacyCategories[category], value, data);
+            }
+        });
+
+        store = new QuestionStore(categories.length, TIERS);
+        for (int category = 0; category < CATEGORIES; category++) {
+            QuestionData[][] tiers = new QuestionData[TIERS][];
+            for (int tier = 0; tier < TIERS; tier++) {
+                tiers[tier] = slots.get(category * TIERS + tier).toArray();
+            }
+            store = store.withCategory(category, tiers);
+        }
+    }
+
+    // As QuestionManager.addQuestion did before the store
+    private void addToMap(LegacyCategory category, int value, QuestionData question) {
+        if (!questions.containsKey(category)) {
+            questions.put(category, new HashMap<Integer, List<QuestionData>>());
+        }
+        Map<Integer, List<QuestionData>> categoryQuestions = questions.get(category);
+        if (!categoryQuestions.containsKey(value)) {
+            categoryQuestions.put(value, new ArrayList<QuestionData>());
+        }
+        categoryQuestions.get(value).add(question);
+    }
+
+    @Benchmark
+    public QuestionData getQuestion() {
+        int slot = next++ & 0xffff;
+        return QuestionManager.getQuestion(categories[slot / TIERS % categories.length], slot % TIERS);
+    }
+
+    @Benchmark
+    public QuestionData getQuestionByName() {
+        int slot = next++ & 0xffff;
+        return QuestionManager.getQuestionByName(names[slot / TIERS % names.length], GameEngine.valueOf(slot % TIERS));
+    }
+
+    @Benchmark
+    public QuestionData getQuestionFromStore() {
+        int slot = next++ & 0xffff;
+        int category = slot / TIERS % CATEGORIES;
+        int tier = slot % TIERS;
+        return store.get(category, tier, random.nextInt(store.size(category, tier)));
+    }
+
+    @Benchmark
+    public QuestionData getQuestionFromMap() {
+        int slot = next++ & 0xffff;
+        return getFromMap(legacyCategories[slot / TIERS % CATEGORIES], GameEngine.valueOf(slot % TIERS));
+    }
+
+    @Benchmark
+    public QuestionData getQuestionByNameFromMap() {
+        int slot = next++ & 0xffff;
+        String name = names[slot / TIERS % names.length];
+        // CategoryType.fromDisplayName walked the constants
+        LegacyCategory category = null;
+        for (LegacyCategory candidate : legacyCategories) {
+            if (candidate.displayName.equalsIgnoreCase(name)) {
+                category = candidate;
+                break;
+            }
+        }
+        return getFromMap(category, GameEngine.valueOf(slot % TIERS));
+    }
+
+    // As QuestionManager.getQuestion did before the store
+    private QuestionData getFromMap(LegacyCategory category, int value) {
+        if (questions.containsKey(category)) {
+            Map<Integer, List<QuestionData>> categoryQuestions = questions.get(category);
+            if (categoryQuestions.containsKey(value)) {
+                List<QuestionData> questionList = categoryQuestions.get(value);
+                if (!questionList.isEmpty()) {
+                    return questionList.get(random.nextInt(questionList.size()));
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package me.runthebot.jeopardy.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.data.QuestionData;
+import me.runthebot.jeopardy.data.QuestionManager;
+import me.runthebot.jeopardy.jvm.ThreadRandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Drawing questions from many threads at once, alone and while another thread
+ * keeps reloading categories from disk the way the bank watcher does.
+ *
+ * The draw benchmarks run at 1, 4 and as many threads as there are cores; a lock
+ * or a shared random source on the draw path shows up as time per draw growing
+ * with the thread count. Draws use {@link ThreadRandomSource}, as the server's
+ * do. Every draw checks it got a question of the category it asked for, so a
+ * reload that publishes a broken snapshot fails the run rather than skewing it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuestionManagerContentionBenchmark {
+    private static final int CATEGORIES = 50;
+    private static final int CLUES = 10_000;
+    private static final int TIERS = GameConfig.QUESTIONS_PER_CATEGORY;
+
+    @State(Scope.Benchmark)
+    public static class Bank {
+        int[] categories;
+
+        @Setup
+        public void setUp() throws IOException {
+            ThreadRandomSource.install();
+            QuestionManager.setBank(new FileHandle(SyntheticBank.writeJson(CLUES, CATEGORIES)));
+            categories = QuestionManager.getCategoryIds();
+            for (int category : categories) {
+                QuestionManager.getQuestionCount(category, 0);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public QuestionData draw1(Bank bank, Cursor cursor) {
+        return draw(bank, cursor);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public QuestionData draw4(Bank bank, Cursor cursor) {
+        return draw(bank, cursor);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public QuestionData drawMax(Bank bank, Cursor cursor) {
+        return draw(bank, cursor);
+    }
+
+    @Benchmark
+    @Group("reloading")
+    @GroupThreads(3)
+    public QuestionData drawWhileReloading(Bank bank, Cursor cursor) {
+        return draw(bank, cursor);
+    }
+
+    @Benchmark
+    @Group("reloading")
+    @GroupThreads(1)
+    public boolean reload(Bank bank, Cursor cursor) {
+        return QuestionManager.reloadCategory(bank.categories[cursor.next++ % bank.categories.length]);
+    }
+
+    private static QuestionData draw(Bank bank, Cursor cursor) {
+        int slot = cursor.next++ & 0xffff;
+        int category = bank.categories[slot / TIERS % bank.categories.length];
+        QuestionData question = QuestionManager.getQuestion(category, slot % TIERS);
+        if (question == null || question.getCategory() != category) {
+            throw new IllegalStateException("Drew " + question + " for category " + category);
+        }
+        return question;
+    }
+}
@@ -0,0 +1,128 @@
+package me.runthebot.jeopardy.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import me.runthebot.jeopardy.data.QuestionData;
+import me.runthebot.jeopardy.data.QuestionPool;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/**
+ * Heap taken by a large question bank, held the way questions were before the
+ * pool (each with its own String[] of choices), as plain QuestionData, and created
+ * through a {@link QuestionPool}.
+ *
+ * The bank is built the way the JSON loader does, with a fresh String for every
+ * field of every clue. The number to read is the bytesPerClue counter: heap in use
+ * after forcing garbage collection with the bank held, less the heap before it was
+ * built. The time score includes those collections and means nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class QuestionMemoryBenchmark {
+    // Distinct choice strings, e.g. country and element names
+    private static final int VOCABULARY = 2_000;
+    // Distinct choice lists that clues reuse, e.g. the same four planets
+    private static final int CHOICE_SETS = 5_000;
+    private static final int CHOICES_PER_CLUE = 4;
+    private static final long SEED = 42;
+
+    @Param({"strings", "plain", "pooled"})
+    public String representation;
+
+    @Param({"100000"})
+    public int clues;
+
+    /**
+     * JMH adds up event counters over the measured iterations, so each iteration
+     * reports its share and the total comes out as the bytes per clue of one build.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long bytesPerClue;
+    }
+
+    /**
+     * A question as it was held before the pool: every field its own object, and
+     * the choices in an array of their own.
+     */
+    static final class StringQuestion {
+        final int category;
+        final int value;
+        final String question;
+        final String correctAnswer;
+        final String[] choices;
+
+        StringQuestion(int category, int value, String question, String correctAnswer, String[] choices) {
+            this.category = category;
+            this.value = value;
+            this.question = question;
+            this.correctAnswer = correctAnswer;
+            this.choices = choices;
+        }
+    }
+
+    @Benchmark
+    public Object[] build(Footprint footprint, BenchmarkParams params) throws InterruptedException {
+        long base = usedHeap();
+        Object[] bank = build(representation, clues);
+        footprint.bytesPerClue = (usedHeap() - base) / clues / params.getMeasurement().getCount();
+        return bank;
+    }
+
+    /**
+     * Builds the synthetic bank; the same seed gives the same text every way
+     */
+    private static Object[] build(String representation, int clues) {
+        QuestionPool pool = "pooled".equals(representation) ? new QuestionPool() : null;
+        Random random = new Random(SEED);
+        Object[] bank = new Object[clues];
+        for (int i = 0; i < clues; i++) {
+            int category = random.nextInt(1_000);
+            int value = 200 * (1 + random.nextInt(5));
+            // Clue text is mostly unique; answers and choices repeat across the bank
+            String question = fresh("Which of these is clue number " + i + " in category " + category + "?");
+            Random set = new Random(random.nextInt(CHOICE_SETS));
+            String[] choices = new String[CHOICES_PER_CLUE];
+            for (int c = 0; c < choices.length; c++) {
+                choices[c] = fresh("Choice " + set.nextInt(VOCABULARY));
+            }
+            String answer = fresh(choices[random.nextInt(choices.length)]);
+
+            if (pool != null) {
+                bank[i] = pool.create(category, value, question, answer, choices);
+            } else if ("plain".equals(representation)) {
+                bank[i] = new QuestionData(category, value, question, answer, choices);
+            } else {
+                bank[i] = new StringQuestion(category, value, question, answer, choices);
+            }
+        }
+        return bank;
+    }
+
+    // A new String with its own characters, like a parser would return
+    private static String fresh(String value) {
+        return new String(value.toCharArray());
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        // Collection is only a hint; take the lowest reading of a few attempts
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(100);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+}
@@ -0,0 +1,147 @@
+package me.runthebot.jeopardy.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.data.QuestionPackWriter;
+import me.runthebot.jeopardy.model.GameEngine;
+
+/**
+ * Question banks of any size for the benchmarks, written as question packs so they
+ * open the way the game's own bank does, or as a JSON manifest and category files
+ * like the assets. The same size gives the same clues either way.
+ */
+final class SyntheticBank {
+    private static final int CHOICES_PER_CLUE = 4;
+    // Distinct choice strings, so choices repeat across clues like in a real bank
+    private static final int VOCABULARY = 2_000;
+    private static final long SEED = 42;
+
+    private SyntheticBank() {
+    }
+
+    /** Receives each clue of a bank as it is made up. */
+    interface Clues {
+        void add(int category, int value, String question, String answer, String[] choices) throws IOException;
+    }
+
+    /**
+     * @param category a category index
+     * @return the display name the bank gives that category
+     */
+    static String categoryName(int category) {
+        return "Category " + category;
+    }
+
+    /**
+     * Writes a pack to a temporary file, deleted when the JVM exits
+     *
+     * @param clues how many clues, spread evenly over the categories and tiers
+     * @param categories how many categories
+     * @return the pack file
+     * @throws IOException if the file can't be written
+     */
+    static File writePack(int clues, int categories) throws IOException {
+        final QuestionPackWriter writer = new QuestionPackWriter();
+        generate(clues, categories, new Clues() {
+            @Override
+            public void add(int category, int value, String question, String answer, String[] choices) {
+                writer.add(categoryName(category), value, question, answer, choices);
+            }
+        });
+
+        File file = File.createTempFile("benchmark", ".jqp");
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream(file);
+        try {
+            writer.write(out);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+
+    /**
+     * Writes a JSON bank to a temporary directory, deleted when the JVM exits
+     *
+     * @param clues how many clues, spread evenly over the categories and tiers
+     * @param categories how many categories
+     * @return the bank manifest, listing one file per category
+     * @throws IOException if the files can't be written
+     */
+    static File writeJson(int clues, int categories) throws IOException {
+        File dir = File.createTempFile("benchmark", "");
+        if (!dir.delete() || !dir.mkdir()) {
+            throw new IOException("Failed to create " + dir);
+        }
+        dir.deleteOnExit();
+        final StringBuilder[] files = new StringBuilder[categories];
+        generate(clues, categories, new Clues() {
+            @Override
+            public void add(int category, int value, String question, String answer, String[] choices) {
+                StringBuilder file = files[category];
+                if (file == null) {
+                    file = files[category] = new StringBuilder("{\"questions\": [");
+                } else {
+                    file.append(',');
+                }
+                file.append("\n{\"value\": ").append(value).append(", \"question\": \"").append(question)
+                    .append("\", \"answer\": \"").append(answer).append("\", \"choices\": [");
+                for (int c = 0; c < choices.length; c++) {
+                    file.append(c > 0 ? ", \"" : "\"").append(choices[c]).append('"');
+                }
+                file.append("]}");
+            }
+        });
+
+        StringBuilder manifest = new StringBuilder("{\"categories\": [");
+        for (int category = 0; category < categories; category++) {
+            String name = "category" + category + ".json";
+            StringBuilder file = files[category] != null ? files[category] : new StringBuilder("{\"questions\": [");
+            write(new File(dir, name), file.append("\n]}\n"));
+            manifest.append(category > 0 ? ",\n" : "\n").append("{\"name\": \"").append(categoryName(category))
+                .append("\", \"file\": \"").append(name).append("\"}");
+        }
+        File file = new File(dir, "bank.json");
+        write(file, manifest.append("\n]}\n"));
+        return file;
+    }
+
+    /**
+     * Makes up the clues of a bank, the same ones the files are written from
+     *
+     * @param clues how many clues, spread evenly over the categories and tiers
+     * @param categories how many categories
+     * @param out receives every clue, with its category index
+     * @throws IOException if out fails
+     */
+    static void generate(int clues, int categories, Clues out) throws IOException {
+        Random random = new Random(SEED);
+        for (int i = 0; i < clues; i++) {
+            int category = i % categories;
+            int tier = i / categories % GameConfig.QUESTIONS_PER_CATEGORY;
+            String[] choices = new String[CHOICES_PER_CLUE];
+            for (int c = 0; c < choices.length; c++) {
+                choices[c] = "Choice " + random.nextInt(VOCABULARY);
+            }
+            out.add(category, GameEngine.valueOf(tier), "Which of these is clue number " + i + "?",
+                choices[random.nextInt(choices.length)], choices);
+        }
+    }
+
+    private static void write(File file, CharSequence text) throws IOException {
+        file.deleteOnExit();
+        Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8);
+        try {
+            out.append(text);
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -6,4 +6,16 @@ public class GameConfig {
 
     // Dev mode settings
     public static final int QUICK_SCORE_INCREMENT = 1000;
+
+    // Board layout: CATEGORIES_PER_BOARD columns picked from the bank, each with one
+    // question per tier, worth VALUE_STEP * (tier + 1)
+    public static final int CATEGORIES_PER_BOARD = 5;
+    public static final int QUESTIONS_PER_CATEGORY = 5;
+    public static final int VALUE_STEP = 200;
+
+    // Seconds a player has to answer an open clue
+    public static final float ANSWER_TIME = 20f;
+
+    // Seconds players have to buzz in once a clue opens, in games played with buzzers
+    public static final float BUZZ_TIME = 5f;
 }
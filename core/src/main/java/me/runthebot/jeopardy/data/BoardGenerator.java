@@ -0,0 +1,246 @@
+package me.runthebot.jeopardy.data;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncTask;
+import java.util.Arrays;
+import me.runthebot.jeopardy.config.GameConfig;
+
+/**
+ * Picks the categories and every question on a game board up front from a 64-bit seed.
+ *
+ * The same seed and question bank always give the same board, so a saved game,
+ * replay or bug report only needs the seed to bring back its clues. Each call has
+ * its own random source, so boards for many games can be generated at once
+ * without sharing any state.
+ *
+ * Boards can also avoid the clues the players have already been shown (see
+ * {@link SeenClues}). Such a board depends on the histories as well as the seed, so
+ * alongside the questions the generator reports each one's clue ID; a saved game
+ * keeps those IDs and rebuilds its board from them, wherever the clues have moved
+ * to in the bank since.
+ */
+public class BoardGenerator {
+    /**
+     * Receives a generated board, on the rendering thread when generated asynchronously
+     */
+    public interface Callback {
+        /**
+         * @param seed the seed the board was generated from
+         * @param board the questions indexed by [board column][tier]
+         * @param clues each question's clue ID, {@link QuestionData#NO_CLUE} for a
+         *              default question; indexed like the board
+         */
+        void generated(long seed, QuestionData[][] board, int[][] clues);
+    }
+
+    /**
+     * Runs a task when the platform has time to spare, on the rendering thread
+     */
+    public interface IdleScheduler {
+        void schedule(Runnable task);
+    }
+
+    // Background thread used by generateAsync outside the browser
+    private static AsyncExecutor executor;
+    // Used in the browser, where there are no threads; defaults to the next frame
+    private static IdleScheduler idleScheduler;
+
+    private final long seed;
+    private final int[] categories;
+    private final DrawSession session;
+    private final QuestionData[][] board;
+    private final int[][] clues;
+    // Whether clues holds a saved board's clue IDs to rebuild rather than draw
+    private final boolean restoring;
+    private int nextSlot;
+
+    private BoardGenerator(long seed, int[] categories, SeenClues[] history, int[][] savedClues) {
+        this.seed = seed;
+        this.categories = categories;
+        this.session = new DrawSession(new RandomXS128(seed));
+        this.session.setHistory(history);
+        this.board = new QuestionData[categories.length][GameConfig.QUESTIONS_PER_CATEGORY];
+        this.restoring = savedClues != null && savedClues.length == categories.length;
+        this.clues = new int[categories.length][GameConfig.QUESTIONS_PER_CATEGORY];
+        if (restoring) {
+            for (int i = 0; i < categories.length; i++) {
+                int[] column = savedClues[i];
+                System.arraycopy(column, 0, clues[i], 0, Math.min(column.length, clues[i].length));
+            }
+        }
+    }
+
+    /**
+     * Creates a fresh seed for a new game
+     *
+     * @return a random seed
+     */
+    public static long newSeed() {
+        return new RandomXS128().nextLong();
+    }
+
+    /**
+     * Picks the board's categories for a seed from the current bank.
+     * Every category is equally likely; the picks keep the bank's order.
+     *
+     * @param seed the board seed
+     * @return up to {@link GameConfig#CATEGORIES_PER_BOARD} category IDs
+     */
+    public static int[] pickCategories(long seed) {
+        int[] categories = QuestionManager.getCategoryIds();
+        int count = Math.min(categories.length, GameConfig.CATEGORIES_PER_BOARD);
+
+        // Partial shuffle of positions, then restore bank order among the picks
+        RandomXS128 random = new RandomXS128(seed);
+        int[] positions = new int[categories.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(positions.length - i);
+            int tmp = positions[i];
+            positions[i] = positions[j];
+            positions[j] = tmp;
+        }
+        Arrays.sort(positions, 0, count);
+
+        int[] picked = new int[count];
+        for (int i = 0; i < count; i++) {
+            picked[i] = categories[positions[i]];
+        }
+        return picked;
+    }
+
+    /**
+     * Generates the board for a seed on the calling thread
+     *
+     * @param seed the board seed
+     * @param categories the category IDs of the board's columns
+     * @return the questions indexed by [board column][tier]
+     */
+    public static QuestionData[][] generate(long seed, int[] categories) {
+        BoardGenerator generator = new BoardGenerator(seed, categories, null, null);
+        generator.run();
+        return generator.board;
+    }
+
+    /**
+     * Generates the board for a seed on the calling thread, or rebuilds a saved one,
+     * along with each question's clue ID
+     *
+     * @param seed the board seed
+     * @param categories the category IDs of the board's columns
+     * @param savedClues the clue IDs of a saved board to rebuild, or null to draw the board
+     * @param callback receives the finished board before this returns
+     */
+    public static void generate(long seed, int[] categories, int[][] savedClues, Callback callback) {
+        BoardGenerator generator = new BoardGenerator(seed, categories, null, savedClues);
+        generator.run();
+        callback.generated(seed, generator.board, generator.clues);
+    }
+
+    /**
+     * Generates the board for a seed without blocking the rendering thread.
+     * Desktop and server build it on a background thread; the browser builds it a
+     * question at a time through the idle scheduler. Either way the callback runs
+     * on the rendering thread.
+     *
+     * @param seed the board seed
+     * @param categories the category IDs of the board's columns
+     * @param history the histories of the players, whose seen clues are avoided; may be null
+     * @param savedClues the clue IDs of a saved board to rebuild, or null to draw the board
+     * @param callback receives the finished board
+     */
+    public static void generateAsync(final long seed, final int[] categories, SeenClues[] history,
+                                     int[][] savedClues, final Callback callback) {
+        final BoardGenerator generator = new BoardGenerator(seed, categories, history, savedClues);
+        if (Gdx.app.getType() == Application.ApplicationType.WebGL) {
+            generator.scheduleStep(callback);
+            return;
+        }
+
+        if (executor == null) {
+            executor = new AsyncExecutor(1, "BoardGenerator");
+        }
+        executor.submit(new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                generator.run();
+                Gdx.app.postRunnable(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.generated(seed, generator.board, generator.clues);
+                    }
+                });
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Sets how the browser schedules board generation, e.g. with requestIdleCallback
+     *
+     * @param scheduler the scheduler, or null to spread the work over frames
+     */
+    public static void setIdleScheduler(IdleScheduler scheduler) {
+        idleScheduler = scheduler;
+    }
+
+    private void scheduleStep(final Callback callback) {
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                if (step()) {
+                    scheduleStep(callback);
+                } else {
+                    callback.generated(seed, board, clues);
+                }
+            }
+        };
+
+        if (idleScheduler != null) {
+            idleScheduler.schedule(task);
+        } else {
+            Gdx.app.postRunnable(task);
+        }
+    }
+
+    private void run() {
+        while (step()) {
+            // Each step fills one slot
+        }
+    }
+
+    /**
+     * Picks the question for the next slot
+     *
+     * @return true if there are slots left to fill
+     */
+    private boolean step() {
+        if (board.length == 0) {
+            // An empty bank gives an empty board
+            return false;
+        }
+        int column = nextSlot / GameConfig.QUESTIONS_PER_CATEGORY;
+        int tier = nextSlot % GameConfig.QUESTIONS_PER_CATEGORY;
+        int category = categories[column];
+        // Count and fetch from one snapshot so a bank swap can't invalidate the index
+        QuestionBank bank = QuestionManager.snapshot(category);
+        int index = -1;
+        if (restoring && clues[column][tier] != QuestionData.NO_CLUE) {
+            index = bank.indexOf(category, tier, clues[column][tier]);
+        }
+        if (index < 0) {
+            // Drawing, or the saved clue is gone from the bank
+            index = session.drawIndex(bank, category, tier);
+        }
+        clues[column][tier] = index >= 0 ? bank.getId(category, tier, index) : QuestionData.NO_CLUE;
+        board[column][tier] = index >= 0 ? bank.get(category, tier, index)
+            : QuestionManager.defaultQuestion(QuestionStore.valueOf(tier));
+        nextSlot++;
+        return nextSlot < board.length * GameConfig.QUESTIONS_PER_CATEGORY;
+    }
+}
@@ -0,0 +1,184 @@
+package me.runthebot.jeopardy.data;
+
+import java.util.Arrays;
+
+/**
+ * Compressed set of clue IDs, split into one container per top byte.
+ *
+ * Works like a roaring bitmap: the top 8 bits of a member pick its container and
+ * the low 24 bits are stored in it, and the keys that have members are kept sorted
+ * with one container each. A container holds its values as a sorted array while it
+ * is small, and switches to a plain bit map of all 2^24 values once the array would
+ * take more room than the map. Clue IDs are hashes and spread evenly over the keys,
+ * so a history costs 4 bytes a clue plus at most 256 containers, and an insert only
+ * shifts the values of one container.
+ *
+ * Lookups binary search the keys and then the container, and never allocate.
+ * Not thread-safe.
+ */
+final class ClueBitmap {
+    static final int VALUE_BITS = 24;
+    static final int VALUE_MASK = (1 << VALUE_BITS) - 1;
+    static final int BITMAP_WORDS = (1 << VALUE_BITS) / 64;
+    // Largest array container; past this a bit map takes less room
+    static final int ARRAY_LIMIT = BITMAP_WORDS * 2;
+
+    private int[] keys = new int[4];
+    private Container[] containers = new Container[4];
+    private int size;
+    private int cardinality;
+
+    /**
+     * @param member the clue ID
+     * @return true if the member is in the set
+     */
+    boolean contains(int member) {
+        int index = Arrays.binarySearch(keys, 0, size, member >>> VALUE_BITS);
+        return index >= 0 && containers[index].contains(member & VALUE_MASK);
+    }
+
+    /**
+     * Adds a member
+     *
+     * @param member the clue ID
+     * @return true if the member was not already in the set
+     */
+    boolean add(int member) {
+        if (container(member >>> VALUE_BITS).add(member & VALUE_MASK)) {
+            cardinality++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return the number of members in the set
+     */
+    int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * @return the number of keys with at least one member
+     */
+    int keyCount() {
+        return size;
+    }
+
+    /**
+     * @param index which key, in key order, less than {@link #keyCount()}
+     * @return the key, the top 8 bits of its members
+     */
+    int keyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @param index which key, in key order, less than {@link #keyCount()}
+     * @return the members under that key
+     */
+    Container containerAt(int index) {
+        return containers[index];
+    }
+
+    /**
+     * Adds an empty container for a key, or returns the existing one
+     *
+     * @param key the top 8 bits of the container's members
+     * @return the container for the key
+     */
+    Container container(int key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            index = -index - 1;
+            insert(index, key);
+        }
+        return containers[index];
+    }
+
+    /**
+     * Recounts the members after containers were filled directly
+     */
+    void recount() {
+        cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality;
+        }
+    }
+
+    private void insert(int index, int key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = new Container();
+        size++;
+    }
+
+    /**
+     * The low 24 bits of the members under one key: a sorted array, or a bit map once it gets large
+     */
+    static final class Container {
+        // Sorted values while small; null once the container is a bit map
+        int[] array = new int[4];
+        // One bit per value once the array grows past ARRAY_LIMIT
+        long[] bits;
+        int cardinality;
+
+        boolean contains(int value) {
+            if (bits != null) {
+                return (bits[value >>> 6] & (1L << value)) != 0;
+            }
+            return Arrays.binarySearch(array, 0, cardinality, value) >= 0;
+        }
+
+        boolean add(int value) {
+            if (bits != null) {
+                long mask = 1L << value;
+                long word = bits[value >>> 6];
+                if ((word & mask) != 0) {
+                    return false;
+                }
+                bits[value >>> 6] = word | mask;
+                cardinality++;
+                return true;
+            }
+
+            int index = Arrays.binarySearch(array, 0, cardinality, value);
+            if (index >= 0) {
+                return false;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                toBitmap();
+                return add(value);
+            }
+            index = -index - 1;
+            if (cardinality == array.length) {
+                array = Arrays.copyOf(array, Math.min(ARRAY_LIMIT, cardinality * 2));
+            }
+            System.arraycopy(array, index, array, index + 1, cardinality - index);
+            array[index] = value;
+            cardinality++;
+            return true;
+        }
+
+        /**
+         * @return true if the container is a bit map rather than an array
+         */
+        boolean isBitmap() {
+            return bits != null;
+        }
+
+        void toBitmap() {
+            bits = new long[BITMAP_WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                int value = array[i];
+                bits[value >>> 6] |= 1L << value;
+            }
+            array = null;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package me.runthebot.jeopardy.data;
+
+import java.util.Random;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.model.CategoryRegistry;
+
+/**
+ * Draws questions for one game without repeats.
+ *
+ * Each category/value slot gets a shuffled bag of question indexes and a cursor.
+ * A draw takes the index under the cursor and advances it, so every question in
+ * a slot comes up once before any repeats. When a bag runs out it is reshuffled
+ * in place. Bags are created the first time a slot is drawn from; after that a
+ * draw allocates nothing. Slots are indexed by category ID and grow as new
+ * categories are drawn from.
+ *
+ * Given the histories of the players at the table, a draw prefers clues none of
+ * them has been shown: it takes the first such question left in the bag, and only
+ * falls back to a seen one when the rest of the bag has been seen. Seen questions
+ * passed over on the way are moved behind the unchecked part of the bag, so each
+ * question is checked at most once per pass through the bag and a whole pass costs
+ * one check per question, however much of the slot the players have seen.
+ *
+ * A new game should use a new session (or call {@link #reset()}).
+ */
+public class DrawSession {
+    private final Random random;
+    private final int tierCount = GameConfig.QUESTIONS_PER_CATEGORY;
+    // Shuffled question indexes per slot, null until the slot is first drawn from
+    private int[][] bags;
+    // Position of the next draw in each bag
+    private int[] cursors;
+    // End of the part of each bag not yet checked against the history; seen questions follow it
+    private int[] unchecked;
+    // Histories of the players the questions are for, or null to ignore history
+    private SeenClues[] history;
+
+    /**
+     * Creates a session with its own random source
+     */
+    public DrawSession() {
+        this(new Random());
+    }
+
+    /**
+     * Creates a session that shuffles with the given random source
+     *
+     * @param random the random source used to shuffle the bags
+     */
+    public DrawSession(Random random) {
+        this.random = random;
+        int slotCount = Math.max(1, CategoryRegistry.size()) * tierCount;
+        this.bags = new int[slotCount][];
+        this.cursors = new int[slotCount];
+        this.unchecked = new int[slotCount];
+    }
+
+    /**
+     * Sets whose history draws avoid
+     *
+     * @param history the players' histories, or null to draw without history
+     */
+    public void setHistory(SeenClues[] history) {
+        this.history = history;
+    }
+
+    /**
+     * Draws the next question for a category and value
+     *
+     * @param category the category ID of the question
+     * @param value the dollar value of the question
+     * @return the next question from the slot's bag, or a default question if the bank has none
+     */
+    public QuestionData draw(int category, int value) {
+        int tier = QuestionStore.tierOf(value);
+        if (category >= 0 && tier >= 0) {
+            // Count and fetch from one snapshot so a bank swap can't invalidate the index
+            QuestionBank bank = QuestionManager.snapshot(category);
+            int index = drawIndex(bank, category, tier);
+            if (index >= 0) {
+                return bank.get(category, tier, index);
+            }
+        }
+        return QuestionManager.defaultQuestion(value);
+    }
+
+    /**
+     * Draws the next question index for a slot
+     *
+     * @param category the category ID
+     * @param tier the 0-based value tier
+     * @return an index into the slot's questions, or -1 if the slot is empty
+     */
+    public int drawIndex(int category, int tier) {
+        return drawIndex(QuestionManager.snapshot(category), category, tier);
+    }
+
+    /**
+     * Draws the next question index for a slot of a bank snapshot
+     *
+     * @param bank the snapshot the index is for
+     * @param category the category ID
+     * @param tier the 0-based value tier
+     * @return an index into the slot's questions, or -1 if the slot is empty
+     */
+    int drawIndex(QuestionBank bank, int category, int tier) {
+        int count = bank.size(category, tier);
+        if (count == 0) {
+            return -1;
+        }
+
+        int slot = category * tierCount + tier;
+        if (slot >= bags.length) {
+            grow(slot + 1);
+        }
+        int[] bag = bags[slot];
+        if (bag == null || bag.length != count) {
+            // First draw, or the bank changed size: start a fresh bag
+            bag = new int[count];
+            for (int i = 0; i < count; i++) {
+                bag[i] = i;
+            }
+            shuffle(bag);
+            bags[slot] = bag;
+            cursors[slot] = 0;
+            unchecked[slot] = count;
+        } else if (cursors[slot] == count) {
+            int last = bag[count - 1];
+            shuffle(bag);
+            // Don't let the last question of one pass open the next one
+            if (count > 1 && bag[0] == last) {
+                int swap = 1 + random.nextInt(count - 1);
+                bag[0] = bag[swap];
+                bag[swap] = last;
+            }
+            cursors[slot] = 0;
+            unchecked[slot] = count;
+        }
+
+        int cursor = cursors[slot];
+        if (history != null) {
+            // Move seen questions under the cursor behind the unchecked part until an unseen one is there
+            int end = unchecked[slot];
+            while (cursor < end && seen(bank.getId(category, tier, bag[cursor]))) {
+                end--;
+                int seen = bag[cursor];
+                bag[cursor] = bag[end];
+                bag[end] = seen;
+            }
+            unchecked[slot] = end;
+        }
+        cursors[slot] = cursor + 1;
+        return bag[cursor];
+    }
+
+    private boolean seen(int clue) {
+        for (SeenClues player : history) {
+            if (player.contains(clue)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forgets every draw so far; all questions become available again
+     */
+    public void reset() {
+        for (int i = 0; i < bags.length; i++) {
+            bags[i] = null;
+            cursors[i] = 0;
+            unchecked[i] = 0;
+        }
+    }
+
+    private void grow(int slotCount) {
+        int size = Math.max(slotCount, bags.length * 2);
+        int[][] grownBags = new int[size][];
+        System.arraycopy(bags, 0, grownBags, 0, bags.length);
+        bags = grownBags;
+        int[] grownCursors = new int[size];
+        System.arraycopy(cursors, 0, grownCursors, 0, cursors.length);
+        cursors = grownCursors;
+        int[] grownUnchecked = new int[size];
+        System.arraycopy(unchecked, 0, grownUnchecked, 0, unchecked.length);
+        unchecked = grownUnchecked;
+    }
+
+    private void shuffle(int[] bag) {
+        for (int i = bag.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = bag[i];
+            bag[i] = bag[j];
+            bag[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package me.runthebot.jeopardy.data;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.model.CategoryRegistry;
+
+/**
+ * An immutable snapshot of the question bank.
+ *
+ * Every field is final and the questions a snapshot holds are never modified, so
+ * once {@link QuestionManager} publishes one, any thread can draw from it without
+ * locking. Loading a category or switching banks builds a new snapshot that
+ * shares everything it did not change with the old one. The exceptions are the
+ * {@link QuestionIndex} and {@link QuestionPool}, which every snapshot of an
+ * opened bank shares and which grow as questions are added; each is only
+ * changed and read under its own lock.
+ */
+public final class QuestionBank {
+    // The file this bank was opened from
+    private final FileHandle source;
+    // IDs of the bank's categories, in bank order
+    private final int[] categories;
+    // Questions added directly or streamed in from a JSON bank, indexed by category ID
+    private final QuestionStore store;
+    // Streams JSON categories in, or null for a pack-only bank
+    private final QuestionBankLoader loader;
+    // Category ID -> whether its questions are in the store or pack and indexed (or need no loading)
+    private final boolean[] loaded;
+    // How many of the bank's categories are not loaded yet
+    private final int unloaded;
+    // Compiled pack, read in place; questions are only decoded when returned
+    private final QuestionPack pack;
+    // Category ID -> pack category index, or -1 if the pack lacks the category
+    private final int[] packCategories;
+    // Search index shared by every snapshot of the same opened bank
+    private final QuestionIndex index;
+    // Strings and choices of the questions loaded into this bank, shared like the index
+    // until a category is reloaded, which starts a new one
+    private final QuestionPool pool;
+
+    private QuestionBank(FileHandle source, int[] categories, QuestionStore store, QuestionBankLoader loader, boolean[] loaded,
+                         QuestionPack pack, int[] packCategories, QuestionIndex index, QuestionPool pool) {
+        this.source = source;
+        this.categories = categories;
+        this.store = store;
+        this.loader = loader;
+        this.loaded = loaded;
+        int count = 0;
+        for (int category : categories) {
+            if (!loaded[category]) {
+                count++;
+            }
+        }
+        this.unloaded = count;
+        this.pack = pack;
+        this.packCategories = packCategories;
+        this.index = index;
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a bank whose categories are streamed from JSON on first use.
+     * Registers every category the manifest lists.
+     *
+     * @param source the bank manifest
+     * @param loader the loader for the bank manifest
+     * @return a snapshot with no categories loaded yet
+     */
+    static QuestionBank fromLoader(FileHandle source, QuestionBankLoader loader) {
+        Array<String> names = loader.getCategoryNames();
+        IntArray categories = new IntArray(names.size);
+        for (String name : names) {
+            int id = CategoryRegistry.register(name);
+            if (!categories.contains(id)) {
+                categories.add(id);
+            }
+        }
+
+        int slots = slotCount(categories);
+        // Only the bank's own categories have anything to load
+        boolean[] loaded = new boolean[slots];
+        Arrays.fill(loaded, true);
+        for (int i = 0; i < categories.size; i++) {
+            loaded[categories.get(i)] = false;
+        }
+        return new QuestionBank(source, categories.toArray(), emptyStore(slots), loader, loaded, null, noPackCategories(slots), new QuestionIndex(), new QuestionPool());
+    }
+
+    /**
+     * Creates a bank that reads from a compiled pack.
+     * Registers every category in the pack. Nothing needs reading before it is served,
+     * but a category still counts as loaded only once it is indexed.
+     *
+     * @param source the pack file
+     * @param pack the opened pack
+     * @return a snapshot serving every category from the pack, none of them indexed yet
+     */
+    static QuestionBank fromPack(FileHandle source, QuestionPack pack) {
+        IntArray categories = new IntArray(pack.getCategoryCount());
+        for (int i = 0; i < pack.getCategoryCount(); i++) {
+            categories.add(CategoryRegistry.register(pack.getCategoryName(i)));
+        }
+
+        int slots = slotCount(categories);
+        int[] packCategories = noPackCategories(slots);
+        for (int i = 0; i < categories.size; i++) {
+            packCategories[categories.get(i)] = i;
+        }
+
+        boolean[] loaded = new boolean[slots];
+        Arrays.fill(loaded, true);
+        for (int i = 0; i < categories.size; i++) {
+            loaded[categories.get(i)] = false;
+        }
+        return new QuestionBank(source, categories.toArray(), emptyStore(slots), null, loaded, pack, packCategories, new QuestionIndex(), new QuestionPool());
+    }
+
+    private static int slotCount(IntArray categories) {
+        int slots = 0;
+        for (int i = 0; i < categories.size; i++) {
+            slots = Math.max(slots, categories.get(i) + 1);
+        }
+        return slots;
+    }
+
+    private static QuestionStore emptyStore(int slots) {
+        return new QuestionStore(slots, GameConfig.QUESTIONS_PER_CATEGORY);
+    }
+
+    private static int[] noPackCategories(int slots) {
+        int[] packCategories = new int[slots];
+        Arrays.fill(packCategories, -1);
+        return packCategories;
+    }
+
+    /**
+     * @return the IDs of the bank's categories in bank order; must not be modified
+     */
+    int[] getCategories() {
+        return categories;
+    }
+
+    /**
+     * @param category the category ID
+     * @return true if the category's questions are available and indexed without loading
+     */
+    public boolean isLoaded(int category) {
+        return category >= loaded.length || loaded[category];
+    }
+
+    /**
+     * @return true if every category of the bank is loaded
+     */
+    public boolean isFullyLoaded() {
+        return unloaded == 0;
+    }
+
+    /**
+     * @return the file this bank was opened from
+     */
+    public FileHandle getSource() {
+        return source;
+    }
+
+    /**
+     * @return the search index of the bank this snapshot belongs to
+     */
+    QuestionIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the pool that questions loaded into this bank should be created through
+     */
+    QuestionPool getPool() {
+        return pool;
+    }
+
+    /**
+     * @return the loader that streams this bank's categories, or null for a pack
+     */
+    QuestionBankLoader getLoader() {
+        return loader;
+    }
+
+    /**
+     * Returns a snapshot with a category's loaded questions added and marked as loaded
+     *
+     * @param category the category ID
+     * @param tiers the loaded questions, indexed by tier; empty for a category served from the pack
+     * @return the new snapshot
+     */
+    QuestionBank withCategory(int category, QuestionData[][] tiers) {
+        boolean[] nextLoaded = loaded.clone();
+        nextLoaded[category] = true;
+        return new QuestionBank(source, categories, store.withCategory(category, tiers), loader, nextLoaded, pack, packCategories, index, pool);
+    }
+
+    /**
+     * Returns a snapshot where a category holds exactly the given questions, e.g. after
+     * its file was edited. Questions loaded from then on go through the reloaded
+     * category's pool, so the old pool is dropped once nothing uses its strings.
+     *
+     * @param category the category ID
+     * @param tiers the reloaded questions, indexed by tier
+     * @param pool the new pool the reloaded questions were created through
+     * @return the new snapshot
+     */
+    QuestionBank withCategoryReplaced(int category, QuestionData[][] tiers, QuestionPool pool) {
+        boolean[] nextLoaded = loaded.clone();
+        nextLoaded[category] = true;
+        return new QuestionBank(source, categories, store.withCategoryReplaced(category, tiers), loader, nextLoaded, pack, packCategories, index, pool);
+    }
+
+    /**
+     * Returns a snapshot with one more question
+     *
+     * @param category the category ID
+     * @param tier the value tier
+     * @param question the question to add
+     * @return the new snapshot
+     */
+    QuestionBank withQuestion(int category, int tier, QuestionData question) {
+        if (category < loaded.length) {
+            int[] nextCategories = categories;
+            if (!contains(categories, category)) {
+                nextCategories = append(categories, category);
+            }
+            return new QuestionBank(source, nextCategories, store.with(category, tier, question), loader, loaded, pack, packCategories, index, pool);
+        }
+
+        // A category registered after this bank was opened: make room for it
+        int slots = category + 1;
+        boolean[] nextLoaded = Arrays.copyOf(loaded, slots);
+        Arrays.fill(nextLoaded, loaded.length, slots, true);
+        int[] nextPackCategories = Arrays.copyOf(packCategories, slots);
+        Arrays.fill(nextPackCategories, packCategories.length, slots, -1);
+        return new QuestionBank(source, append(categories, category), store.withCategoryCount(slots).with(category, tier, question),
+            loader, nextLoaded, pack, nextPackCategories, index, pool);
+    }
+
+    private static boolean contains(int[] categories, int category) {
+        for (int id : categories) {
+            if (id == category) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] append(int[] categories, int category) {
+        int[] grown = Arrays.copyOf(categories, categories.length + 1);
+        grown[categories.length] = category;
+        return grown;
+    }
+
+    /**
+     * @param category the category ID
+     * @param tier the 0-based value tier
+     * @return the number of questions for the category and tier
+     */
+    public int size(int category, int tier) {
+        if (category >= loaded.length) {
+            return 0;
+        }
+        int count = store.size(category, tier);
+        if (pack != null && packCategories[category] >= 0) {
+            count += pack.size(packCategories[category], tier);
+        }
+        return count;
+    }
+
+    /**
+     * Gets a question by position, covering the pack first and then added questions,
+     * so adding a question never moves the ones already there
+     *
+     * @param category the category ID
+     * @param tier the 0-based value tier
+     * @param index the position, less than {@link #size(int, int)}
+     * @return the question at that position
+     */
+    public QuestionData get(int category, int tier, int index) {
+        int packed = pack != null && packCategories[category] >= 0 ? pack.size(packCategories[category], tier) : 0;
+        if (index < packed) {
+            return pack.get(packCategories[category], tier, index, category);
+        }
+        return store.get(category, tier, index - packed);
+    }
+
+    /**
+     * Gets the clue ID of a question by position, without decoding a packed question
+     *
+     * @param category the category ID
+     * @param tier the 0-based value tier
+     * @param index the position, less than {@link #size(int, int)}
+     * @return the clue ID, see {@link QuestionData#getId()}
+     */
+    public int getId(int category, int tier, int index) {
+        int packed = pack != null && packCategories[category] >= 0 ? pack.size(packCategories[category], tier) : 0;
+        if (index < packed) {
+            return pack.getId(packCategories[category], tier, index);
+        }
+        return store.get(category, tier, index - packed).getId();
+    }
+
+    /**
+     * Finds a clue by ID, walking the tier
+     *
+     * @param category the category ID
+     * @param tier the 0-based value tier
+     * @param id the clue ID
+     * @return the clue's position, or -1 if the tier doesn't hold it
+     */
+    public int indexOf(int category, int tier, int id) {
+        int count = size(category, tier);
+        for (int i = 0; i < count; i++) {
+            if (getId(category, tier, i) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,247 @@
+package me.runthebot.jeopardy.data;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.SerializationException;
+
+/**
+ * Streams question banks from asset files.
+ *
+ * A bank is a small manifest listing each category and the file holding its
+ * questions. Both are read through {@link JsonReader}'s parse callbacks rather
+ * than its JsonValue tree, so only the question currently being read is kept in
+ * memory and a category file is only opened the first time it is asked for.
+ *
+ * Works on every backend, including GWT, since it only relies on FileHandle.
+ */
+public class QuestionBankLoader {
+    /**
+     * Receives questions one at a time as they are parsed
+     */
+    public interface Listener {
+        /**
+         * @param value the dollar value of the question
+         * @param question the question text
+         * @param answer the correct answer
+         * @param choices the available choices
+         */
+        void question(int value, String question, String answer, String[] choices);
+    }
+
+    private final FileHandle manifest;
+    // Category display name (lower case) -> category file, filled on first use
+    private ObjectMap<String, FileHandle> categoryFiles;
+    // Category display names in manifest order
+    private final Array<String> categoryNames = new Array<>();
+
+    /**
+     * Creates a loader for the bank described by the given manifest
+     *
+     * @param manifest the bank manifest file, e.g. jeopardy.json
+     */
+    public QuestionBankLoader(FileHandle manifest) {
+        this.manifest = manifest;
+    }
+
+    /**
+     * Streams every question of a category to the listener
+     *
+     * @param categoryName the display name of the category
+     * @param listener receives each question as it is read
+     * @return false if the manifest does not list the category
+     */
+    public boolean loadCategory(String categoryName, Listener listener) {
+        FileHandle file = getCategoryFiles().get(categoryName.toLowerCase());
+        if (file == null) {
+            return false;
+        }
+
+        CategoryReader reader = new CategoryReader(listener);
+        reader.parse(file);
+        if (!reader.closed) {
+            // The parse callbacks skip JsonReader's own bracket matching
+            throw new SerializationException("Category file ends early: " + file);
+        }
+        return true;
+    }
+
+    /**
+     * @param categoryName the display name of the category
+     * @return the file holding the category's questions, or null if the manifest does not list it
+     */
+    public FileHandle getCategoryFile(String categoryName) {
+        return getCategoryFiles().get(categoryName.toLowerCase());
+    }
+
+    /**
+     * @return the display names of every category in the manifest, in manifest order
+     */
+    public Array<String> getCategoryNames() {
+        getCategoryFiles();
+        return categoryNames;
+    }
+
+    // Synchronized so categories loading on several threads parse the manifest once
+    private synchronized ObjectMap<String, FileHandle> getCategoryFiles() {
+        if (categoryFiles == null) {
+            categoryFiles = new ObjectMap<>();
+            ManifestReader reader = new ManifestReader();
+            try {
+                reader.parse(manifest);
+                if (!reader.closed) {
+                    throw new SerializationException("Manifest ends early: " + manifest);
+                }
+            } catch (RuntimeException e) {
+                // Parse again next time rather than keep a partial list
+                categoryFiles = null;
+                categoryNames.clear();
+                throw e;
+            }
+        }
+        return categoryFiles;
+    }
+
+    /**
+     * Reads the {"categories": [{"name": ..., "file": ...}]} entries of a manifest
+     */
+    private class ManifestReader extends JsonReader {
+        private int depth;
+        // Set once the root object is closed
+        private boolean closed;
+        private String name;
+        private String file;
+
+        @Override
+        protected void startObject(String name) {
+            depth++;
+            if (depth == 3) {
+                this.name = null;
+                this.file = null;
+            }
+        }
+
+        @Override
+        protected void startArray(String name) {
+            depth++;
+        }
+
+        @Override
+        protected void pop() {
+            if (depth == 3 && name != null && file != null) {
+                categoryFiles.put(name.toLowerCase(), manifest.parent().child(file));
+                categoryNames.add(name);
+            }
+            depth--;
+            closed = depth == 0;
+        }
+
+        @Override
+        protected void string(String name, String value) {
+            if (depth != 3) {
+                return;
+            }
+            if ("name".equals(name)) {
+                this.name = value;
+            } else if ("file".equals(name)) {
+                this.file = value;
+            }
+        }
+
+        @Override
+        protected void number(String name, double value, String stringValue) {
+        }
+
+        @Override
+        protected void number(String name, long value, String stringValue) {
+        }
+
+        @Override
+        protected void bool(String name, boolean value) {
+        }
+    }
+
+    /**
+     * Reads the {"questions": [{"value", "question", "answer", "choices"}]} entries of a category file
+     */
+    private static class CategoryReader extends JsonReader {
+        // Depth of a question object: root object, questions array, question
+        private static final int QUESTION_DEPTH = 3;
+
+        private final Listener listener;
+        private final Array<String> choices = new Array<>();
+        private int depth;
+        // Set once the root object is closed
+        private boolean closed;
+        private boolean inChoices;
+        private int value;
+        private String question;
+        private String answer;
+
+        CategoryReader(Listener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        protected void startObject(String name) {
+            depth++;
+            if (depth == QUESTION_DEPTH) {
+                value = 0;
+                question = null;
+                answer = null;
+                choices.clear();
+            }
+        }
+
+        @Override
+        protected void startArray(String name) {
+            depth++;
+            inChoices = depth == QUESTION_DEPTH + 1 && "choices".equals(name);
+        }
+
+        @Override
+        protected void pop() {
+            if (inChoices) {
+                inChoices = false;
+            } else if (depth == QUESTION_DEPTH && question != null && answer != null) {
+                String[] questionChoices = new String[choices.size];
+                for (int i = 0; i < choices.size; i++) {
+                    questionChoices[i] = choices.get(i);
+                }
+                listener.question(value, question, answer, questionChoices);
+            }
+            depth--;
+            closed = depth == 0;
+        }
+
+        @Override
+        protected void string(String name, String value) {
+            if (inChoices) {
+                choices.add(value);
+            } else if (depth == QUESTION_DEPTH) {
+                if ("question".equals(name)) {
+                    question = value;
+                } else if ("answer".equals(name)) {
+                    answer = value;
+                }
+            }
+        }
+
+        @Override
+        protected void number(String name, double value, String stringValue) {
+            number(name, (long) value, stringValue);
+        }
+
+        @Override
+        protected void number(String name, long value, String stringValue) {
+            if (depth == QUESTION_DEPTH && "value".equals(name)) {
+                this.value = (int) value;
+            }
+        }
+
+        @Override
+        protected void bool(String name, boolean value) {
+        }
+    }
+}
@@ -1,41 +1,126 @@
 package me.runthebot.jeopardy.data;
 
-import me.runthebot.jeopardy.model.CategoryType;
+import me.runthebot.jeopardy.model.CategoryRegistry;
 
 /**
  * Represents a single question in the Jeopardy game
  */
 public class QuestionData {
-    private CategoryType category;
+    // Clue ID of a board slot that holds no question from the bank
+    public static final int NO_CLUE = 0;
+
+    private int id;
+    private int category;
     private int value;
     private String question;
     private String correctAnswer;
-    private String[] choices;
+    // Choices are choiceCount entries of choiceTable starting at firstChoice; the
+    // table may be shared with other questions, see QuestionPool
+    private String[] choiceTable;
+    private int firstChoice;
+    private int choiceCount;
 
     /**
      * Creates a new question data object
      *
-     * @param category the category of the question
+     * @param category the category ID of the question, see {@link CategoryRegistry}
      * @param value the dollar value of the question
      * @param question the question text
      * @param correctAnswer the correct answer
      * @param choices the available choices
      */
-    public QuestionData(CategoryType category, int value, String question, String correctAnswer, String[] choices) {
+    public QuestionData(int category, int value, String question, String correctAnswer, String[] choices) {
+        this.id = idOf(question, correctAnswer);
+        this.category = category;
+        this.value = value;
+        this.question = question;
+        this.correctAnswer = correctAnswer;
+        this.choiceTable = choices;
+        this.firstChoice = 0;
+        this.choiceCount = choices.length;
+    }
+
+    /**
+     * Creates a question whose choices are a run of a shared table
+     *
+     * @param id the clue ID, see {@link #idOf(String, String)}
+     * @param category the category ID of the question
+     * @param value the dollar value of the question
+     * @param question the question text
+     * @param correctAnswer the correct answer
+     * @param choiceTable the table holding the choices
+     * @param firstChoice where the question's choices start in the table
+     * @param choiceCount the number of choices
+     */
+    QuestionData(int id, int category, int value, String question, String correctAnswer, String[] choiceTable, int firstChoice,
+                 int choiceCount) {
+        this.id = id;
         this.category = category;
         this.value = value;
         this.question = question;
         this.correctAnswer = correctAnswer;
-        this.choices = choices;
+        this.choiceTable = choiceTable;
+        this.firstChoice = firstChoice;
+        this.choiceCount = choiceCount;
     }
 
     /**
-     * @return the category of the question
+     * Works out the ID of a clue from its text.
+     *
+     * The ID only depends on the question and answer, so it stays the same however
+     * the bank is ordered, compiled or edited around the clue; histories and saved
+     * boards refer to clues by it. Two clues with the same question and answer are
+     * the same clue. Different clues share an ID about once in four billion pairs.
+     *
+     * @param question the question text
+     * @param correctAnswer the correct answer
+     * @return the clue ID, never {@link #NO_CLUE}
      */
-    public CategoryType getCategory() {
+    public static int idOf(String question, String correctAnswer) {
+        // FNV-1a over both strings with a separator, then the MurmurHash3 finalizer
+        int hash = 0x811C9DC5;
+        hash = hashChars(hash, question);
+        hash = (hash ^ 0xFFFF) * 0x01000193;
+        hash = hashChars(hash, correctAnswer);
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash == NO_CLUE ? 1 : hash;
+    }
+
+    private static int hashChars(int hash, String text) {
+        if (text == null) {
+            return hash;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            hash = (hash ^ text.charAt(i)) * 0x01000193;
+        }
+        return hash;
+    }
+
+    /**
+     * @return the clue ID, see {@link #idOf(String, String)}
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * @return the category ID of the question
+     */
+    public int getCategory() {
         return category;
     }
 
+    /**
+     * @return the display name of the question's category
+     */
+    public String getCategoryName() {
+        return CategoryRegistry.getName(category);
+    }
+
     /**
      * @return the dollar value of the question
      */
@@ -58,9 +143,26 @@ public class QuestionData {
     }
 
     /**
-     * @return the available choices
+     * @return a new array holding the available choices
      */
     public String[] getChoices() {
+        String[] choices = new String[choiceCount];
+        System.arraycopy(choiceTable, firstChoice, choices, 0, choiceCount);
         return choices;
     }
+
+    /**
+     * @return the number of available choices
+     */
+    public int getChoiceCount() {
+        return choiceCount;
+    }
+
+    /**
+     * @param index the index of the choice, less than {@link #getChoiceCount()}
+     * @return the choice
+     */
+    public String getChoice(int index) {
+        return choiceTable[firstChoice + index];
+    }
 }
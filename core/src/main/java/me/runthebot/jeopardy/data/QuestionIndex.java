@@ -0,0 +1,376 @@
+package me.runthebot.jeopardy.data;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Bits;
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import java.util.Comparator;
+import me.runthebot.jeopardy.config.GameConfig;
+
+/**
+ * Full-text index over question text, answers and choices.
+ *
+ * Every indexed question gets a document number, and every word maps to a sorted
+ * list of the documents containing it. A query intersects or merges those lists,
+ * so its cost follows the lists it touches rather than the size of the bank.
+ * A document is only the category, tier and position of its question; the
+ * questions themselves stay in the bank, and only those a search returns are
+ * fetched from it.
+ *
+ * Categories are indexed as they load, in the same step that publishes them, and
+ * indexed again when they are reloaded, so a search only reads posting lists.
+ * {@link QuestionManager} keeps one index per opened bank and makes every change
+ * to it, and every search, while holding the index's lock.
+ *
+ * Query syntax, case-insensitive:
+ * - words separated by spaces must all match: academy award
+ * - OR (or |) separates alternatives: oscar OR academy award
+ * - a trailing * matches any word starting with the prefix: astro*
+ */
+public final class QuestionIndex {
+    // Tombstones past this share of all documents trigger a rebuild
+    private static final float MAX_REMOVED_RATIO = 0.5f;
+    private static final Comparator<IntArray> SHORTEST_FIRST = new Comparator<IntArray>() {
+        @Override
+        public int compare(IntArray a, IntArray b) {
+            return Integer.compare(a.size, b.size);
+        }
+    };
+
+    // Word -> sorted document numbers
+    private final ObjectMap<String, IntArray> postings = new ObjectMap<>();
+    // Every word, sorted on demand for prefix lookups
+    private final Array<String> terms = new Array<>();
+    private boolean termsSorted = true;
+    // Document number -> where its question sits in the bank
+    private final IntArray documentCategories = new IntArray();
+    private final IntArray documentTiers = new IntArray();
+    private final IntArray documentIndexes = new IntArray();
+    private final Bits removed = new Bits();
+    private int removedCount;
+    // Category IDs whose questions are indexed
+    private final Bits indexed = new Bits();
+
+    /**
+     * Indexes a category that has just loaded, unless it already is
+     *
+     * @param bank the snapshot that published the category
+     * @param category the category ID
+     */
+    void addCategory(QuestionBank bank, int category) {
+        if (indexed.get(category)) {
+            return;
+        }
+        for (int tier = 0; tier < GameConfig.QUESTIONS_PER_CATEGORY; tier++) {
+            int count = bank.size(category, tier);
+            for (int i = 0; i < count; i++) {
+                add(category, tier, i, bank.get(category, tier, i));
+            }
+        }
+        indexed.set(category);
+    }
+
+    /**
+     * Indexes a question added to a category
+     *
+     * @param category the category ID
+     * @param tier the value tier
+     * @param index the question's position in the snapshot it was added to
+     * @param question the new question
+     */
+    void added(int category, int tier, int index, QuestionData question) {
+        add(category, tier, index, question);
+        indexed.set(category);
+    }
+
+    /**
+     * Indexes a reloaded category in place of what it held before
+     *
+     * @param bank the snapshot that published the reloaded category
+     * @param category the category ID
+     */
+    void replaceCategory(QuestionBank bank, int category) {
+        indexed.clear(category);
+        for (int doc = 0; doc < documentCategories.size; doc++) {
+            if (documentCategories.get(doc) == category && !removed.get(doc)) {
+                removed.set(doc);
+                removedCount++;
+            }
+        }
+
+        if (removedCount > documentCategories.size * MAX_REMOVED_RATIO) {
+            // Mostly tombstones: start over from every category the bank has loaded
+            clear();
+            for (int loaded : bank.getCategories()) {
+                if (bank.isLoaded(loaded)) {
+                    addCategory(bank, loaded);
+                }
+            }
+        }
+        addCategory(bank, category);
+    }
+
+    /**
+     * Forgets everything, before indexing the bank's loaded categories again
+     */
+    private void clear() {
+        postings.clear();
+        terms.clear();
+        termsSorted = true;
+        documentCategories.clear();
+        documentTiers.clear();
+        documentIndexes.clear();
+        removed.clear();
+        removedCount = 0;
+        indexed.clear();
+    }
+
+    private void add(int category, int tier, int index, QuestionData question) {
+        int doc = documentCategories.size;
+        documentCategories.add(category);
+        documentTiers.add(tier);
+        documentIndexes.add(index);
+
+        addText(doc, question.getQuestion());
+        addText(doc, question.getCorrectAnswer());
+        for (int i = 0; i < question.getChoiceCount(); i++) {
+            addText(doc, question.getChoice(i));
+        }
+    }
+
+    private void addText(int doc, String text) {
+        if (text == null) {
+            return;
+        }
+        String lower = text.toLowerCase();
+        int start = -1;
+        for (int i = 0; i <= lower.length(); i++) {
+            boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                addTerm(doc, lower.substring(start, i));
+                start = -1;
+            }
+        }
+    }
+
+    private void addTerm(int doc, String term) {
+        IntArray list = postings.get(term);
+        if (list == null) {
+            list = new IntArray(4);
+            postings.put(term, list);
+            terms.add(term);
+            termsSorted = false;
+        } else if (list.peek() == doc) {
+            // Already listed for this question
+            return;
+        }
+        list.add(doc);
+    }
+
+    /**
+     * Finds the questions matching a query
+     *
+     * @param bank the current snapshot, which the matches are fetched from
+     * @param query the query, see the class documentation for its syntax
+     * @return the matching questions in the order they were indexed
+     */
+    Array<QuestionData> search(QuestionBank bank, String query) {
+        // Posting lists are used directly; indexing only changes them under the same lock as this search
+        IntArray result = null;
+        // Lists of the words that must all match, null for a word nothing contains
+        Array<IntArray> group = new Array<>();
+
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("OR") || word.equals("|")) {
+                result = union(result, intersectAll(group));
+                group.clear();
+                continue;
+            }
+
+            boolean prefix = word.endsWith("*");
+            String lower = (prefix ? word.substring(0, word.length() - 1) : word).toLowerCase();
+            int start = -1;
+            for (int i = 0; i <= lower.length(); i++) {
+                boolean wordChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    // Only the last piece of a word like "u.s*" is a prefix
+                    group.add(prefix && i == lower.length()
+                        ? prefixPostings(lower.substring(start, i))
+                        : postings.get(lower.substring(start, i)));
+                    start = -1;
+                }
+            }
+        }
+        result = union(result, intersectAll(group));
+
+        Array<QuestionData> questions = new Array<>(QuestionData.class);
+        if (result != null) {
+            for (int i = 0; i < result.size; i++) {
+                int doc = result.get(i);
+                if (!removed.get(doc)) {
+                    questions.add(bank.get(documentCategories.get(doc), documentTiers.get(doc), documentIndexes.get(doc)));
+                }
+            }
+        }
+        return questions;
+    }
+
+    /**
+     * Gathers the documents of every word starting with a prefix
+     *
+     * @return sorted, distinct document numbers, or null if no word matches
+     */
+    private IntArray prefixPostings(String prefix) {
+        if (!termsSorted) {
+            terms.sort();
+            termsSorted = true;
+        }
+
+        // First term not less than the prefix
+        int low = 0;
+        int high = terms.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms.get(mid).compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        IntArray matches = null;
+        for (int i = low; i < terms.size && terms.get(i).startsWith(prefix); i++) {
+            IntArray list = postings.get(terms.get(i));
+            if (matches == null) {
+                matches = new IntArray(list.size);
+            }
+            matches.addAll(list);
+        }
+        if (matches == null) {
+            return null;
+        }
+
+        matches.sort();
+        int distinct = 0;
+        for (int i = 0; i < matches.size; i++) {
+            if (distinct == 0 || matches.get(distinct - 1) != matches.get(i)) {
+                matches.set(distinct++, matches.get(i));
+            }
+        }
+        matches.size = distinct;
+        return matches;
+    }
+
+    /**
+     * Intersects the lists of a group, shortest first, so the cost follows the
+     * shortest list rather than the order the words were typed in
+     *
+     * @return the documents in every list, or null if the group is empty or a list is null
+     */
+    private static IntArray intersectAll(Array<IntArray> group) {
+        if (group.size == 0) {
+            return null;
+        }
+        for (IntArray list : group) {
+            if (list == null) {
+                return null;
+            }
+        }
+        group.sort(SHORTEST_FIRST);
+        IntArray result = group.first();
+        for (int i = 1; i < group.size && result.size > 0; i++) {
+            result = intersect(result, group.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Intersects two sorted lists, walking the shorter one and galloping through
+     * the longer one, so the cost follows the shorter list
+     */
+    private static IntArray intersect(IntArray a, IntArray b) {
+        if (a == null || b == null) {
+            return null;
+        }
+        if (a.size > b.size) {
+            IntArray swap = a;
+            a = b;
+            b = swap;
+        }
+
+        IntArray result = new IntArray(a.size);
+        int j = 0;
+        for (int i = 0; i < a.size && j < b.size; i++) {
+            int doc = a.get(i);
+            j = seek(b, j, doc);
+            if (j < b.size && b.get(j) == doc) {
+                result.add(doc);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the first position at or after from holding a value not less than doc
+     */
+    private static int seek(IntArray list, int from, int doc) {
+        int step = 1;
+        int high = from;
+        while (high < list.size && list.get(high) < doc) {
+            from = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        high = Math.min(high, list.size);
+        while (from < high) {
+            int mid = (from + high) >>> 1;
+            if (list.get(mid) < doc) {
+                from = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return from;
+    }
+
+    /**
+     * Merges two sorted lists; either may be null for no matches
+     */
+    private static IntArray union(IntArray a, IntArray b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+
+        IntArray result = new IntArray(a.size + b.size);
+        int i = 0;
+        int j = 0;
+        while (i < a.size && j < b.size) {
+            int x = a.get(i);
+            int y = b.get(j);
+            if (x <= y) {
+                result.add(x);
+                i++;
+                if (x == y) {
+                    j++;
+                }
+            } else {
+                result.add(y);
+                j++;
+            }
+        }
+        while (i < a.size) {
+            result.add(a.get(i++));
+        }
+        while (j < b.size) {
+            result.add(b.get(j++));
+        }
+        return result;
+    }
+}
@@ -1,585 +1,306 @@
 package me.runthebot.jeopardy.data;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
-import me.runthebot.jeopardy.model.CategoryType;
+import java.util.concurrent.atomic.AtomicReference;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.model.CategoryRegistry;
 
 /**
-* Manages the questions for the Jeopardy game
+* Manages the questions for the Jeopardy game.
+*
+* The bank is held as an immutable {@link QuestionBank} snapshot. Readers take the
+* current snapshot and never lock; loading a category, adding a question or
+* switching banks builds a new snapshot and swaps it in atomically, so games that
+* are already running keep the questions they drew. Every change that adds or
+* replaces questions, including loading a category, is published and indexed while
+* holding the search index's lock, so searches see the index and bank agree.
 */
 public class QuestionManager {
-    private static Map<CategoryType, Map<Integer, List<QuestionData>>> questions = new HashMap<>();
-    private static final Random random = new Random();
+    // Banks used when no other bank has been set; the compiled pack wins if present
+    private static final String DEFAULT_PACK = "jeopardy." + QuestionPack.EXTENSION;
+    private static final String DEFAULT_BANK = "jeopardy.json";
+    // Current snapshot, null until a bank is opened
+    private static final AtomicReference<QuestionBank> bank = new AtomicReference<>();
+    private static volatile RandomSource randomSource = new RandomSource() {
+        private final RandomXS128 random = new RandomXS128();
+
+        @Override
+        public Random random() {
+            return random;
+        }
+    };
 
-    static {
-        // Initialize with the default questions
-        initializeDefaultQuestions();
+    /**
+    * Sets where draws get their random numbers, before any thread draws.
+    * The default is one source shared by every thread, which is all the web build needs.
+    *
+    * @param source hands each thread the source it draws with
+    */
+    public static void setRandomSource(RandomSource source) {
+        randomSource = source;
     }
 
     /**
-    * Initializes the default set of questions
+    * Points the manager at a question bank.
+    * Any questions loaded so far are dropped; categories are read again on first use.
+    * The current bank stays in place if the new one cannot be opened.
+    *
+    * @param file a compiled question pack (.jqp) or a bank manifest (.json)
     */
-    private static void initializeDefaultQuestions() {
-        // Science category
-        addQuestion(CategoryType.SCIENCE, 200,
-        "Which planet is known as the Red Planet?",
-        "Mars",
-        new String[]{"Venus", "Mars", "Jupiter", "Saturn"});
-
-        addQuestion(CategoryType.SCIENCE, 200,
-        "What is the chemical symbol for water?",
-        "H2O",
-        new String[]{"CO2", "H2O", "O2", "N2"});
-
-        addQuestion(CategoryType.SCIENCE, 400,
-        "What is the chemical symbol for gold?",
-        "Au",
-        new String[]{"Ag", "Au", "Fe", "Pb"});
-
-        addQuestion(CategoryType.SCIENCE, 400,
-        "What is the hardest natural substance on Earth?",
-        "Diamond",
-        new String[]{"Gold", "Iron", "Diamond", "Platinum"});
-
-        addQuestion(CategoryType.SCIENCE, 600,
-        "What gas do plants primarily use for photosynthesis?",
-        "Carbon Dioxide",
-        new String[]{"Oxygen", "Hydrogen", "Carbon Dioxide", "Nitrogen"});
-
-        addQuestion(CategoryType.SCIENCE, 600,
-        "What is the most abundant gas in Earth's atmosphere?",
-        "Nitrogen",
-        new String[]{"Oxygen", "Carbon Dioxide", "Nitrogen", "Hydrogen"});
-
-        addQuestion(CategoryType.SCIENCE, 800,
-        "What is the powerhouse of the cell?",
-        "Mitochondria",
-        new String[]{"Nucleus", "Mitochondria", "Ribosome", "Endoplasmic Reticulum"});
-
-        addQuestion(CategoryType.SCIENCE, 800,
-        "What is the speed of light in a vacuum?",
-        "299,792,458 meters per second",
-        new String[]{"150,000,000 meters per second", "299,792,458 meters per second", "3,000,000 meters per second", "30,000 meters per second"});
-
-        addQuestion(CategoryType.SCIENCE, 1000,
-        "Which element has the highest melting point?",
-        "Tungsten",
-        new String[]{"Iron", "Tungsten", "Platinum", "Carbon"});
-
-        addQuestion(CategoryType.SCIENCE, 1000,
-        "Who developed the theory of general relativity?",
-        "Albert Einstein",
-        new String[]{"Isaac Newton", "Albert Einstein", "Galileo Galilei", "Stephen Hawking"});
-
-        // History category
-        addQuestion(CategoryType.HISTORY, 200,
-        "Who was the first President of the United States?",
-        "George Washington",
-        new String[]{"Thomas Jefferson", "John Adams", "George Washington", "Abraham Lincoln"});
-
-        addQuestion(CategoryType.HISTORY, 200,
-        "In which year did Columbus reach the Americas?",
-        "1492",
-        new String[]{"1492", "1776", "1620", "1066"});
-
-        addQuestion(CategoryType.HISTORY, 400,
-        "In which year did World War II end?",
-        "1945",
-        new String[]{"1939", "1942", "1945", "1950"});
-
-        addQuestion(CategoryType.HISTORY, 400,
-        "Which empire was ruled by Genghis Khan?",
-        "Mongol Empire",
-        new String[]{"Roman Empire", "Ottoman Empire", "Mongol Empire", "Persian Empire"});
-
-        addQuestion(CategoryType.HISTORY, 600,
-        "Which ancient civilization built the pyramids?",
-        "Egyptians",
-        new String[]{"Romans", "Greeks", "Egyptians", "Mayans"});
-
-        addQuestion(CategoryType.HISTORY, 600,
-        "Who wrote the 'Declaration of Independence'?",
-        "Thomas Jefferson",
-        new String[]{"George Washington", "Thomas Jefferson", "John Adams", "Benjamin Franklin"});
-
-        addQuestion(CategoryType.HISTORY, 800,
-        "What year did the American Civil War begin?",
-        "1861",
-        new String[]{"1776", "1812", "1861", "1901"});
-
-        addQuestion(CategoryType.HISTORY, 800,
-        "Who was the first emperor of China?",
-        "Qin Shi Huang",
-        new String[]{"Wu Zetian", "Qin Shi Huang", "Kublai Khan", "Sun Yat-sen"});
-
-        addQuestion(CategoryType.HISTORY, 1000,
-        "Who was the longest-serving U.S. President?",
-        "Franklin D. Roosevelt",
-        new String[]{"Theodore Roosevelt", "Franklin D. Roosevelt", "Woodrow Wilson", "Harry Truman"});
-
-        addQuestion(CategoryType.HISTORY, 1000,
-        "Which treaty ended World War I?",
-        "Treaty of Versailles",
-        new String[]{"Treaty of Paris", "Treaty of Versailles", "Treaty of Tordesillas", "Treaty of Ghent"});
-
-        // Geography category
-        addQuestion(CategoryType.GEOGRAPHY, 200,
-        "What is the capital of France?",
-        "Paris",
-        new String[]{"London", "Berlin", "Paris", "Rome"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 200,
-        "Which is the largest continent by land area?",
-        "Asia",
-        new String[]{"Africa", "Asia", "North America", "Europe"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 400,
-        "Which is the largest ocean on Earth?",
-        "Pacific Ocean",
-        new String[]{"Atlantic Ocean", "Indian Ocean", "Pacific Ocean", "Arctic Ocean"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 400,
-        "Which country is both in Europe and Asia?",
-        "Russia",
-        new String[]{"Turkey", "Russia", "Egypt", "Greece"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 600,
-        "What is the longest river in the world?",
-        "Nile River",
-        new String[]{"Amazon River", "Yangtze River", "Mississippi River", "Nile River"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 600,
-        "Which U.S. state has the most coastline?",
-        "Alaska",
-        new String[]{"California", "Florida", "Alaska", "Hawaii"});
-
-        // Geography category (600 points)
-        addQuestion(CategoryType.GEOGRAPHY, 600,
-        "What is the longest river in the world?",
-        "Nile River",
-        new String[]{"Amazon River", "Mississippi River", "Nile River", "Yangtze River"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 600,
-        "Which desert is the largest in the world?",
-        "Antarctic Desert",
-        new String[]{"Sahara Desert", "Gobi Desert", "Antarctic Desert", "Kalahari Desert"});
-
-        // Geography category (800 points)
-        addQuestion(CategoryType.GEOGRAPHY, 800,
-        "Which country has the most natural lakes?",
-        "Canada",
-        new String[]{"United States", "Canada", "Russia", "Brazil"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 800,
-        "What is the smallest country in the world by land area?",
-        "Vatican City",
-        new String[]{"Monaco", "San Marino", "Vatican City", "Liechtenstein"});
-
-        // Geography category (1000 points)
-        addQuestion(CategoryType.GEOGRAPHY, 1000,
-        "What is the highest mountain in the world?",
-        "Mount Everest",
-        new String[]{"K2", "Mount Kilimanjaro", "Mount Everest", "Denali"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 1000,
-        "Which city is located on two continents?",
-        "Istanbul",
-        new String[]{"Moscow", "Istanbul", "Cairo", "Tokyo"});
-
-        // Sports category (200 points)
-        addQuestion(CategoryType.SPORTS, 200,
-"Which sport uses the term 'Grand Slam'?",
-"All of the above",
-        new String[]{"Tennis", "Baseball", "Golf", "All of the above"});
-
-        addQuestion(CategoryType.SPORTS, 200,
-"How many players are there in a basketball team on the court?",
-"5",
-        new String[]{"4", "5", "6", "7"});
-
-        // Sports category (400 points)
-        addQuestion(CategoryType.SPORTS, 400,
-"How many players are on a standard soccer team?",
-"11",
-        new String[]{"9", "10", "11", "12"});
-
-        addQuestion(CategoryType.SPORTS, 400,
-"Which country won the 2018 FIFA World Cup?",
-"France",
-        new String[]{"Brazil", "Germany", "France", "Spain"});
-
-        // Sports category (600 points)
-        addQuestion(CategoryType.SPORTS, 600,
-"What is the only country to have played in every FIFA World Cup?",
-"Brazil",
-        new String[]{"Germany", "Argentina", "Brazil", "Italy"});
-
-        addQuestion(CategoryType.SPORTS, 600,
-"Which sport is known as the 'King of Sports'?",
-"Soccer (Football)",
-        new String[]{"Basketball", "Cricket", "Soccer (Football)", "Tennis"});
-
-        // Sports category (800 points)
-        addQuestion(CategoryType.SPORTS, 800,
-"What is the maximum score a player can achieve in a single game of bowling?",
-"300",
-        new String[]{"150", "200", "250", "300"});
-
-        addQuestion(CategoryType.SPORTS, 800,
-"Which athlete has won the most Olympic gold medals?",
-"Michael Phelps",
-        new String[]{"Usain Bolt", "Michael Phelps", "Simone Biles", "Carl Lewis"});
-
-        // Sports category (1000 points)
-        addQuestion(CategoryType.SPORTS, 1000,
-"Which NFL team has won the most Super Bowls as of 2024?",
-"Pittsburgh Steelers & New England Patriots",
-        new String[]{"Dallas Cowboys", "San Francisco 49ers", "Pittsburgh Steelers & New England Patriots", "Green Bay Packers"});
-
-        addQuestion(CategoryType.SPORTS, 1000,
-"What is the length of a marathon in miles?",
-"26.2 miles",
-        new String[]{"13.1 miles", "20 miles", "26.2 miles", "30 miles"});
-
-        // Movies category (200 points)
-        addQuestion(CategoryType.MOVIES, 200,
-"Which actor played Iron Man in the Marvel movies?",
-"Robert Downey Jr.",
-        new String[]{"Chris Evans", "Chris Hemsworth", "Robert Downey Jr.", "Mark Ruffalo"});
-
-        addQuestion(CategoryType.MOVIES, 200,
-"Which movie features a character named Luke Skywalker?",
-"Star Wars",
-        new String[]{"Star Trek", "Star Wars", "Interstellar", "Avatar"});
-
-        // Movies category (400 points)
-        addQuestion(CategoryType.MOVIES, 400,
-"Which film won the Academy Award for Best Picture in 2020?",
-"Parasite",
-        new String[]{"1917", "Joker", "Parasite", "Little Women"});
-
-        addQuestion(CategoryType.MOVIES, 400,
-"Who directed the movie 'Inception'?",
-"Christopher Nolan",
-        new String[]{"Steven Spielberg", "James Cameron", "Christopher Nolan", "Quentin Tarantino"});
-
-        // Movies category (600 points)
-        addQuestion(CategoryType.MOVIES, 600,
-"What is the highest-grossing movie of all time (without adjusting for inflation)?",
-"Avatar",
-        new String[]{"Titanic", "Avengers: Endgame", "Avatar", "Star Wars: The Force Awakens"});
-
-        addQuestion(CategoryType.MOVIES, 600,
-"Which animated movie features a character named Woody?",
-"Toy Story",
-        new String[]{"Shrek", "Finding Nemo", "Toy Story", "Frozen"});
-
-        // Movies category (800 points)
-        addQuestion(CategoryType.MOVIES, 800,
-"Which 1994 movie features the quote 'Life is like a box of chocolates'?",
-"Forrest Gump",
-        new String[]{"The Shawshank Redemption", "Forrest Gump", "Pulp Fiction", "The Green Mile"});
-
-        addQuestion(CategoryType.MOVIES, 800,
-"Who was the first actor to play James Bond in a feature film?",
-"Sean Connery",
-        new String[]{"Roger Moore", "Sean Connery", "Daniel Craig", "Pierce Brosnan"});
-
-        // Movies category (1000 points)
-        addQuestion(CategoryType.MOVIES, 1000,
-"Which film holds the record for the most Academy Award wins?",
-"Titanic, Ben-Hur, and The Lord of the Rings: The Return of the King",
-        new String[]{"Titanic, Ben-Hur, and The Lord of the Rings: The Return of the King", "Gone with the Wind", "Avatar", "The Godfather"});
-
-        addQuestion(CategoryType.MOVIES, 1000,
-"Which director is known for films such as 'Pulp Fiction' and 'Kill Bill'?",
-"Quentin Tarantino",
-        new String[]{"Martin Scorsese", "Quentin Tarantino", "Christopher Nolan", "Francis Ford Coppola"});
-
-        // Additional Science Questions
-        addQuestion(CategoryType.SCIENCE, 200,
-        "What is the largest organ in the human body?",
-        "Skin",
-        new String[]{"Heart", "Liver", "Skin", "Lungs"});
-
-        addQuestion(CategoryType.SCIENCE, 400,
-        "Which element has the chemical symbol 'K'?",
-        "Potassium",
-        new String[]{"Krypton", "Potassium", "Kryptonite", "Kelvin"});
-
-        addQuestion(CategoryType.SCIENCE, 600,
-        "What type of electromagnetic wave has the shortest wavelength?",
-        "Gamma rays",
-        new String[]{"Radio waves", "X-rays", "Gamma rays", "Ultraviolet"});
-
-        addQuestion(CategoryType.SCIENCE, 800,
-        "What is the smallest unit of life that can replicate independently?",
-        "Cell",
-        new String[]{"Atom", "Cell", "Molecule", "Virus"});
-
-        addQuestion(CategoryType.SCIENCE, 1000,
-        "What is the half-life of Carbon-14?",
-        "5,730 years",
-        new String[]{"1,500 years", "5,730 years", "10,000 years", "50,000 years"});
-
-        // Additional History Questions
-        addQuestion(CategoryType.HISTORY, 200,
-        "Which ancient wonder was located in Alexandria, Egypt?",
-        "The Lighthouse of Alexandria",
-        new String[]{"The Hanging Gardens", "The Colossus of Rhodes", "The Lighthouse of Alexandria", "The Great Pyramid"});
-
-        addQuestion(CategoryType.HISTORY, 200,
-        "Who painted the Mona Lisa?",
-        "Leonardo da Vinci",
-        new String[]{"Vincent van Gogh", "Pablo Picasso", "Leonardo da Vinci", "Michelangelo"});
-
-        addQuestion(CategoryType.HISTORY, 400,
-        "What was the name of the ancient trade route that connected the East and West?",
-        "Silk Road",
-        new String[]{"Spice Route", "Silk Road", "Tea Trail", "Gold Path"});
-
-        addQuestion(CategoryType.HISTORY, 400,
-        "Who was the first woman to fly solo across the Atlantic Ocean?",
-        "Amelia Earhart",
-        new String[]{"Bessie Coleman", "Amelia Earhart", "Harriet Quimby", "Jacqueline Cochran"});
-
-        addQuestion(CategoryType.HISTORY, 600,
-        "Which country was formerly known as Persia?",
-        "Iran",
-        new String[]{"Iraq", "Turkey", "Iran", "Saudi Arabia"});
-
-        addQuestion(CategoryType.HISTORY, 600,
-        "What ancient civilization built Machu Picchu?",
-        "Inca",
-        new String[]{"Maya", "Aztec", "Inca", "Olmec"});
-
-        addQuestion(CategoryType.HISTORY, 800,
-        "During which decade did the Cuban Missile Crisis occur?",
-        "1960s",
-        new String[]{"1950s", "1960s", "1970s", "1980s"});
-
-        addQuestion(CategoryType.HISTORY, 800,
-        "Who was the leader of the Soviet Union during most of World War II?",
-        "Joseph Stalin",
-        new String[]{"Vladimir Lenin", "Joseph Stalin", "Nikita Khrushchev", "Leon Trotsky"});
-
-        addQuestion(CategoryType.HISTORY, 1000,
-        "What was the name of the conflict between the United States and Spain in 1898?",
-        "Spanish-American War",
-        new String[]{"Mexican-American War", "Spanish-American War", "Spanish Civil War", "War of 1812"});
-
-        addQuestion(CategoryType.HISTORY, 1000,
-        "Which pharaoh's tomb was discovered nearly intact by Howard Carter in 1922?",
-        "Tutankhamun",
-        new String[]{"Ramses II", "Tutankhamun", "Cleopatra", "Akhenaten"});
-
-        // Additional Geography Questions
-        addQuestion(CategoryType.GEOGRAPHY, 200,
-        "Which is the largest country in South America?",
-        "Brazil",
-        new String[]{"Argentina", "Brazil", "Peru", "Colombia"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 200,
-        "What is the capital city of Australia?",
-        "Canberra",
-        new String[]{"Sydney", "Melbourne", "Perth", "Canberra"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 400,
-        "Which African country was formerly known as Abyssinia?",
-        "Ethiopia",
-        new String[]{"Somalia", "Sudan", "Ethiopia", "Kenya"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 400,
-        "The Strait of Gibraltar connects the Atlantic Ocean to which sea?",
-        "Mediterranean Sea",
-        new String[]{"Baltic Sea", "Red Sea", "Mediterranean Sea", "Black Sea"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 600,
-        "Which mountain range separates Europe from Asia?",
-        "Ural Mountains",
-        new String[]{"Alps", "Himalayas", "Ural Mountains", "Andes"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 600,
-        "Lake Baikal is located in which country?",
-        "Russia",
-        new String[]{"China", "Mongolia", "Russia", "Kazakhstan"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 800,
-        "Which is the only continent through which all lines of longitude pass?",
-        "Antarctica",
-        new String[]{"Africa", "Asia", "Antarctica", "Europe"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 800,
-        "The Great Barrier Reef is located off the coast of which country?",
-        "Australia",
-        new String[]{"Brazil", "Philippines", "Australia", "Japan"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 1000,
-        "Which country owns Greenland?",
-        "Denmark",
-        new String[]{"Iceland", "Denmark", "Canada", "United States"});
-
-        addQuestion(CategoryType.GEOGRAPHY, 1000,
-        "What is the world's oldest active volcano?",
-        "Mount Etna",
-        new String[]{"Mount Vesuvius", "Mount Etna", "Mount Fuji", "Kilauea"});
-
-        // Additional Sports Questions
-        addQuestion(CategoryType.SPORTS, 200,
-        "In which sport would you perform a slam dunk?",
-        "Basketball",
-        new String[]{"Football", "Basketball", "Tennis", "Golf"});
-
-        addQuestion(CategoryType.SPORTS, 200,
-        "How many players are on a baseball team on the field?",
-        "9",
-        new String[]{"7", "8", "9", "11"});
-
-        addQuestion(CategoryType.SPORTS, 400,
-        "In which sport might you use a shuttlecock?",
-        "Badminton",
-        new String[]{"Tennis", "Badminton", "Squash", "Table Tennis"});
-
-        addQuestion(CategoryType.SPORTS, 400,
-        "How many players are there on an ice hockey team (on the ice)?",
-        "6",
-        new String[]{"5", "6", "7", "8"});
-
-        addQuestion(CategoryType.SPORTS, 600,
-        "Which country invented table tennis?",
-        "England",
-        new String[]{"China", "Japan", "England", "USA"});
-
-        addQuestion(CategoryType.SPORTS, 600,
-        "Which golfer has won the most major championships?",
-        "Jack Nicklaus",
-        new String[]{"Tiger Woods", "Jack Nicklaus", "Arnold Palmer", "Phil Mickelson"});
-
-        addQuestion(CategoryType.SPORTS, 800,
-        "In which year were women first allowed to compete in the modern Olympic Games?",
-        "1900",
-        new String[]{"1896", "1900", "1924", "1936"});
+    public static void setBank(FileHandle file) {
+        bank.set(openBank(file));
+    }
 
-        addQuestion(CategoryType.SPORTS, 800,
-        "Which sport is played at Roland Garros?",
-        "Tennis",
-        new String[]{"Tennis", "Cycling", "Swimming", "Gymnastics"});
+    private static QuestionBank openBank(FileHandle file) {
+        if (QuestionPack.EXTENSION.equals(file.extension())) {
+            QuestionPack pack = QuestionPack.open(file);
+            if (pack.getTierCount() != GameConfig.QUESTIONS_PER_CATEGORY) {
+                throw new GdxRuntimeException("Question pack has the wrong number of tiers: " + file);
+            }
+            return QuestionBank.fromPack(file, pack);
+        }
+        QuestionBankLoader loader = new QuestionBankLoader(file);
+        // Read the manifest now so a broken one never replaces a working bank
+        loader.getCategoryNames();
+        return QuestionBank.fromLoader(file, loader);
+    }
 
-        addQuestion(CategoryType.SPORTS, 1000,
-        "What is the diameter of a basketball hoop in inches?",
-        "18 inches",
-        new String[]{"16 inches", "18 inches", "20 inches", "22 inches"});
+    /**
+    * Opens the default bank, preferring the compiled pack over the JSON files.
+    * A bank set by another thread in the meantime is kept.
+    */
+    private static void openDefaultBank() {
+        QuestionBank opened = null;
+        FileHandle packFile = Gdx.files.internal(DEFAULT_PACK);
+        if (packFile.exists()) {
+            try {
+                opened = openBank(packFile);
+            } catch (Exception e) {
+                Gdx.app.error("QuestionManager", "Failed to open " + DEFAULT_PACK + ": " + e.getMessage());
+            }
+        }
+        if (opened == null) {
+            opened = openBank(Gdx.files.internal(DEFAULT_BANK));
+        }
+        bank.compareAndSet(null, opened);
+    }
 
-        addQuestion(CategoryType.SPORTS, 1000,
-        "How many different positions are there on a rugby union team?",
-        "15",
-        new String[]{"11", "13", "15", "17"});
+    /**
+    * Gets the current snapshot with a category loaded, loading it first if needed.
+    * Counting and drawing from the same snapshot keeps indexes valid even if the
+    * bank is swapped in between.
+    *
+    * A JSON category is streamed in; a pack category is already readable and only
+    * needs indexing. Either way the category is indexed as it is published.
+    *
+    * @param category the ID of the category that will be read
+    * @return the snapshot to read from
+    */
+    static QuestionBank snapshot(int category) {
+        QuestionBank current = bank.get();
+        if (current == null) {
+            openDefaultBank();
+            current = bank.get();
+        }
+        if (current.isLoaded(category)) {
+            return current;
+        }
 
-        // Additional Movies Questions
-        addQuestion(CategoryType.MOVIES, 200,
-        "Which animated film features a character named Simba?",
-        "The Lion King",
-        new String[]{"Finding Nemo", "The Lion King", "Shrek", "Frozen"});
+        // Stream the category outside of any lock, then publish and index it
+        QuestionIndex index = current.getIndex();
+        QuestionBankLoader loader = current.getLoader();
+        QuestionData[][] tiers = loader == null ? null : loadCategory(loader, current.getPool(), category);
+        if (tiers == null) {
+            // Served from the pack, or left empty rather than retrying on every draw
+            tiers = new QuestionData[0][];
+        }
+        while (true) {
+            if (current.isLoaded(category) || current.getIndex() != index) {
+                // Another thread loaded it first, or the bank was swapped
+                return current;
+            }
+            synchronized (index) {
+                QuestionBank next = current.withCategory(category, tiers);
+                if (bank.compareAndSet(current, next)) {
+                    index.addCategory(next, category);
+                    return next;
+                }
+            }
+            current = bank.get();
+        }
+    }
 
-        addQuestion(CategoryType.MOVIES, 200,
-        "Who played Harry Potter in the Harry Potter films?",
-        "Daniel Radcliffe",
-        new String[]{"Rupert Grint", "Daniel Radcliffe", "Tom Felton", "Matthew Lewis"});
+    /**
+    * Loads every category of the current bank that is not loaded yet
+    *
+    * @return the snapshot with all of them loaded
+    */
+    private static QuestionBank loadAll() {
+        QuestionBank current = bank.get();
+        for (int category : current.getCategories()) {
+            current = snapshot(category);
+        }
+        return current;
+    }
 
-        addQuestion(CategoryType.MOVIES, 400,
-        "Which movie features the line 'I'll be back'?",
-        "The Terminator",
-        new String[]{"Die Hard", "The Terminator", "Rambo", "Predator"});
+    /**
+    * Reads a category from the question bank
+    *
+    * @param loader the loader of the bank
+    * @param pool the pool of the bank, which the questions share their strings through
+    * @param category the ID of the category to read
+    * @return the questions indexed by tier, or null if the category could not be read
+    */
+    private static QuestionData[][] loadCategory(QuestionBankLoader loader, final QuestionPool pool, final int category) {
+        final String name = CategoryRegistry.getName(category);
+        final Array<Array<QuestionData>> tiers = new Array<>(GameConfig.QUESTIONS_PER_CATEGORY);
+        for (int i = 0; i < GameConfig.QUESTIONS_PER_CATEGORY; i++) {
+            tiers.add(new Array<>(QuestionData.class));
+        }
 
-        addQuestion(CategoryType.MOVIES, 400,
-        "Which actor played Neo in 'The Matrix'?",
-        "Keanu Reeves",
-        new String[]{"Brad Pitt", "Laurence Fishburne", "Keanu Reeves", "Matt Damon"});
+        try {
+            boolean found = loader.loadCategory(name, new QuestionBankLoader.Listener() {
+                @Override
+                public void question(int value, String question, String answer, String[] choices) {
+                    int tier = QuestionStore.tierOf(value);
+                    if (tier < 0) {
+                        Gdx.app.error("QuestionManager", "Skipping " + name + " question worth $" + value + ": not on the board");
+                        return;
+                    }
+                    tiers.get(tier).add(pool.create(category, value, question, answer, choices));
+                }
+            });
+            if (!found) {
+                Gdx.app.error("QuestionManager", "Question bank has no category " + name);
+                return null;
+            }
+        } catch (Exception e) {
+            Gdx.app.error("QuestionManager", "Failed to load category " + name + ": " + e.getMessage());
+            return null;
+        }
 
-        addQuestion(CategoryType.MOVIES, 600,
-        "Which of these films was NOT directed by Steven Spielberg?",
-        "The Shawshank Redemption",
-        new String[]{"Jurassic Park", "E.T.", "The Shawshank Redemption", "Saving Private Ryan"});
+        QuestionData[][] result = new QuestionData[tiers.size][];
+        for (int i = 0; i < tiers.size; i++) {
+            result[i] = tiers.get(i).toArray();
+        }
+        return result;
+    }
 
-        addQuestion(CategoryType.MOVIES, 600,
-        "In 'The Wizard of Oz', what color were Dorothy's slippers in the original book?",
-        "Silver",
-        new String[]{"Red", "Gold", "Silver", "Blue"});
+    /**
+    * Gets the file the current bank was opened from, opening the default bank if needed
+    *
+    * @return the bank manifest or pack file
+    */
+    public static FileHandle getBankFile() {
+        if (bank.get() == null) {
+            openDefaultBank();
+        }
+        return bank.get().getSource();
+    }
 
-        addQuestion(CategoryType.MOVIES, 800,
-        "Which actor has played James Bond in the most films?",
-        "Roger Moore",
-        new String[]{"Sean Connery", "Roger Moore", "Daniel Craig", "Pierce Brosnan"});
+    /**
+    * Gets the categories of the current bank, opening the default bank if needed
+    *
+    * @return the category IDs in bank order
+    */
+    public static int[] getCategoryIds() {
+        getBankFile();
+        return bank.get().getCategories().clone();
+    }
 
-        addQuestion(CategoryType.MOVIES, 800,
-        "Which of these actors has NOT won an Academy Award for Best Actor?",
-        "Johnny Depp",
-        new String[]{"Leonardo DiCaprio", "Matthew McConaughey", "Johnny Depp", "Denzel Washington"});
+    /**
+    * Gets the file a category is streamed from
+    *
+    * @param category the category ID
+    * @return the category file, or null if the bank is a pack or does not list the category
+    */
+    public static FileHandle getCategoryFile(int category) {
+        getBankFile();
+        QuestionBankLoader loader = bank.get().getLoader();
+        return loader == null ? null : loader.getCategoryFile(CategoryRegistry.getName(category));
+    }
 
-        addQuestion(CategoryType.MOVIES, 1000,
-        "Which was the first feature-length animated film ever released?",
-        "Snow White and the Seven Dwarfs",
-        new String[]{"Pinocchio", "Snow White and the Seven Dwarfs", "Fantasia", "Bambi"});
+    /**
+    * Reads a category's file again and swaps its questions in.
+    * Questions added to the category with {@link #addQuestion} are replaced as well.
+    * If the file cannot be read, the questions already loaded are kept.
+    *
+    * @param category the ID of the category to reload
+    * @return true if new questions were published
+    */
+    public static boolean reloadCategory(int category) {
+        QuestionBank current = bank.get();
+        QuestionBankLoader loader = current == null ? null : current.getLoader();
+        if (loader == null) {
+            return false;
+        }
 
-        addQuestion(CategoryType.MOVIES, 1000,
-        "Who is the only person to direct a film in which their parent won an Academy Award for acting?",
-        "Sofia Coppola",
-        new String[]{"Ron Howard", "Sofia Coppola", "Rob Reiner", "Angelina Jolie"});
+        // A fresh pool, or every reload would add the edited file's strings to the old one for good
+        QuestionPool pool = new QuestionPool();
+        QuestionData[][] tiers = loadCategory(loader, pool, category);
+        if (tiers == null) {
+            return false;
+        }
+        while (current.getLoader() == loader) {
+            QuestionIndex index = current.getIndex();
+            synchronized (index) {
+                QuestionBank next = current.withCategoryReplaced(category, tiers, pool);
+                if (bank.compareAndSet(current, next)) {
+                    index.replaceCategory(next, category);
+                    return true;
+                }
+            }
+            current = bank.get();
+        }
+        // The bank was swapped while reading; the new one reads the file itself
+        return false;
     }
 
     /**
     * Adds a question to the database
     *
-    * @param category the category of the question
+    * @param category the category ID of the question, see {@link CategoryRegistry#register(String)}
     * @param value the dollar value of the question
     * @param question the question text
     * @param correctAnswer the correct answer
     * @param choices the available choices
     */
-    public static void addQuestion(CategoryType category, int value, String question, String correctAnswer, String[] choices) {
-        if (!questions.containsKey(category)) {
-            questions.put(category, new HashMap<>());
+    public static void addQuestion(int category, int value, String question, String correctAnswer, String[] choices) {
+        int tier = QuestionStore.tierOf(value);
+        if (tier < 0) {
+            throw new IllegalArgumentException("Value is not on the board: " + value);
         }
 
-        Map<Integer, List<QuestionData>> categoryQuestions = questions.get(category);
-        if (!categoryQuestions.containsKey(value)) {
-            categoryQuestions.put(value, new ArrayList<>());
+        while (true) {
+            QuestionBank current = snapshot(category);
+            QuestionData data = current.getPool().create(category, value, question, correctAnswer, choices);
+            QuestionIndex index = current.getIndex();
+            synchronized (index) {
+                QuestionBank next = current.withQuestion(category, tier, data);
+                if (bank.compareAndSet(current, next)) {
+                    index.added(category, tier, next.size(category, tier) - 1, data);
+                    return;
+                }
+            }
         }
-
-        List<QuestionData> questionList = categoryQuestions.get(value);
-        questionList.add(new QuestionData(category, value, question, correctAnswer, choices));
     }
 
     /**
-    * Gets a random question from the database for the specified category and value
+    * Creates the question shown when the bank has nothing for a category/value
     *
-    * @param category the category of the question
     * @param value the dollar value of the question
-    * @return a random question for the category/value, or a default question if none exist
+    * @return the default question
     */
-    public static QuestionData getQuestion(CategoryType category, int value) {
-        // Check if the category exists
-        if (questions.containsKey(category)) {
-            Map<Integer, List<QuestionData>> categoryQuestions = questions.get(category);
-
-            // Check if the value exists in the category
-            if (categoryQuestions.containsKey(value)) {
-                List<QuestionData> questionList = categoryQuestions.get(value);
-
-                if (!questionList.isEmpty()) {
-                    // Get a random question from the list
-                    int randomIndex = random.nextInt(questionList.size());
-                    return questionList.get(randomIndex);
-                }
-            }
-        }
-
-        // Return a default question if not found
+    static QuestionData defaultQuestion(int value) {
         return new QuestionData(
-        CategoryType.GEOGRAPHY,
+        CategoryRegistry.register("Geography"),
         value,
         "What is the capital of France?",
         "Paris",
@@ -595,45 +316,93 @@ public class QuestionManager {
     * @return the question data, or a default question if not found
     */
     public static QuestionData getQuestionByName(String categoryName, int value) {
-        CategoryType category = CategoryType.fromDisplayName(categoryName);
-        return getQuestion(category, value);
+        int category = CategoryRegistry.find(categoryName);
+        int tier = QuestionStore.tierOf(value);
+        if (category != CategoryRegistry.NONE && tier >= 0) {
+            QuestionData question = getQuestion(category, tier);
+            if (question != null) {
+                return question;
+            }
+        }
+
+        return defaultQuestion(value);
     }
 
     /**
-    * Gets all questions for a specific category and value
+    * Gets a random question by category ID and tier without any boxing or hashing.
+    * Picks with the calling thread's source from {@link #setRandomSource}, so on the
+    * JVM draws never contend on one.
     *
-    * @param category the category to get questions for
-    * @param value the dollar value
-    * @return a list of questions or an empty list if none found
+    * @param category the category ID
+    * @param tier the 0-based value tier, see {@link QuestionStore#tierOf(int)}
+    * @return a random question for the slot, or null if the slot is empty
     */
-    public static List<QuestionData> getAllQuestions(CategoryType category, int value) {
-        if (questions.containsKey(category)) {
-            Map<Integer, List<QuestionData>> categoryQuestions = questions.get(category);
+    public static QuestionData getQuestion(int category, int tier) {
+        QuestionBank current = snapshot(category);
+        int count = current.size(category, tier);
+        if (count == 0) {
+            return null;
+        }
+        return current.get(category, tier, randomSource.random().nextInt(count));
+    }
 
-            if (categoryQuestions.containsKey(value)) {
-                return new ArrayList<>(categoryQuestions.get(value));
+    /**
+    * Searches the question text, answers and choices of every category.
+    * Categories are indexed as they load, so a search only reads the index; the
+    * first search of a bank loads whatever categories no game has drawn from yet.
+    *
+    * @param query words that must all match, OR between alternatives, word* for a prefix
+    * @return the matching questions
+    */
+    public static Array<QuestionData> search(String query) {
+        getBankFile();
+        while (true) {
+            QuestionBank current = bank.get();
+            if (!current.isFullyLoaded()) {
+                current = loadAll();
+            }
+            QuestionIndex index = current.getIndex();
+            synchronized (index) {
+                // Everything published under this index is in it, whichever snapshot is current
+                current = bank.get();
+                if (current.getIndex() == index) {
+                    return index.search(current, query);
+                }
             }
+            // The bank was swapped; load and search the new one
         }
-
-        return new ArrayList<>();
     }
 
     /**
-    * Gets the total number of questions for a specific category and value
+    * Gets all questions for a specific category and value
     *
-    * @param category the category to count questions for
+    * @param category the ID of the category to get questions for
     * @param value the dollar value
-    * @return the number of questions available
+    * @return a list of questions or an empty list if none found
     */
-    public static int getQuestionCount(CategoryType category, int value) {
-        if (questions.containsKey(category)) {
-            Map<Integer, List<QuestionData>> categoryQuestions = questions.get(category);
+    public static List<QuestionData> getAllQuestions(int category, int value) {
+        int tier = QuestionStore.tierOf(value);
+        if (category < 0 || tier < 0) {
+            return new ArrayList<>();
+        }
 
-            if (categoryQuestions.containsKey(value)) {
-                return categoryQuestions.get(value).size();
-            }
+        QuestionBank current = snapshot(category);
+        int count = current.size(category, tier);
+        List<QuestionData> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(current.get(category, tier, i));
         }
+        return result;
+    }
 
-        return 0;
+    /**
+    * Gets the number of questions by category ID and tier
+    *
+    * @param category the category ID
+    * @param tier the 0-based value tier
+    * @return the number of questions available
+    */
+    public static int getQuestionCount(int category, int tier) {
+        return snapshot(category).size(category, tier);
     }
 }
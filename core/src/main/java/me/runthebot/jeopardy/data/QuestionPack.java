@@ -0,0 +1,198 @@
+package me.runthebot.jeopardy.data;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.BufferUtils;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only view of a compiled question pack (.jqp).
+ *
+ * Nothing is decoded up front: lookups read straight from the buffer and a
+ * QuestionData is only built when a question is requested. On desktop and server
+ * the file is memory mapped, so opening a pack costs the same whatever its size.
+ * On GWT the file is copied into a buffer backed by an ArrayBuffer instead.
+ *
+ * Layout, all integers big-endian:
+ * <pre>
+ * header      int magic "JQPK", int version, int categoryCount, int tierCount,
+ *             int questionCount, int choiceCount
+ * categories  categoryCount x int              name string offset
+ * index       categoryCount * tierCount + 1 x int   first question of each slot
+ * questions   questionCount x (int id, int question, int answer, int firstChoice, int choiceCount)
+ * choices     choiceCount x int                string offset
+ * strings     per string: unsigned short byte length, UTF-8 bytes
+ * </pre>
+ * Questions are sorted by category then tier, so slot s covers the questions from
+ * index[s] up to index[s + 1]. String offsets are relative to the strings section.
+ * A question's id is its clue ID (see {@link QuestionData#idOf(String, String)}),
+ * stored so that histories can be checked without decoding the question.
+ */
+public class QuestionPack {
+    public static final int MAGIC = 0x4A51504B;
+    public static final int VERSION = 2;
+    public static final String EXTENSION = "jqp";
+
+    static final int HEADER_SIZE = 6 * 4;
+    static final int QUESTION_RECORD_SIZE = 5 * 4;
+
+    private final ByteBuffer buffer;
+    private final int categoryCount;
+    private final int tierCount;
+    private final int questionCount;
+    private final int categoriesOffset;
+    private final int indexOffset;
+    private final int questionsOffset;
+    private final int choicesOffset;
+    private final int stringsOffset;
+
+    /**
+     * Wraps a buffer holding a complete pack
+     *
+     * @param buffer the pack contents, starting at position 0
+     * @throws GdxRuntimeException if the buffer is not a pack this version can read
+     */
+    public QuestionPack(ByteBuffer buffer) {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new GdxRuntimeException("Not a question pack");
+        }
+        int version = buffer.getInt(4);
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Unsupported question pack version: " + version);
+        }
+
+        categoryCount = buffer.getInt(8);
+        tierCount = buffer.getInt(12);
+        questionCount = buffer.getInt(16);
+        int choiceCount = buffer.getInt(20);
+
+        categoriesOffset = HEADER_SIZE;
+        indexOffset = categoriesOffset + categoryCount * 4;
+        questionsOffset = indexOffset + (categoryCount * tierCount + 1) * 4;
+        choicesOffset = questionsOffset + questionCount * QUESTION_RECORD_SIZE;
+        stringsOffset = choicesOffset + choiceCount * 4;
+
+        if (stringsOffset > buffer.capacity()) {
+            throw new GdxRuntimeException("Truncated question pack");
+        }
+    }
+
+    /**
+     * Opens a pack file, memory mapping it where the backend allows.
+     * A mapped pack must be replaced by renaming a new file over it, never rewritten
+     * in place; the mapping keeps reading the old file until the pack is dropped.
+     *
+     * @param file the pack file
+     * @return the opened pack
+     */
+    public static QuestionPack open(FileHandle file) {
+        if (Gdx.app == null || Gdx.app.getType() != Application.ApplicationType.WebGL) {
+            try {
+                return new QuestionPack(file.map());
+            } catch (GdxRuntimeException e) {
+                // Classpath and jar-packed files cannot be mapped, read them instead
+            }
+        }
+
+        byte[] bytes = file.readBytes();
+        ByteBuffer buffer = BufferUtils.newByteBuffer(bytes.length);
+        buffer.put(bytes);
+        buffer.position(0);
+        return new QuestionPack(buffer);
+    }
+
+    /**
+     * @return the number of categories in the pack
+     */
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    /**
+     * @return the number of value tiers per category
+     */
+    public int getTierCount() {
+        return tierCount;
+    }
+
+    /**
+     * @return the total number of questions in the pack
+     */
+    public int getQuestionCount() {
+        return questionCount;
+    }
+
+    /**
+     * @param category the pack category index
+     * @return the display name of the category
+     */
+    public String getCategoryName(int category) {
+        return readString(buffer.getInt(categoriesOffset + category * 4));
+    }
+
+    /**
+     * @param category the pack category index
+     * @param tier the value tier
+     * @return the number of questions for the category and tier
+     */
+    public int size(int category, int tier) {
+        int slot = indexOffset + (category * tierCount + tier) * 4;
+        return buffer.getInt(slot + 4) - buffer.getInt(slot);
+    }
+
+    /**
+     * Decodes a single question
+     *
+     * @param category the pack category index
+     * @param tier the value tier
+     * @param index the index within the slot, less than {@link #size(int, int)}
+     * @param categoryId the category ID the decoded question should report
+     * @return a new QuestionData holding the question
+     */
+    public QuestionData get(int category, int tier, int index, int categoryId) {
+        int record = record(category, tier, index);
+        String question = readString(buffer.getInt(record + 4));
+        String answer = readString(buffer.getInt(record + 8));
+        int firstChoice = buffer.getInt(record + 12);
+        String[] choices = new String[buffer.getInt(record + 16)];
+        for (int i = 0; i < choices.length; i++) {
+            choices[i] = readString(buffer.getInt(choicesOffset + (firstChoice + i) * 4));
+        }
+
+        return new QuestionData(buffer.getInt(record), categoryId, QuestionStore.valueOf(tier), question, answer, choices, 0,
+            choices.length);
+    }
+
+    /**
+     * Reads a question's clue ID without decoding the question
+     *
+     * @param category the pack category index
+     * @param tier the value tier
+     * @param index the index within the slot, less than {@link #size(int, int)}
+     * @return the clue ID
+     */
+    public int getId(int category, int tier, int index) {
+        return buffer.getInt(record(category, tier, index));
+    }
+
+    private int record(int category, int tier, int index) {
+        int first = buffer.getInt(indexOffset + (category * tierCount + tier) * 4);
+        return questionsOffset + (first + index) * QUESTION_RECORD_SIZE;
+    }
+
+    private String readString(int offset) {
+        int position = stringsOffset + offset;
+        int length = buffer.getShort(position) & 0xFFFF;
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,152 @@
+package me.runthebot.jeopardy.data;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import me.runthebot.jeopardy.config.GameConfig;
+
+/**
+ * Builds a question pack in the format read by {@link QuestionPack}.
+ * Questions can be added in any order; they are grouped by category and tier
+ * when the pack is written. Identical strings are stored once.
+ */
+public class QuestionPackWriter {
+    private final Array<String> categories = new Array<>();
+    private final Array<Entry> entries = new Array<>();
+
+    /**
+     * Adds a question to the pack
+     *
+     * @param category the display name of the category
+     * @param value the dollar value of the question, must be on the board
+     * @param question the question text
+     * @param answer the correct answer
+     * @param choices the available choices
+     */
+    public void add(String category, int value, String question, String answer, String[] choices) {
+        int tier = QuestionStore.tierOf(value);
+        if (tier < 0) {
+            throw new IllegalArgumentException("Value is not on the board: " + value);
+        }
+
+        int categoryIndex = categories.indexOf(category, false);
+        if (categoryIndex < 0) {
+            categoryIndex = categories.size;
+            categories.add(category);
+        }
+
+        entries.add(new Entry(categoryIndex * GameConfig.QUESTIONS_PER_CATEGORY + tier, question, answer, choices));
+    }
+
+    /**
+     * @return the number of questions added so far
+     */
+    public int size() {
+        return entries.size;
+    }
+
+    /**
+     * Writes the pack
+     *
+     * @param out the stream to write to; it is not closed
+     * @throws IOException if writing fails
+     */
+    public void write(OutputStream out) throws IOException {
+        int tierCount = GameConfig.QUESTIONS_PER_CATEGORY;
+        int slotCount = categories.size * tierCount;
+
+        // Stable sort keeps the order questions were added within each slot
+        Array<Entry> sorted = new Array<>(entries);
+        sorted.sort((a, b) -> Integer.compare(a.slot, b.slot));
+
+        ByteArrayOutputStream stringBytes = new ByteArrayOutputStream();
+        DataOutputStream strings = new DataOutputStream(stringBytes);
+        ObjectIntMap<String> stringOffsets = new ObjectIntMap<>();
+
+        int[] categoryNames = new int[categories.size];
+        for (int i = 0; i < categories.size; i++) {
+            categoryNames[i] = intern(categories.get(i), strings, stringOffsets);
+        }
+
+        int[] slotStarts = new int[slotCount + 1];
+        int choiceCount = 0;
+        for (Entry entry : sorted) {
+            slotStarts[entry.slot + 1]++;
+            choiceCount += entry.choices.length;
+        }
+        for (int i = 0; i < slotCount; i++) {
+            slotStarts[i + 1] += slotStarts[i];
+        }
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(QuestionPack.MAGIC);
+        data.writeInt(QuestionPack.VERSION);
+        data.writeInt(categories.size);
+        data.writeInt(tierCount);
+        data.writeInt(sorted.size);
+        data.writeInt(choiceCount);
+
+        for (int name : categoryNames) {
+            data.writeInt(name);
+        }
+        for (int start : slotStarts) {
+            data.writeInt(start);
+        }
+
+        int[] choiceRefs = new int[choiceCount];
+        int nextChoice = 0;
+        for (Entry entry : sorted) {
+            data.writeInt(QuestionData.idOf(entry.question, entry.answer));
+            data.writeInt(intern(entry.question, strings, stringOffsets));
+            data.writeInt(intern(entry.answer, strings, stringOffsets));
+            data.writeInt(nextChoice);
+            data.writeInt(entry.choices.length);
+            for (String choice : entry.choices) {
+                choiceRefs[nextChoice++] = intern(choice, strings, stringOffsets);
+            }
+        }
+        for (int ref : choiceRefs) {
+            data.writeInt(ref);
+        }
+
+        strings.flush();
+        stringBytes.writeTo(data);
+        data.flush();
+    }
+
+    private static int intern(String value, DataOutputStream strings, ObjectIntMap<String> offsets) throws IOException {
+        int offset = offsets.get(value, -1);
+        if (offset >= 0) {
+            return offset;
+        }
+
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("String too long for a question pack: " + bytes.length + " bytes");
+        }
+
+        offset = strings.size();
+        strings.writeShort(bytes.length);
+        strings.write(bytes);
+        offsets.put(value, offset);
+        return offset;
+    }
+
+    private static class Entry {
+        final int slot;
+        final String question;
+        final String answer;
+        final String[] choices;
+
+        Entry(int slot, String question, String answer, String[] choices) {
+            this.slot = slot;
+            this.question = question;
+            this.answer = answer;
+            this.choices = choices;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package me.runthebot.jeopardy.data;
+
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Shares the strings and choice lists of the questions loaded into one bank.
+ *
+ * The same answers and choices ("Oxygen", "Nitrogen", country names) turn up in
+ * hundreds of clues, and every one a parser reads is a fresh String. The pool
+ * keeps one copy of each distinct answer and choice, and lays the choices of every
+ * question end to end in one shared table; a question points at its run of the
+ * table, and questions offering the same choices in the same order share one run.
+ * Question text is left alone, since it almost never repeats.
+ *
+ * Only used while questions are loaded, so the pool locks rather than trying to be
+ * clever; the questions it creates never change and are read without locking.
+ * A pool only grows, so reloading a category from disk starts a new one rather than
+ * piling every edit of the file into the old one.
+ */
+public final class QuestionPool {
+    private final ObjectMap<String, String> strings = new ObjectMap<>();
+    // Choices of every pooled question, end to end; replaced by a larger copy when full.
+    // Questions keep the array they were created with, which never changes below its size.
+    private String[] choices = new String[64];
+    private int choiceCount;
+    // Choice list -> where it starts in the table
+    private final ObjectIntMap<ChoiceList> choiceLists = new ObjectIntMap<>();
+    // Reused for lookups so a repeated choice list allocates nothing
+    private final ChoiceList probe = new ChoiceList();
+    private String[] scratch = new String[8];
+
+    /**
+     * Gets the pooled copy of a string
+     *
+     * @param value the string, or null
+     * @return an equal string shared by everything pooled so far
+     */
+    public synchronized String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String pooled = strings.get(value);
+        if (pooled == null) {
+            strings.put(value, value);
+            pooled = value;
+        }
+        return pooled;
+    }
+
+    /**
+     * Creates a question whose answer and choices are shared through the pool
+     *
+     * @param category the category ID of the question
+     * @param value the dollar value of the question
+     * @param question the question text
+     * @param correctAnswer the correct answer
+     * @param questionChoices the available choices
+     * @return the new question
+     */
+    public synchronized QuestionData create(int category, int value, String question, String correctAnswer, String[] questionChoices) {
+        int count = questionChoices.length;
+        if (scratch.length < count) {
+            scratch = new String[count];
+        }
+        for (int i = 0; i < count; i++) {
+            scratch[i] = intern(questionChoices[i]);
+        }
+
+        probe.set(scratch, 0, count);
+        int first = choiceLists.get(probe, -1);
+        if (first < 0) {
+            first = choiceCount;
+            if (choiceCount + count > choices.length) {
+                String[] grown = new String[Math.max(choices.length * 2, choiceCount + count)];
+                System.arraycopy(choices, 0, grown, 0, choiceCount);
+                choices = grown;
+            }
+            System.arraycopy(scratch, 0, choices, first, count);
+            choiceCount += count;
+            choiceLists.put(new ChoiceList(choices, first, count), first);
+        }
+
+        return new QuestionData(QuestionData.idOf(question, correctAnswer), category, value, question, intern(correctAnswer),
+            choices, first, count);
+    }
+
+    /**
+     * @return the number of distinct strings in the pool
+     */
+    public synchronized int getStringCount() {
+        return strings.size;
+    }
+
+    /**
+     * @return the number of entries in the shared choice table
+     */
+    public synchronized int getChoiceCount() {
+        return choiceCount;
+    }
+
+    /**
+     * A run of pooled choices. Strings are pooled before they are compared, so two
+     * lists are equal exactly when they hold the same instances.
+     */
+    private static final class ChoiceList {
+        private String[] table;
+        private int first;
+        private int count;
+
+        ChoiceList() {
+        }
+
+        ChoiceList(String[] table, int first, int count) {
+            set(table, first, count);
+        }
+
+        void set(String[] table, int first, int count) {
+            this.table = table;
+            this.first = first;
+            this.count = count;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = count;
+            for (int i = 0; i < count; i++) {
+                hash = hash * 31 + System.identityHashCode(table[first + i]);
+            }
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof ChoiceList)) {
+                return false;
+            }
+            ChoiceList list = (ChoiceList) other;
+            if (list.count != count) {
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                if (list.table[list.first + i] != table[first + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package me.runthebot.jeopardy.data;
+
+import me.runthebot.jeopardy.config.GameConfig;
+
+/**
+ * Dense storage for questions, indexed by category ID and value tier.
+ * Every category/tier pair owns one slot in a flat array, so a lookup is a couple
+ * of array reads no matter how many questions are stored.
+ *
+ * A store never changes once created. Adding questions returns a new store that
+ * shares every untouched slot with the old one, so a store can be read from any
+ * number of threads without locking.
+ */
+public final class QuestionStore {
+    private final int categoryCount;
+    private final int tierCount;
+    // One exactly-sized array per slot, null while the slot is empty
+    private final QuestionData[][] slots;
+
+    /**
+     * Creates an empty store
+     *
+     * @param categoryCount the number of categories
+     * @param tierCount the number of value tiers per category
+     */
+    public QuestionStore(int categoryCount, int tierCount) {
+        this(categoryCount, tierCount, new QuestionData[categoryCount * tierCount][]);
+    }
+
+    private QuestionStore(int categoryCount, int tierCount, QuestionData[][] slots) {
+        this.categoryCount = categoryCount;
+        this.tierCount = tierCount;
+        this.slots = slots;
+    }
+
+    /**
+     * Maps a dollar value to its tier on the board
+     *
+     * @param value the dollar value
+     * @return the 0-based tier, or -1 if the value is not on the board
+     */
+    public static int tierOf(int value) {
+        if (value <= 0 || value % GameConfig.VALUE_STEP != 0) {
+            return -1;
+        }
+        int tier = value / GameConfig.VALUE_STEP - 1;
+        return tier < GameConfig.QUESTIONS_PER_CATEGORY ? tier : -1;
+    }
+
+    /**
+     * Maps a tier back to its dollar value
+     *
+     * @param tier the 0-based tier
+     * @return the dollar value of the tier
+     */
+    public static int valueOf(int tier) {
+        return (tier + 1) * GameConfig.VALUE_STEP;
+    }
+
+    /**
+     * Returns a store with one more question in the slot for the given category and tier
+     *
+     * @param category the category ID
+     * @param tier the value tier
+     * @param question the question to add
+     * @return the new store; this store is unchanged
+     */
+    public QuestionStore with(int category, int tier, QuestionData question) {
+        int slot = slot(category, tier);
+        QuestionData[] items = slots[slot];
+        int size = items == null ? 0 : items.length;
+
+        QuestionData[] grown = new QuestionData[size + 1];
+        if (items != null) {
+            System.arraycopy(items, 0, grown, 0, size);
+        }
+        grown[size] = question;
+
+        QuestionData[][] copy = slots.clone();
+        copy[slot] = grown;
+        return new QuestionStore(categoryCount, tierCount, copy);
+    }
+
+    /**
+     * Returns a store with room for more categories; the new ones start empty
+     *
+     * @param categoryCount the new number of categories, not less than the current one
+     * @return the new store; this store is unchanged
+     */
+    public QuestionStore withCategoryCount(int categoryCount) {
+        QuestionData[][] copy = new QuestionData[categoryCount * tierCount][];
+        System.arraycopy(slots, 0, copy, 0, slots.length);
+        return new QuestionStore(categoryCount, tierCount, copy);
+    }
+
+    /**
+     * Returns a store with every tier of a category appended to at once
+     *
+     * @param category the category ID
+     * @param tiers the questions to add, indexed by tier; null or empty tiers are skipped
+     * @return the new store; this store is unchanged
+     */
+    public QuestionStore withCategory(int category, QuestionData[][] tiers) {
+        QuestionData[][] copy = slots.clone();
+        for (int tier = 0; tier < tierCount && tier < tiers.length; tier++) {
+            QuestionData[] added = tiers[tier];
+            if (added == null || added.length == 0) {
+                continue;
+            }
+
+            int slot = slot(category, tier);
+            QuestionData[] items = copy[slot];
+            if (items == null) {
+                copy[slot] = added.clone();
+            } else {
+                QuestionData[] merged = new QuestionData[items.length + added.length];
+                System.arraycopy(items, 0, merged, 0, items.length);
+                System.arraycopy(added, 0, merged, items.length, added.length);
+                copy[slot] = merged;
+            }
+        }
+        return new QuestionStore(categoryCount, tierCount, copy);
+    }
+
+    /**
+     * Returns a store where a category holds exactly the given questions
+     *
+     * @param category the category ID
+     * @param tiers the category's questions, indexed by tier; null or empty tiers are left empty
+     * @return the new store; this store is unchanged
+     */
+    public QuestionStore withCategoryReplaced(int category, QuestionData[][] tiers) {
+        QuestionData[][] copy = slots.clone();
+        for (int tier = 0; tier < tierCount; tier++) {
+            QuestionData[] items = tier < tiers.length ? tiers[tier] : null;
+            copy[slot(category, tier)] = items == null || items.length == 0 ? null : items.clone();
+        }
+        return new QuestionStore(categoryCount, tierCount, copy);
+    }
+
+    /**
+     * @param category the category ID
+     * @param tier the value tier
+     * @return the number of questions stored for the category and tier
+     */
+    public int size(int category, int tier) {
+        QuestionData[] items = slots[slot(category, tier)];
+        return items == null ? 0 : items.length;
+    }
+
+    /**
+     * @param category the category ID
+     * @param tier the value tier
+     * @param index the index within the slot, less than {@link #size(int, int)}
+     * @return the question at the given position
+     */
+    public QuestionData get(int category, int tier, int index) {
+        return slots[slot(category, tier)][index];
+    }
+
+    /**
+     * @return the number of categories this store was sized for
+     */
+    public int getCategoryCount() {
+        return categoryCount;
+    }
+
+    /**
+     * @return the number of tiers per category
+     */
+    public int getTierCount() {
+        return tierCount;
+    }
+
+    private int slot(int category, int tier) {
+        if (category < 0 || category >= categoryCount || tier < 0 || tier >= tierCount) {
+            throw new IndexOutOfBoundsException("No slot for category " + category + ", tier " + tier);
+        }
+        return category * tierCount + tier;
+    }
+}
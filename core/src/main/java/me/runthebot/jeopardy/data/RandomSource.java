@@ -0,0 +1,20 @@
+package me.runthebot.jeopardy.data;
+
+import java.util.Random;
+
+/**
+ * Hands the calling thread a random source to draw questions with.
+ *
+ * Threads that share one contend on its seed, so JVM builds give each thread its
+ * own. Core can't, as the web build has no threads and no
+ * {@code ThreadLocalRandom}, so the default is one {@code RandomXS128} for
+ * everyone and JVM builds install {@code jvm.ThreadRandomSource} through
+ * {@link QuestionManager#setRandomSource}.
+ */
+public interface RandomSource {
+    /**
+     * @return a random source only the calling thread uses, or one shared by every
+     *         thread if there is only one
+     */
+    Random random();
+}
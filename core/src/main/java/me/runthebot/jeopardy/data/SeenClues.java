@@ -0,0 +1,269 @@
+package me.runthebot.jeopardy.data;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.utils.Base64Coder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Every clue one player has been shown, across games.
+ *
+ * A clue is identified by its clue ID (see {@link QuestionData#idOf(String, String)}),
+ * which follows its text rather than where it sits in the bank, so a history holds
+ * however the bank is reordered, recompiled or edited around the clues in it.
+ *
+ * Clues are kept in a {@link ClueBitmap}, about 4 bytes per clue. In front of it sits
+ * a Bloom filter with about 8 bits per clue: most clues a draw asks about have not
+ * been seen, and the filter answers those with three bit tests, without touching
+ * the bitmap. It is rebuilt from the bitmap when it fills up, so it is never saved.
+ *
+ * Histories are saved to the "jeopardy_seen" preferences, next to the saved games,
+ * under the player's name ignoring case. Not thread-safe: don't record clues while
+ * a board that reads the history is being generated.
+ */
+public final class SeenClues {
+    private static final String PREFS_NAME = "jeopardy_seen";
+    // Version 1 recorded positions in the bank, which can't be turned into clue IDs
+    private static final int FORMAT_VERSION = 2;
+    private static final int CONTAINER_ARRAY = 0;
+    private static final int CONTAINER_BITMAP = 1;
+    private static final int MIN_BLOOM_BITS = 1024;
+    private static final int BLOOM_BITS_PER_CLUE = 8;
+
+    private final String player;
+    private final ClueBitmap clues = new ClueBitmap();
+    private int[] bloom;
+    private int bloomMask;
+    private boolean dirty;
+
+    /**
+     * Creates an empty history
+     *
+     * @param player the name of the player the history belongs to
+     */
+    public SeenClues(String player) {
+        this.player = player;
+        resizeBloom(MIN_BLOOM_BITS);
+    }
+
+    /**
+     * Loads a player's history from the preferences
+     *
+     * @param player the player's name
+     * @return the saved history, or an empty one if there is none or it can't be read
+     */
+    public static SeenClues load(String player) {
+        SeenClues seen = new SeenClues(player);
+        String saved = getPrefs().getString(key(player), null);
+        if (saved != null && !saved.isEmpty()) {
+            try {
+                seen.read(Base64Coder.decode(saved));
+            } catch (IOException | RuntimeException e) {
+                Gdx.app.error("SeenClues", "Ignoring unreadable history for " + player + ": " + e.getMessage());
+                seen = new SeenClues(player);
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Writes the history to the preferences if clues were recorded since it was loaded
+     */
+    public void save() {
+        if (!dirty) {
+            return;
+        }
+        Preferences prefs = getPrefs();
+        prefs.putString(key(player), new String(Base64Coder.encode(write())));
+        prefs.flush();
+        dirty = false;
+    }
+
+    /**
+     * @return the name of the player the history belongs to
+     */
+    public String getPlayer() {
+        return player;
+    }
+
+    /**
+     * @return the number of clues recorded
+     */
+    public int size() {
+        return clues.cardinality();
+    }
+
+    /**
+     * Checks whether the player has been shown a clue
+     *
+     * @param clue the clue ID
+     * @return true if the clue was recorded
+     */
+    public boolean contains(int clue) {
+        int hash = hash(clue);
+        int step = (hash >>> 16) | (hash << 16) | 1;
+        int mask = bloomMask;
+        for (int i = 0; i < 3; i++) {
+            int bit = hash & mask;
+            if ((bloom[bit >>> 5] & (1 << bit)) == 0) {
+                return false;
+            }
+            hash += step;
+        }
+        return clues.contains(clue);
+    }
+
+    /**
+     * Records that the player has been shown a clue
+     *
+     * @param clue the clue ID; {@link QuestionData#NO_CLUE} is ignored
+     */
+    public void add(int clue) {
+        if (clue == QuestionData.NO_CLUE || !clues.add(clue)) {
+            return;
+        }
+        dirty = true;
+        if (clues.cardinality() * BLOOM_BITS_PER_CLUE > bloomMask + 1) {
+            resizeBloom((bloomMask + 1) * 2);
+        } else {
+            addToBloom(clue);
+        }
+    }
+
+    private void resizeBloom(int bits) {
+        bloom = new int[bits >>> 5];
+        bloomMask = bits - 1;
+        for (int i = 0; i < clues.keyCount(); i++) {
+            int high = clues.keyAt(i) << ClueBitmap.VALUE_BITS;
+            ClueBitmap.Container container = clues.containerAt(i);
+            if (container.isBitmap()) {
+                for (int word = 0; word < container.bits.length; word++) {
+                    for (long set = container.bits[word]; set != 0; set &= set - 1) {
+                        addToBloom(high | word * 64 + Long.numberOfTrailingZeros(set));
+                    }
+                }
+            } else {
+                for (int j = 0; j < container.cardinality; j++) {
+                    addToBloom(high | container.array[j]);
+                }
+            }
+        }
+    }
+
+    private void addToBloom(int clue) {
+        int hash = hash(clue);
+        int step = (hash >>> 16) | (hash << 16) | 1;
+        for (int i = 0; i < 3; i++) {
+            int bit = hash & bloomMask;
+            bloom[bit >>> 5] |= 1 << bit;
+            hash += step;
+        }
+    }
+
+    // Mixes the ID again so the filter's bits don't follow the bitmap's keys; the finalizer from MurmurHash3
+    private static int hash(int clue) {
+        int hash = clue * 0x9E3779B1;
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    /**
+     * Layout, in DataOutput order:
+     * <pre>
+     * byte version, int keyCount
+     * per key: byte key, byte type, then
+     *   array   int count, count x int value
+     *   bitmap  262144 x long
+     * </pre>
+     * A clue is its key in the top 8 bits and the value in the low 24.
+     */
+    private byte[] write() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(clues.keyCount());
+            for (int i = 0; i < clues.keyCount(); i++) {
+                out.writeByte(clues.keyAt(i));
+                ClueBitmap.Container container = clues.containerAt(i);
+                if (container.isBitmap()) {
+                    out.writeByte(CONTAINER_BITMAP);
+                    for (long word : container.bits) {
+                        out.writeLong(word);
+                    }
+                } else {
+                    out.writeByte(CONTAINER_ARRAY);
+                    out.writeInt(container.cardinality);
+                    for (int j = 0; j < container.cardinality; j++) {
+                        out.writeInt(container.array[j]);
+                    }
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Writing to memory doesn't fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void read(byte[] data) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        int version = in.readByte();
+        if (version == 1) {
+            Gdx.app.log("SeenClues", "Discarding history for " + player + " recorded before clue IDs");
+            return;
+        }
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported history version: " + version);
+        }
+
+        int keyCount = in.readInt();
+        for (int i = 0; i < keyCount; i++) {
+            ClueBitmap.Container container = clues.container(in.readByte() & 0xFF);
+            int type = in.readByte();
+            if (type == CONTAINER_BITMAP) {
+                long[] bits = new long[ClueBitmap.BITMAP_WORDS];
+                int count = 0;
+                for (int word = 0; word < bits.length; word++) {
+                    bits[word] = in.readLong();
+                    count += Long.bitCount(bits[word]);
+                }
+                container.array = null;
+                container.bits = bits;
+                container.cardinality = count;
+            } else if (type == CONTAINER_ARRAY) {
+                int count = in.readInt();
+                for (int j = 0; j < count; j++) {
+                    container.add(in.readInt() & ClueBitmap.VALUE_MASK);
+                }
+            } else {
+                throw new IOException("Unknown container type: " + type);
+            }
+        }
+        clues.recount();
+
+        int bits = MIN_BLOOM_BITS;
+        while (bits < clues.cardinality() * BLOOM_BITS_PER_CLUE) {
+            bits *= 2;
+        }
+        resizeBloom(bits);
+    }
+
+    private static String key(String player) {
+        return player.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Preferences getPrefs() {
+        return Gdx.app.getPreferences(PREFS_NAME);
+    }
+}
@@ -0,0 +1,186 @@
+package me.runthebot.jeopardy.jvm;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import me.runthebot.jeopardy.data.QuestionManager;
+import me.runthebot.jeopardy.data.QuestionPack;
+import me.runthebot.jeopardy.model.CategoryRegistry;
+
+/**
+ * Reloads the question bank when its files change on disk, so clues can be fixed
+ * during an event without restarting.
+ *
+ * Runs on its own daemon thread. An edited category file is read again on that
+ * thread and swapped into {@link QuestionManager} atomically; the rendering thread
+ * and server loops never wait on it. Editing the manifest or the compiled pack
+ * reopens the whole bank. Boards already generated keep their questions either way.
+ *
+ * A pack is only reopened when a new one is renamed into place, which is how the
+ * pack compiler replaces it. Writes to the pack file itself are ignored: the bank
+ * has it memory mapped, and a pack still being written can't be opened anyway.
+ *
+ * Desktop and server only; the browser has no file system to watch.
+ */
+public class QuestionBankWatcher {
+    // Editors often save with several writes; wait for them to settle before reloading
+    private static final long SETTLE_MILLIS = 200;
+
+    private final WatchService watchService;
+    private final Thread thread;
+    private final Set<Path> watchedDirectories = new HashSet<>();
+    // Files of the current bank, rebuilt whenever the bank is reopened
+    private final Map<Path, Integer> categoryFiles = new HashMap<>();
+    private Path bankFile;
+
+    private QuestionBankWatcher() throws IOException {
+        watchService = FileSystems.getDefault().newWatchService();
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch();
+            }
+        }, "QuestionBankWatcher");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Starts watching the files of the current question bank
+     *
+     * @return the running watcher
+     * @throws IOException if the platform cannot watch files
+     */
+    public static QuestionBankWatcher start() throws IOException {
+        QuestionBankWatcher watcher = new QuestionBankWatcher();
+        watcher.thread.start();
+        return watcher;
+    }
+
+    /**
+     * Stops watching; no reloads happen after this returns
+     */
+    public void stop() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            Gdx.app.error("QuestionBankWatcher", "Failed to close watch service: " + e.getMessage());
+        }
+        thread.interrupt();
+    }
+
+    private void watch() {
+        try {
+            index();
+            Set<Path> changed = new HashSet<>();
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean overflow = false;
+                // Gather everything that changes until the files settle
+                while (key != null) {
+                    overflow |= collect(key, changed);
+                    key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                reload(changed, overflow);
+                changed.clear();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    /**
+     * Adds the files named by a key's events to the changed set
+     *
+     * @return true if events were lost and everything should be reloaded
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        boolean overflow = false;
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context()).toAbsolutePath().normalize();
+            if (event.kind() == StandardWatchEventKinds.ENTRY_MODIFY && isPack(path)) {
+                continue;
+            }
+            changed.add(path);
+        }
+        key.reset();
+        return overflow;
+    }
+
+    private static boolean isPack(Path path) {
+        return path.getFileName().toString().endsWith("." + QuestionPack.EXTENSION);
+    }
+
+    private void reload(Set<Path> changed, boolean overflow) {
+        try {
+            if (overflow || changed.contains(bankFile)) {
+                QuestionManager.setBank(QuestionManager.getBankFile());
+                Gdx.app.log("QuestionBankWatcher", "Reloaded question bank " + bankFile);
+                index();
+                return;
+            }
+
+            for (Path path : changed) {
+                Integer category = categoryFiles.get(path);
+                if (category != null && QuestionManager.reloadCategory(category)) {
+                    Gdx.app.log("QuestionBankWatcher", "Reloaded category " + CategoryRegistry.getName(category));
+                }
+            }
+        } catch (Exception e) {
+            // Keep watching; the bank in use is untouched
+            Gdx.app.error("QuestionBankWatcher", "Failed to reload question bank: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the files of the current bank and watches the directories holding them
+     */
+    private void index() {
+        categoryFiles.clear();
+        bankFile = null;
+        try {
+            FileHandle bank = QuestionManager.getBankFile();
+            if (bank.type() == Files.FileType.Classpath) {
+                Gdx.app.error("QuestionBankWatcher", "Question bank " + bank + " is on the classpath and can't be watched");
+                return;
+            }
+            bankFile = register(bank);
+
+            for (int category : QuestionManager.getCategoryIds()) {
+                FileHandle file = QuestionManager.getCategoryFile(category);
+                if (file != null) {
+                    categoryFiles.put(register(file), category);
+                }
+            }
+        } catch (Exception e) {
+            Gdx.app.error("QuestionBankWatcher", "Failed to watch question bank: " + e.getMessage());
+        }
+    }
+
+    private Path register(FileHandle file) throws IOException {
+        Path path = file.file().toPath().toAbsolutePath().normalize();
+        Path directory = path.getParent();
+        if (watchedDirectories.add(directory)) {
+            // Saving by writing a new file and renaming it shows up as a create
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,21 @@
+package me.runthebot.jeopardy.jvm;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import me.runthebot.jeopardy.data.QuestionManager;
+import me.runthebot.jeopardy.data.RandomSource;
+
+/**
+ * Gives each thread its own random source, so threads drawing questions at once
+ * never contend on a shared seed.
+ */
+public final class ThreadRandomSource implements RandomSource {
+    @Override
+    public Random random() {
+        return ThreadLocalRandom.current();
+    }
+
+    public static void install() {
+        QuestionManager.setRandomSource(new ThreadRandomSource());
+    }
+}
@@ -0,0 +1,22 @@
+package me.runthebot.jeopardy.jvm;
+
+import me.runthebot.jeopardy.metrics.Metrics;
+import me.runthebot.jeopardy.metrics.Striping;
+
+/**
+ * Spreads threads over metric stripes by thread ID.
+ *
+ * IDs are handed out in order, so threads started together, such as a server's
+ * event loops, land on stripes of their own until there are more of them than
+ * {@link Metrics#STRIPES}.
+ */
+public final class ThreadStriping implements Striping {
+    @Override
+    public int stripe() {
+        return (int) Thread.currentThread().getId();
+    }
+
+    public static void install() {
+        Metrics.setStriping(new ThreadStriping());
+    }
+}
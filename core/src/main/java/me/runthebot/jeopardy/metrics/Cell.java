@@ -0,0 +1,30 @@
+package me.runthebot.jeopardy.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One stripe of a counter or gauge, padded so that two stripes never share a
+ * cache line.
+ */
+@SuppressWarnings("unused")
+final class Cell extends AtomicLong {
+    private static final long serialVersionUID = 1L;
+
+    private long p1, p2, p3, p4, p5, p6, p7;
+
+    static Cell[] stripes() {
+        Cell[] cells = new Cell[Metrics.STRIPES];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new Cell();
+        }
+        return cells;
+    }
+
+    static long sum(Cell[] cells) {
+        long sum = 0;
+        for (Cell cell : cells) {
+            sum += cell.get();
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,34 @@
+package me.runthebot.jeopardy.metrics;
+
+/**
+ * A count that only goes up. Recording is one atomic add on the caller's
+ * stripe; reading adds the stripes up, so it may miss adds still in flight.
+ */
+public final class Counter extends Metric {
+    private final Cell[] cells = Cell.stripes();
+
+    Counter(String name, String help) {
+        super(name, help);
+    }
+
+    public void increment() {
+        cells[Metrics.stripe()].incrementAndGet();
+    }
+
+    /**
+     * @param amount not negative
+     */
+    public void add(long amount) {
+        cells[Metrics.stripe()].addAndGet(amount);
+    }
+
+    public long get() {
+        return Cell.sum(cells);
+    }
+
+    @Override
+    void write(StringBuilder out) {
+        writeHeader(out, "counter");
+        out.append(getName()).append(' ').append(get()).append('\n');
+    }
+}
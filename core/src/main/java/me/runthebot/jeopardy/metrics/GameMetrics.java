@@ -0,0 +1,24 @@
+package me.runthebot.jeopardy.metrics;
+
+/**
+ * Instruments for the game itself, recorded by the client and by the server's rooms.
+ */
+public final class GameMetrics {
+    public static final Counter CLUES_OPENED = Metrics.counter("jeopardy_clues_opened_total",
+        "Clues opened on a board");
+    public static final Histogram ANSWER_TIME = Metrics.histogram("jeopardy_answer_seconds",
+        "Time from a player being given a clue to their answer");
+    public static final Histogram SAVE_TIME = Metrics.histogram("jeopardy_save_seconds",
+        "Time to save a game, for saves that worked");
+    public static final Counter SAVE_FAILURES = Metrics.counter("jeopardy_save_failures_total",
+        "Saves that failed");
+    public static final Histogram LOAD_TIME = Metrics.histogram("jeopardy_load_seconds",
+        "Time to load a saved game, for loads that worked");
+    public static final Counter LOAD_FAILURES = Metrics.counter("jeopardy_load_failures_total",
+        "Loads that failed");
+    public static final Histogram FRAME_TIME = Metrics.histogram("jeopardy_frame_seconds",
+        "Time between rendered frames");
+
+    private GameMetrics() {
+    }
+}
@@ -0,0 +1,36 @@
+package me.runthebot.jeopardy.metrics;
+
+/**
+ * A level that goes up and down, such as how many rooms are open. Kept as the
+ * sum of every change, so one stripe alone can go negative; only the total
+ * means anything. There is no set, since stripes can't be set at once.
+ */
+public final class Gauge extends Metric {
+    private final Cell[] cells = Cell.stripes();
+
+    Gauge(String name, String help) {
+        super(name, help);
+    }
+
+    public void increment() {
+        cells[Metrics.stripe()].incrementAndGet();
+    }
+
+    public void decrement() {
+        cells[Metrics.stripe()].decrementAndGet();
+    }
+
+    public void add(long amount) {
+        cells[Metrics.stripe()].addAndGet(amount);
+    }
+
+    public long get() {
+        return Cell.sum(cells);
+    }
+
+    @Override
+    void write(StringBuilder out) {
+        writeHeader(out, "gauge");
+        out.append(getName()).append(' ').append(get()).append('\n');
+    }
+}
@@ -0,0 +1,174 @@
+package me.runthebot.jeopardy.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latencies in microseconds, counted in log-linear buckets so recording one is
+ * a few shifts and two atomic adds on the caller's stripe, and never allocates.
+ *
+ * Values below {@link #SUB_BUCKETS} get a bucket each. Above that every power of
+ * two is cut into {@link #SUB_BUCKETS} / 2 equal buckets, so a value is known to
+ * within 1/8 of itself, up to a little over an hour. Percentiles are reported as
+ * the highest value in their bucket, so they err high, never low.
+ *
+ * Exported as a Prometheus summary in seconds, with quantiles over everything
+ * recorded since the start. For a recent window, copy the counts twice and take
+ * the difference; see {@link #copyCounts} and {@link #valueAt}.
+ */
+public final class Histogram extends Metric {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    // Largest value kept as itself; anything longer counts as this
+    private static final long MAX_VALUE = (1L << 32) - 1;
+    private static final int BUCKETS = indexOf(MAX_VALUE) + 1;
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final Stripe[] stripes = new Stripe[Metrics.STRIPES];
+
+    Histogram(String name, String help) {
+        super(name, help);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * @param micros a latency; negative ones count as 0
+     */
+    public void record(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE));
+        Stripe stripe = stripes[Metrics.stripe()];
+        stripe.counts[indexOf(value)].incrementAndGet();
+        stripe.total.addAndGet(value);
+    }
+
+    public void recordNanos(long nanos) {
+        record(nanos / 1000);
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (Stripe stripe : stripes) {
+            for (AtomicLong bucket : stripe.counts) {
+                count += bucket.get();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return every value recorded added up, in microseconds
+     */
+    public long getTotal() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.total.get();
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of buckets, the length {@link #copyCounts} needs
+     */
+    public static int getBucketCount() {
+        return BUCKETS;
+    }
+
+    /**
+     * Adds up the stripes' bucket counts
+     *
+     * @param counts where to put them, at least {@link #getBucketCount} long
+     */
+    public void copyCounts(long[] counts) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long count = 0;
+            for (Stripe stripe : stripes) {
+                count += stripe.counts[i].get();
+            }
+            counts[i] = count;
+        }
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the value at or below which that share of values fall, in
+     *         microseconds; 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] counts = new long[BUCKETS];
+        copyCounts(counts);
+        return valueAt(counts, percentile);
+    }
+
+    /**
+     * @param counts bucket counts, from {@link #copyCounts} or the difference of two
+     * @param percentile between 0 and 100
+     * @return the value at or below which that share of the counted values fall, in
+     *         microseconds; 0 if there are none
+     */
+    public static long valueAt(long[] counts, double percentile) {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return highestIn(i);
+            }
+        }
+        return MAX_VALUE;
+    }
+
+    @Override
+    void write(StringBuilder out) {
+        long[] counts = new long[BUCKETS];
+        copyCounts(counts);
+        long count = 0;
+        for (long bucket : counts) {
+            count += bucket;
+        }
+        writeHeader(out, "summary");
+        for (double quantile : QUANTILES) {
+            out.append(getName()).append("{quantile=\"").append(quantile).append("\"} ")
+                .append(valueAt(counts, quantile * 100) / 1e6).append('\n');
+        }
+        out.append(getName()).append("_sum ").append(getTotal() / 1e6).append('\n');
+        out.append(getName()).append("_count ").append(count).append('\n');
+    }
+
+    private static int indexOf(long value) {
+        // 0 below SUB_BUCKETS, then one more for every doubling
+        int magnitude = 64 - Long.numberOfLeadingZeros(value | (SUB_BUCKETS - 1)) - SUB_BITS;
+        return (magnitude << (SUB_BITS - 1)) + (int) (value >>> magnitude);
+    }
+
+    private static long highestIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = (index >> (SUB_BITS - 1)) - 1;
+        long lowest = (long) (index - magnitude * HALF) << magnitude;
+        return lowest + (1L << magnitude) - 1;
+    }
+
+    /**
+     * One stripe's buckets; separate objects, so stripes don't share cache lines
+     */
+    private static final class Stripe {
+        final AtomicLong[] counts = new AtomicLong[BUCKETS];
+        final AtomicLong total = new AtomicLong();
+
+        Stripe() {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = new AtomicLong();
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package me.runthebot.jeopardy.metrics;
+
+/**
+ * Something measured, exported under a name in the Prometheus text format.
+ */
+public abstract class Metric {
+    private final String name;
+    private final String help;
+
+    Metric(String name, String help) {
+        this.name = name;
+        this.help = help;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+
+    /**
+     * Appends this metric's samples in the Prometheus text format
+     */
+    abstract void write(StringBuilder out);
+
+    void writeHeader(StringBuilder out, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+}
@@ -0,0 +1,72 @@
+package me.runthebot.jeopardy.metrics;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Every metric in the process, by name.
+ *
+ * Metrics are made once, usually as static fields of a class that lists a part
+ * of the game's instruments like {@link GameMetrics}, and live for the life of
+ * the process. Recording into one never locks or allocates; writing them all
+ * out, for a scrape or an overlay, does both.
+ */
+public final class Metrics {
+    // How many stripes each metric keeps; a power of two
+    public static final int STRIPES = 8;
+
+    private static final Array<Metric> metrics = new Array<>();
+    private static volatile Striping striping = new Striping() {
+        @Override
+        public int stripe() {
+            return 0;
+        }
+    };
+
+    private Metrics() {
+    }
+
+    /**
+     * Sets how threads are spread over stripes, before they start recording
+     */
+    public static void setStriping(Striping striping) {
+        Metrics.striping = striping;
+    }
+
+    static int stripe() {
+        return striping.stripe() & (STRIPES - 1);
+    }
+
+    public static Counter counter(String name, String help) {
+        return register(new Counter(name, help));
+    }
+
+    public static Gauge gauge(String name, String help) {
+        return register(new Gauge(name, help));
+    }
+
+    /**
+     * @param name ends in _seconds, as the values are exported in seconds
+     */
+    public static Histogram histogram(String name, String help) {
+        return register(new Histogram(name, help));
+    }
+
+    /**
+     * Appends every metric in the Prometheus text format, in the order they were made
+     */
+    public static synchronized void write(StringBuilder out) {
+        for (Metric metric : metrics) {
+            metric.write(out);
+        }
+    }
+
+    private static synchronized <T extends Metric> T register(T metric) {
+        for (Metric other : metrics) {
+            if (other.getName().equals(metric.getName())) {
+                throw new IllegalArgumentException("Metric already exists: " + metric.getName());
+            }
+        }
+        metrics.add(metric);
+        return metric;
+    }
+}
@@ -0,0 +1,18 @@
+package me.runthebot.jeopardy.metrics;
+
+/**
+ * Picks which of a metric's stripes the calling thread records into.
+ *
+ * Threads that share a stripe share its cache line, and contend for it; any
+ * answer is correct, since reading a metric adds its stripes up. Core can't
+ * name threads, as the web build has none, so the default puts everything in
+ * stripe 0 and JVM builds install {@code jvm.ThreadStriping} through
+ * {@link Metrics#setStriping}.
+ */
+public interface Striping {
+    /**
+     * @return any int, the same for a thread each time it asks if it can be;
+     *         reduced modulo {@link Metrics#STRIPES}
+     */
+    int stripe();
+}
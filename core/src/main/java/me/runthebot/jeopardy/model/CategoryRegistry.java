@@ -0,0 +1,190 @@
+package me.runthebot.jeopardy.model;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Registry of every question category the game has seen.
+ *
+ * Categories come from the question banks, so there can be any number of them.
+ * Each distinct name (ignoring case) is given a small integer ID the first time it
+ * is registered, counting up from 0, and keeps it for the life of the process.
+ * The rest of the game keys boards, saves and question lookups on these IDs and
+ * only turns them back into names for display.
+ *
+ * Looking a name up never locks, and for ASCII names never allocates either: the
+ * name is hashed and compared in place as though it were trimmed and lowercased.
+ * Other names are folded first. Turning an ID back into its name is a plain
+ * array read that never locks.
+ */
+public final class CategoryRegistry {
+    // Returned by find for names that have not been registered
+    public static final int NONE = -1;
+
+    // Case-folded name -> ID; replaced by a copy with the new name on registration, so readers never lock
+    private static final AtomicReference<Table> ids = new AtomicReference<>(new Table(16));
+    // Display names by ID; replaced by a larger copy when full, so readers never lock
+    private static final AtomicReference<String[]> names = new AtomicReference<>(new String[16]);
+    private static int count;
+
+    private CategoryRegistry() {
+    }
+
+    /**
+     * Gets the ID for a category name, registering the name if it is new.
+     * The first spelling registered is the one shown to players.
+     *
+     * @param name the display name of the category
+     * @return the category's ID
+     */
+    public static synchronized int register(String name) {
+        String key = fold(name);
+        Table table = ids.get();
+        int id = table.get(key, 0, key.length(), key.hashCode());
+        if (id != NONE) {
+            return id;
+        }
+
+        String[] current = names.get();
+        if (count == current.length) {
+            String[] grown = new String[current.length * 2];
+            System.arraycopy(current, 0, grown, 0, count);
+            current = grown;
+        }
+        id = count;
+        current[id] = name.trim();
+        names.set(current);
+        ids.set(table.with(key, id));
+        count++;
+        return id;
+    }
+
+    /**
+     * Finds a category by name, ignoring case
+     *
+     * @param name the display name to look up
+     * @return the category's ID, or {@link #NONE} if it has not been registered
+     */
+    public static int find(String name) {
+        if (name == null) {
+            return NONE;
+        }
+        int start = 0;
+        int end = name.length();
+        while (start < end && name.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && name.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        // The same hash as the folded name's String.hashCode
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            char c = name.charAt(i);
+            if (c >= 0x80) {
+                String key = fold(name);
+                return ids.get().get(key, 0, key.length(), key.hashCode());
+            }
+            hash = 31 * hash + lower(c);
+        }
+        return ids.get().get(name, start, end, hash);
+    }
+
+    /**
+     * @param id a category ID returned by {@link #register(String)}
+     * @return the display name of the category
+     */
+    public static String getName(int id) {
+        return names.get()[id];
+    }
+
+    /**
+     * @return the number of categories registered so far; every ID is below this
+     */
+    public static synchronized int size() {
+        return count;
+    }
+
+    private static String fold(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // Lowercases ASCII the way toLowerCase(Locale.ROOT) does and leaves anything else alone
+    private static char lower(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Open-addressed table of folded names, never changed once published
+     */
+    private static final class Table {
+        // Folded names by slot, null where empty; at most half full
+        private final String[] keys;
+        private final int[] values;
+        private int size;
+
+        Table(int capacity) {
+            keys = new String[capacity];
+            values = new int[capacity];
+        }
+
+        /**
+         * @param name holds the name to look up between start and end, folded or
+         *        not; anything past ASCII must already be folded
+         * @param hash the hash of the folded name
+         * @return the name's ID, or {@link #NONE} if it is not in the table
+         */
+        int get(String name, int start, int end, int hash) {
+            int mask = keys.length - 1;
+            int length = end - start;
+            for (int slot = slot(hash, mask); ; slot = (slot + 1) & mask) {
+                String key = keys[slot];
+                if (key == null) {
+                    return NONE;
+                }
+                if (key.length() == length && matches(key, name, start)) {
+                    return values[slot];
+                }
+            }
+        }
+
+        private static boolean matches(String key, String name, int start) {
+            for (int i = 0; i < key.length(); i++) {
+                if (key.charAt(i) != lower(name.charAt(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @return a copy of this table with a folded name added, grown if needed
+         */
+        Table with(String key, int id) {
+            Table copy = new Table((size + 1) * 2 > keys.length ? keys.length * 2 : keys.length);
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != null) {
+                    copy.put(keys[i], values[i]);
+                }
+            }
+            copy.put(key, id);
+            return copy;
+        }
+
+        private void put(String key, int id) {
+            int mask = keys.length - 1;
+            int slot = slot(key.hashCode(), mask);
+            while (keys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = id;
+            size++;
+        }
+
+        private static int slot(int hash, int mask) {
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+    }
+}
@@ -0,0 +1,434 @@
+/**
+ * The rules of a Jeopardy game, without any user interface.
+ * The engine owns the turn order, scores and which clues have been played, and
+ * changes them only in response to commands: select a clue, answer it, let it time
+ * out, or move to the next turn. Every change is reported to a listener, which is
+ * how the game screen, or a server, finds out what happened.
+ * Commands that break the rules (opening a played clue, answering when no clue is
+ * open) are refused by returning false rather than throwing, so a client sending
+ * stale input can't upset the game.
+ * Commands and events allocate nothing, so one JVM can run many games at once.
+ * Played with buzzers, an open clue goes to whoever buzzes in first rather than
+ * the player who picked it, and a correct answer wins the next pick. Deciding who
+ * was first is up to the caller; the engine takes its word for it.
+ */
+package me.runthebot.jeopardy.model;
+
+import com.badlogic.gdx.utils.Array;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.data.QuestionData;
+
+public class GameEngine {
+    /**
+     * What the game is waiting for
+     */
+    public enum Phase {
+        // Waiting for the current player to pick a clue
+        SELECTING,
+        // A clue is open, waiting for a player to buzz in or the timer
+        BUZZING,
+        // A clue is open, waiting for an answer or the timer
+        CLUE_OPEN,
+        // Every clue has been played, or the game was ended early
+        GAME_OVER
+    }
+
+    /**
+     * How an open clue was closed
+     */
+    public enum Outcome {
+        CORRECT,
+        WRONG,
+        TIMEOUT
+    }
+
+    /**
+     * Receives the engine's events, on the thread that sent the command
+     */
+    public interface Listener {
+        /**
+         * @param column the board column of the clue
+         * @param tier the 0-based value tier of the clue
+         * @param player the index of the player who picked it
+         */
+        void clueSelected(int column, int tier, int player);
+
+        /**
+         * @param player the index of the player who buzzed in and answers the open clue
+         */
+        void buzzedIn(int player);
+
+        /**
+         * @param column the board column of the clue
+         * @param tier the 0-based value tier of the clue
+         * @param player the index of the player who answered it
+         * @param outcome how the clue was closed
+         * @param points the points the player was awarded
+         */
+        void clueClosed(int column, int tier, int player, Outcome outcome, int points);
+
+        /**
+         * @param player the index of the player whose score changed
+         * @param score the player's new score
+         */
+        void scoreChanged(int player, int score);
+
+        /**
+         * @param player the index of the player whose turn it is now
+         */
+        void turnChanged(int player);
+
+        void gameOver();
+    }
+
+    /**
+     * A listener that ignores every event; override the ones you need
+     */
+    public static class ListenerAdapter implements Listener {
+        @Override
+        public void clueSelected(int column, int tier, int player) {
+        }
+
+        @Override
+        public void buzzedIn(int player) {
+        }
+
+        @Override
+        public void clueClosed(int column, int tier, int player, Outcome outcome, int points) {
+        }
+
+        @Override
+        public void scoreChanged(int player, int score) {
+        }
+
+        @Override
+        public void turnChanged(int player) {
+        }
+
+        @Override
+        public void gameOver() {
+        }
+    }
+
+    private static final Listener NO_LISTENER = new ListenerAdapter();
+
+    private Listener listener = NO_LISTENER;
+    private Array<Player> players;
+    private int currentPlayer;
+    // Which clues have been opened, indexed by [board column][tier]
+    private boolean[][] answered;
+    private int answeredCount;
+    private int totalClues;
+    // The board's questions, indexed like answered; null until the board is ready
+    private QuestionData[][] board;
+    private Phase phase = Phase.SELECTING;
+    private int openColumn = -1;
+    private int openTier = -1;
+    private boolean buzzIn;
+    // Who answers the open clue; -1 until someone buzzes in
+    private int answeringPlayer = -1;
+
+    /**
+     * Creates an engine for a new game
+     * @param players The players, in turn order
+     * @param columns The number of board columns
+     */
+    public GameEngine(Array<Player> players, int columns) {
+        reset(players, columns);
+    }
+
+    /**
+     * Starts a new game with no clues played; the first player goes first.
+     * Reuses the engine's arrays when the board is the same size.
+     * @param players The players, in turn order
+     * @param columns The number of board columns
+     */
+    public void reset(Array<Player> players, int columns) {
+        if (answered == null || answered.length != columns) {
+            answered = new boolean[columns][GameConfig.QUESTIONS_PER_CATEGORY];
+        } else {
+            for (boolean[] column : answered) {
+                for (int tier = 0; tier < column.length; tier++) {
+                    column[tier] = false;
+                }
+            }
+        }
+        this.players = players;
+        this.currentPlayer = 0;
+        this.answeredCount = 0;
+        this.totalClues = columns * GameConfig.QUESTIONS_PER_CATEGORY;
+        this.board = null;
+        this.phase = Phase.SELECTING;
+        this.openColumn = -1;
+        this.openTier = -1;
+        this.answeringPlayer = -1;
+    }
+
+    /**
+     * Resumes a saved game. The arrays are used as they are, not copied.
+     * @param players The players, in turn order
+     * @param answered Which clues have been played, indexed by [board column][tier]
+     * @param currentPlayer The index of the player whose turn it is
+     */
+    public void load(Array<Player> players, boolean[][] answered, int currentPlayer) {
+        this.players = players;
+        this.answered = answered;
+        this.currentPlayer = currentPlayer;
+        this.answeredCount = countAnswered();
+        this.totalClues = answered.length * GameConfig.QUESTIONS_PER_CATEGORY;
+        this.board = null;
+        this.phase = answeredCount >= totalClues ? Phase.GAME_OVER : Phase.SELECTING;
+        this.openColumn = -1;
+        this.openTier = -1;
+        this.answeringPlayer = -1;
+    }
+
+    /**
+     * @param listener receives the engine's events, or null for none
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener != null ? listener : NO_LISTENER;
+    }
+
+    /**
+     * Chooses whether open clues go to whoever buzzes in first, or to the player who picked them
+     * @param buzzIn true to play with buzzers; takes effect from the next clue selected
+     */
+    public void setBuzzIn(boolean buzzIn) {
+        this.buzzIn = buzzIn;
+    }
+
+    /**
+     * Sets the questions clues are checked against; clues can't be selected without them
+     * @param board The questions indexed by [board column][tier], or null while the board is generating
+     */
+    public void setBoard(QuestionData[][] board) {
+        this.board = board;
+    }
+
+    /**
+     * Opens a clue for the current player
+     * @param column The board column
+     * @param tier The 0-based value tier
+     * @return true if the clue was opened; false if the board isn't ready, another clue
+     *         is open, or this clue has been played
+     */
+    public boolean selectClue(int column, int tier) {
+        if (phase != Phase.SELECTING || board == null
+            || column < 0 || column >= answered.length || tier < 0 || tier >= answered[column].length
+            || answered[column][tier]) {
+            return false;
+        }
+        answered[column][tier] = true;
+        openColumn = column;
+        openTier = tier;
+        if (buzzIn) {
+            answeringPlayer = -1;
+            phase = Phase.BUZZING;
+        } else {
+            answeringPlayer = currentPlayer;
+            phase = Phase.CLUE_OPEN;
+        }
+        listener.clueSelected(column, tier, currentPlayer);
+        return true;
+    }
+
+    /**
+     * Gives the open clue to the player who buzzed in first
+     * @param player The index of the player
+     * @return true if the player answers the clue; false if no clue is waiting for buzzers
+     *         or there is no such player
+     */
+    public boolean buzz(int player) {
+        if (phase != Phase.BUZZING || player < 0 || player >= players.size) {
+            return false;
+        }
+        answeringPlayer = player;
+        phase = Phase.CLUE_OPEN;
+        listener.buzzedIn(player);
+        return true;
+    }
+
+    /**
+     * Answers the open clue for the player who answers it
+     * @param choice The index of the chosen answer among the question's choices
+     * @return true if the answer was taken; false if no clue is open or the choice doesn't exist
+     */
+    public boolean answer(int choice) {
+        if (phase != Phase.CLUE_OPEN) {
+            return false;
+        }
+        QuestionData question = board[openColumn][openTier];
+        if (choice < 0 || choice >= question.getChoiceCount()) {
+            return false;
+        }
+        boolean correct = question.getChoice(choice).equals(question.getCorrectAnswer());
+        closeClue(correct ? Outcome.CORRECT : Outcome.WRONG, correct ? valueOf(openTier) : 0);
+        return true;
+    }
+
+    /**
+     * Closes the open clue because its time ran out, whether or not anyone buzzed in;
+     * nobody scores
+     * @return true if a clue was open
+     */
+    public boolean timeout() {
+        if (phase != Phase.CLUE_OPEN && phase != Phase.BUZZING) {
+            return false;
+        }
+        closeClue(Outcome.TIMEOUT, 0);
+        return true;
+    }
+
+    /**
+     * Passes the turn to the next player without playing a clue
+     * @return true if the turn passed; false while a clue is open or after the game is over
+     */
+    public boolean nextTurn() {
+        if (phase != Phase.SELECTING) {
+            return false;
+        }
+        advanceTurn();
+        return true;
+    }
+
+    /**
+     * Adds points to the current player outside of a clue, e.g. from the dev controls
+     * @param points The points to add
+     * @return true if the points were added; false after the game is over
+     */
+    public boolean addScore(int points) {
+        if (phase == Phase.GAME_OVER) {
+            return false;
+        }
+        Player player = players.get(currentPlayer);
+        player.updateScore(points);
+        listener.scoreChanged(currentPlayer, player.getScore());
+        return true;
+    }
+
+    /**
+     * Ends the game now, whatever clues are left
+     * @return true if the game was still running
+     */
+    public boolean endGame() {
+        if (phase == Phase.GAME_OVER) {
+            return false;
+        }
+        phase = Phase.GAME_OVER;
+        listener.gameOver();
+        return true;
+    }
+
+    private void closeClue(Outcome outcome, int points) {
+        int column = openColumn;
+        int tier = openTier;
+        // Nobody buzzing in counts against the player who picked the clue
+        int player = answeringPlayer >= 0 ? answeringPlayer : currentPlayer;
+        openColumn = -1;
+        openTier = -1;
+        answeringPlayer = -1;
+        answeredCount++;
+        phase = answeredCount >= totalClues ? Phase.GAME_OVER : Phase.SELECTING;
+
+        if (points != 0) {
+            Player scorer = players.get(player);
+            scorer.updateScore(points);
+            listener.scoreChanged(player, scorer.getScore());
+        }
+        listener.clueClosed(column, tier, player, outcome, points);
+        if (buzzIn && outcome == Outcome.CORRECT) {
+            // Answering right wins the next pick
+            currentPlayer = player;
+            listener.turnChanged(currentPlayer);
+        } else {
+            advanceTurn();
+        }
+        if (phase == Phase.GAME_OVER) {
+            listener.gameOver();
+        }
+    }
+
+    private void advanceTurn() {
+        currentPlayer = (currentPlayer + 1) % players.size;
+        listener.turnChanged(currentPlayer);
+    }
+
+    /**
+     * Counts the clues that have been played.
+     * @return The number of played clues
+     */
+    private int countAnswered() {
+        int count = 0;
+        for (boolean[] column : answered) {
+            for (boolean played : column) {
+                if (played) count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param tier a 0-based value tier
+     * @return the dollar value of clues in the tier
+     */
+    public static int valueOf(int tier) {
+        return GameConfig.VALUE_STEP * (tier + 1);
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public Array<Player> getPlayers() {
+        return players;
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * @return which clues have been played, indexed by [board column][tier]; the engine's own array
+     */
+    public boolean[][] getAnswered() {
+        return answered;
+    }
+
+    public boolean isAnswered(int column, int tier) {
+        return answered[column][tier];
+    }
+
+    public int getAnsweredCount() {
+        return answeredCount;
+    }
+
+    public int getTotalClues() {
+        return totalClues;
+    }
+
+    /**
+     * @return the board column of the open clue, or -1 if none is open
+     */
+    public int getOpenColumn() {
+        return openColumn;
+    }
+
+    /**
+     * @return the tier of the open clue, or -1 if none is open
+     */
+    public int getOpenTier() {
+        return openTier;
+    }
+
+    /**
+     * @return the player who answers the open clue, or -1 if none is open or nobody has buzzed in yet
+     */
+    public int getAnsweringPlayer() {
+        return answeringPlayer;
+    }
+
+    public boolean isBuzzIn() {
+        return buzzIn;
+    }
+}
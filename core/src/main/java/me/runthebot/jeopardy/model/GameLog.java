@@ -0,0 +1,595 @@
+package me.runthebot.jeopardy.model;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Base64Coder;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IntArray;
+import me.runthebot.jeopardy.net.WireReader;
+import me.runthebot.jeopardy.net.WireWriter;
+
+/**
+ * Everything that happened in one game, as an append-only binary log.
+ *
+ * The log sits between a {@link GameEngine} and its listener: every event the
+ * engine reports is appended and then passed on. The game it starts from comes
+ * first, and every {@link #SNAPSHOT_EVERY} events a snapshot of the scores, turn
+ * and played clues follows, so the game as it stood after any number of events is
+ * rebuilt from the snapshot before it and at most that many events, not from the
+ * start. A game's log is a few kilobytes at most.
+ *
+ * Records are framed like the network protocol's messages, a varint length then
+ * the body, whose first byte is the record type; the field types are as in
+ * {@link me.runthebot.jeopardy.net.Protocol}. Categories are logged by name, since
+ * IDs only hold for one run.
+ * <pre>
+ * HEADER    varint version, long seed, varint columns, varint tiers, columns x string category,
+ *           varint players, players x string name                 always first
+ * CLUES     columns x tiers varint clue ID, column by column      once the board is drawn
+ * BOARD     columns x tiers varint position in the bank            older logs only; skipped
+ * SNAPSHOT  varint events, varint current player, players x svarint score,
+ *           columns x tiers bits played, column by column, 8 to a byte low bit first
+ * SELECTED  varint column, varint tier, varint player
+ * BUZZED    varint player
+ * CLOSED    varint column, varint tier, varint player, varint outcome, svarint points
+ * SCORE     varint player, svarint score
+ * TURN      varint player
+ * GAME_OVER -
+ * </pre>
+ * A log read back after a crash may end partway through a record; that record is
+ * dropped and appending carries on from the one before. Appending allocates only
+ * when the buffer grows. Not thread-safe: append and read on the engine's thread.
+ */
+public class GameLog implements GameEngine.Listener {
+    // Events between snapshots; at most this many are replayed to rebuild a game
+    public static final int SNAPSHOT_EVERY = 64;
+
+    private static final int VERSION = 1;
+
+    // Record types
+    private static final int HEADER = 1;
+    private static final int BOARD = 2;
+    private static final int SNAPSHOT = 3;
+    private static final int CLUES = 4;
+    private static final int SELECTED = 16;
+    private static final int BUZZED = 17;
+    private static final int CLOSED = 18;
+    private static final int SCORE = 19;
+    private static final int TURN = 20;
+    private static final int GAME_OVER = 21;
+
+    private static final GameEngine.Outcome[] OUTCOMES = GameEngine.Outcome.values();
+
+    private GameEngine.Listener listener;
+    private byte[] bytes = new byte[1024];
+    private int length;
+    // Where each snapshot starts; snapshot k follows event k * SNAPSHOT_EVERY
+    private final IntArray snapshots = new IntArray();
+    private int events;
+
+    private long seed;
+    private String[] categoryNames;
+    private int[] categories;
+    private String[] playerNames;
+    private int tiers;
+    // Clue ID of each board question, or null until the board is drawn
+    private int[][] clues;
+
+    // The game as of the last event, kept up by reading back each record appended
+    private boolean[][] played;
+    private int[] scores;
+    private int currentPlayer;
+
+    private final WireWriter out = new WireWriter();
+    private final WireReader in = new WireReader();
+
+    private GameLog() {
+    }
+
+    /**
+     * Starts a log of a game
+     *
+     * @param start the game as it stands before the first event
+     */
+    public GameLog(GameState start) {
+        boolean[][] board = start.getBoardState();
+        Array<Player> players = start.getPlayers();
+        int[] ids = start.getCategories();
+        seed = start.getSeed();
+        tiers = board.length > 0 ? board[0].length : 0;
+        categories = ids;
+        categoryNames = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            categoryNames[i] = CategoryRegistry.getName(ids[i]);
+        }
+        playerNames = new String[players.size];
+        for (int i = 0; i < players.size; i++) {
+            playerNames[i] = players.get(i).getName();
+        }
+        played = GameState.copyBoard(board);
+        scores = new int[players.size];
+        for (int i = 0; i < players.size; i++) {
+            scores[i] = players.get(i).getScore();
+        }
+        currentPlayer = start.getCurrentPlayerIndex();
+
+        out.begin(HEADER).writeVarInt(VERSION).writeLong(seed).writeVarInt(board.length).writeVarInt(tiers);
+        for (String name : categoryNames) {
+            out.writeString(name);
+        }
+        out.writeVarInt(playerNames.length);
+        for (String name : playerNames) {
+            out.writeString(name);
+        }
+        append(out.end());
+        if (start.getClues() != null) {
+            setClues(start.getClues());
+        }
+        snapshot();
+    }
+
+    /**
+     * @param listener receives every event after it is logged, or null for none
+     */
+    public void setListener(GameEngine.Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Logs which clues are on the board, once it has been drawn
+     *
+     * @param clues the clue ID of each question, indexed by [board column][tier]
+     */
+    public void setClues(int[][] clues) {
+        out.begin(CLUES);
+        for (int[] column : clues) {
+            for (int clue : column) {
+                out.writeVarInt(clue);
+            }
+        }
+        int at = length;
+        append(out.end());
+        next(at);
+        in.readVarInt();
+        readClues();
+    }
+
+    /**
+     * @return true once the board's questions have been logged
+     */
+    public boolean hasClues() {
+        return clues != null;
+    }
+
+    @Override
+    public void clueSelected(int column, int tier, int player) {
+        event(out.begin(SELECTED).writeVarInt(column).writeVarInt(tier).writeVarInt(player));
+        if (listener != null) {
+            listener.clueSelected(column, tier, player);
+        }
+    }
+
+    @Override
+    public void buzzedIn(int player) {
+        event(out.begin(BUZZED).writeVarInt(player));
+        if (listener != null) {
+            listener.buzzedIn(player);
+        }
+    }
+
+    @Override
+    public void clueClosed(int column, int tier, int player, GameEngine.Outcome outcome, int points) {
+        event(out.begin(CLOSED).writeVarInt(column).writeVarInt(tier).writeVarInt(player)
+            .writeVarInt(outcome.ordinal()).writeSignedVarInt(points));
+        if (listener != null) {
+            listener.clueClosed(column, tier, player, outcome, points);
+        }
+    }
+
+    @Override
+    public void scoreChanged(int player, int score) {
+        event(out.begin(SCORE).writeVarInt(player).writeSignedVarInt(score));
+        if (listener != null) {
+            listener.scoreChanged(player, score);
+        }
+    }
+
+    @Override
+    public void turnChanged(int player) {
+        event(out.begin(TURN).writeVarInt(player));
+        if (listener != null) {
+            listener.turnChanged(player);
+        }
+    }
+
+    @Override
+    public void gameOver() {
+        event(out.begin(GAME_OVER));
+        if (listener != null) {
+            listener.gameOver();
+        }
+    }
+
+    /**
+     * @return the number of events logged
+     */
+    public int getEventCount() {
+        return events;
+    }
+
+    /**
+     * @return the log's bytes, valid until the next append; only ever added to at the end
+     */
+    public byte[] getBuffer() {
+        return bytes;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return the game as it stands after the last event
+     */
+    public GameState rebuild() {
+        return rebuild(events);
+    }
+
+    /**
+     * Rebuilds the game as it stood after some of its events
+     *
+     * @param count how many events to take, from 0 to {@link #getEventCount}
+     * @return a new game state, sharing nothing with the log
+     */
+    public GameState rebuild(int count) {
+        if (count < 0 || count > events) {
+            throw new IllegalArgumentException("No such point in the game: " + count);
+        }
+        int at = snapshots.get(Math.min(count / SNAPSHOT_EVERY, snapshots.size - 1));
+        // The snapshot, then the events after it
+        at = next(at);
+        in.readVarInt();
+        int reached = in.readVarInt();
+        int current = in.readVarInt();
+        int[] points = new int[playerNames.length];
+        for (int i = 0; i < points.length; i++) {
+            points[i] = in.readSignedVarInt();
+        }
+        boolean[][] board = new boolean[categoryNames.length][tiers];
+        readBits(board);
+        while (reached < count) {
+            at = next(at);
+            int type = in.readVarInt();
+            if (type < SELECTED) {
+                continue;
+            }
+            reached++;
+            if (type == SELECTED) {
+                int column = in.readVarInt();
+                board[column][in.readVarInt()] = true;
+            } else if (type == SCORE) {
+                int player = in.readVarInt();
+                points[player] = in.readSignedVarInt();
+            } else if (type == TURN) {
+                current = in.readVarInt();
+            }
+        }
+
+        Array<Player> players = new Array<>(playerNames.length);
+        for (int i = 0; i < playerNames.length; i++) {
+            Player player = new Player(playerNames[i]);
+            player.updateScore(points[i]);
+            players.add(player);
+        }
+        return new GameState(board, players, current, seed, categories.clone(), copyClues());
+    }
+
+    /**
+     * Passes some of the logged events to a listener, as the engine first reported them
+     *
+     * @param from the number of events to skip
+     * @param to the number of events to stop after, at most {@link #getEventCount}
+     * @param listener receives the events
+     */
+    public void replay(int from, int to, GameEngine.Listener listener) {
+        if (from < 0 || to > events || from > to) {
+            throw new IllegalArgumentException("No such events: " + from + " to " + to);
+        }
+        int at = snapshots.get(Math.min(from / SNAPSHOT_EVERY, snapshots.size - 1));
+        at = next(at);
+        in.readVarInt();
+        int reached = in.readVarInt();
+        while (reached < to) {
+            at = next(at);
+            int type = in.readVarInt();
+            if (type < SELECTED) {
+                continue;
+            }
+            if (reached++ < from) {
+                continue;
+            }
+            switch (type) {
+                case SELECTED:
+                    int column = in.readVarInt();
+                    int tier = in.readVarInt();
+                    listener.clueSelected(column, tier, in.readVarInt());
+                    break;
+                case BUZZED:
+                    listener.buzzedIn(in.readVarInt());
+                    break;
+                case CLOSED:
+                    column = in.readVarInt();
+                    tier = in.readVarInt();
+                    int player = in.readVarInt();
+                    GameEngine.Outcome outcome = OUTCOMES[in.readVarInt()];
+                    listener.clueClosed(column, tier, player, outcome, in.readSignedVarInt());
+                    break;
+                case SCORE:
+                    player = in.readVarInt();
+                    listener.scoreChanged(player, in.readSignedVarInt());
+                    break;
+                case TURN:
+                    listener.turnChanged(in.readVarInt());
+                    break;
+                case GAME_OVER:
+                    listener.gameOver();
+                    break;
+            }
+        }
+    }
+
+    /**
+     * @return the log as text, to keep in the preferences
+     */
+    public String encode() {
+        return new String(Base64Coder.encode(bytes, length));
+    }
+
+    /**
+     * @param text a log from {@link #encode}
+     * @return the log, ready to be appended to
+     * @throws GdxRuntimeException if it isn't a game log
+     */
+    public static GameLog decode(String text) {
+        byte[] data;
+        try {
+            data = Base64Coder.decode(text);
+        } catch (IllegalArgumentException e) {
+            throw new GdxRuntimeException("Not a game log", e);
+        }
+        return read(data, 0, data.length);
+    }
+
+    /**
+     * Reads a log back, checking every record
+     *
+     * @param data holds the log, which is copied
+     * @param offset where it starts
+     * @param count how long it is; a record cut short at the end is dropped
+     * @return the log, ready to be appended to
+     * @throws GdxRuntimeException if it isn't a game log, or is broken before its end
+     */
+    public static GameLog read(byte[] data, int offset, int count) {
+        GameLog log = new GameLog();
+        log.bytes = new byte[Math.max(count, 1024)];
+        System.arraycopy(data, offset, log.bytes, 0, count);
+        int end = log.recordEnd(0, count);
+        if (end < 0) {
+            throw new GdxRuntimeException("Not a game log");
+        }
+        log.length = end;
+        log.readHeader();
+
+        int at = end;
+        while ((end = log.recordEnd(at, count)) > 0) {
+            log.length = end;
+            log.next(at);
+            int type = log.in.readVarInt();
+            if (type == CLUES) {
+                log.readClues();
+            } else if (type == BOARD) {
+                // Positions in the bank don't survive the bank changing; the board is drawn from the seed again
+                log.clues = null;
+            } else if (type == SNAPSHOT) {
+                if (log.in.readVarInt() != log.events || log.snapshots.size * SNAPSHOT_EVERY != log.events) {
+                    throw new GdxRuntimeException("Game log snapshot out of place at " + at);
+                }
+                log.snapshots.add(at);
+                log.readSnapshot();
+            } else if (type >= SELECTED && type <= GAME_OVER) {
+                log.apply(type);
+            } else {
+                throw new GdxRuntimeException("Unknown game log record " + type + " at " + at);
+            }
+            at = end;
+        }
+        if (log.snapshots.size == 0) {
+            throw new GdxRuntimeException("Game log has no snapshot");
+        }
+        if (log.events >= log.snapshots.size * SNAPSHOT_EVERY) {
+            // Cut off between the event and the snapshot that follows it
+            log.snapshot();
+        }
+        return log;
+    }
+
+    private void event(WireWriter record) {
+        int at = length;
+        append(record.end());
+        next(at);
+        apply(in.readVarInt());
+        if (events % SNAPSHOT_EVERY == 0) {
+            snapshot();
+        }
+    }
+
+    /**
+     * Brings the game as of the last event up to date with an event being read
+     */
+    private void apply(int type) {
+        events++;
+        if (type == SELECTED) {
+            int column = in.readVarInt();
+            played[column][in.readVarInt()] = true;
+        } else if (type == SCORE) {
+            int player = in.readVarInt();
+            scores[player] = in.readSignedVarInt();
+        } else if (type == TURN) {
+            currentPlayer = in.readVarInt();
+        }
+    }
+
+    private void snapshot() {
+        snapshots.add(length);
+        out.begin(SNAPSHOT).writeVarInt(events).writeVarInt(currentPlayer);
+        for (int score : scores) {
+            out.writeSignedVarInt(score);
+        }
+        int bits = 0;
+        int count = 0;
+        for (boolean[] column : played) {
+            for (boolean clue : column) {
+                if (clue) {
+                    bits |= 1 << count;
+                }
+                if (++count == 8) {
+                    out.writeByte(bits);
+                    bits = 0;
+                    count = 0;
+                }
+            }
+        }
+        if (count > 0) {
+            out.writeByte(bits);
+        }
+        append(out.end());
+    }
+
+    /**
+     * Takes the game as of the last event from the SNAPSHOT record the reader is on, past its event count
+     */
+    private void readSnapshot() {
+        currentPlayer = in.readVarInt();
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = in.readSignedVarInt();
+        }
+        readBits(played);
+    }
+
+    private void readHeader() {
+        next(0);
+        if (in.readVarInt() != HEADER) {
+            throw new GdxRuntimeException("Not a game log");
+        }
+        int version = in.readVarInt();
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Unsupported game log version: " + version);
+        }
+        seed = in.readLong();
+        int columns = in.readVarInt();
+        tiers = in.readVarInt();
+        categoryNames = new String[columns];
+        categories = new int[columns];
+        for (int i = 0; i < columns; i++) {
+            categoryNames[i] = in.readString();
+            categories[i] = CategoryRegistry.register(categoryNames[i]);
+        }
+        playerNames = new String[in.readVarInt()];
+        for (int i = 0; i < playerNames.length; i++) {
+            playerNames[i] = in.readString();
+        }
+        played = new boolean[columns][tiers];
+        scores = new int[playerNames.length];
+        currentPlayer = 0;
+    }
+
+    /**
+     * Reads the CLUES record the reader is on
+     */
+    private void readClues() {
+        int[][] read = new int[categoryNames.length][tiers];
+        for (int[] column : read) {
+            for (int tier = 0; tier < column.length; tier++) {
+                column[tier] = in.readVarInt();
+            }
+        }
+        clues = read;
+    }
+
+    /**
+     * Reads the played clues at the end of the SNAPSHOT record the reader is on
+     */
+    private void readBits(boolean[][] board) {
+        int bits = 0;
+        int count = 8;
+        for (boolean[] column : board) {
+            for (int tier = 0; tier < column.length; tier++) {
+                if (count == 8) {
+                    bits = in.readByte();
+                    count = 0;
+                }
+                column[tier] = (bits & 1 << count++) != 0;
+            }
+        }
+    }
+
+    private int[][] copyClues() {
+        if (clues == null) {
+            return null;
+        }
+        int[][] copy = new int[clues.length][];
+        for (int i = 0; i < clues.length; i++) {
+            copy[i] = clues[i].clone();
+        }
+        return copy;
+    }
+
+    private void append(WireWriter record) {
+        int count = record.getLength();
+        if (length + count > bytes.length) {
+            byte[] grown = new byte[Math.max(bytes.length * 2, length + count)];
+            System.arraycopy(bytes, 0, grown, 0, length);
+            bytes = grown;
+        }
+        System.arraycopy(record.getBuffer(), record.getOffset(), bytes, length, count);
+        length += count;
+    }
+
+    /**
+     * Points the reader at the body of the record starting at an offset
+     *
+     * @return where the next record starts
+     */
+    private int next(int at) {
+        int end = recordEnd(at, length);
+        int body = at + 1;
+        while (bytes[body - 1] < 0) {
+            body++;
+        }
+        in.reset(bytes, body, end - body);
+        return end;
+    }
+
+    /**
+     * @return where the record starting at an offset ends, or -1 if it doesn't end by limit
+     */
+    private int recordEnd(int at, int limit) {
+        int bodyLength = 0;
+        int shift = 0;
+        int position = at;
+        while (true) {
+            if (position >= limit || shift > 14) {
+                return -1;
+            }
+            int b = bytes[position++];
+            bodyLength |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                break;
+            }
+            shift += 7;
+        }
+        if (bodyLength == 0 || position + bodyLength > limit) {
+            return -1;
+        }
+        return position + bodyLength;
+    }
+}
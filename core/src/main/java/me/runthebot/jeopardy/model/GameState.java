@@ -9,7 +9,8 @@ import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
 import com.badlogic.gdx.utils.JsonReader;
-import me.runthebot.jeopardy.model.CategoryType;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.data.BoardGenerator;
 
 public class GameState implements Json.Serializable {
     // Tracks which questions have been answered (true = answered, false = available)
@@ -18,17 +19,30 @@ public class GameState implements Json.Serializable {
     private Array<Player> players;
     // Index of the current player's turn
     private int currentPlayerIndex;
+    // Seed the board's questions were generated from
+    private long seed;
+    // Category IDs of the board's columns, or null to pick them from the seed
+    private int[] categories;
+    // Clue ID of each board question, or null to draw them from the seed
+    private int[][] clues;
 
     /**
-     * Creates a new game state with the specified board state, players, and current player.
-     * @param boardState 2D array tracking answered questions
+     * Creates a new game state with the specified board state, players, current player and board.
+     * @param boardState 2D array tracking answered questions, indexed by [board column][tier]
      * @param players Array of players in the game
      * @param currentPlayerIndex Index of the current player's turn
+     * @param seed Seed the board's questions were generated from
+     * @param categories Category IDs of the board's columns
+     * @param clues Clue ID of each board question, indexed by [board column][tier], or null
      */
-    public GameState(boolean[][] boardState, Array<Player> players, int currentPlayerIndex) {
+    public GameState(boolean[][] boardState, Array<Player> players, int currentPlayerIndex, long seed, int[] categories,
+                     int[][] clues) {
         this.boardState = boardState;
         this.players = players;
         this.currentPlayerIndex = currentPlayerIndex;
+        this.seed = seed;
+        this.categories = categories;
+        this.clues = clues;
     }
 
     /**
@@ -36,9 +50,10 @@ public class GameState implements Json.Serializable {
      * Initializes an empty game state with no answered questions and no players.
      */
     public GameState() {
-        this.boardState = new boolean[CategoryType.values().length][5];
+        this.boardState = new boolean[GameConfig.CATEGORIES_PER_BOARD][GameConfig.QUESTIONS_PER_CATEGORY];
         this.players = new Array<>();
         this.currentPlayerIndex = 0;
+        this.seed = BoardGenerator.newSeed();
     }
 
     // Getters for game state properties
@@ -54,6 +69,25 @@ public class GameState implements Json.Serializable {
         return currentPlayerIndex;
     }
 
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the category IDs of the board's columns, or null if the save predates them
+     */
+    public int[] getCategories() {
+        return categories;
+    }
+
+    /**
+     * @return the clue ID of each board question, indexed by [board column][tier],
+     *         or null if the board should be drawn from the seed
+     */
+    public int[][] getClues() {
+        return clues;
+    }
+
     /**
      * Serializes the game state to JSON format.
      * Converts the boolean board state to integers for JSON compatibility.
@@ -62,6 +96,16 @@ public class GameState implements Json.Serializable {
     @Override
     public void write(Json json) {
         json.writeValue("currentPlayerIndex", currentPlayerIndex);
+        json.writeValue("seed", seed);
+
+        // Category IDs are only stable within a run, so saves store the names
+        if (categories != null) {
+            String[] categoryNames = new String[categories.length];
+            for (int i = 0; i < categories.length; i++) {
+                categoryNames[i] = CategoryRegistry.getName(categories[i]);
+            }
+            json.writeValue("categories", categoryNames);
+        }
 
         // Convert boolean[][] to int[][] for JSON serialization
         int[][] serializedBoard = new int[boardState.length][boardState[0].length];
@@ -72,6 +116,11 @@ public class GameState implements Json.Serializable {
         }
         json.writeValue("boardState", serializedBoard);
 
+        // Boards that avoid seen clues can't be redrawn from the seed alone
+        if (clues != null) {
+            json.writeValue("clueIds", clues);
+        }
+
         // Write players array
         json.writeValue("players", players, Array.class, Player.class);
     }
@@ -85,6 +134,18 @@ public class GameState implements Json.Serializable {
     @Override
     public void read(Json json, JsonValue jsonData) {
         this.currentPlayerIndex = jsonData.getInt("currentPlayerIndex");
+        // Saves from before seeded boards get a new board
+        this.seed = jsonData.has("seed") ? jsonData.getLong("seed") : BoardGenerator.newSeed();
+        // Saves from before category IDs pick their categories from the seed
+        JsonValue categoriesJson = jsonData.get("categories");
+        this.categories = null;
+        if (categoriesJson != null) {
+            this.categories = new int[categoriesJson.size];
+            int i = 0;
+            for (JsonValue name = categoriesJson.child; name != null; name = name.next) {
+                this.categories[i++] = CategoryRegistry.register(name.asString());
+            }
+        }
 
         // Convert int[][] back to boolean[][]
         int[][] serializedBoard = json.readValue("boardState", int[][].class, jsonData);
@@ -95,6 +156,10 @@ public class GameState implements Json.Serializable {
             }
         }
 
+        // Saves from before seen clues were tracked redraw their board from the seed, as do those
+        // that kept positions in the bank ("clues") rather than clue IDs
+        this.clues = jsonData.has("clueIds") ? json.readValue("clueIds", int[][].class, jsonData) : null;
+
         // Manually read players array for GWT compatibility
         JsonValue playersJson = jsonData.get("players");
         this.players = new Array<>();
@@ -105,6 +170,24 @@ public class GameState implements Json.Serializable {
         }
     }
 
+    /**
+     * Creates a deep copy of a board state, so a saved game and a running one don't share it.
+     * @param original The board state to copy, indexed by [board column][tier], or null
+     * @return A deep copy of the array, or null
+     */
+    public static boolean[][] copyBoard(boolean[][] original) {
+        if (original == null) return null;
+
+        boolean[][] copy = new boolean[original.length][];
+        for (int i = 0; i < original.length; i++) {
+            copy[i] = new boolean[original[i].length];
+            for (int j = 0; j < original[i].length; j++) {
+                copy[i][j] = original[i][j];
+            }
+        }
+        return copy;
+    }
+
     /**
      * Converts the game state to a JSON string.
      * @return JSON string representation of the game state
@@ -0,0 +1,383 @@
+package me.runthebot.jeopardy.net;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.data.QuestionData;
+import me.runthebot.jeopardy.model.CategoryRegistry;
+import me.runthebot.jeopardy.model.GameEngine;
+import me.runthebot.jeopardy.model.Player;
+
+/**
+ * Encodes and decodes every message in {@link Protocol}, for the server and its
+ * clients alike, so the two can't disagree about the layout.
+ *
+ * The writers each fill in a {@link WireWriter} with one finished frame and return
+ * it. {@link #read(WireReader, RoomState)} applies a server message to a client's
+ * {@link RoomState}. Neither allocates, apart from the strings read.
+ */
+public final class GameCodec {
+    private static final GameEngine.Outcome[] OUTCOMES = GameEngine.Outcome.values();
+
+    private GameCodec() {
+    }
+
+    // Client to server
+
+    public static WireWriter join(WireWriter out, String room, String name) {
+        return out.begin(Protocol.JOIN).writeString(room).writeString(name).end();
+    }
+
+    public static WireWriter watch(WireWriter out, String room) {
+        return out.begin(Protocol.WATCH).writeString(room).end();
+    }
+
+    public static WireWriter start(WireWriter out) {
+        return out.begin(Protocol.START).end();
+    }
+
+    public static WireWriter select(WireWriter out, int column, int tier) {
+        return out.begin(Protocol.SELECT).writeVarInt(column).writeVarInt(tier).end();
+    }
+
+    public static WireWriter answer(WireWriter out, int choice) {
+        return out.begin(Protocol.ANSWER).writeVarInt(choice).end();
+    }
+
+    public static WireWriter leave(WireWriter out) {
+        return out.begin(Protocol.LEAVE).end();
+    }
+
+    public static WireWriter sync(WireWriter out) {
+        return out.begin(Protocol.SYNC).end();
+    }
+
+    /**
+     * @param clue the open clue's number, see {@link RoomState#getOpenSeq()}
+     */
+    public static WireWriter buzz(WireWriter out, int clue) {
+        return out.begin(Protocol.BUZZ).writeVarInt(clue).end();
+    }
+
+    public static WireWriter pong(WireWriter out, long time) {
+        return out.begin(Protocol.PONG).writeLong(time).end();
+    }
+
+    // Server to client
+
+    /**
+     * Starts a snapshot; follow with {@link #snapshotPlayer} for each player and
+     * then one of the endSnapshot methods
+     *
+     * @param seq the sequence number of the room's last change
+     * @param you the recipient's player index, or -1 for a spectator
+     * @param room the room's name
+     * @param players how many players follow
+     * @return the writer
+     */
+    public static WireWriter beginSnapshot(WireWriter out, int seq, int you, String room, int players) {
+        return out.begin(Protocol.SNAPSHOT).writeVarInt(seq).writeVarInt(you + 1).writeString(room).writeVarInt(players);
+    }
+
+    public static WireWriter snapshotPlayer(WireWriter out, Player player, boolean connected) {
+        return out.writeString(player.getName()).writeSignedVarInt(player.getScore()).writeBoolean(connected);
+    }
+
+    /**
+     * Finishes the snapshot of a room in its lobby
+     *
+     * @return the writer
+     */
+    public static WireWriter endSnapshot(WireWriter out) {
+        return out.writeBoolean(false).end();
+    }
+
+    /**
+     * Finishes the snapshot of a room playing a game
+     *
+     * @param seed the seed the board was generated from
+     * @param categories the board's category IDs, one per column
+     * @param engine the game
+     * @param board the board's questions, indexed by [column][tier]
+     * @param clue the open clue's number, if one is open: the seq of its CLUE_OPENED
+     * @param millisLeft how long the open clue has left to buzz in or answer
+     * @return the writer
+     */
+    public static WireWriter endSnapshot(WireWriter out, long seed, int[] categories, GameEngine engine,
+                                         QuestionData[][] board, int clue, int millisLeft) {
+        out.writeBoolean(true).writeLong(seed).writeVarInt(categories.length);
+        for (int category : categories) {
+            out.writeString(CategoryRegistry.getName(category));
+        }
+        int bits = 0;
+        int count = 0;
+        for (int column = 0; column < categories.length; column++) {
+            for (int tier = 0; tier < GameConfig.QUESTIONS_PER_CATEGORY; tier++) {
+                if (engine.isAnswered(column, tier)) {
+                    bits |= 1 << count;
+                }
+                if (++count == 8) {
+                    out.writeByte(bits);
+                    bits = 0;
+                    count = 0;
+                }
+            }
+        }
+        if (count > 0) {
+            out.writeByte(bits);
+        }
+        out.writeVarInt(engine.getCurrentPlayer());
+
+        int column = engine.getOpenColumn();
+        out.writeVarInt(column + 1);
+        if (column >= 0) {
+            int tier = engine.getOpenTier();
+            out.writeVarInt(tier).writeVarInt(clue).writeVarInt(engine.getAnsweringPlayer() + 1)
+                .writeVarInt(Math.max(0, millisLeft));
+            writeClue(out, board[column][tier]);
+        }
+        return out.end();
+    }
+
+    public static WireWriter playerJoined(WireWriter out, int seq, int player, String name) {
+        return out.begin(Protocol.PLAYER_JOINED).writeVarInt(seq).writeVarInt(player).writeString(name).end();
+    }
+
+    /**
+     * @param removed true if the player's seat is gone and later players move down one,
+     *                false if it is kept for the rest of the game
+     */
+    public static WireWriter playerLeft(WireWriter out, int seq, int player, boolean removed) {
+        return out.begin(Protocol.PLAYER_LEFT).writeVarInt(seq).writeVarInt(player).writeBoolean(removed).end();
+    }
+
+    public static WireWriter playerReturned(WireWriter out, int seq, int player) {
+        return out.begin(Protocol.PLAYER_RETURNED).writeVarInt(seq).writeVarInt(player).end();
+    }
+
+    public static WireWriter gameStarted(WireWriter out, int seq, long seed, int[] categories) {
+        out.begin(Protocol.GAME_STARTED).writeVarInt(seq).writeLong(seed).writeVarInt(categories.length);
+        for (int category : categories) {
+            out.writeString(CategoryRegistry.getName(category));
+        }
+        return out.end();
+    }
+
+    public static WireWriter clueOpened(WireWriter out, int seq, int column, int tier, int player, int millis,
+                                        QuestionData question) {
+        out.begin(Protocol.CLUE_OPENED).writeVarInt(seq).writeVarInt(column).writeVarInt(tier).writeVarInt(player)
+            .writeVarInt(millis);
+        writeClue(out, question);
+        return out.end();
+    }
+
+    public static WireWriter clueClosed(WireWriter out, int seq, int column, int tier, int player,
+                                        GameEngine.Outcome outcome, int points, String answer) {
+        return out.begin(Protocol.CLUE_CLOSED).writeVarInt(seq).writeVarInt(column).writeVarInt(tier)
+            .writeVarInt(player).writeVarInt(outcome.ordinal()).writeSignedVarInt(points).writeString(answer).end();
+    }
+
+    public static WireWriter buzzed(WireWriter out, int seq, int player, int millis) {
+        return out.begin(Protocol.BUZZED).writeVarInt(seq).writeVarInt(player).writeVarInt(millis).end();
+    }
+
+    public static WireWriter score(WireWriter out, int seq, int player, int score) {
+        return out.begin(Protocol.SCORE).writeVarInt(seq).writeVarInt(player).writeSignedVarInt(score).end();
+    }
+
+    public static WireWriter turn(WireWriter out, int seq, int player) {
+        return out.begin(Protocol.TURN).writeVarInt(seq).writeVarInt(player).end();
+    }
+
+    public static WireWriter gameOver(WireWriter out, int seq) {
+        return out.begin(Protocol.GAME_OVER).writeVarInt(seq).end();
+    }
+
+    public static WireWriter error(WireWriter out, String message) {
+        return out.begin(Protocol.ERROR).writeString(message).end();
+    }
+
+    public static WireWriter ping(WireWriter out, long time) {
+        return out.begin(Protocol.PING).writeLong(time).end();
+    }
+
+    private static void writeClue(WireWriter out, QuestionData question) {
+        out.writeString(question.getQuestion()).writeVarInt(question.getChoiceCount());
+        for (int i = 0; i < question.getChoiceCount(); i++) {
+            out.writeString(question.getChoice(i));
+        }
+    }
+
+    /**
+     * Applies a message from the server to a client's copy of the room. A change
+     * that doesn't follow on from the last one is dropped and the state marked out
+     * of sync, to be fixed by asking for a snapshot.
+     *
+     * @param in the message body
+     * @param state the client's copy of the room
+     * @return the message type, see {@link Protocol}
+     * @throws GdxRuntimeException if the message is malformed or of an unknown type
+     */
+    public static int read(WireReader in, RoomState state) {
+        int type = in.readVarInt();
+        if (type == Protocol.ERROR) {
+            state.error = in.readString();
+            return type;
+        }
+        if (type == Protocol.PING) {
+            state.ping = in.readLong();
+            return type;
+        }
+        if (type == Protocol.SNAPSHOT) {
+            readSnapshot(in, state);
+            return type;
+        }
+        if (type < Protocol.PLAYER_JOINED || type > Protocol.PLAYER_RETURNED) {
+            throw new GdxRuntimeException("Unknown message " + type);
+        }
+        int seq = in.readVarInt();
+        if (!state.synced || seq != state.seq + 1) {
+            state.synced = false;
+            return type;
+        }
+        state.seq = seq;
+
+        switch (type) {
+            case Protocol.PLAYER_JOINED: {
+                int player = in.readVarInt();
+                state.names.insert(player, in.readString());
+                state.scores.insert(player, 0);
+                state.connected.insert(player, true);
+                break;
+            }
+            case Protocol.PLAYER_LEFT: {
+                int player = in.readVarInt();
+                if (in.readBoolean()) {
+                    state.names.removeIndex(player);
+                    state.scores.removeIndex(player);
+                    state.connected.removeIndex(player);
+                    if (state.you > player) {
+                        state.you--;
+                    }
+                } else {
+                    state.connected.set(player, false);
+                }
+                break;
+            }
+            case Protocol.PLAYER_RETURNED:
+                state.connected.set(in.readVarInt(), true);
+                break;
+            case Protocol.GAME_STARTED:
+                state.seed = in.readLong();
+                readCategories(in, state);
+                state.startBoard(state.categories.size, GameConfig.QUESTIONS_PER_CATEGORY);
+                for (int i = 0; i < state.scores.size; i++) {
+                    state.scores.set(i, 0);
+                }
+                state.playing = true;
+                break;
+            case Protocol.CLUE_OPENED:
+                state.openColumn = in.readVarInt();
+                state.openTier = in.readVarInt();
+                state.openSeq = seq;
+                // The player who picked it, whose turn it already is
+                in.readVarInt();
+                state.openPlayer = -1;
+                state.answerMillis = in.readVarInt();
+                readClue(in, state);
+                break;
+            case Protocol.BUZZED:
+                state.openPlayer = in.readVarInt();
+                state.answerMillis = in.readVarInt();
+                break;
+            case Protocol.CLUE_CLOSED:
+                state.closedColumn = in.readVarInt();
+                state.closedTier = in.readVarInt();
+                state.closedPlayer = in.readVarInt();
+                state.outcome = OUTCOMES[in.readVarInt()];
+                state.points = in.readSignedVarInt();
+                state.correctAnswer = in.readString();
+                state.answered[state.closedColumn][state.closedTier] = true;
+                state.closeClue();
+                break;
+            case Protocol.SCORE: {
+                int player = in.readVarInt();
+                state.scores.set(player, in.readSignedVarInt());
+                break;
+            }
+            case Protocol.TURN:
+                state.currentPlayer = in.readVarInt();
+                break;
+            case Protocol.GAME_OVER:
+                state.playing = false;
+                state.closeClue();
+                break;
+        }
+        return type;
+    }
+
+    private static void readSnapshot(WireReader in, RoomState state) {
+        state.seq = in.readVarInt();
+        state.you = in.readVarInt() - 1;
+        state.room = in.readString();
+        int players = in.readVarInt();
+        state.names.clear();
+        state.scores.clear();
+        state.connected.clear();
+        for (int i = 0; i < players; i++) {
+            state.names.add(in.readString());
+            state.scores.add(in.readSignedVarInt());
+            state.connected.add(in.readBoolean());
+        }
+
+        state.playing = in.readBoolean();
+        state.closeClue();
+        if (state.playing) {
+            state.seed = in.readLong();
+            readCategories(in, state);
+            int columns = state.categories.size;
+            state.startBoard(columns, GameConfig.QUESTIONS_PER_CATEGORY);
+            int bits = 0;
+            int count = 0;
+            for (int column = 0; column < columns; column++) {
+                for (int tier = 0; tier < GameConfig.QUESTIONS_PER_CATEGORY; tier++) {
+                    if (count == 0) {
+                        bits = in.readByte();
+                    }
+                    state.answered[column][tier] = (bits & 1 << count) != 0;
+                    count = (count + 1) & 7;
+                }
+            }
+            state.currentPlayer = in.readVarInt();
+
+            int column = in.readVarInt() - 1;
+            if (column >= 0) {
+                state.openColumn = column;
+                state.openTier = in.readVarInt();
+                state.openSeq = in.readVarInt();
+                state.openPlayer = in.readVarInt() - 1;
+                state.answerMillis = in.readVarInt();
+                readClue(in, state);
+            }
+        } else {
+            state.currentPlayer = -1;
+        }
+        state.synced = true;
+    }
+
+    private static void readCategories(WireReader in, RoomState state) {
+        int columns = in.readVarInt();
+        state.categories.clear();
+        for (int i = 0; i < columns; i++) {
+            state.categories.add(in.readString());
+        }
+    }
+
+    private static void readClue(WireReader in, RoomState state) {
+        state.question = in.readString();
+        int count = in.readVarInt();
+        state.choices.clear();
+        for (int i = 0; i < count; i++) {
+            state.choices.add(in.readString());
+        }
+    }
+}
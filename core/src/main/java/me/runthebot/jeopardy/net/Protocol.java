@@ -0,0 +1,96 @@
+package me.runthebot.jeopardy.net;
+
+/**
+ * Messages between the game server and its clients, desktop and web alike.
+ *
+ * Every message is a frame: its length as a varint, then that many bytes, the
+ * first of which is the message type. varint is an unsigned LEB128 int, svarint a
+ * zigzag encoded one, long 8 bytes big-endian, bool one byte, and a string its
+ * UTF-8 byte length as a varint followed by the bytes. Player indexes are the
+ * order players joined the room in.
+ *
+ * A client learns the state of its room from a SNAPSHOT when it joins, then keeps
+ * up by applying the changes that follow. Every change carries a sequence number
+ * one higher than the last; a client that sees a gap asks for a new snapshot with
+ * SYNC. {@link GameCodec} writes all of these and applies them to a {@link RoomState}.
+ *
+ * Clues are played with buzzers: once a clue opens, the first player to BUZZ answers
+ * it. The server times each buzz as it arrives and takes off the client's round trip,
+ * which it keeps measuring by sending PINGs, so a slow connection isn't a slow hand.
+ *
+ * Nobody new can JOIN a room mid-game, but a player who left can: joining under
+ * the same name takes their seat back.
+ *
+ * <pre>
+ * client to server
+ * JOIN          string room, string name        must be the first message
+ * WATCH         string room                     instead of JOIN: follow the room as a spectator
+ * START         -                               start a game in the room's lobby
+ * SELECT        varint column, varint tier      open a clue, on your turn
+ * ANSWER        varint choice                   answer the open clue, on your turn
+ * LEAVE         -                               leave the room and disconnect
+ * SYNC          -                               ask for a new snapshot
+ * BUZZ          varint clue                     buzz in for the open clue: the seq of its CLUE_OPENED
+ * PONG          long time                       answer a PING with its time, straight away
+ *
+ * server to client
+ * SNAPSHOT      varint seq, varint you + 1 (0 for a spectator), string room,
+ *               varint players, players x (string name, svarint score, bool connected),
+ *               bool playing, if playing:
+ *                 long seed, varint columns, columns x string category,
+ *                 columns x tiers bits answered, column by column, 8 to a byte low bit first,
+ *                 varint current player, varint open column + 1 (0 for none), if open:
+ *                   varint tier, varint clue, varint answering player + 1 (0 while buzzing),
+ *                   varint millis left, string question, varint count, count x string choice
+ * PLAYER_JOINED varint seq, varint player, string name
+ * PLAYER_LEFT   varint seq, varint player, bool removed   removed: later players move down one
+ * PLAYER_RETURNED varint seq, varint player               the player is back in their seat
+ * GAME_STARTED  varint seq, long seed, varint columns, columns x string category
+ * CLUE_OPENED   varint seq, varint column, varint tier, varint player, varint millis,
+ *               string question, varint count, count x string choice
+ *                                                       player: who picked it; millis: to buzz in
+ * BUZZED        varint seq, varint player, varint millis   player answers the open clue within millis
+ * CLUE_CLOSED   varint seq, varint column, varint tier, varint player, varint outcome,
+ *               svarint points, string answer           outcome: a GameEngine.Outcome ordinal
+ * SCORE         varint seq, varint player, svarint score
+ * TURN          varint seq, varint player
+ * GAME_OVER     varint seq                              the room is back in its lobby
+ * ERROR         string message                          not a change; no seq
+ * PING          long time                               not a change; no seq
+ * </pre>
+ */
+public final class Protocol {
+    // Largest message body a client may send
+    public static final int MAX_CLIENT_FRAME = 512;
+    // Largest message body either side sends; a snapshot mid-clue fits easily
+    public static final int MAX_FRAME = 16 * 1024;
+
+    // Client to server
+    public static final int JOIN = 1;
+    public static final int START = 2;
+    public static final int SELECT = 3;
+    public static final int ANSWER = 4;
+    public static final int LEAVE = 5;
+    public static final int SYNC = 6;
+    public static final int WATCH = 7;
+    public static final int BUZZ = 8;
+    public static final int PONG = 9;
+
+    // Server to client
+    public static final int SNAPSHOT = 64;
+    public static final int PLAYER_JOINED = 65;
+    public static final int PLAYER_LEFT = 66;
+    public static final int GAME_STARTED = 67;
+    public static final int CLUE_OPENED = 68;
+    public static final int CLUE_CLOSED = 69;
+    public static final int SCORE = 70;
+    public static final int TURN = 71;
+    public static final int GAME_OVER = 72;
+    public static final int ERROR = 73;
+    public static final int PING = 74;
+    public static final int BUZZED = 75;
+    public static final int PLAYER_RETURNED = 76;
+
+    private Protocol() {
+    }
+}
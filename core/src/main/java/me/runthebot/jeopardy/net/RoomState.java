@@ -0,0 +1,240 @@
+package me.runthebot.jeopardy.net;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.IntArray;
+import me.runthebot.jeopardy.model.GameEngine;
+
+/**
+ * A client's copy of the state of its room on the server.
+ *
+ * Filled in from a snapshot and kept up to date by {@link GameCodec#read}, so a
+ * client only ever reads it. Everything here is what the server last said; the
+ * client's own commands don't change it until the server confirms them.
+ */
+public class RoomState {
+    int seq;
+    boolean synced;
+    int you = -1;
+    String room;
+    final Array<String> names = new Array<>();
+    final IntArray scores = new IntArray();
+    final BooleanArray connected = new BooleanArray();
+
+    boolean playing;
+    long seed;
+    final Array<String> categories = new Array<>();
+    // Which clues have been played, indexed by [board column][tier]
+    boolean[][] answered = new boolean[0][];
+    int currentPlayer = -1;
+
+    // The open clue, if openColumn isn't -1; openPlayer is -1 while buzzing
+    int openColumn = -1;
+    int openTier = -1;
+    int openSeq;
+    int openPlayer = -1;
+    int answerMillis;
+    String question;
+    final Array<String> choices = new Array<>();
+
+    // The last clue closed
+    int closedColumn = -1;
+    int closedTier = -1;
+    int closedPlayer = -1;
+    GameEngine.Outcome outcome;
+    int points;
+    String correctAnswer;
+
+    String error;
+    long ping;
+
+    /**
+     * @return the sequence number of the last change applied
+     */
+    public int getSeq() {
+        return seq;
+    }
+
+    /**
+     * @return false until the first snapshot, and again after a change went missing;
+     *         send SYNC then
+     */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * @return this client's player index, or -1 before joining or when spectating
+     */
+    public int getYou() {
+        return you;
+    }
+
+    public String getRoom() {
+        return room;
+    }
+
+    public int getPlayerCount() {
+        return names.size;
+    }
+
+    public String getName(int player) {
+        return names.get(player);
+    }
+
+    public int getScore(int player) {
+        return scores.get(player);
+    }
+
+    /**
+     * @return false for a player who left mid-game and whose turns are skipped
+     */
+    public boolean isConnected(int player) {
+        return connected.get(player);
+    }
+
+    /**
+     * @return true while a game is on, false in the lobby
+     */
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * @return the seed the board was generated from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public Array<String> getCategories() {
+        return categories;
+    }
+
+    public boolean isAnswered(int column, int tier) {
+        return answered[column][tier];
+    }
+
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * @return true if it is this client's turn
+     */
+    public boolean isYourTurn() {
+        return playing && currentPlayer == you;
+    }
+
+    /**
+     * @return the board column of the open clue, or -1 if none is open
+     */
+    public int getOpenColumn() {
+        return openColumn;
+    }
+
+    public int getOpenTier() {
+        return openTier;
+    }
+
+    /**
+     * @return the open clue's number, to buzz in with
+     */
+    public int getOpenSeq() {
+        return openSeq;
+    }
+
+    /**
+     * @return the player who has to answer the open clue, or -1 while players are buzzing in
+     */
+    public int getOpenPlayer() {
+        return openPlayer;
+    }
+
+    /**
+     * @return true if a clue is open and nobody has buzzed in yet
+     */
+    public boolean isBuzzing() {
+        return openColumn >= 0 && openPlayer < 0;
+    }
+
+    /**
+     * @return how long was left to buzz in, or once someone has, to answer, when the server said
+     */
+    public int getAnswerMillis() {
+        return answerMillis;
+    }
+
+    public String getQuestion() {
+        return question;
+    }
+
+    public Array<String> getChoices() {
+        return choices;
+    }
+
+    /**
+     * @return the board column of the last clue closed, or -1 if none has been
+     */
+    public int getClosedColumn() {
+        return closedColumn;
+    }
+
+    public int getClosedTier() {
+        return closedTier;
+    }
+
+    public int getClosedPlayer() {
+        return closedPlayer;
+    }
+
+    public GameEngine.Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * @return the points awarded for the last clue closed
+     */
+    public int getPoints() {
+        return points;
+    }
+
+    public String getCorrectAnswer() {
+        return correctAnswer;
+    }
+
+    /**
+     * @return the last error the server sent, or null
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * @return the time in the last PING, to send back in a PONG
+     */
+    public long getPing() {
+        return ping;
+    }
+
+    void startBoard(int columns, int tiers) {
+        if (answered.length != columns) {
+            answered = new boolean[columns][tiers];
+        } else {
+            for (boolean[] column : answered) {
+                for (int tier = 0; tier < column.length; tier++) {
+                    column[tier] = false;
+                }
+            }
+        }
+        closeClue();
+    }
+
+    void closeClue() {
+        openColumn = -1;
+        openTier = -1;
+        openPlayer = -1;
+        question = null;
+        choices.clear();
+    }
+}
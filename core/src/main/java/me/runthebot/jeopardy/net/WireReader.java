@@ -0,0 +1,150 @@
+package me.runthebot.jeopardy.net;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Reads the fields of one received message, the counterpart of {@link WireWriter}.
+ *
+ * A reader is pointed at a message body, without its length prefix, and reused
+ * for the next one. Reading past the end, or a varint longer than five bytes,
+ * means the sender is broken or hostile, and throws.
+ */
+public class WireReader {
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    // Decoded characters of the string being read, grown as needed
+    private char[] chars = new char[64];
+
+    /**
+     * Points the reader at a message body
+     *
+     * @param buffer holds the message
+     * @param offset where the body starts, after the length prefix
+     * @param length the length of the body
+     * @return this reader
+     */
+    public WireReader reset(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+        return this;
+    }
+
+    /**
+     * @return the number of bytes left in the message
+     */
+    public int remaining() {
+        return limit - position;
+    }
+
+    /**
+     * @return the next byte, unsigned
+     * @throws GdxRuntimeException if the message has ended
+     */
+    public int readByte() {
+        if (position >= limit) {
+            throw new GdxRuntimeException("Truncated message");
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    /**
+     * @return the next unsigned varint
+     * @throws GdxRuntimeException if the message ends inside it or it is too long
+     */
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7F) << shift;
+            if (b < 0x80) {
+                return value;
+            }
+        }
+        throw new GdxRuntimeException("Malformed varint");
+    }
+
+    /**
+     * @return the next zigzag encoded varint
+     */
+    public int readSignedVarInt() {
+        int value = readVarInt();
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    public long readLong() {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = value << 8 | readByte();
+        }
+        return value;
+    }
+
+    /**
+     * Reads a string written by {@link WireWriter#writeString(String)}. Malformed
+     * UTF-8 becomes U+FFFD rather than failing the message.
+     *
+     * @return the string
+     * @throws GdxRuntimeException if the message ends inside it
+     */
+    public String readString() {
+        int length = readVarInt();
+        if (length > limit - position || length < 0) {
+            throw new GdxRuntimeException("Truncated message");
+        }
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        byte[] buffer = this.buffer;
+        char[] chars = this.chars;
+        int at = position;
+        int end = position + length;
+        int count = 0;
+        while (at < end) {
+            int b = buffer[at++] & 0xFF;
+            if (b < 0x80) {
+                chars[count++] = (char) b;
+                continue;
+            }
+            int extra;
+            int codePoint;
+            if (b >= 0xF0 && b < 0xF8) {
+                extra = 3;
+                codePoint = b & 0x07;
+            } else if (b >= 0xE0) {
+                extra = b < 0xF0 ? 2 : -1;
+                codePoint = b & 0x0F;
+            } else if (b >= 0xC0) {
+                extra = 1;
+                codePoint = b & 0x1F;
+            } else {
+                extra = -1;
+                codePoint = 0;
+            }
+            for (int i = 0; i < extra; i++) {
+                if (at >= end || (buffer[at] & 0xC0) != 0x80) {
+                    extra = -1;
+                    break;
+                }
+                codePoint = codePoint << 6 | buffer[at++] & 0x3F;
+            }
+            if (extra < 0 || codePoint > Character.MAX_CODE_POINT) {
+                chars[count++] = '\uFFFD';
+            } else if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                // Four bytes never decode to more than two chars
+                codePoint -= Character.MIN_SUPPLEMENTARY_CODE_POINT;
+                chars[count++] = (char) (0xD800 | codePoint >>> 10);
+                chars[count++] = (char) (0xDC00 | codePoint & 0x3FF);
+            } else {
+                chars[count++] = (char) codePoint;
+            }
+        }
+        position = end;
+        return new String(chars, 0, count);
+    }
+}
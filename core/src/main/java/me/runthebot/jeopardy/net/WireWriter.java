@@ -0,0 +1,215 @@
+package me.runthebot.jeopardy.net;
+
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+/**
+ * Builds one message at a time as a frame ready to send, see {@link Protocol}.
+ *
+ * A message is started with {@link #begin(int)}, filled in, and finished with
+ * {@link #end()}, which puts the length in front. The bytes are then
+ * {@link #getBuffer()} from {@link #getOffset()} for {@link #getLength()}. The
+ * buffer grows as needed and is reused for the next message, so writing allocates
+ * nothing once it has grown to the largest message.
+ */
+public class WireWriter {
+    // Room in front of the body for the longest length prefix a frame can have
+    private static final int HEADER = 3;
+
+    private byte[] buffer;
+    private int position;
+    private int offset;
+
+    public WireWriter() {
+        this(256);
+    }
+
+    /**
+     * @param capacity the initial buffer size, grown as needed
+     */
+    public WireWriter(int capacity) {
+        buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Starts a new message, discarding the last one
+     *
+     * @param type the message type, see {@link Protocol}
+     * @return this writer
+     */
+    public WireWriter begin(int type) {
+        position = HEADER;
+        offset = HEADER;
+        return writeVarInt(type);
+    }
+
+    /**
+     * Finishes the message by putting its length in front of it
+     *
+     * @return this writer
+     * @throws GdxRuntimeException if the message is larger than {@link Protocol#MAX_FRAME}
+     */
+    public WireWriter end() {
+        int length = position - HEADER;
+        if (length > Protocol.MAX_FRAME) {
+            throw new GdxRuntimeException("Message too long: " + length);
+        }
+        offset = HEADER - varIntSize(length);
+        int at = offset;
+        while ((length & ~0x7F) != 0) {
+            buffer[at++] = (byte) (length & 0x7F | 0x80);
+            length >>>= 7;
+        }
+        buffer[at] = (byte) length;
+        return this;
+    }
+
+    public WireWriter writeByte(int value) {
+        ensure(1);
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    public WireWriter writeBoolean(boolean value) {
+        return writeByte(value ? 1 : 0);
+    }
+
+    /**
+     * Writes an unsigned varint: 7 bits a byte, low bits first, the top bit set on
+     * every byte but the last. Values below 128 take one byte; negative values five.
+     *
+     * @param value the value
+     * @return this writer
+     */
+    public WireWriter writeVarInt(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[position++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[position++] = (byte) value;
+        return this;
+    }
+
+    /**
+     * Writes a varint zigzag encoded, so small negative values stay short too
+     *
+     * @param value the value
+     * @return this writer
+     */
+    public WireWriter writeSignedVarInt(int value) {
+        return writeVarInt(value << 1 ^ value >> 31);
+    }
+
+    /**
+     * Writes all 8 bytes of a long, big-endian; for values such as seeds that
+     * wouldn't be any shorter as a varint
+     *
+     * @param value the value
+     * @return this writer
+     */
+    public WireWriter writeLong(long value) {
+        ensure(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            buffer[position++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    /**
+     * Writes a string as its UTF-8 byte length, a varint, then the bytes, without
+     * allocating. Unpaired surrogates are written as '?', as String.getBytes would.
+     *
+     * @param value the string
+     * @return this writer
+     */
+    public WireWriter writeString(String value) {
+        int length = value.length();
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        writeVarInt(bytes);
+        ensure(bytes);
+
+        byte[] buffer = this.buffer;
+        int at = position;
+        for (int i = 0; i < length; i++) {
+            int c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[at++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[at++] = (byte) (0xC0 | c >> 6);
+                buffer[at++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate((char) c) && i + 1 < length
+                && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint((char) c, value.charAt(++i));
+                buffer[at++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[at++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[at++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[at++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if (Character.isSurrogate((char) c)) {
+                buffer[at++] = (byte) '?';
+            } else {
+                buffer[at++] = (byte) (0xE0 | c >> 12);
+                buffer[at++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[at++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+        position = at;
+        return this;
+    }
+
+    /**
+     * @return the buffer holding the finished frame; valid until the next {@link #begin(int)}
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * @return where the finished frame starts in the buffer
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the length of the finished frame, length prefix included
+     */
+    public int getLength() {
+        return position - offset;
+    }
+
+    /**
+     * @param value a length or other non-negative value
+     * @return how many bytes the value takes as a varint
+     */
+    public static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private void ensure(int count) {
+        if (position + count > buffer.length) {
+            byte[] grown = new byte[Math.max(buffer.length * 2, position + count)];
+            System.arraycopy(buffer, 0, grown, 0, position);
+            buffer = grown;
+        }
+    }
+}
@@ -13,6 +13,9 @@ import com.badlogic.gdx.utils.ScreenUtils;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.kotcrab.vis.ui.widget.VisTable;
 import me.runthebot.jeopardy.Main;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.metrics.GameMetrics;
+import me.runthebot.jeopardy.ui.MetricsOverlay;
 
 public abstract class BaseScreen implements Screen {
     // Reference to the main game instance
@@ -25,6 +28,7 @@ public abstract class BaseScreen implements Screen {
     /**
      * Creates a new base screen with the specified game instance.
      * Initializes the stage and main table for UI organization.
+     * In dev mode the metrics overlay is drawn over the table.
      * @param game The main game instance
      */
     public BaseScreen(Main game) {
@@ -33,6 +37,9 @@ public abstract class BaseScreen implements Screen {
         mainTable = new VisTable();
         mainTable.setFillParent(true);
         stage.addActor(mainTable);
+        if (GameConfig.DEV_MODE) {
+            stage.addActor(new MetricsOverlay());
+        }
         Gdx.input.setInputProcessor(stage);
     }
 
@@ -48,10 +55,13 @@ public abstract class BaseScreen implements Screen {
     /**
      * Renders the screen.
      * Clears the screen with a dark background and updates/draws the stage.
+     * Every frame's delta is recorded as the frame time.
      * @param delta Time in seconds since the last render
      */
     @Override
     public void render(float delta) {
+        GameMetrics.FRAME_TIME.record((long) (delta * 1_000_000));
+
         // Clear screen with dark background
         ScreenUtils.clear(0.1f, 0.1f, 0.1f, 1f);
 
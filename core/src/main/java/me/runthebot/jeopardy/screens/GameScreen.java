@@ -1,9 +1,10 @@
 /**
  * The main game screen where the Jeopardy game is played.
- * This screen handles:
+ * The rules live in a {@link GameEngine}; this screen sends it the players' clicks
+ * and redraws itself from the engine's events. This screen handles:
  * - Displaying the game board with categories and questions
- * - Managing player turns and scores
- * - Showing questions and handling answers
+ * - Displaying player turns and scores
+ * - Showing questions and passing answers to the engine
  * - Saving and loading game states
  * - Development mode controls (when enabled)
  */
@@ -15,8 +16,10 @@ import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
 import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.kotcrab.vis.ui.widget.VisLabel;
 import com.kotcrab.vis.ui.widget.VisTable;
 import com.kotcrab.vis.ui.widget.VisTextButton;
@@ -24,29 +27,43 @@ import com.kotcrab.vis.ui.widget.VisDialog;
 import com.kotcrab.vis.ui.widget.VisTextField;
 import com.kotcrab.vis.ui.widget.VisTextArea;
 import me.runthebot.jeopardy.Main;
-import me.runthebot.jeopardy.model.CategoryType;
+import me.runthebot.jeopardy.data.BoardGenerator;
+import me.runthebot.jeopardy.data.QuestionData;
+import me.runthebot.jeopardy.data.SeenClues;
+import me.runthebot.jeopardy.metrics.GameMetrics;
+import me.runthebot.jeopardy.model.CategoryRegistry;
+import me.runthebot.jeopardy.model.GameEngine;
+import me.runthebot.jeopardy.model.GameLog;
 import me.runthebot.jeopardy.model.Player;
 import me.runthebot.jeopardy.model.GameState;
 import me.runthebot.jeopardy.ui.MultipleChoiceQuestion;
 import me.runthebot.jeopardy.config.GameConfig;
 
 public class GameScreen extends BaseScreen {
-    // List of players in the game
-    private Array<Player> players;
-    // Index of the current player's turn
-    private int currentPlayerIndex;
+    // Turn order, scores and played clues
+    private final GameEngine engine;
     // Table displaying player scores
     private VisTable scoreTable;
     // Labels for each player's score
     private Array<VisLabel> scoreLabels;
-    // Total number of questions in the game
-    private int totalQuestions;
-    // Number of questions that have been answered
-    private int answeredQuestions;
-    // 2D array tracking which questions have been answered
-    private boolean[][] gameState;
     // Table containing the game board UI
     private VisTable gameBoardTable;
+    // Buttons of the board's clues, indexed by [column][tier]
+    private VisTextButton[][] clueButtons;
+    // Seed the board's questions are generated from
+    private long seed;
+    // Category IDs of the board's columns
+    private int[] categories;
+    // Questions on the board, indexed by [column][tier]; null until generated
+    private QuestionData[][] board;
+    // Clue ID of each board question, indexed like the board; null until generated
+    private int[][] clues;
+    // Counts board requests, so a board that arrives after being replaced is ignored
+    private int boardRequest;
+    // Clues each player has been shown in this and earlier games
+    private SeenClues[] history;
+    // Everything that has happened in the game, which is what gets saved
+    private GameLog log;
 
     /**
      * Creates a new game screen with the specified players.
@@ -54,17 +71,189 @@ public class GameScreen extends BaseScreen {
      * @param players The list of players participating in the game
      */
     public GameScreen(Main game, Array<Player> players) {
+        this(game, players, BoardGenerator.newSeed());
+    }
+
+    /**
+     * Creates a new game screen whose board is generated from the given seed.
+     * @param game The main game instance
+     * @param players The list of players participating in the game
+     * @param seed The seed the board's questions are generated from
+     */
+    public GameScreen(Main game, Array<Player> players, long seed) {
+        this(game, players, seed, null);
+    }
+
+    /**
+     * Creates a new game screen with the given board categories.
+     * @param game The main game instance
+     * @param players The list of players participating in the game
+     * @param seed The seed the board's questions are generated from
+     * @param categories The category IDs of the board's columns, or null to pick them from the seed
+     */
+    public GameScreen(Main game, Array<Player> players, long seed, int[] categories) {
+        this(game, players, seed, categories, null, null);
+    }
+
+    /**
+     * Creates a game screen for a new game, or for a saved one whose board is generated
+     * once, from the save.
+     * @param game The main game instance
+     * @param players The list of players participating in the game
+     * @param seed The seed the board's questions are generated from
+     * @param categories The category IDs of the board's columns, or null to pick them from the seed
+     * @param saved The saved game to carry on, already checked, or null for a new game
+     * @param savedLog The log the saved game was rebuilt from, or null
+     */
+    private GameScreen(Main game, Array<Player> players, long seed, int[] categories,
+                       GameState saved, GameLog savedLog) {
         super(game);
-        this.players = players;
-        this.currentPlayerIndex = 0;
         this.scoreLabels = new Array<>();
-        this.totalQuestions = CategoryType.values().length * 5; // 5 questions per category
-        this.answeredQuestions = 0;
-        // Initialize game state array
-        this.gameState = new boolean[CategoryType.values().length][5];
+        this.categories = categories != null ? categories : BoardGenerator.pickCategories(seed);
+        this.engine = new GameEngine(players, this.categories.length);
+        this.history = loadHistory(players);
+        this.seed = seed;
+        if (saved != null) {
+            restore(saved, savedLog);
+        } else {
+            startLog(new GameLog(saveGameState()));
+            generateBoard(seed, null, history);
+        }
         createUI();
     }
 
+    /**
+     * Creates a game screen that carries on a saved game.
+     * The board is generated once, from the save's clues, or from its seed alone for
+     * saves from before clue IDs were kept.
+     * @param game The main game instance
+     * @param state The saved game state
+     * @param gameLog The log the state was rebuilt from, which carries on being added to,
+     *                or null to start a new log from the state
+     * @return The game screen, ready to show
+     * @throws GdxRuntimeException if the state is not a playable game
+     */
+    public static GameScreen fromSave(Main game, GameState state, GameLog gameLog) {
+        // Saves from before category IDs keep the categories picked from their seed
+        int[] categories = state.getCategories() != null
+            ? state.getCategories() : BoardGenerator.pickCategories(state.getSeed());
+        String error = validate(state, categories);
+        if (error != null) {
+            throw new GdxRuntimeException(error);
+        }
+        return new GameScreen(game, state.getPlayers(), state.getSeed(), categories, state, gameLog);
+    }
+
+    /**
+     * Starts generating the board for a seed off the rendering thread.
+     * The board stays null, and clues can't be opened, until it arrives.
+     * @param seed The seed the board's questions are generated from
+     * @param savedClues The clue IDs of a saved board to rebuild, or null to draw a new board
+     * @param avoid The histories whose seen clues the draws avoid, or null to draw from the seed alone
+     */
+    private void generateBoard(long seed, int[][] savedClues, SeenClues[] avoid) {
+        this.seed = seed;
+        this.board = null;
+        this.clues = null;
+        engine.setBoard(null);
+        final int request = ++boardRequest;
+        BoardGenerator.generateAsync(seed, categories, avoid, savedClues, new BoardGenerator.Callback() {
+            @Override
+            public void generated(long generatedSeed, QuestionData[][] generatedBoard, int[][] generatedClues) {
+                // Ignore a board replaced while it was generating
+                if (request == boardRequest) {
+                    board = generatedBoard;
+                    clues = generatedClues;
+                    engine.setBoard(generatedBoard);
+                    if (!log.hasClues()) {
+                        log.setClues(generatedClues);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Logs the game's events from now on, passing them on to the screen.
+     * @param gameLog The log of the game so far
+     */
+    private void startLog(GameLog gameLog) {
+        this.log = gameLog;
+        gameLog.setListener(new EngineListener());
+        engine.setListener(gameLog);
+    }
+
+    /**
+     * Loads the clue history of every player.
+     * @param players The players in the game
+     * @return The players' histories, in player order
+     */
+    private static SeenClues[] loadHistory(Array<Player> players) {
+        SeenClues[] history = new SeenClues[players.size];
+        for (int i = 0; i < players.size; i++) {
+            history[i] = SeenClues.load(players.get(i).getName());
+        }
+        return history;
+    }
+
+    /**
+     * Records that every player has been shown a board question.
+     * @param column The board column of the question
+     * @param tier The 0-based value tier of the question
+     */
+    private void markSeen(int column, int tier) {
+        for (SeenClues player : history) {
+            player.add(clues[column][tier]);
+        }
+    }
+
+    /**
+     * Saves the players' clue histories when leaving the game, including when the app closes.
+     */
+    @Override
+    public void hide() {
+        super.hide();
+        for (SeenClues player : history) {
+            player.save();
+        }
+    }
+
+    /**
+     * Redraws the screen as the engine reports what happened.
+     */
+    private class EngineListener extends GameEngine.ListenerAdapter {
+        @Override
+        public void clueSelected(int column, int tier, int player) {
+            VisTextButton button = clueButtons[column][tier];
+            button.setText("");
+            button.setDisabled(true);
+            markSeen(column, tier);
+            GameMetrics.CLUES_OPENED.increment();
+            int category = categories[column];
+            int value = GameEngine.valueOf(tier);
+            Gdx.app.log("Jeopardy", "Question clicked: " + CategoryRegistry.getName(category) + " for $" + value);
+
+            // Create and show the MultipleChoiceQuestion component
+            MultipleChoiceQuestion questionDialog = new MultipleChoiceQuestion(category, value, board[column][tier], engine);
+            questionDialog.show(stage);
+        }
+
+        @Override
+        public void scoreChanged(int player, int score) {
+            updateScoreTable();
+        }
+
+        @Override
+        public void turnChanged(int player) {
+            updateScoreTable();
+        }
+
+        @Override
+        public void gameOver() {
+            game.setScreen(new WinnerScreen(game, engine.getPlayers()));
+        }
+    }
+
     /**
      * Creates and sets up all UI elements for the game screen.
      * This includes the header with scores and controls, and the game board.
@@ -89,9 +278,7 @@ public class GameScreen extends BaseScreen {
             addScoreButton.addListener(new ClickListener() {
                 @Override
                 public void clicked(InputEvent event, float x, float y) {
-                    Player currentPlayer = players.get(currentPlayerIndex);
-                    currentPlayer.updateScore(GameConfig.QUICK_SCORE_INCREMENT);
-                    updateScoreTable();
+                    engine.addScore(GameConfig.QUICK_SCORE_INCREMENT);
                 }
             });
             devControls.add(addScoreButton);
@@ -101,8 +288,7 @@ public class GameScreen extends BaseScreen {
             nextTurnButton.addListener(new ClickListener() {
                 @Override
                 public void clicked(InputEvent event, float x, float y) {
-                    currentPlayerIndex = (currentPlayerIndex + 1) % players.size;
-                    updateScoreTable();
+                    engine.nextTurn();
                 }
             });
             devControls.add(nextTurnButton);
@@ -113,7 +299,7 @@ public class GameScreen extends BaseScreen {
             endGameButton.addListener(new ClickListener() {
                 @Override
                 public void clicked(InputEvent event, float x, float y) {
-                    game.setScreen(new WinnerScreen(game, players));
+                    engine.endGame();
                 }
             });
             devControls.add(endGameButton);
@@ -143,56 +329,7 @@ public class GameScreen extends BaseScreen {
 
         // Create game board table
         gameBoardTable = new VisTable();
-
-        // Categories
-        CategoryType[] categories = CategoryType.values();
-        int[] values = {200, 400, 600, 800, 1000};
-
-        // Add categories row
-        for (CategoryType category : categories) {
-            VisLabel categoryLabel = new VisLabel(category.getDisplayName());
-            categoryLabel.setAlignment(Align.center);
-            gameBoardTable.add(categoryLabel).pad(10).width(120).height(50).fill();
-        }
-        gameBoardTable.row();
-
-        // Add questions
-        for (int value : values) {
-            for (int i = 0; i < categories.length; i++) {
-                final int categoryIndex = i;
-                final int questionValue = value;
-                final int questionIndex = value / 200 - 1; // Convert value to 0-based index
-                final VisTextButton button = new VisTextButton("$" + value);
-                button.setFocusBorderEnabled(false);
-
-                // Set initial disabled state based on game state
-                if (gameState[categoryIndex][questionIndex]) {
-                    button.setText("");
-                    button.setDisabled(true);
-                }
-
-                button.addListener(new ClickListener() {
-                    @Override
-                    public void clicked(InputEvent event, float x, float y) {
-                        if (!button.isDisabled()) {
-                            button.setText("");
-                            button.setDisabled(true);
-                            gameState[categoryIndex][questionIndex] = true;
-                            CategoryType category = categories[categoryIndex];
-                            Gdx.app.log("Jeopardy", "Question clicked: " + category.getDisplayName() + " for $" + questionValue);
-
-                            // Create and show the MultipleChoiceQuestion component
-                            MultipleChoiceQuestion questionDialog = new MultipleChoiceQuestion(category.getDisplayName(), questionValue, GameScreen.this);
-                            questionDialog.show(stage);
-                        }
-                    }
-                });
-                float screenWidth = Gdx.graphics.getWidth();
-                float screenHeight = Gdx.graphics.getHeight();
-                gameBoardTable.add(button).pad(5).width(screenWidth * 0.15f).height(screenHeight * 0.1f).fill();
-            }
-            gameBoardTable.row();
-        }
+        refreshGameBoard();
 
         // Add tables to main table
         mainTable.add(headerTable).growX().row();
@@ -206,10 +343,11 @@ public class GameScreen extends BaseScreen {
         scoreTable.clear();
         scoreLabels.clear();
 
+        Array<Player> players = engine.getPlayers();
         for (int i = 0; i < players.size; i++) {
             Player player = players.get(i);
             String playerText = player.getName() + ": $" + player.getScore();
-            if (i == currentPlayerIndex) {
+            if (i == engine.getCurrentPlayer()) {
                 playerText += " (Current Turn)";
             }
             VisLabel scoreLabel = new VisLabel(playerText);
@@ -219,87 +357,96 @@ public class GameScreen extends BaseScreen {
     }
 
     /**
-     * Updates the current player's score and advances to the next player's turn.
-     * If all questions have been answered, transitions to the winner screen.
-     * @param points The points to add to the current player's score
-     */
-    public void updateScore(int points) {
-        Player currentPlayer = players.get(currentPlayerIndex);
-        currentPlayer.updateScore(points);
-        currentPlayerIndex = (currentPlayerIndex + 1) % players.size;
-        answeredQuestions++;
-        updateScoreTable();
-
-        // Check if all questions have been answered
-        if (answeredQuestions >= totalQuestions) {
-            game.setScreen(new WinnerScreen(game, players));
-        }
-    }
-
-    /**
-     * Creates a deep copy of a 2D boolean array.
-     * @param original The original array to copy
-     * @return A deep copy of the array
+     * Loads a complete game state, including board state, players, and current turn.
+     * @param state The GameState object containing all game data to load
      */
-    private boolean[][] deepCopyArray(boolean[][] original) {
-        if (original == null) return null;
-
-        boolean[][] copy = new boolean[original.length][];
-        for (int i = 0; i < original.length; i++) {
-            copy[i] = new boolean[original[i].length];
-            for (int j = 0; j < original[i].length; j++) {
-                copy[i][j] = original[i][j];
-            }
-        }
-        return copy;
+    public void loadFullGameState(GameState state) {
+        loadFullGameState(state, null);
     }
 
     /**
-     * Loads a complete game state, including board state, players, and current turn.
+     * Loads a complete game state, continuing the log it was rebuilt from if there is one.
      * @param state The GameState object containing all game data to load
+     * @param gameLog The log the state was rebuilt from, which carries on being added to,
+     *                or null to start a new log from the state
      */
-    public void loadFullGameState(GameState state) {
+    public void loadFullGameState(GameState state, GameLog gameLog) {
         if (state == null) {
             Gdx.app.error("GameScreen", "Invalid game state: null");
             return;
         }
 
-        boolean[][] newState = state.getBoardState();
-        Array<Player> newPlayers = state.getPlayers();
-        int newCurrentPlayerIndex = state.getCurrentPlayerIndex();
-
-        if (newState == null || newState.length != CategoryType.values().length || newState[0].length != 5) {
-            Gdx.app.error("GameScreen", "Invalid game state dimensions");
-            return;
-        }
-
-        if (newPlayers == null || newPlayers.size == 0) {
-            Gdx.app.error("GameScreen", "Invalid players array");
-            return;
-        }
-
-        if (newCurrentPlayerIndex < 0 || newCurrentPlayerIndex >= newPlayers.size) {
-            Gdx.app.error("GameScreen", "Invalid current player index");
+        // Saves from before category IDs keep the categories picked from their seed
+        int[] newCategories = state.getCategories() != null ? state.getCategories() : categories;
+        String error = validate(state, newCategories);
+        if (error != null) {
+            Gdx.app.error("GameScreen", error);
             return;
         }
 
         // Update game state
-        this.gameState = deepCopyArray(newState);
-        this.players = newPlayers;
-        this.currentPlayerIndex = newCurrentPlayerIndex;
-        this.answeredQuestions = countAnsweredQuestions();
+        if (state.getPlayers() != engine.getPlayers()) {
+            this.history = loadHistory(state.getPlayers());
+        }
+        this.categories = newCategories;
+        restore(state, gameLog);
 
         // Refresh UI
         updateScoreTable();
         refreshGameBoard();
     }
 
+    /**
+     * Checks that a saved game can be played on a board with the given categories.
+     * @param state The saved game state
+     * @param categories The category IDs of the board's columns
+     * @return What is wrong with the state, or null if it is playable
+     */
+    private static String validate(GameState state, int[] categories) {
+        boolean[][] answered = state.getBoardState();
+        if (answered == null || answered.length != categories.length
+            || (answered.length > 0 && answered[0].length != GameConfig.QUESTIONS_PER_CATEGORY)) {
+            return "Invalid game state dimensions";
+        }
+
+        Array<Player> players = state.getPlayers();
+        if (players == null || players.size == 0) {
+            return "Invalid players array";
+        }
+
+        int currentPlayerIndex = state.getCurrentPlayerIndex();
+        if (currentPlayerIndex < 0 || currentPlayerIndex >= players.size) {
+            return "Invalid current player index";
+        }
+        return null;
+    }
+
+    /**
+     * Puts a checked game state into the engine and generates its board.
+     * @param state The saved game state, played on this screen's categories
+     * @param gameLog The log the state was rebuilt from, or null to start a new log from the state
+     */
+    private void restore(GameState state, GameLog gameLog) {
+        boolean[][] answered = state.getBoardState();
+        engine.load(state.getPlayers(), GameState.copyBoard(answered), state.getCurrentPlayerIndex());
+        if (gameLog == null) {
+            // Played clues are all the new log has to go on, so it starts from a copy of its own
+            gameLog = new GameLog(new GameState(GameState.copyBoard(answered), state.getPlayers(),
+                state.getCurrentPlayerIndex(), state.getSeed(), categories, state.getClues()));
+        }
+        startLog(gameLog);
+        // A saved board may have avoided seen clues, so it is rebuilt from its clues; saves
+        // from before clue IDs were kept were drawn from the seed alone, and are again
+        generateBoard(state.getSeed(), state.getClues(), state.getClues() != null ? history : null);
+    }
+
     /**
      * Creates a GameState object containing the current game state.
      * @return A GameState object with the current game data
      */
     public GameState saveGameState() {
-        return new GameState(deepCopyArray(gameState), players, currentPlayerIndex);
+        return new GameState(GameState.copyBoard(engine.getAnswered()), engine.getPlayers(), engine.getCurrentPlayer(),
+            seed, categories, clues);
     }
 
     /**
@@ -346,12 +493,14 @@ public class GameScreen extends BaseScreen {
      */
     private void saveGameToStorage(String saveName) {
         try {
-            GameState state = saveGameState();
-            String json = state.toJson();
-            Gdx.app.getPreferences("jeopardy_saves").putString(saveName, json);
+            long start = TimeUtils.nanoTime();
+            // The log holds the whole game so far; its latest state is rebuilt from it on loading
+            Gdx.app.getPreferences("jeopardy_saves").putString(saveName, log.encode());
             Gdx.app.getPreferences("jeopardy_saves").flush();
+            GameMetrics.SAVE_TIME.recordNanos(TimeUtils.nanoTime() - start);
             showSuccessDialog("Game saved successfully!");
         } catch (Exception e) {
+            GameMetrics.SAVE_FAILURES.increment();
             Gdx.app.error("GameScreen", "Failed to save game: " + e.getMessage());
             showErrorDialog("Failed to save game: " + e.getMessage());
         }
@@ -381,20 +530,6 @@ public class GameScreen extends BaseScreen {
         dialog.show(stage);
     }
 
-    /**
-     * Counts the number of questions that have been answered.
-     * @return The number of answered questions
-     */
-    private int countAnsweredQuestions() {
-        int count = 0;
-        for (boolean[] category : gameState) {
-            for (boolean answered : category) {
-                if (answered) count++;
-            }
-        }
-        return count;
-    }
-
     /**
      * Refreshes the game board UI to reflect the current game state.
      */
@@ -402,26 +537,25 @@ public class GameScreen extends BaseScreen {
         // Clear existing buttons
         gameBoardTable.clear();
 
-        // Re-add categories row
-        CategoryType[] categories = CategoryType.values();
-        for (CategoryType category : categories) {
-            VisLabel categoryLabel = new VisLabel(category.getDisplayName());
+        // Add categories row
+        for (int category : categories) {
+            VisLabel categoryLabel = new VisLabel(CategoryRegistry.getName(category));
             categoryLabel.setAlignment(Align.center);
             gameBoardTable.add(categoryLabel).pad(10).width(120).height(50).fill();
         }
         gameBoardTable.row();
 
-        // Re-add questions with updated states
-        int[] values = {200, 400, 600, 800, 1000};
-        for (int value : values) {
+        // Add questions, one row per tier
+        clueButtons = new VisTextButton[categories.length][GameConfig.QUESTIONS_PER_CATEGORY];
+        for (int tier = 0; tier < GameConfig.QUESTIONS_PER_CATEGORY; tier++) {
             for (int i = 0; i < categories.length; i++) {
-                final int categoryIndex = i;
-                final int questionValue = value;
-                final int questionIndex = value / 200 - 1;
-                final VisTextButton button = new VisTextButton("$" + value);
+                final int column = i;
+                final int questionTier = tier;
+                final VisTextButton button = new VisTextButton("$" + GameEngine.valueOf(tier));
                 button.setFocusBorderEnabled(false);
 
-                if (gameState[categoryIndex][questionIndex]) {
+                // Set initial disabled state based on game state
+                if (engine.isAnswered(column, tier)) {
                     button.setText("");
                     button.setDisabled(true);
                 }
@@ -429,18 +563,13 @@ public class GameScreen extends BaseScreen {
                 button.addListener(new ClickListener() {
                     @Override
                     public void clicked(InputEvent event, float x, float y) {
+                        // The engine refuses played clues and clues clicked before the board is ready
                         if (!button.isDisabled()) {
-                            button.setText("");
-                            button.setDisabled(true);
-                            gameState[categoryIndex][questionIndex] = true;
-                            CategoryType category = categories[categoryIndex];
-                            Gdx.app.log("Jeopardy", "Question clicked: " + category.getDisplayName() + " for $" + questionValue);
-
-                            MultipleChoiceQuestion questionDialog = new MultipleChoiceQuestion(category.getDisplayName(), questionValue, GameScreen.this);
-                            questionDialog.show(stage);
+                            engine.selectClue(column, questionTier);
                         }
                     }
                 });
+                clueButtons[column][tier] = button;
 
                 float screenWidth = Gdx.graphics.getWidth();
                 float screenHeight = Gdx.graphics.getHeight();
@@ -15,6 +15,7 @@ import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.kotcrab.vis.ui.widget.VisLabel;
 import com.kotcrab.vis.ui.widget.VisTable;
 import com.kotcrab.vis.ui.widget.VisTextButton;
@@ -22,6 +23,8 @@ import com.kotcrab.vis.ui.widget.VisDialog;
 import com.kotcrab.vis.ui.widget.VisScrollPane;
 import com.kotcrab.vis.ui.widget.VisList;
 import me.runthebot.jeopardy.Main;
+import me.runthebot.jeopardy.metrics.GameMetrics;
+import me.runthebot.jeopardy.model.GameLog;
 import me.runthebot.jeopardy.model.GameState;
 
 public class LoadGameScreen extends BaseScreen {
@@ -122,22 +125,26 @@ public class LoadGameScreen extends BaseScreen {
      */
     private void loadGame(String saveName) {
         try {
-            String savedGameJson = Gdx.app.getPreferences("jeopardy_saves").getString(saveName);
-            if (savedGameJson != null && !savedGameJson.isEmpty()) {
-                GameState loadedState = GameState.fromJson(savedGameJson);
-
-                // Create a new GameScreen with the loaded players
-                GameScreen gameScreen = new GameScreen(game, loadedState.getPlayers());
-
-                // Then load the full game state
-                gameScreen.loadFullGameState(loadedState);
+            long start = TimeUtils.nanoTime();
+            String savedGame = Gdx.app.getPreferences("jeopardy_saves").getString(saveName);
+            if (savedGame != null && !savedGame.isEmpty()) {
+                // Saves are game logs, or JSON from before there were logs
+                boolean json = savedGame.startsWith("{");
+                GameLog log = json ? null : GameLog.decode(savedGame);
+                GameState loadedState = json ? GameState.fromJson(savedGame) : log.rebuild();
+
+                // Carry the game on, generating its board once from the save
+                GameScreen gameScreen = GameScreen.fromSave(game, loadedState, log);
+                GameMetrics.LOAD_TIME.recordNanos(TimeUtils.nanoTime() - start);
 
                 // Set the screen
                 game.setScreen(gameScreen);
             } else {
+                GameMetrics.LOAD_FAILURES.increment();
                 showErrorDialog("Save file is empty or corrupted");
             }
         } catch (Exception e) {
+            GameMetrics.LOAD_FAILURES.increment();
             Gdx.app.error("LoadGameScreen", "Failed to load game: " + e.getMessage());
             showErrorDialog("Failed to load game: " + e.getMessage());
         }
@@ -0,0 +1,68 @@
+package me.runthebot.jeopardy.ui;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.scenes.scene2d.Touchable;
+import com.kotcrab.vis.ui.widget.VisLabel;
+import me.runthebot.jeopardy.metrics.GameMetrics;
+import me.runthebot.jeopardy.metrics.Histogram;
+
+/**
+ * A corner of the screen showing the game's metrics, for dev mode.
+ *
+ * Frame times are over the last refresh only, from the difference between two
+ * copies of the histogram's counts, so a hitch shows up while it is happening
+ * rather than being averaged into the whole session. The rest are totals.
+ */
+public class MetricsOverlay extends VisLabel {
+    private static final float REFRESH_SECONDS = 0.5f;
+
+    private final StringBuilder text = new StringBuilder(128);
+    private long[] previous = new long[Histogram.getBucketCount()];
+    private long[] current = new long[Histogram.getBucketCount()];
+    private final long[] window = new long[Histogram.getBucketCount()];
+    private float sinceRefresh = REFRESH_SECONDS;
+
+    public MetricsOverlay() {
+        setColor(Color.LIGHT_GRAY);
+        setFontScale(0.8f);
+        setTouchable(Touchable.disabled);
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        sinceRefresh += delta;
+        if (sinceRefresh < REFRESH_SECONDS) {
+            return;
+        }
+        sinceRefresh = 0;
+
+        GameMetrics.FRAME_TIME.copyCounts(current);
+        long frames = 0;
+        for (int i = 0; i < window.length; i++) {
+            window[i] = current[i] - previous[i];
+            frames += window[i];
+        }
+        long[] swap = previous;
+        previous = current;
+        current = swap;
+
+        text.setLength(0);
+        text.append("frames ").append(frames)
+            .append("  p50 ").append(millis(Histogram.valueAt(window, 50))).append(" ms")
+            .append("  p99 ").append(millis(Histogram.valueAt(window, 99))).append(" ms");
+        text.append("\nclues ").append(GameMetrics.CLUES_OPENED.get())
+            .append("  answer p50 ").append(millis(GameMetrics.ANSWER_TIME.getValueAtPercentile(50))).append(" ms");
+        text.append("\nsaves ").append(GameMetrics.SAVE_TIME.getCount())
+            .append(" (").append(GameMetrics.SAVE_FAILURES.get()).append(" failed)")
+            .append("  loads ").append(GameMetrics.LOAD_TIME.getCount())
+            .append(" (").append(GameMetrics.LOAD_FAILURES.get()).append(" failed)");
+        setText(text);
+        pack();
+        setPosition(8, 8);
+    }
+
+    private static long millis(long micros) {
+        return (micros + 500) / 1000;
+    }
+}
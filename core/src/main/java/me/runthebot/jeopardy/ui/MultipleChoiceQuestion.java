@@ -10,17 +10,18 @@ import com.kotcrab.vis.ui.widget.VisLabel;
 import com.kotcrab.vis.ui.widget.VisProgressBar;
 import com.kotcrab.vis.ui.widget.VisTable;
 import com.kotcrab.vis.ui.widget.VisTextButton;
-import me.runthebot.jeopardy.screens.GameScreen;
+import me.runthebot.jeopardy.config.GameConfig;
 import me.runthebot.jeopardy.data.QuestionData;
-import me.runthebot.jeopardy.data.QuestionManager;
-import me.runthebot.jeopardy.model.CategoryType;
+import me.runthebot.jeopardy.metrics.GameMetrics;
+import me.runthebot.jeopardy.model.CategoryRegistry;
+import me.runthebot.jeopardy.model.GameEngine;
 
 /**
  * A component that displays a multiple choice question
  * related to a specific category and value.
  */
 public class MultipleChoiceQuestion extends VisDialog {
-    private CategoryType category;
+    private int category;
     private int value;
     private String question;
     private String correctAnswer;
@@ -29,10 +30,10 @@ public class MultipleChoiceQuestion extends VisDialog {
     private VisLabel questionLabel;
     private VisTextButton[] choiceButtons;
     private VisTextButton closeButton;
-    private GameScreen gameScreen;
+    private GameEngine engine;
 
     // Timer related variables
-    private static final float TOTAL_TIME = 20f; // 20 seconds to answer
+    private static final float TOTAL_TIME = GameConfig.ANSWER_TIME;
     private float timeRemaining = TOTAL_TIME;
     private VisProgressBar timerBar;
     private VisLabel timerLabel;
@@ -41,36 +42,34 @@ public class MultipleChoiceQuestion extends VisDialog {
     /**
      * Creates a new multiple choice question dialog
      *
-     * @param categoryName the display name of the category
+     * @param category the category ID of the board column
      * @param value the dollar value of the question
+     * @param questionData the question to show, picked when the board was generated
+     * @param engine the engine the answer is sent to
      */
-    public MultipleChoiceQuestion(String categoryName, int value, GameScreen gameScreen) {
-        super(categoryName + " - $" + value);
-        this.category = CategoryType.fromDisplayName(categoryName);
+    public MultipleChoiceQuestion(int category, int value, QuestionData questionData, GameEngine engine) {
+        super(CategoryRegistry.getName(category) + " - $" + value);
+        this.category = category;
         this.value = value;
-        this.gameScreen = gameScreen;
+        this.engine = engine;
 
         setModal(true);
         setMovable(false);
         setResizable(false);
 
         // Load the question
-        loadQuestion(category, value);
+        loadQuestion(questionData);
 
         // Create the UI
         createUI();
     }
 
     /**
-     * Loads a question based on category and value.
+     * Loads the text, answer and choices of a question.
      *
-     * @param category the category to fetch a question for
-     * @param value the value of the question to fetch
+     * @param questionData the question to show
      */
-    private void loadQuestion(CategoryType category, int value) {
-        // Get question data from the QuestionManager
-        QuestionData questionData = QuestionManager.getQuestion(category, value);
-
+    private void loadQuestion(QuestionData questionData) {
         this.question = questionData.getQuestion();
         this.correctAnswer = questionData.getCorrectAnswer();
         this.choices = questionData.getChoices();
@@ -153,6 +152,7 @@ public class MultipleChoiceQuestion extends VisDialog {
         answered = true;
         timerRunning = false;
         closeButton.setDisabled(false);
+        GameMetrics.ANSWER_TIME.record((long) ((TOTAL_TIME - timeRemaining) * 1_000_000));
 
         boolean isCorrect = selectedAnswer.equals(correctAnswer);
 
@@ -164,8 +164,8 @@ public class MultipleChoiceQuestion extends VisDialog {
             timerLabel.setColor(Color.GREEN);
             timerBar.setColor(Color.GREEN);
 
-            // Update the score in GameScreen
-            gameScreen.updateScore(value);
+            // The engine awards the points
+            engine.answer(choiceIndex);
 
             Gdx.app.log("Question", "Correct answer! You earned $" + value);
         } else {
@@ -184,8 +184,8 @@ public class MultipleChoiceQuestion extends VisDialog {
             timerLabel.setColor(Color.RED);
             timerBar.setColor(Color.RED);
 
-            // Update score with 0 points for wrong answer
-            gameScreen.updateScore(0);
+            // The engine awards nothing for a wrong answer
+            engine.answer(choiceIndex);
 
             Gdx.app.log("Question", "Wrong answer! The correct answer was: " + correctAnswer);
         }
@@ -219,8 +219,8 @@ public class MultipleChoiceQuestion extends VisDialog {
             timerLabel.setText("Time's up!");
             timerLabel.setColor(Color.RED);
 
-            // Update score with 0 points for time expired
-            gameScreen.updateScore(0);
+            // The engine awards nothing when time runs out
+            engine.timeout();
 
             Gdx.app.log("Question", "Time expired! The correct answer was: " + correctAnswer);
         }
@@ -4,6 +4,7 @@ import com.badlogic.gdx.ApplicationListener;
 import com.badlogic.gdx.backends.gwt.GwtApplication;
 import com.badlogic.gdx.backends.gwt.GwtApplicationConfiguration;
 import me.runthebot.jeopardy.Main;
+import me.runthebot.jeopardy.data.BoardGenerator;
 
 /** Launches the GWT application. */
 public class GwtLauncher extends GwtApplication {
@@ -21,6 +22,13 @@ public class GwtLauncher extends GwtApplication {
 
         @Override
         public ApplicationListener createApplicationListener () {
+            // Generate game boards in the browser's idle time instead of during frames
+            BoardGenerator.setIdleScheduler(new BoardGenerator.IdleScheduler() {
+                @Override
+                public void schedule(Runnable task) {
+                    requestIdleCallback(task);
+                }
+            });
             return new Main();
         }
 
@@ -30,6 +38,21 @@ public class GwtLauncher extends GwtApplication {
             closeWindow();
         }
 
+        /**
+         * Runs a task when the browser is idle, falling back to a timeout where
+         * requestIdleCallback is not supported
+         */
+        private native void requestIdleCallback(Runnable task) /*-{
+            var run = $entry(function() {
+                task.@java.lang.Runnable::run()();
+            });
+            if ($wnd.requestIdleCallback) {
+                $wnd.requestIdleCallback(run, { timeout: 100 });
+            } else {
+                $wnd.setTimeout(run, 0);
+            }
+        }-*/;
+
         /**
          * Native JavaScript method to close the browser window
          */
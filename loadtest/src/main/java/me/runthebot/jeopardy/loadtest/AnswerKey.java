@@ -0,0 +1,43 @@
+package me.runthebot.jeopardy.loadtest;
+
+import com.badlogic.gdx.utils.ObjectMap;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.data.QuestionData;
+import me.runthebot.jeopardy.data.QuestionManager;
+import me.runthebot.jeopardy.model.GameEngine;
+
+/**
+ * The right answer to every question in the bank, so bots can choose to be right.
+ *
+ * The protocol only says which answer was right once a clue closes. Built from
+ * the same bank the server asks from; a bot facing a question that isn't in it,
+ * because the server's bank differs, just guesses.
+ */
+final class AnswerKey {
+    private final ObjectMap<String, String> answers = new ObjectMap<>();
+
+    /**
+     * Reads the whole bank; needs libGDX's files, so call it from the application
+     */
+    AnswerKey() {
+        for (int category : QuestionManager.getCategoryIds()) {
+            for (int tier = 0; tier < GameConfig.QUESTIONS_PER_CATEGORY; tier++) {
+                for (QuestionData question : QuestionManager.getAllQuestions(category, GameEngine.valueOf(tier))) {
+                    answers.put(question.getQuestion(), question.getCorrectAnswer());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param question a question's text
+     * @return its right answer, or null if it isn't in the bank
+     */
+    String get(String question) {
+        return answers.get(question);
+    }
+
+    int size() {
+        return answers.size;
+    }
+}
@@ -0,0 +1,303 @@
+package me.runthebot.jeopardy.loadtest;
+
+import com.badlogic.gdx.utils.Array;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import me.runthebot.jeopardy.net.GameCodec;
+import me.runthebot.jeopardy.net.Protocol;
+import me.runthebot.jeopardy.net.RoomState;
+import me.runthebot.jeopardy.net.WireWriter;
+
+/**
+ * One simulated client: plays its room the way a person would, only faster and
+ * without getting bored.
+ *
+ * A bot keeps its copy of the room up to date from the server's messages and
+ * decides what to do from it alone, like a real client. Each decision is an action
+ * set to happen after a human-looking delay; a later message can replace or cancel
+ * it before it happens. Players pick clues, buzz in and answer; watchers only
+ * follow. A player that finds its room mid-game, after reconnecting, watches until
+ * the game is over and then joins again.
+ *
+ * Only ever touched by its driver's thread.
+ */
+final class Bot {
+    // Actions, see schedule
+    static final int NONE = 0;
+    static final int CONNECT = 1;
+    static final int START = 2;
+    static final int SELECT = 3;
+    static final int BUZZ = 4;
+    static final int ANSWER = 5;
+
+    // How long the first player waits for the rest before starting without them
+    private static final long LOBBY_WAIT = 2_000_000_000L;
+
+    final BotDriver driver;
+    final BotRoom room;
+    final String name;
+    final boolean watcher;
+
+    RoomState state;
+    SocketChannel channel;
+    SelectionKey key;
+    // Received bytes not yet handled, grown to fit a large frame
+    ByteBuffer input = ByteBuffer.allocate(2048);
+    // Bytes the socket didn't take, null while there are none
+    ByteBuffer output;
+
+    // The pending action, when it is due, and the driver tick it is filed under
+    int action;
+    long actionAt;
+    long tick;
+
+    // Joined and sent a snapshot
+    private boolean joined;
+    private boolean syncing;
+    // Watching until the game is over, then joining to play again
+    private boolean waiting;
+    // When the last buzz and answer were sent, 0 once they have been answered
+    private long buzzSent;
+    private long answerSent;
+
+    Bot(BotDriver driver, BotRoom room, String name, boolean watcher) {
+        this.driver = driver;
+        this.room = room;
+        this.name = name;
+        this.watcher = watcher;
+    }
+
+    /**
+     * Starts on a new connection to the server
+     *
+     * @param out where to build the first message
+     */
+    void connected(WireWriter out) {
+        state = new RoomState();
+        joined = false;
+        syncing = false;
+        buzzSent = 0;
+        answerSent = 0;
+        if (watcher) {
+            driver.send(this, GameCodec.watch(out, room.name));
+        } else {
+            driver.send(this, GameCodec.join(out, room.name, name));
+        }
+    }
+
+    /**
+     * Reacts to a message the server sent, already applied to state
+     *
+     * @param type the message type, see {@link Protocol}
+     * @param now when it was received, in System.nanoTime terms
+     * @param out where to build any reply
+     */
+    void received(int type, long now, WireWriter out) {
+        if (type == Protocol.PING) {
+            driver.send(this, GameCodec.pong(out, state.getPing()));
+            return;
+        }
+        if (type == Protocol.ERROR) {
+            failed(state.getError(), out);
+            return;
+        }
+        if (type == Protocol.SNAPSHOT) {
+            joined = true;
+            syncing = false;
+            act(now);
+            return;
+        }
+        if (!state.isSynced()) {
+            // A change went missing; every other bot in the room got it
+            if (joined && !syncing) {
+                syncing = true;
+                driver.resyncs++;
+                driver.send(this, GameCodec.sync(out));
+            }
+            return;
+        }
+        if (room.update == type) {
+            driver.delivery.record((now - room.updateSent) / 1000);
+        }
+
+        switch (type) {
+            case Protocol.PLAYER_JOINED:
+            case Protocol.PLAYER_LEFT:
+            case Protocol.PLAYER_RETURNED:
+            case Protocol.GAME_STARTED:
+            case Protocol.TURN:
+                act(now);
+                break;
+            case Protocol.CLUE_OPENED:
+                if (state.getYou() >= 0) {
+                    long reaction = driver.reaction();
+                    if (reaction < state.getAnswerMillis() * 1_000_000L) {
+                        driver.schedule(this, BUZZ, now + reaction);
+                    }
+                }
+                break;
+            case Protocol.BUZZED:
+                if (buzzSent != 0) {
+                    driver.buzzes.record((now - buzzSent) / 1000);
+                    buzzSent = 0;
+                }
+                if (state.getOpenPlayer() == state.getYou()) {
+                    driver.schedule(this, ANSWER, now + driver.think());
+                } else if (action == BUZZ) {
+                    driver.cancel(this);
+                }
+                break;
+            case Protocol.CLUE_CLOSED:
+                if (answerSent != 0) {
+                    driver.answers.record((now - answerSent) / 1000);
+                    answerSent = 0;
+                }
+                buzzSent = 0;
+                if (action == BUZZ || action == ANSWER) {
+                    driver.cancel(this);
+                }
+                if (state.getSeq() > room.counted) {
+                    room.counted = state.getSeq();
+                    driver.clues++;
+                }
+                if (state.getYou() >= 0 && driver.chance(driver.config.reconnect)) {
+                    // Drop off as a flaky network would, and come back a moment later
+                    driver.reconnects++;
+                    driver.reconnect(this, now);
+                }
+                break;
+            case Protocol.GAME_OVER:
+                if (state.getSeq() > room.counted) {
+                    room.counted = state.getSeq();
+                    driver.games++;
+                }
+                if (waiting) {
+                    waiting = false;
+                    driver.send(this, GameCodec.leave(out));
+                    driver.reconnect(this, now);
+                } else {
+                    act(now);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Does whatever is due, if it still makes sense
+     *
+     * @param action the action that was scheduled
+     * @param now the current System.nanoTime
+     * @param out where to build the message
+     */
+    void run(int action, long now, WireWriter out) {
+        switch (action) {
+            case START:
+                if (!state.isPlaying() && state.getYou() >= 0) {
+                    driver.send(this, GameCodec.start(out));
+                }
+                break;
+            case SELECT:
+                if (state.isYourTurn() && state.getOpenColumn() < 0) {
+                    select(now, out);
+                }
+                break;
+            case BUZZ:
+                if (state.isBuzzing()) {
+                    buzzSent = now;
+                    driver.send(this, GameCodec.buzz(out, state.getOpenSeq()));
+                }
+                break;
+            case ANSWER:
+                if (state.getOpenColumn() >= 0 && state.getOpenPlayer() == state.getYou()) {
+                    answerSent = now;
+                    room.expect(Protocol.CLUE_CLOSED, now);
+                    driver.send(this, GameCodec.answer(out, choose()));
+                }
+                break;
+        }
+    }
+
+    /**
+     * Decides what to do next from the state of the room
+     */
+    private void act(long now) {
+        int you = state.getYou();
+        if (you < 0) {
+            return;
+        }
+        if (!state.isPlaying()) {
+            if (action == START || you != firstConnected()) {
+                return;
+            }
+            int present = 0;
+            for (int i = 0; i < state.getPlayerCount(); i++) {
+                if (state.isConnected(i)) {
+                    present++;
+                }
+            }
+            // Starts once everyone is here, or without whoever is still reconnecting
+            driver.schedule(this, START, now + (present >= room.players ? driver.think() : LOBBY_WAIT));
+        } else if (state.isYourTurn() && state.getOpenColumn() < 0) {
+            driver.schedule(this, SELECT, now + driver.think());
+        }
+    }
+
+    private int firstConnected() {
+        for (int i = 0; i < state.getPlayerCount(); i++) {
+            if (state.isConnected(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void select(long now, WireWriter out) {
+        Array<String> categories = state.getCategories();
+        int left = 0;
+        for (int column = 0; column < categories.size; column++) {
+            for (int tier = 0; tier < BotDriver.TIERS; tier++) {
+                if (!state.isAnswered(column, tier)) {
+                    left++;
+                }
+            }
+        }
+        int pick = driver.random(left);
+        for (int column = 0; column < categories.size; column++) {
+            for (int tier = 0; tier < BotDriver.TIERS; tier++) {
+                if (!state.isAnswered(column, tier) && pick-- == 0) {
+                    room.expect(Protocol.CLUE_OPENED, now);
+                    driver.send(this, GameCodec.select(out, column, tier));
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the index of the right choice as often as the accuracy says, another otherwise
+     */
+    private int choose() {
+        Array<String> choices = state.getChoices();
+        String answer = driver.key.get(state.getQuestion());
+        int right = answer != null ? choices.indexOf(answer, false) : -1;
+        if (right < 0 || choices.size < 2) {
+            return driver.random(choices.size);
+        }
+        if (driver.chance(driver.config.accuracy)) {
+            return right;
+        }
+        int wrong = driver.random(choices.size - 1);
+        return wrong >= right ? wrong + 1 : wrong;
+    }
+
+    private void failed(String error, WireWriter out) {
+        if (!joined && (error.startsWith("A game is in progress") || error.endsWith(" is full"))) {
+            // Follow the game until it is over, then try again
+            waiting = true;
+            driver.send(this, GameCodec.watch(out, room.name));
+            return;
+        }
+        driver.error(error.replace(room.name, "<room>"));
+    }
+}
@@ -0,0 +1,451 @@
+package me.runthebot.jeopardy.loadtest;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Random;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.net.GameCodec;
+import me.runthebot.jeopardy.net.Protocol;
+import me.runthebot.jeopardy.net.WireReader;
+import me.runthebot.jeopardy.net.WireWriter;
+
+/**
+ * Runs a share of the bots on one thread, with a selector for their sockets and a
+ * ring of millisecond slots for their delayed actions.
+ *
+ * Whole rooms go to one driver, so what a room's bots share needs no locking, and
+ * timing a broadcast from the command that caused it to each member's copy only
+ * ever compares one thread's clock readings. Latencies and counts are kept per
+ * driver: the counts are read by the reporting thread as the test runs, the
+ * histograms only once the driver has stopped.
+ */
+final class BotDriver implements Runnable {
+    static final int TIERS = GameConfig.QUESTIONS_PER_CATEGORY;
+    private static final long SLOT_NANOS = 1_000_000L;
+    // A power of two; at a millisecond a slot, the ring covers 8 seconds
+    private static final int SLOTS = 8192;
+    private static final int MASK = SLOTS - 1;
+    // Delays are capped below a turn of the ring, so no action goes round it
+    private static final long MAX_DELAY = 5_000_000_000L;
+    // Clients connect over this long at the start, rather than all at once
+    private static final long RAMP_NANOS = 2_000_000_000L;
+    // How long a dropped bot waits to come back, at least and at most
+    private static final long MIN_RECONNECT = 100_000_000L;
+    private static final long MAX_RECONNECT = 500_000_000L;
+
+    final LoadConfig config;
+    final AnswerKey key;
+    final LatencyHistogram buzzes = new LatencyHistogram();
+    final LatencyHistogram answers = new LatencyHistogram();
+    final LatencyHistogram delivery = new LatencyHistogram();
+
+    // Written only by this driver
+    volatile long messagesIn;
+    volatile long bytesIn;
+    volatile long messagesOut;
+    volatile long clues;
+    volatile long games;
+    volatile long errors;
+    volatile long resyncs;
+    volatile long reconnects;
+    volatile long disconnects;
+    volatile int connected;
+
+    private final InetSocketAddress address;
+    private final Array<Bot> bots = new Array<>();
+    private final Array<Array<Bot>> slots;
+    private final Random random;
+    private final Selector selector;
+    private final WireWriter out = new WireWriter();
+    private final WireReader in = new WireReader();
+    private final byte[] body = new byte[Protocol.MAX_FRAME];
+    // Error messages and how often each came; read once the driver has stopped
+    private final ObjectIntMap<String> errorCounts = new ObjectIntMap<>();
+    // The next slot to run; every slot before it has been run
+    private long current;
+    private volatile boolean running = true;
+    private volatile boolean measuring;
+
+    BotDriver(LoadConfig config, AnswerKey key, long seed) throws IOException {
+        this.config = config;
+        this.key = key;
+        this.address = new InetSocketAddress(config.host, config.port);
+        this.random = new Random(seed);
+        this.selector = Selector.open();
+        this.slots = new Array<>(SLOTS);
+        for (int i = 0; i < SLOTS; i++) {
+            slots.add(new Array<>(false, 4, Bot.class));
+        }
+    }
+
+    /**
+     * Adds a room's bots; call before starting the driver
+     *
+     * @param room the room
+     * @param watchers how many spectators to add on top of its players
+     */
+    void addRoom(BotRoom room, int watchers) {
+        for (int i = 0; i < room.players; i++) {
+            bots.add(new Bot(this, room, "bot-" + i, false));
+        }
+        for (int i = 0; i < watchers; i++) {
+            bots.add(new Bot(this, room, "watcher-" + i, true));
+        }
+    }
+
+    int getBotCount() {
+        return bots.size;
+    }
+
+    /**
+     * Starts counting latencies afresh, leaving out the warm-up; takes effect on the driver's next pass
+     */
+    void measure() {
+        measuring = true;
+    }
+
+    /**
+     * Asks the driver to disconnect its bots and stop
+     */
+    void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * @return the error messages the server sent and how often; only once the driver has stopped
+     */
+    ObjectIntMap<String> getErrorCounts() {
+        return errorCounts;
+    }
+
+    @Override
+    public void run() {
+        long start = System.nanoTime();
+        current = Math.floorDiv(start, SLOT_NANOS);
+        for (int i = 0; i < bots.size; i++) {
+            schedule(bots.get(i), Bot.CONNECT, start + RAMP_NANOS * i / bots.size);
+        }
+        boolean measured = false;
+        try {
+            while (running) {
+                selector.select(1);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key, (Bot) key.attachment());
+                }
+                if (measuring && !measured) {
+                    measured = true;
+                    buzzes.reset();
+                    answers.reset();
+                    delivery.reset();
+                }
+                runActions(System.nanoTime());
+            }
+        } catch (IOException e) {
+            Gdx.app.error("BotDriver", "Selector failed: " + e.getMessage());
+        } finally {
+            for (Bot bot : bots) {
+                closeChannel(bot);
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                // Stopping anyway
+            }
+        }
+    }
+
+    /**
+     * Sets a bot's one pending action, replacing any it had
+     *
+     * @param bot the bot
+     * @param action what to do, see {@link Bot}
+     * @param at when, in System.nanoTime terms; as soon as possible if already past
+     */
+    void schedule(Bot bot, int action, long at) {
+        long tick = Math.max(-Math.floorDiv(-at, SLOT_NANOS), current);
+        bot.action = action;
+        bot.actionAt = at;
+        bot.tick = tick;
+        // A slot may hold a bot more than once; run skips the entries that are out of date
+        slots.get((int) tick & MASK).add(bot);
+    }
+
+    void cancel(Bot bot) {
+        bot.action = Bot.NONE;
+    }
+
+    /**
+     * Sends a message to the server, keeping whatever the socket doesn't take for when it can
+     *
+     * @param bot the bot sending it
+     * @param message a finished frame
+     */
+    void send(Bot bot, WireWriter message) {
+        if (bot.channel == null || !bot.channel.isConnected()) {
+            return;
+        }
+        ByteBuffer frame = ByteBuffer.wrap(message.getBuffer(), message.getOffset(), message.getLength());
+        messagesOut++;
+        try {
+            if (bot.output == null) {
+                bot.channel.write(frame);
+                if (!frame.hasRemaining()) {
+                    return;
+                }
+                bot.output = ByteBuffer.allocate(Math.max(256, frame.remaining()));
+                bot.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+            if (bot.output.remaining() < frame.remaining()) {
+                ByteBuffer larger = ByteBuffer.allocate(bot.output.capacity() * 2 + frame.remaining());
+                bot.output.flip();
+                larger.put(bot.output);
+                bot.output = larger;
+            }
+            bot.output.put(frame);
+        } catch (IOException e) {
+            dropped(bot, System.nanoTime());
+        }
+    }
+
+    /**
+     * Disconnects a bot and has it connect again shortly
+     *
+     * @param bot the bot
+     * @param now the current System.nanoTime
+     */
+    void reconnect(Bot bot, long now) {
+        closeChannel(bot);
+        long delay = MIN_RECONNECT + (long) (random.nextDouble() * (MAX_RECONNECT - MIN_RECONNECT));
+        schedule(bot, Bot.CONNECT, now + delay);
+    }
+
+    /**
+     * @return how long a bot takes to buzz in, in nanoseconds
+     */
+    long reaction() {
+        return logNormal(config.reactionMillis, config.reactionSpread);
+    }
+
+    /**
+     * @return how long a bot takes to pick a clue or an answer, in nanoseconds
+     */
+    long think() {
+        return logNormal(config.thinkMillis, config.reactionSpread);
+    }
+
+    boolean chance(double probability) {
+        return random.nextDouble() < probability;
+    }
+
+    /**
+     * @param bound the number of outcomes, at least 1
+     * @return a uniformly random int from 0 to bound - 1
+     */
+    int random(int bound) {
+        return random.nextInt(bound);
+    }
+
+    /**
+     * Counts an error the server sent
+     *
+     * @param message the error, with anything particular to the bot taken out
+     */
+    void error(String message) {
+        errors++;
+        errorCounts.getAndIncrement(message, 0, 1);
+    }
+
+    private long logNormal(int medianMillis, double sigma) {
+        double millis = medianMillis * Math.exp(sigma * random.nextGaussian());
+        return Math.min((long) (millis * 1_000_000), MAX_DELAY);
+    }
+
+    private void handle(SelectionKey key, Bot bot) {
+        if (!key.isValid()) {
+            return;
+        }
+        long now = System.nanoTime();
+        try {
+            if (key.isConnectable()) {
+                bot.channel.finishConnect();
+                opened(bot);
+                return;
+            }
+            if (key.isWritable()) {
+                bot.output.flip();
+                bot.channel.write(bot.output);
+                if (bot.output.hasRemaining()) {
+                    bot.output.compact();
+                } else {
+                    bot.output = null;
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+            }
+            if (key.isReadable()) {
+                read(bot, now);
+            }
+        } catch (IOException e) {
+            dropped(bot, now);
+        }
+    }
+
+    private void read(Bot bot, long now) throws IOException {
+        SocketChannel channel = bot.channel;
+        int read = channel.read(bot.input);
+        if (read < 0) {
+            dropped(bot, now);
+            return;
+        }
+        bytesIn += read;
+        ByteBuffer input = bot.input;
+        input.flip();
+        // A message may disconnect the bot, which then stops handling the rest
+        while (bot.channel == channel) {
+            int start = input.position();
+            int length = 0;
+            int header = 0;
+            boolean whole = false;
+            for (int shift = 0; shift < 21 && input.hasRemaining(); shift += 7) {
+                int b = input.get();
+                length |= (b & 0x7f) << shift;
+                header++;
+                if (b >= 0) {
+                    whole = true;
+                    break;
+                }
+            }
+            if (!whole && header < 3) {
+                // The length itself isn't all here yet
+                input.position(start);
+                break;
+            }
+            if (!whole || length == 0 || length > Protocol.MAX_FRAME) {
+                error("Bad frame length from the server");
+                dropped(bot, now);
+                return;
+            }
+            if (input.remaining() < length) {
+                input.position(start);
+                if (input.capacity() < header + length) {
+                    ByteBuffer larger = ByteBuffer.allocate(header + length);
+                    larger.put(input);
+                    bot.input = larger;
+                    return;
+                }
+                break;
+            }
+            input.get(body, 0, length);
+            messagesIn++;
+            try {
+                int type = GameCodec.read(in.reset(body, 0, length), bot.state);
+                bot.received(type, now, out);
+            } catch (GdxRuntimeException e) {
+                error("Unreadable message: " + e.getMessage());
+                dropped(bot, now);
+                return;
+            }
+        }
+        if (bot.channel == channel) {
+            input.compact();
+        } else {
+            input.clear();
+        }
+    }
+
+    private void runActions(long now) {
+        long until = Math.floorDiv(now, SLOT_NANOS);
+        for (; current <= until; current++) {
+            Array<Bot> slot = slots.get((int) current & MASK);
+            int kept = 0;
+            // Actions may schedule more into this slot as it runs; they are run too
+            for (int i = 0; i < slot.size; i++) {
+                Bot bot = slot.items[i];
+                if (bot.action == Bot.NONE || (bot.tick & MASK) != (current & MASK)) {
+                    // Cancelled, done, or moved to another slot
+                    continue;
+                }
+                if (bot.tick > current) {
+                    slot.items[kept++] = bot;
+                    continue;
+                }
+                int action = bot.action;
+                bot.action = Bot.NONE;
+                if (action == Bot.CONNECT) {
+                    connect(bot);
+                } else if (bot.state != null && bot.channel != null) {
+                    bot.run(action, now, out);
+                }
+            }
+            slot.truncate(kept);
+        }
+    }
+
+    private void connect(Bot bot) {
+        try {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            bot.channel = channel;
+            if (channel.connect(address)) {
+                bot.key = channel.register(selector, SelectionKey.OP_READ, bot);
+                opened(bot);
+            } else {
+                bot.key = channel.register(selector, SelectionKey.OP_CONNECT, bot);
+            }
+        } catch (IOException e) {
+            dropped(bot, System.nanoTime());
+        }
+    }
+
+    private void opened(Bot bot) {
+        bot.key.interestOps(SelectionKey.OP_READ);
+        connected++;
+        bot.connected(out);
+    }
+
+    /**
+     * Handles a connection the server closed or that failed, coming back a little later
+     */
+    private void dropped(Bot bot, long now) {
+        if (bot.channel == null) {
+            return;
+        }
+        if (running) {
+            disconnects++;
+        }
+        reconnect(bot, now);
+    }
+
+    private void closeChannel(Bot bot) {
+        if (bot.channel == null) {
+            return;
+        }
+        if (bot.channel.isConnected()) {
+            connected--;
+        }
+        try {
+            bot.channel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        bot.channel = null;
+        bot.key = null;
+        bot.input.clear();
+        bot.output = null;
+        bot.state = null;
+    }
+}
@@ -0,0 +1,32 @@
+package me.runthebot.jeopardy.loadtest;
+
+/**
+ * What the bots in one room share. Every bot in a room is on the same driver, so
+ * none of this needs to be thread-safe.
+ */
+final class BotRoom {
+    final String name;
+    // Bots meant to play in the room, not counting watchers
+    final int players;
+    // The change the last command should bring, and when it was sent, for timing its delivery
+    int update;
+    long updateSent;
+    // The seq of the last clue or game counted, so the room's bots count each once
+    int counted;
+
+    BotRoom(String name, int players) {
+        this.name = name;
+        this.players = players;
+    }
+
+    /**
+     * Notes a command whose result every member will receive
+     *
+     * @param update the message type it should bring, see {@link me.runthebot.jeopardy.net.Protocol}
+     * @param now when it was sent, in System.nanoTime terms
+     */
+    void expect(int update, long now) {
+        this.update = update;
+        this.updateSent = now;
+    }
+}
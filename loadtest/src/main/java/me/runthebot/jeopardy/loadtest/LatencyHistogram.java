@@ -0,0 +1,110 @@
+package me.runthebot.jeopardy.loadtest;
+
+/**
+ * Latencies in microseconds, counted in buckets the way HdrHistogram does, so
+ * recording one is a few shifts and an increment and never allocates.
+ *
+ * Values below {@link #SUB_BUCKETS} get a bucket each. Above that every power of
+ * two is cut into {@link #SUB_BUCKETS} / 2 equal buckets, so a value is known to
+ * within 1/64 of itself however large it is, up to about an hour. Percentiles are
+ * reported as the highest value in their bucket, so they err high, never low.
+ *
+ * Not thread-safe: each driver records into its own, and they are merged for the
+ * report once the drivers have stopped.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+    // Largest value kept as itself; anything longer counts as this
+    private static final long MAX_VALUE = (1L << 32) - 1;
+
+    private final long[] counts = new long[indexOf(MAX_VALUE) + 1];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * @param micros a latency; negative ones count as 0
+     */
+    void record(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE));
+        counts[indexOf(value)]++;
+        count++;
+        total += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds another histogram's values to this one
+     *
+     * @param other the histogram, unchanged
+     */
+    void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    void reset() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean in microseconds, or 0 if nothing was recorded
+     */
+    double getMean() {
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the value at or below which that share of values fall, in
+     *         microseconds; 0 if nothing was recorded
+     */
+    long getValueAtPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(highestIn(i), max);
+            }
+        }
+        return max;
+    }
+
+    private static int indexOf(long value) {
+        // 0 below SUB_BUCKETS, then one more for every doubling
+        int magnitude = 64 - Long.numberOfLeadingZeros(value | (SUB_BUCKETS - 1)) - SUB_BITS;
+        return (magnitude << (SUB_BITS - 1)) + (int) (value >>> magnitude);
+    }
+
+    private static long highestIn(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int magnitude = (index >> (SUB_BITS - 1)) - 1;
+        long lowest = (long) (index - magnitude * HALF) << magnitude;
+        return lowest + (1L << magnitude) - 1;
+    }
+}
@@ -0,0 +1,97 @@
+package me.runthebot.jeopardy.loadtest;
+
+/**
+ * Settings for a load test, read from the command line.
+ *
+ * Usage: LoadTestLauncher [--host=localhost] [--port=7777] [--clients=600] [--rooms=100] [--watchers=0]
+ *   [--threads=N] [--warmup=10] [--seconds=60] [--accuracy=0.7] [--reaction=300] [--reaction-spread=0.35]
+ *   [--think=400] [--reconnect=0.01]
+ * Clients are split as evenly as they go between the rooms and play; watchers are
+ * extra clients per room that only follow it. Reaction and think times are drawn
+ * from log-normal distributions with the given median in milliseconds; the spread
+ * is the sigma of the underlying normal.
+ */
+final class LoadConfig {
+    static final String USAGE = "Usage: LoadTestLauncher [--host=localhost] [--port=7777] [--clients=600] [--rooms=100]"
+        + " [--watchers=0] [--threads=N] [--warmup=10] [--seconds=60] [--accuracy=0.7] [--reaction=300]"
+        + " [--reaction-spread=0.35] [--think=400] [--reconnect=0.01]";
+
+    String host = "localhost";
+    int port = 7777;
+    // Playing clients in all, and rooms to spread them over
+    int clients = 600;
+    int rooms = 100;
+    // Spectators per room, on top of the clients
+    int watchers;
+    // Threads driving the clients, each with a selector of its own
+    int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    // Run this long before measuring, then measure this long
+    int warmupSeconds = 10;
+    int seconds = 60;
+    // Chance that a player who won the buzz answers right
+    double accuracy = 0.7;
+    // Median delay from a clue opening to buzzing in, and its spread
+    int reactionMillis = 300;
+    double reactionSpread = 0.35;
+    // Median delay before picking a clue or answering one
+    int thinkMillis = 400;
+    // Chance that a player drops its connection after each clue and comes back
+    double reconnect = 0.01;
+
+    /**
+     * @param args the command line
+     * @return the settings, defaults where an option is missing
+     * @throws IllegalArgumentException if an option is unknown or malformed
+     */
+    static LoadConfig parse(String[] args) {
+        LoadConfig config = new LoadConfig();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --option=value: " + arg);
+            }
+            String option = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            if (option.equals("host")) {
+                config.host = value;
+            } else if (option.equals("port")) {
+                config.port = Integer.parseInt(value);
+            } else if (option.equals("clients")) {
+                config.clients = Math.max(1, Integer.parseInt(value));
+            } else if (option.equals("rooms")) {
+                config.rooms = Math.max(1, Integer.parseInt(value));
+            } else if (option.equals("watchers")) {
+                config.watchers = Math.max(0, Integer.parseInt(value));
+            } else if (option.equals("threads")) {
+                config.threads = Math.max(1, Integer.parseInt(value));
+            } else if (option.equals("warmup")) {
+                config.warmupSeconds = Math.max(0, Integer.parseInt(value));
+            } else if (option.equals("seconds")) {
+                config.seconds = Math.max(1, Integer.parseInt(value));
+            } else if (option.equals("accuracy")) {
+                config.accuracy = probability(arg, value);
+            } else if (option.equals("reaction")) {
+                config.reactionMillis = Math.max(0, Integer.parseInt(value));
+            } else if (option.equals("reaction-spread")) {
+                config.reactionSpread = Math.max(0, Double.parseDouble(value));
+            } else if (option.equals("think")) {
+                config.thinkMillis = Math.max(0, Integer.parseInt(value));
+            } else if (option.equals("reconnect")) {
+                config.reconnect = probability(arg, value);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        // Every room needs a player
+        config.rooms = Math.min(config.rooms, config.clients);
+        return config;
+    }
+
+    private static double probability(String arg, String value) {
+        double probability = Double.parseDouble(value);
+        if (probability < 0 || probability > 1) {
+            throw new IllegalArgumentException("Expected a probability between 0 and 1: " + arg);
+        }
+        return probability;
+    }
+}
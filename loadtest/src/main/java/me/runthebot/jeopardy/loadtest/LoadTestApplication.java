@@ -0,0 +1,210 @@
+package me.runthebot.jeopardy.loadtest;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * The headless application running a load test against a game server.
+ *
+ * libGDX provides the file access the answer key is read with, and logging. The
+ * bots run on their drivers' threads and the test's timeline on a thread of its
+ * own: warm up, measure, report, then exit the application.
+ */
+class LoadTestApplication extends ApplicationAdapter {
+    // How often progress is logged while the test runs
+    private static final int REPORT_SECONDS = 5;
+
+    private final LoadConfig config;
+    private BotDriver[] drivers;
+    private Thread[] threads;
+    private Thread timeline;
+
+    LoadTestApplication(LoadConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public void create() {
+        AnswerKey key = new AnswerKey();
+        Gdx.app.log("LoadTest", "Answer key has " + key.size() + " questions");
+
+        int count = Math.min(config.threads, config.rooms);
+        drivers = new BotDriver[count];
+        try {
+            for (int i = 0; i < count; i++) {
+                drivers[i] = new BotDriver(config, key, i);
+            }
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Failed to open a selector", e);
+        }
+        // Rooms whole to a driver, players shared out as evenly as they go
+        for (int room = 0; room < config.rooms; room++) {
+            int players = config.clients / config.rooms + (room < config.clients % config.rooms ? 1 : 0);
+            drivers[room % count].addRoom(new BotRoom("load-" + room, players), config.watchers);
+        }
+
+        threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            threads[i] = new Thread(drivers[i], "BotDriver-" + i);
+            threads[i].setDaemon(true);
+            threads[i].start();
+        }
+        timeline = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runTest();
+                } catch (InterruptedException e) {
+                    // Exiting
+                }
+            }
+        }, "LoadTest");
+        timeline.setDaemon(true);
+        timeline.start();
+    }
+
+    @Override
+    public void dispose() {
+        if (timeline != null) {
+            timeline.interrupt();
+        }
+        stopDrivers();
+    }
+
+    private void runTest() throws InterruptedException {
+        int bots = 0;
+        for (BotDriver driver : drivers) {
+            bots += driver.getBotCount();
+        }
+        Gdx.app.log("LoadTest", bots + " clients in " + config.rooms + " rooms on " + drivers.length
+            + " threads against " + config.host + ":" + config.port + "; warming up for " + config.warmupSeconds + "s");
+        Totals start = run(config.warmupSeconds, new Totals(drivers));
+
+        for (BotDriver driver : drivers) {
+            driver.measure();
+        }
+        Gdx.app.log("LoadTest", "Measuring for " + config.seconds + "s");
+        Totals end = run(config.seconds, start);
+        stopDrivers();
+        report(start, end);
+        Gdx.app.exit();
+    }
+
+    /**
+     * Lets the bots play for a while, logging progress
+     *
+     * @return the totals at the end
+     */
+    private Totals run(int seconds, Totals last) throws InterruptedException {
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        while (true) {
+            long left = end - System.nanoTime();
+            if (left <= 0) {
+                return last;
+            }
+            Thread.sleep(Math.min(left / 1_000_000 + 1, REPORT_SECONDS * 1000));
+            Totals now = new Totals(drivers);
+            double elapsed = (now.time - last.time) / 1e9;
+            Gdx.app.log("LoadTest", String.format(Locale.ROOT,
+                "%d connected, %.0f msg/s in, %.0f KB/s in, %.0f msg/s out, %.1f clues/s, %d errors, %d resyncs",
+                now.connected, (now.messagesIn - last.messagesIn) / elapsed,
+                (now.bytesIn - last.bytesIn) / elapsed / 1024, (now.messagesOut - last.messagesOut) / elapsed,
+                (now.clues - last.clues) / elapsed, now.errors - last.errors, now.resyncs - last.resyncs));
+            last = now;
+        }
+    }
+
+    private void stopDrivers() {
+        if (drivers == null) {
+            return;
+        }
+        for (BotDriver driver : drivers) {
+            driver.stop();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Logs the results of the measured part of the test; the drivers must have stopped
+     */
+    private void report(Totals start, Totals end) {
+        LatencyHistogram buzzes = new LatencyHistogram();
+        LatencyHistogram answers = new LatencyHistogram();
+        LatencyHistogram delivery = new LatencyHistogram();
+        ObjectIntMap<String> errors = new ObjectIntMap<>();
+        for (BotDriver driver : drivers) {
+            buzzes.add(driver.buzzes);
+            answers.add(driver.answers);
+            delivery.add(driver.delivery);
+            for (ObjectIntMap.Entry<String> error : driver.getErrorCounts()) {
+                errors.getAndIncrement(error.key, 0, error.value);
+            }
+        }
+
+        double seconds = (end.time - start.time) / 1e9;
+        Gdx.app.log("LoadTest", String.format(Locale.ROOT,
+            "Throughput over %.1fs: %.0f msg/s in (%.0f KB/s), %.0f msg/s out, %.1f clues/s, %d games",
+            seconds, (end.messagesIn - start.messagesIn) / seconds, (end.bytesIn - start.bytesIn) / seconds / 1024,
+            (end.messagesOut - start.messagesOut) / seconds, (end.clues - start.clues) / seconds, end.games - start.games));
+        Gdx.app.log("LoadTest", "Latency in ms       count      mean     p50     p99   p99.9     max");
+        log("buzz to verdict", buzzes);
+        log("answer to verdict", answers);
+        log("update delivery", delivery);
+        Gdx.app.log("LoadTest", "Errors " + (end.errors - start.errors) + ", resyncs " + (end.resyncs - start.resyncs)
+            + ", reconnects " + (end.reconnects - start.reconnects)
+            + ", dropped by the server " + (end.disconnects - start.disconnects));
+        // Counted from the start, warm-up included, so nothing goes unexplained
+        for (ObjectIntMap.Entry<String> error : errors) {
+            Gdx.app.log("LoadTest", "  " + error.value + " x " + error.key);
+        }
+    }
+
+    private static void log(String name, LatencyHistogram histogram) {
+        Gdx.app.log("LoadTest", String.format(Locale.ROOT, "%-18s %7d %9.2f %7.2f %7.2f %7.2f %7.2f",
+            name, histogram.getCount(), histogram.getMean() / 1000,
+            histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0,
+            histogram.getValueAtPercentile(99.9) / 1000.0, histogram.getMax() / 1000.0));
+    }
+
+    /**
+     * Every driver's counts added up at one moment
+     */
+    private static final class Totals {
+        final long time = System.nanoTime();
+        long messagesIn;
+        long bytesIn;
+        long messagesOut;
+        long clues;
+        long games;
+        long errors;
+        long resyncs;
+        long reconnects;
+        long disconnects;
+        int connected;
+
+        Totals(BotDriver[] drivers) {
+            for (BotDriver driver : drivers) {
+                messagesIn += driver.messagesIn;
+                bytesIn += driver.bytesIn;
+                messagesOut += driver.messagesOut;
+                clues += driver.clues;
+                games += driver.games;
+                errors += driver.errors;
+                resyncs += driver.resyncs;
+                reconnects += driver.reconnects;
+                disconnects += driver.disconnects;
+                connected += driver.connected;
+            }
+        }
+    }
+}
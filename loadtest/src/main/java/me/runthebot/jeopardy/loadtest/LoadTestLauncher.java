@@ -0,0 +1,24 @@
+package me.runthebot.jeopardy.loadtest;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+/** Launches the load test application. */
+public class LoadTestLauncher {
+    public static void main(String[] args) {
+        LoadConfig config;
+        try {
+            config = LoadConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        // Nothing renders; the loop only runs posted tasks
+        configuration.updatesPerSecond = 10;
+        new HeadlessApplication(new LoadTestApplication(config), configuration);
+    }
+}
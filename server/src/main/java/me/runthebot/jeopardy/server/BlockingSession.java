@@ -0,0 +1,326 @@
+package me.runthebot.jeopardy.server;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.Queue;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import me.runthebot.jeopardy.net.GameCodec;
+import me.runthebot.jeopardy.net.Protocol;
+import me.runthebot.jeopardy.net.WireReader;
+import me.runthebot.jeopardy.net.WireWriter;
+
+/**
+ * One client served by two threads of its own, in thread-per-session mode.
+ *
+ * The reader thread blocks reading the socket and runs each command against the
+ * room, holding the room's lock. The writer thread blocks waiting for output and
+ * then writing everything queued in one go, so a room sending to a slow client
+ * only ever queues a shared frame and moves on. As with the event loops, a client
+ * that lets {@link #MAX_QUEUED} bytes pile up is disconnected.
+ *
+ * The writer waits for the write-ahead log, if there is one, to have what it is
+ * about to write on disk.
+ *
+ * Waiting is done with {@link ReentrantLock}s rather than monitors, which would
+ * pin a virtual thread to its carrier while it waits.
+ */
+final class BlockingSession extends Session {
+    private final SessionServer server;
+    private final SocketChannel channel;
+    private final ByteBuffer input = ByteBuffer.allocateDirect(INPUT_SIZE);
+    private final byte[] body = new byte[Protocol.MAX_CLIENT_FRAME];
+    private final WireReader in = new WireReader();
+    // When the last read returned, in System.nanoTime terms; only touched by the reader thread
+    private long received;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition ready = lock.newCondition();
+    // Frames queued by rooms, swapped with writing by the writer; guarded by lock
+    private Queue<SharedFrame> pending = new Queue<>(16);
+    private int queued;
+    private boolean overflowed;
+    private boolean closed;
+    // Errors this session sends itself, outside any room; only touched by the reader thread
+    private WireWriter errors;
+    // What the writer is writing, and its buffers for one gathering write; only touched by the writer thread
+    private Queue<SharedFrame> writing = new Queue<>(16);
+    private final ByteBuffer[] views = new ByteBuffer[64];
+
+    BlockingSession(SessionServer server, SocketChannel channel) {
+        this.server = server;
+        this.channel = channel;
+    }
+
+    /**
+     * Starts the session's reader and writer threads
+     *
+     * @param threads makes the threads
+     */
+    void start(ThreadFactory threads) {
+        threads.newThread(new Runnable() {
+            @Override
+            public void run() {
+                read();
+            }
+        }).start();
+        threads.newThread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        }).start();
+    }
+
+    /**
+     * Queues a frame for the writer thread
+     */
+    @Override
+    void send(SharedFrame frame) {
+        lock.lock();
+        try {
+            if (closed || overflowed) {
+                return;
+            }
+            if (queued + frame.length() > MAX_QUEUED) {
+                // Closed by the writer, not in the middle of a broadcast
+                overflowed = true;
+            } else {
+                frame.retain();
+                pending.addLast(frame);
+                queued += frame.length();
+                ServerMetrics.QUEUED_BYTES.add(frame.length());
+            }
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Disconnects the client; its reader thread then takes it out of its room.
+     * Safe to call from any thread, more than once.
+     *
+     * @param reason why, for the log, or null for an orderly disconnect
+     */
+    @Override
+    void close(String reason) {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            ServerMetrics.QUEUED_BYTES.add(-queued);
+            queued = 0;
+            while (pending.size > 0) {
+                pending.removeFirst().release();
+            }
+            ready.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (reason != null) {
+            Gdx.app.log("BlockingSession", "Closing connection: " + reason);
+        }
+        try {
+            // Also wakes the reader if it is blocked reading
+            channel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+    }
+
+    private void read() {
+        try {
+            while (channel.read(input) >= 0) {
+                received = System.nanoTime();
+                if (!process()) {
+                    break;
+                }
+            }
+            close(null);
+        } catch (IOException e) {
+            close(e.getMessage());
+        } finally {
+            server.leave(this);
+        }
+    }
+
+    /**
+     * Handles every whole frame in the input buffer
+     *
+     * @return false once the session should end
+     */
+    private boolean process() {
+        input.flip();
+        while (true) {
+            int length = nextFrame(input, body);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0) {
+                close("bad frame length");
+                return false;
+            }
+            try {
+                if (!handle(in.reset(body, 0, length))) {
+                    return false;
+                }
+            } catch (GdxRuntimeException e) {
+                close(e.getMessage());
+                return false;
+            }
+        }
+        // Keep any partial frame for the next read
+        input.compact();
+        return true;
+    }
+
+    private boolean handle(WireReader in) {
+        int type = in.readVarInt();
+        ServerMetrics.MESSAGES_IN.increment();
+        if (type == Protocol.JOIN || type == Protocol.WATCH) {
+            if (room != null) {
+                error("Already in room " + room.name);
+                return true;
+            }
+            String roomName = in.readString().trim();
+            String playerName = type == Protocol.JOIN ? in.readString().trim() : null;
+            if (roomName.isEmpty() || playerName != null && playerName.isEmpty()) {
+                error("Room and player names can't be empty");
+                return true;
+            }
+            server.join(this, roomName, playerName);
+            return true;
+        }
+        if (type == Protocol.LEAVE) {
+            close(null);
+            return false;
+        }
+        // Only this thread joins and leaves rooms, so the room can't change under us
+        Room room = this.room;
+        if (room == null) {
+            error("Join a room first");
+            return true;
+        }
+        // Neither of these waits for the room's lock, which everyone buzzing at once would queue on
+        if (type == Protocol.BUZZ) {
+            room.buzz(this, in.readVarInt(), received);
+            return true;
+        }
+        if (type == Protocol.PONG) {
+            pong(in.readLong(), received);
+            return true;
+        }
+        room.lock.lock();
+        try {
+            switch (type) {
+                case Protocol.START:
+                    room.start(this);
+                    break;
+                case Protocol.SELECT:
+                    int column = in.readVarInt();
+                    room.select(this, column, in.readVarInt());
+                    break;
+                case Protocol.ANSWER:
+                    room.answer(this, in.readVarInt());
+                    break;
+                case Protocol.SYNC:
+                    room.sync(this);
+                    break;
+                default:
+                    error("Unknown message " + type);
+            }
+        } finally {
+            room.lock.unlock();
+        }
+        return true;
+    }
+
+    private void error(String message) {
+        if (errors == null) {
+            errors = new WireWriter();
+        }
+        // Not from any room, so not from any room's pool
+        SharedFrame frame = FramePool.copy(GameCodec.error(errors, message));
+        send(frame);
+        frame.release();
+    }
+
+    private void write() {
+        try {
+            while (true) {
+                lock.lock();
+                try {
+                    while (pending.size == 0 && !closed && !overflowed) {
+                        ready.await();
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    if (overflowed) {
+                        break;
+                    }
+                    Queue<SharedFrame> taken = pending;
+                    pending = writing;
+                    writing = taken;
+                    queued = 0;
+                } finally {
+                    lock.unlock();
+                }
+                writeAll();
+            }
+            close("too far behind");
+        } catch (IOException e) {
+            close(e.getMessage());
+        } catch (InterruptedException e) {
+            close(null);
+        } finally {
+            while (writing.size > 0) {
+                SharedFrame frame = writing.removeFirst();
+                ServerMetrics.QUEUED_BYTES.add(-frame.length());
+                frame.release();
+            }
+        }
+    }
+
+    /**
+     * Writes the frames taken from the queue, as many to a write as fit in views.
+     * Other sessions' writers may be writing the same frames at the same time, so
+     * each write goes through views of its own rather than moving a frame's position.
+     */
+    private void writeAll() throws IOException, InterruptedException {
+        WriteAheadLog wal = server.getWal();
+        if (wal != null) {
+            long sequence = 0;
+            for (int i = 0; i < writing.size; i++) {
+                sequence = Math.max(sequence, writing.get(i).sequence);
+            }
+            wal.awaitDurable(sequence);
+        }
+        while (writing.size > 0) {
+            int count = Math.min(writing.size, views.length);
+            for (int i = 0; i < count; i++) {
+                SharedFrame frame = writing.get(i);
+                ByteBuffer view = frame.buffer.duplicate();
+                view.position(0);
+                view.limit(frame.length());
+                views[i] = view;
+            }
+            while (views[count - 1].hasRemaining()) {
+                channel.write(views, 0, count);
+            }
+            for (int i = 0; i < count; i++) {
+                views[i] = null;
+                SharedFrame frame = writing.removeFirst();
+                ServerMetrics.QUEUED_BYTES.add(-frame.length());
+                ServerMetrics.BYTES_OUT.add(frame.length());
+                frame.release();
+            }
+        }
+    }
+}
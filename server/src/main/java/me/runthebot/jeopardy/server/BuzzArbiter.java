@@ -0,0 +1,138 @@
+package me.runthebot.jeopardy.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides who buzzed in first for a room's open clue, without taking the room's lock.
+ *
+ * Each buzz is timed as it was received, then moved back by the client's round trip:
+ * the clue took about half of it to reach the client and the buzz the other half to
+ * come back, so what is left is how long the player took to react. At most
+ * {@link #MAX_COMPENSATION} is taken off, so a client faking a slow connection gains
+ * no more than that.
+ *
+ * The whole arbiter is one word holding the clue's round and the best buzz so far,
+ * as its reaction time and player. A buzz that beats it swaps itself in with a CAS;
+ * one that doesn't only reads it. Hundreds of buzzes landing together therefore
+ * never wait on a lock, and all but the few that keep beating each other give up
+ * after a single read. Only the round and reaction are compared, never the player,
+ * so reactions the same to the microsecond go to the buzz whose CAS got there first.
+ *
+ * Once MAX_COMPENSATION has passed since the best buzz's reaction, no buzz still to
+ * arrive can beat it, and the room closes the round with {@link #decide}, on a timer
+ * set by each buzz that takes the lead.
+ */
+final class BuzzArbiter {
+    // Most of a round trip taken off a buzz, and how long a round stays open after its best buzz
+    static final long MAX_COMPENSATION = 100_000_000L;
+
+    // The word: bit 63 set while closed, then 15 bits of round, 40 of reaction micros and 8 of player
+    private static final int ROUND_SHIFT = 48;
+    private static final long ROUND_BITS = 0x7FFFL << ROUND_SHIFT;
+    private static final int TIME_SHIFT = 8;
+    private static final long MAX_TIME = (1L << 40) - 1;
+    private static final int PLAYER_MASK = 0xFF;
+    // What buzzes are ranked by: the round and reaction, not the player
+    private static final long RANK_BITS = ~(long) PLAYER_MASK;
+    // Worse than any real buzz, whose player fits in 7 bits
+    private static final long NO_BUZZ = MAX_TIME << TIME_SHIFT | PLAYER_MASK;
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    private final AtomicLong state = new AtomicLong(CLOSED);
+    // When the round opened; written before state, so whoever reads the round reads this
+    private long openedAt;
+
+    /**
+     * Opens buzzing for a newly opened clue; called by the room's thread
+     *
+     * @param round the clue's number, which buzzes must give
+     * @param now when the clue went out, in System.nanoTime terms
+     */
+    void open(int round, long now) {
+        openedAt = now;
+        state.set(tag(round) | NO_BUZZ);
+    }
+
+    /**
+     * Stops taking buzzes, whoever has buzzed; called by the room's thread
+     */
+    void close() {
+        state.set(CLOSED);
+    }
+
+    /**
+     * Offers a buzz; safe to call from any thread
+     *
+     * @param round the clue the player is buzzing for
+     * @param session the player buzzing
+     * @param received when the buzz was received, in System.nanoTime terms
+     * @return true if it is the best buzz so far; false if it is beaten, late, or for another clue
+     */
+    boolean buzz(int round, Session session, long received) {
+        long tag = tag(round);
+        long current = state.get();
+        if (current < 0 || (current & ROUND_BITS) != tag) {
+            return false;
+        }
+        // Read after state: opening the round published the seats as they were, and seats
+        // don't change mid-game. Spectators have none.
+        int player = session.player;
+        if (player < 0) {
+            return false;
+        }
+        long reaction = received - Math.min(session.rtt, MAX_COMPENSATION) - openedAt;
+        long micros = Math.max(0, Math.min(reaction / 1000, MAX_TIME));
+        long candidate = tag | micros << TIME_SHIFT | player;
+        while ((candidate & RANK_BITS) < (current & RANK_BITS)) {
+            if (state.compareAndSet(current, candidate)) {
+                return true;
+            }
+            // Beaten to it by another buzz, or the round closed
+            current = state.get();
+            if (current < 0 || (current & ROUND_BITS) != tag) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param round a clue's number
+     * @return true if buzzing is open for that clue and it hasn't been decided
+     */
+    boolean isOpen(int round) {
+        long current = state.get();
+        return current >= 0 && (current & ROUND_BITS) == tag(round);
+    }
+
+    /**
+     * Closes the round if its best buzz can no longer be beaten; called by the room's thread
+     *
+     * @param now the current System.nanoTime
+     * @return the winning player, or -1 if nobody has buzzed or it is too soon to tell
+     */
+    int decide(long now) {
+        long current = state.get();
+        if (current < 0 || (current & NO_BUZZ) == NO_BUZZ || now - decidableAt(current) < 0) {
+            return -1;
+        }
+        // Anything that got in since is better still, and just as safe to decide on
+        return (int) (state.getAndSet(CLOSED) & PLAYER_MASK);
+    }
+
+    /**
+     * @return when the best buzz so far can be decided on, in System.nanoTime terms;
+     *         meaningless until someone has buzzed
+     */
+    long decidableAt() {
+        return decidableAt(state.get());
+    }
+
+    private long decidableAt(long current) {
+        return openedAt + (current >>> TIME_SHIFT & MAX_TIME) * 1000 + MAX_COMPENSATION;
+    }
+
+    private static long tag(int round) {
+        return (long) round << ROUND_SHIFT & ROUND_BITS;
+    }
+}
@@ -0,0 +1,230 @@
+package me.runthebot.jeopardy.server;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Hammers the {@link BuzzArbiter} and the {@link TimerWheel} and checks them
+ * against simple models of what they should do.
+ *
+ * Usage: BuzzTimingCheck [rounds]
+ * Each arbiter round has several threads offer a crowd of buzzes at once; the
+ * winner must be a player with the best reaction, nothing may be decided before the
+ * best buzz can no longer be beaten, and a closed round takes no more buzzes. Ties
+ * are checked on their own, one buzz after another, as the first to arrive must
+ * win. The wheel gets random schedules, reschedules and cancels on a clock that
+ * jumps ahead unevenly, and every timer must fire exactly once, never early and no
+ * later than the tick after its deadline. Exits with status 1 if anything is off.
+ */
+public class BuzzTimingCheck {
+    private static final int DEFAULT_ROUNDS = 2_000;
+    private static final int THREADS = 8;
+    private static final int BUZZES_PER_THREAD = 40;
+    private static final int SEATS = 100;
+    private static final int TIMERS = 5_000;
+    private static final int WHEEL_STEPS = 200_000;
+    private static final long SEED = 7;
+
+    private static int failures;
+
+    public static void main(String[] args) throws InterruptedException {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ROUNDS;
+
+        checkTies();
+        long nanos = checkCrowds(rounds);
+        System.out.println("Arbiter: " + rounds + " rounds of " + THREADS * BUZZES_PER_THREAD + " buzzes on "
+            + THREADS + " threads, " + nanos / rounds / 1000 + " us per round");
+        checkWheel();
+
+        if (failures > 0) {
+            System.err.println(failures + " check(s) failed");
+            System.exit(1);
+        }
+        System.out.println("All checks passed");
+    }
+
+    private static void fail(String message) {
+        failures++;
+        if (failures <= 20) {
+            System.err.println(message);
+        }
+    }
+
+    private static Session[] seats() {
+        Session[] seats = new Session[SEATS];
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = new Session() {
+                @Override
+                void send(SharedFrame frame) {
+                }
+
+                @Override
+                void close(String reason) {
+                }
+            };
+            seats[i].player = i;
+        }
+        return seats;
+    }
+
+    /**
+     * Equal reactions from a higher seat and then a lower one: the higher seat was
+     * first and must keep the lead
+     */
+    private static void checkTies() {
+        Session[] seats = seats();
+        BuzzArbiter arbiter = new BuzzArbiter();
+        long open = 0;
+        arbiter.open(1, open);
+        if (!arbiter.buzz(1, seats[9], open + 50_000_000L)) {
+            fail("Ties: the first buzz did not take the lead");
+        }
+        if (arbiter.buzz(1, seats[2], open + 50_000_000L)) {
+            fail("Ties: a lower seat with the same reaction took the lead");
+        }
+        int winner = arbiter.decide(open + 1_000_000_000L);
+        if (winner != 9) {
+            fail("Ties: seat " + winner + " won instead of seat 9, which buzzed first");
+        }
+    }
+
+    /**
+     * @return the time taken offering the buzzes, summed over every round
+     */
+    private static long checkCrowds(int rounds) throws InterruptedException {
+        final Session[] seats = seats();
+        final BuzzArbiter arbiter = new BuzzArbiter();
+        Random random = new Random(SEED);
+        int count = THREADS * BUZZES_PER_THREAD;
+        final int[] players = new int[count];
+        final long[] received = new long[count];
+        long total = 0;
+
+        for (int round = 1; round <= rounds; round++) {
+            long open = System.nanoTime();
+            for (Session seat : seats) {
+                seat.rtt = random.nextInt(150_000_000);
+            }
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                players[i] = random.nextInt(SEATS);
+                // Within a millisecond of each other, so ties to the microsecond happen
+                received[i] = open + 50_000_000L + random.nextInt(1_000_000);
+                best = Math.min(best, reaction(seats[players[i]], received[i], open));
+            }
+
+            arbiter.open(round, open);
+            final int current = round;
+            final CountDownLatch go = new CountDownLatch(1);
+            Thread[] threads = new Thread[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                final int first = t * BUZZES_PER_THREAD;
+                threads[t] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            go.await();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                        for (int i = first; i < first + BUZZES_PER_THREAD; i++) {
+                            arbiter.buzz(current, seats[players[i]], received[i]);
+                        }
+                    }
+                });
+                threads[t].start();
+            }
+            long start = System.nanoTime();
+            go.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            total += System.nanoTime() - start;
+
+            if (!arbiter.isOpen(round)) {
+                fail("Round " + round + ": closed before it was decided");
+            }
+            if (arbiter.decide(open + best * 1000 + BuzzArbiter.MAX_COMPENSATION - 1_000) != -1) {
+                fail("Round " + round + ": decided before the best buzz was safe");
+            }
+            int winner = arbiter.decide(open + 10_000_000_000L);
+            if (winner < 0 || !hasReaction(seats[winner], best, players, received, open, seats)) {
+                fail("Round " + round + ": seat " + winner + " won without the best reaction");
+            }
+            if (arbiter.isOpen(round) || arbiter.buzz(round, seats[0], open)) {
+                fail("Round " + round + ": took a buzz after it was decided");
+            }
+        }
+        return total;
+    }
+
+    // Reaction in micros, as the arbiter works it out
+    private static long reaction(Session seat, long received, long open) {
+        return Math.max(0, (received - Math.min(seat.rtt, BuzzArbiter.MAX_COMPENSATION) - open) / 1000);
+    }
+
+    private static boolean hasReaction(Session winner, long best, int[] players, long[] received, long open, Session[] seats) {
+        for (int i = 0; i < players.length; i++) {
+            if (seats[players[i]] == winner && reaction(winner, received[i], open) == best) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class CheckTimer extends TimerWheel.Timer {
+        @Override
+        void fire(long now) {
+        }
+    }
+
+    private static void checkWheel() {
+        Random random = new Random(SEED);
+        long now = -5_000_000_000L;
+        TimerWheel wheel = new TimerWheel(now);
+        CheckTimer[] timers = new CheckTimer[TIMERS];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new CheckTimer();
+        }
+        // Timer -> the deadline it was last scheduled for, while scheduled
+        Map<TimerWheel.Timer, Long> deadlines = new HashMap<>();
+        int fired = 0;
+
+        for (int step = 0; step < WHEEL_STEPS; step++) {
+            now += random.nextInt(3_000_000);
+            for (int k = 0; k < 3; k++) {
+                CheckTimer timer = timers[random.nextInt(timers.length)];
+                if (random.nextInt(3) < 2) {
+                    // Mostly soon, sometimes several turns of the wheel away, now and then already past
+                    long deadline = now + (long) (random.nextDouble() * random.nextDouble() * 20_000_000_000L) - 5_000_000;
+                    wheel.schedule(timer, deadline);
+                    deadlines.put(timer, deadline);
+                } else {
+                    wheel.cancel(timer);
+                    deadlines.remove(timer);
+                }
+            }
+
+            TimerWheel.Timer timer;
+            while ((timer = wheel.poll(now)) != null) {
+                fired++;
+                Long deadline = deadlines.remove(timer);
+                if (deadline == null) {
+                    fail("Wheel: fired a timer that was cancelled or already fired");
+                } else if (now - deadline < 0) {
+                    fail("Wheel: fired " + (deadline - now) + " ns early");
+                } else if (now - deadline > 2 * TimerWheel.TICK_NANOS) {
+                    // A tick late at most, plus the clock's step and how far past a deadline was set
+                    fail("Wheel: fired " + (now - deadline) + " ns late");
+                }
+            }
+            if (wheel.size() != deadlines.size()) {
+                fail("Wheel: holds " + wheel.size() + " timers, expected " + deadlines.size());
+                break;
+            }
+        }
+        System.out.println("Wheel: " + fired + " timers fired over " + WHEEL_STEPS + " steps, " + deadlines.size() + " pending");
+    }
+}
@@ -0,0 +1,156 @@
+package me.runthebot.jeopardy.server;
+
+import com.badlogic.gdx.utils.Queue;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * One client's socket and its buffers.
+ *
+ * A connection belongs to exactly one event loop at a time and is only touched by
+ * that loop's thread. It starts on whichever loop accepted it and moves, buffers
+ * and all, to the loop owning its room when it joins one.
+ *
+ * Incoming bytes collect in a direct buffer until whole frames can be read from it.
+ * Outgoing frames are queued as they are, shared with everyone else in the room,
+ * and written once per pass of the loop, as many to a write as the socket takes.
+ * A client that falls so far behind that {@link #MAX_QUEUED} bytes are waiting is
+ * disconnected rather than buffered without limit. Frames waiting on the
+ * write-ahead log hold up everything queued behind them, so messages are never
+ * reordered; the loop writes them once the log has caught up.
+ */
+final class Connection extends Session {
+    final SocketChannel channel;
+    final ByteBuffer input;
+    EventLoop loop;
+    SelectionKey key;
+    // Set while the connection waits to move to the loop owning the room it asked to join;
+    // joinName is null to watch
+    EventLoop movingTo;
+    String joinRoom;
+    String joinName;
+    // Waiting in the loop's list of connections to flush
+    boolean dirty;
+    // Waiting in the loop's list of connections held up by the write-ahead log
+    boolean held;
+    // Fell too far behind; closed when the loop next flushes, not in the middle of a broadcast
+    boolean overflowed;
+    boolean closed;
+    private final Queue<SharedFrame> output = new Queue<>(16);
+    // Bytes of the first queued frame already written
+    private int written;
+    private int queued;
+
+    Connection(SocketChannel channel, ByteBuffer input) {
+        this.channel = channel;
+        this.input = input;
+    }
+
+    /**
+     * Queues a frame to be written at the end of the loop's pass
+     */
+    @Override
+    void send(SharedFrame frame) {
+        if (closed || overflowed) {
+            return;
+        }
+        if (queued + frame.length() > MAX_QUEUED) {
+            overflowed = true;
+        } else {
+            frame.retain();
+            output.addLast(frame);
+            queued += frame.length();
+            ServerMetrics.QUEUED_BYTES.add(frame.length());
+        }
+        if (!dirty) {
+            dirty = true;
+            loop.markDirty(this);
+        }
+    }
+
+    @Override
+    void close(String reason) {
+        loop.close(this, reason);
+    }
+
+    /**
+     * Writes as much queued output as the socket takes, in one gathering write.
+     *
+     * Frames are written straight from their shared buffers. Every connection a
+     * frame is queued on belongs to the loop whose room sent it, so only that
+     * loop's thread ever writes it, and can set its position and limit for the
+     * write. The one exception, errors queued before a connection moves to
+     * another loop, are never shared.
+     *
+     * @param views room for the buffers to write, reused by the loop
+     * @param durable the last write-ahead log record on disk; frames waiting on a later one stay queued
+     * @return true if everything that could be written was
+     * @throws IOException if the socket fails
+     */
+    boolean flush(ByteBuffer[] views, long durable) throws IOException {
+        int limit = Math.min(output.size, views.length);
+        int count = 0;
+        while (count < limit && output.get(count).sequence <= durable) {
+            count++;
+        }
+        if (count == 0) {
+            return true;
+        }
+        for (int i = 0; i < count; i++) {
+            SharedFrame frame = output.get(i);
+            ByteBuffer buffer = frame.buffer;
+            buffer.limit(frame.length());
+            buffer.position(i == 0 ? written : 0);
+            views[i] = buffer;
+        }
+        long bytes = channel.write(views, 0, count);
+        for (int i = 0; i < count; i++) {
+            views[i] = null;
+        }
+
+        queued -= bytes;
+        ServerMetrics.QUEUED_BYTES.add(-bytes);
+        ServerMetrics.BYTES_OUT.add(bytes);
+        while (bytes > 0) {
+            SharedFrame frame = output.first();
+            int left = frame.length() - written;
+            if (bytes < left) {
+                written += bytes;
+                break;
+            }
+            bytes -= left;
+            written = 0;
+            output.removeFirst().release();
+        }
+        return !isWritable(durable);
+    }
+
+    /**
+     * @param durable the last write-ahead log record on disk
+     * @return true if output can be written now
+     */
+    boolean isWritable(long durable) {
+        return output.size > 0 && output.first().sequence <= durable;
+    }
+
+    /**
+     * @return true if output is waiting to be written
+     */
+    boolean hasOutput() {
+        return output.size > 0;
+    }
+
+    /**
+     * Drops any output still queued, once the connection is closed
+     */
+    void discardOutput() {
+        while (output.size > 0) {
+            output.removeFirst().release();
+        }
+        written = 0;
+        ServerMetrics.QUEUED_BYTES.add(-queued);
+        queued = 0;
+    }
+}
@@ -0,0 +1,509 @@
+package me.runthebot.jeopardy.server;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectMap;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import me.runthebot.jeopardy.net.GameCodec;
+import me.runthebot.jeopardy.net.Protocol;
+import me.runthebot.jeopardy.net.WireReader;
+import me.runthebot.jeopardy.net.WireWriter;
+
+/**
+ * One thread serving the connections and rooms of its shard.
+ *
+ * Each loop owns a selector, the rooms whose names hash to it, and the connections
+ * in those rooms. Nothing a loop owns is touched by another thread, so rooms and
+ * connections need no locking; other threads hand work over through the task
+ * queue and wake the selector. A pass of the loop:
+ * <ol>
+ * <li>runs handed-over tasks (new connections, connections moving in),</li>
+ * <li>reads every readable socket and handles each whole frame,</li>
+ * <li>fires the rooms' timers that are due, from the loop's {@link TimerWheel},</li>
+ * <li>writes the output queued during the pass, one write per connection.</li>
+ * </ol>
+ * A room encodes each event once into a {@link SharedFrame} from the loop's pool
+ * and queues that frame on every player and spectator, so a room with hundreds
+ * watching costs one encode and a gathering write per socket.
+ *
+ * With a {@link WriteAheadLog}, output waiting for the log to reach the disk is
+ * held back, and the log wakes the loop to write it once it has. If the log fails
+ * instead, connections with output still held back are closed.
+ */
+final class EventLoop implements Runnable, Room.Owner {
+    private final GameServer server;
+    private final ServerConfig config;
+    // Null when games aren't logged
+    private final WriteAheadLog wal;
+    private final Selector selector;
+    private final Thread thread;
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final ObjectMap<String, Room> rooms = new ObjectMap<>();
+    // Every timeout of every room on this loop
+    private final TimerWheel timers = new TimerWheel(System.nanoTime());
+    // Connections with output queued during this pass
+    private final Array<Connection> dirty = new Array<>(false, 256);
+    // Connections whose output waits for the write-ahead log
+    private final Array<Connection> held = new Array<>(false, 256);
+    // Every message this loop's rooms send is built here, one at a time
+    private final WireWriter out = new WireWriter();
+    private final FramePool frames = new FramePool();
+    // Buffers for one gathering write
+    private final ByteBuffer[] views = new ByteBuffer[64];
+    private final WireReader in = new WireReader();
+    private final byte[] body = new byte[Protocol.MAX_CLIENT_FRAME];
+    // Input buffers of closed connections, reused for new ones
+    private final Array<ByteBuffer> freeInputs = new Array<>(false, 64);
+    private volatile boolean running = true;
+    // When this pass's select returned: the time everything read in the pass is taken
+    // to have arrived, so buzzes don't win by where their socket came in the key set
+    private long received;
+
+    EventLoop(GameServer server, int index, ServerConfig config, WriteAheadLog wal) throws IOException {
+        this.server = server;
+        this.config = config;
+        this.wal = wal;
+        this.selector = Selector.open();
+        this.thread = new Thread(this, "EventLoop-" + index);
+        if (wal != null) {
+            wal.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    selector.wakeup();
+                }
+            });
+        }
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * Stops the loop and closes its connections
+     */
+    void stop() throws InterruptedException {
+        running = false;
+        selector.wakeup();
+        thread.join();
+    }
+
+    /**
+     * Opens a room for a game recovered from the write-ahead log, before the loop starts
+     *
+     * @param roomName the room's name
+     * @param saved the game's log
+     * @return false if there was no game left to pick up
+     */
+    boolean restore(String roomName, byte[] saved) {
+        Room room = new Room(roomName, this, out, frames, config, wal);
+        if (!room.restore(saved)) {
+            return false;
+        }
+        rooms.put(roomName, room);
+        ServerMetrics.ROOMS.increment();
+        return true;
+    }
+
+    /**
+     * Takes over a newly accepted socket; safe to call from any thread
+     *
+     * @param channel a connected, non-blocking socket
+     */
+    void accept(final SocketChannel channel) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                Connection connection = new Connection(channel, acquire(freeInputs, Session.INPUT_SIZE));
+                ServerMetrics.CONNECTIONS.increment();
+                register(connection);
+            }
+        });
+    }
+
+    /**
+     * Takes over a connection moving from another loop to join a room here; safe to call from any thread
+     *
+     * @param connection the connection, no longer registered with its old loop
+     * @param roomName the room to join
+     * @param playerName the name to join as, or null to watch
+     */
+    void adopt(final Connection connection, final String roomName, final String playerName) {
+        execute(new Runnable() {
+            @Override
+            public void run() {
+                if (register(connection)) {
+                    join(connection, roomName, playerName);
+                    if (connection.hasOutput() && !connection.dirty) {
+                        markDirty(connection);
+                    }
+                    // Frames the client sent after JOIN came along in the input buffer
+                    process(connection);
+                }
+            }
+        });
+    }
+
+    private void execute(Runnable task) {
+        ServerMetrics.LOOP_TASKS.increment();
+        tasks.add(task);
+        selector.wakeup();
+    }
+
+    private boolean register(Connection connection) {
+        connection.loop = this;
+        try {
+            connection.key = connection.channel.register(selector, SelectionKey.OP_READ, connection);
+            return true;
+        } catch (IOException e) {
+            close(connection, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                // Wake for the wheel's next tick only while there are timers on it
+                selector.select(timers.size() > 0 ? TimerWheel.TICK_NANOS / 1_000_000 : 0);
+                received = System.nanoTime();
+                runTasks();
+                handleKeys();
+                runTimers(System.nanoTime());
+                flush();
+            } catch (IOException | RuntimeException e) {
+                // One bad pass must not take the shard down with it
+                Gdx.app.error("EventLoop", "Error in event loop: " + e);
+            }
+        }
+        shutdown();
+    }
+
+    private void runTimers(long now) {
+        TimerWheel.Timer timer;
+        while ((timer = timers.poll(now)) != null) {
+            ServerMetrics.TIMERS_FIRED.increment();
+            try {
+                timer.fire(now);
+            } catch (RuntimeException e) {
+                // One bad room must not stop the others' timers
+                Gdx.app.error("EventLoop", "Error in timer: " + e);
+            }
+        }
+    }
+
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            ServerMetrics.LOOP_TASKS.decrement();
+            task.run();
+        }
+    }
+
+    private void handleKeys() {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            Connection connection = (Connection) key.attachment();
+            if (!key.isValid() || connection.loop != this) {
+                continue;
+            }
+            if (key.isWritable()) {
+                markDirty(connection);
+            }
+            if (key.isReadable()) {
+                read(connection);
+            }
+        }
+    }
+
+    private void read(Connection connection) {
+        int count;
+        try {
+            count = connection.channel.read(connection.input);
+        } catch (IOException e) {
+            close(connection, e.getMessage());
+            return;
+        }
+        if (count < 0) {
+            close(connection, null);
+            return;
+        }
+        process(connection);
+    }
+
+    /**
+     * Handles every whole frame in a connection's input buffer
+     */
+    private void process(Connection connection) {
+        ByteBuffer input = connection.input;
+        input.flip();
+        while (!connection.closed && connection.movingTo == null) {
+            int length = Session.nextFrame(input, body);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0) {
+                close(connection, "bad frame length");
+                return;
+            }
+            try {
+                handle(connection, in.reset(body, 0, length));
+            } catch (GdxRuntimeException e) {
+                close(connection, e.getMessage());
+                return;
+            }
+        }
+        if (connection.closed) {
+            return;
+        }
+        // Keep any partial frame for the next read; a moving connection takes the rest along
+        input.compact();
+        if (connection.movingTo != null) {
+            moveTo(connection);
+        }
+    }
+
+    private void handle(Connection connection, WireReader in) {
+        int type = in.readVarInt();
+        ServerMetrics.MESSAGES_IN.increment();
+        Room room = connection.room;
+        if (type == Protocol.JOIN || type == Protocol.WATCH) {
+            if (room != null) {
+                sendError(connection, "Already in room " + room.name);
+                return;
+            }
+            String roomName = in.readString().trim();
+            String playerName = type == Protocol.JOIN ? in.readString().trim() : null;
+            if (roomName.isEmpty() || playerName != null && playerName.isEmpty()) {
+                sendError(connection, "Room and player names can't be empty");
+                return;
+            }
+            EventLoop owner = server.loopFor(roomName);
+            if (owner == this) {
+                join(connection, roomName, playerName);
+            } else {
+                // Moved once the frames before this one are done with
+                connection.movingTo = owner;
+                connection.joinRoom = roomName;
+                connection.joinName = playerName;
+            }
+            return;
+        }
+        if (type == Protocol.LEAVE) {
+            close(connection, null);
+            return;
+        }
+        if (room == null) {
+            sendError(connection, "Join a room first");
+            return;
+        }
+        switch (type) {
+            case Protocol.START:
+                room.start(connection);
+                break;
+            case Protocol.SELECT:
+                int column = in.readVarInt();
+                room.select(connection, column, in.readVarInt());
+                break;
+            case Protocol.ANSWER:
+                room.answer(connection, in.readVarInt());
+                break;
+            case Protocol.BUZZ:
+                room.buzz(connection, in.readVarInt(), received);
+                break;
+            case Protocol.PONG:
+                connection.pong(in.readLong(), received);
+                break;
+            case Protocol.SYNC:
+                room.sync(connection);
+                break;
+            default:
+                sendError(connection, "Unknown message " + type);
+        }
+    }
+
+    private void join(Connection connection, String roomName, String playerName) {
+        Room room = rooms.get(roomName);
+        if (room == null) {
+            room = new Room(roomName, this, out, frames, config, wal);
+            rooms.put(roomName, room);
+            ServerMetrics.ROOMS.increment();
+        }
+        if (playerName != null) {
+            room.join(connection, playerName);
+        } else {
+            room.watch(connection);
+        }
+        if (connection.room == null && room.isEmpty()) {
+            removeRoom(room);
+        }
+    }
+
+    /**
+     * Hands a connection to the loop that owns the room it is joining.
+     * After this the connection belongs to the other loop's thread.
+     */
+    private void moveTo(Connection connection) {
+        EventLoop owner = connection.movingTo;
+        String roomName = connection.joinRoom;
+        String playerName = connection.joinName;
+        connection.movingTo = null;
+        connection.joinRoom = null;
+        connection.joinName = null;
+        connection.key.cancel();
+        connection.key = null;
+        connection.loop = null;
+        if (connection.dirty) {
+            connection.dirty = false;
+            dirty.removeValue(connection, true);
+        }
+        if (connection.held) {
+            connection.held = false;
+            held.removeValue(connection, true);
+        }
+        owner.adopt(connection, roomName, playerName);
+    }
+
+    @Override
+    public void removeRoom(Room room) {
+        if (rooms.remove(room.name) != null) {
+            ServerMetrics.ROOMS.decrement();
+        }
+    }
+
+    @Override
+    public void schedule(TimerWheel.Timer timer, long deadline) {
+        timers.schedule(timer, deadline);
+    }
+
+    @Override
+    public void cancel(TimerWheel.Timer timer) {
+        timers.cancel(timer);
+    }
+
+    void sendError(Connection connection, String message) {
+        SharedFrame frame = frames.share(GameCodec.error(out, message));
+        connection.send(frame);
+        frame.release();
+    }
+
+    void markDirty(Connection connection) {
+        connection.dirty = true;
+        dirty.add(connection);
+    }
+
+    /**
+     * Writes the output queued this pass, and any held back until now by the
+     * write-ahead log. Connections closed along the way may queue more output for
+     * their rooms, which is picked up in the same pass.
+     */
+    private void flush() {
+        long durable = wal != null ? wal.durable() : Long.MAX_VALUE;
+        // Once the log has failed, output still held back will never be let through
+        boolean failed = wal != null && wal.isFailed();
+        for (int i = held.size - 1; i >= 0; i--) {
+            Connection connection = held.get(i);
+            if (connection.closed || failed || connection.isWritable(durable)) {
+                connection.held = false;
+                held.removeIndex(i);
+                if (!connection.closed && !connection.dirty) {
+                    markDirty(connection);
+                }
+            }
+        }
+        for (int i = 0; i < dirty.size; i++) {
+            Connection connection = dirty.get(i);
+            connection.dirty = false;
+            if (connection.closed) {
+                continue;
+            }
+            if (connection.overflowed) {
+                close(connection, "too far behind");
+                continue;
+            }
+            try {
+                boolean done = connection.flush(views, durable);
+                int ops = done ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE;
+                if (connection.key.interestOps() != ops) {
+                    connection.key.interestOps(ops);
+                }
+                if (done && connection.hasOutput()) {
+                    if (failed) {
+                        close(connection, "the game could not be saved");
+                    } else if (!connection.held) {
+                        connection.held = true;
+                        held.add(connection);
+                    }
+                }
+            } catch (IOException e) {
+                close(connection, e.getMessage());
+            }
+        }
+        dirty.clear();
+    }
+
+    /**
+     * Closes a connection and takes it out of its room
+     *
+     * @param connection the connection
+     * @param reason why, for the log, or null for an orderly disconnect
+     */
+    void close(Connection connection, String reason) {
+        if (connection.closed) {
+            return;
+        }
+        connection.closed = true;
+        ServerMetrics.CONNECTIONS.decrement();
+        if (reason != null) {
+            Gdx.app.log("EventLoop", "Closing connection: " + reason);
+        }
+        if (connection.key != null) {
+            connection.key.cancel();
+        }
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        if (connection.room != null) {
+            connection.room.leave(connection);
+        }
+        connection.discardOutput();
+        release(freeInputs, connection.input);
+    }
+
+    private void shutdown() {
+        for (SelectionKey key : selector.keys()) {
+            Object attachment = key.attachment();
+            if (attachment instanceof Connection) {
+                Connection connection = (Connection) attachment;
+                connection.room = null;
+                close(connection, null);
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            Gdx.app.error("EventLoop", "Failed to close selector: " + e.getMessage());
+        }
+    }
+
+    private static ByteBuffer acquire(Array<ByteBuffer> free, int capacity) {
+        return free.size > 0 ? free.pop() : ByteBuffer.allocateDirect(capacity);
+    }
+
+    private static void release(Array<ByteBuffer> free, ByteBuffer buffer) {
+        buffer.clear();
+        free.add(buffer);
+    }
+}
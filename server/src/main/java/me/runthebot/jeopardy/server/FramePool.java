@@ -0,0 +1,74 @@
+package me.runthebot.jeopardy.server;
+
+import java.util.concurrent.atomic.AtomicReference;
+import me.runthebot.jeopardy.net.Protocol;
+import me.runthebot.jeopardy.net.WireWriter;
+
+/**
+ * Recycles {@link SharedFrame}s, so sending allocates nothing once a server has warmed up.
+ *
+ * Frames come in two sizes: small enough for nearly every message, and large
+ * enough for any. Frames are only ever taken by one thread at a time (an event
+ * loop, or whoever holds a room's lock), but can be returned by any thread that
+ * last wrote them, so each size is a lock-free stack linked through the frames
+ * themselves. With a single taker, a frame can't be taken and put back in the
+ * middle of another take, which is what makes the simple stack safe.
+ */
+final class FramePool {
+    private static final int SMALL = 512;
+    // Any message body plus its longest length prefix
+    private static final int LARGE = Protocol.MAX_FRAME + 3;
+
+    private final AtomicReference<SharedFrame> small = new AtomicReference<>();
+    private final AtomicReference<SharedFrame> large = new AtomicReference<>();
+
+    /**
+     * Copies a finished message into a frame ready to share
+     *
+     * @param message a finished frame
+     * @return the frame, holding one reference for the caller
+     */
+    SharedFrame share(WireWriter message) {
+        int length = message.getLength();
+        boolean fits = length <= SMALL;
+        SharedFrame frame = take(fits ? small : large);
+        if (frame == null) {
+            frame = new SharedFrame(this, fits ? SMALL : LARGE);
+        }
+        frame.set(message.getBuffer(), message.getOffset(), length);
+        return frame;
+    }
+
+    /**
+     * Copies a message into a frame of its own, for the rare message sent outside any pool's owner
+     *
+     * @param message a finished frame
+     * @return the frame, holding one reference for the caller
+     */
+    static SharedFrame copy(WireWriter message) {
+        SharedFrame frame = new SharedFrame(null, message.getLength());
+        frame.set(message.getBuffer(), message.getOffset(), message.getLength());
+        return frame;
+    }
+
+    void free(SharedFrame frame) {
+        AtomicReference<SharedFrame> stack = frame.buffer.capacity() == SMALL ? small : large;
+        SharedFrame head;
+        do {
+            head = stack.get();
+            frame.next = head;
+        } while (!stack.compareAndSet(head, frame));
+    }
+
+    private static SharedFrame take(AtomicReference<SharedFrame> stack) {
+        SharedFrame head;
+        do {
+            head = stack.get();
+            if (head == null) {
+                return null;
+            }
+        } while (!stack.compareAndSet(head, head.next));
+        head.next = null;
+        return head;
+    }
+}
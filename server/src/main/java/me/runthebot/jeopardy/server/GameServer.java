@@ -0,0 +1,112 @@
+package me.runthebot.jeopardy.server;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.ObjectMap;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Multiplayer Jeopardy over TCP, see {@link Protocol}.
+ *
+ * One acceptor thread takes new connections and deals them out to a fixed set of
+ * {@link EventLoop}s in turn. Rooms are sharded by name: every room lives on the
+ * loop its name hashes to, and a connection moves to that loop when it joins. So
+ * the server runs with loops + 1 threads however many clients are connected.
+ * Games recovered from the write-ahead log are back in their rooms, on their
+ * loops, before the port opens.
+ */
+final class GameServer implements Server {
+    private final ServerConfig config;
+    private final EventLoop[] loops;
+    private final WriteAheadLog wal;
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+    private int nextLoop;
+
+    /**
+     * @param config the server's settings
+     * @param wal where games are logged, or null if they aren't
+     */
+    GameServer(ServerConfig config, WriteAheadLog wal) throws IOException {
+        this.config = config;
+        this.wal = wal;
+        this.loops = new EventLoop[config.loops];
+        for (int i = 0; i < loops.length; i++) {
+            loops[i] = new EventLoop(this, i, config, wal);
+        }
+    }
+
+    @Override
+    public void start() throws IOException {
+        if (wal != null) {
+            int restored = 0;
+            for (ObjectMap.Entry<String, byte[]> game : wal.takeRecovered()) {
+                if (loopFor(game.key).restore(game.key, game.value)) {
+                    restored++;
+                }
+            }
+            Gdx.app.log("GameServer", "Restored " + restored + " games in progress");
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        // A deep backlog so a burst of clients reconnecting at once isn't refused
+        serverChannel.bind(new InetSocketAddress(config.port), 4096);
+        for (EventLoop loop : loops) {
+            loop.start();
+        }
+
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        }, "Acceptor");
+        acceptor.start();
+        Gdx.app.log("GameServer", "Listening on port " + config.port + " with " + loops.length + " event loops");
+    }
+
+    @Override
+    public void stop() {
+        try {
+            serverChannel.close();
+            acceptor.join();
+            for (EventLoop loop : loops) {
+                loop.stop();
+            }
+        } catch (IOException e) {
+            Gdx.app.error("GameServer", "Failed to close server socket: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param room a room name
+     * @return the loop that owns the room
+     */
+    EventLoop loopFor(String room) {
+        return loops[(room.hashCode() & 0x7FFFFFFF) % loops.length];
+    }
+
+    private void acceptConnections() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                loops[nextLoop].accept(channel);
+                nextLoop = (nextLoop + 1) % loops.length;
+            } catch (ClosedChannelException e) {
+                // Stopped
+                return;
+            } catch (IOException e) {
+                // Typically out of file descriptors; keep serving the clients already here
+                Gdx.app.error("GameServer", "Failed to accept connection: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package me.runthebot.jeopardy.server;
+
+import com.badlogic.gdx.Gdx;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import me.runthebot.jeopardy.metrics.Metrics;
+
+/**
+ * Serves every metric at /metrics in the Prometheus text format, for a scraper
+ * on the same machine.
+ *
+ * Listens on the loopback address only: the numbers say how busy the server is
+ * and nothing more, but they aren't for players. One thread of its own answers
+ * scrapes, so a slow scraper never holds up a game.
+ */
+final class MetricsEndpoint {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final HttpServer server;
+
+    private MetricsEndpoint(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * @param port the port to listen on, on 127.0.0.1
+     * @throws IOException if the port can't be bound
+     */
+    static MetricsEndpoint start(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                scrape(exchange);
+            }
+        });
+        server.start();
+        Gdx.app.log("MetricsEndpoint", "Serving metrics on http://127.0.0.1:" + port + "/metrics");
+        return new MetricsEndpoint(server);
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    private static void scrape(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            StringBuilder text = new StringBuilder(4096);
+            Metrics.write(text);
+            byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            OutputStream output = exchange.getResponseBody();
+            output.write(body);
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -0,0 +1,745 @@
+package me.runthebot.jeopardy.server;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.locks.ReentrantLock;
+import me.runthebot.jeopardy.config.GameConfig;
+import me.runthebot.jeopardy.data.BoardGenerator;
+import me.runthebot.jeopardy.data.QuestionData;
+import me.runthebot.jeopardy.metrics.GameMetrics;
+import me.runthebot.jeopardy.model.GameEngine;
+import me.runthebot.jeopardy.model.GameLog;
+import me.runthebot.jeopardy.model.GameState;
+import me.runthebot.jeopardy.model.Player;
+import me.runthebot.jeopardy.net.GameCodec;
+import me.runthebot.jeopardy.net.WireWriter;
+
+/**
+ * One game room: a lobby players join, the game they play in it, and anyone
+ * watching.
+ *
+ * The rules are core's {@link GameEngine}, played with buzzers; the room checks
+ * that commands come from the player whose turn it is, turns the engine's events
+ * into messages for every player and spectator, and keeps time. Who buzzed
+ * first is up to its {@link BuzzArbiter}, which buzzes reach without going through
+ * the room's thread or lock. Each change goes out numbered, one after the last,
+ * and anyone joining gets a snapshot of the room instead of its history. Each
+ * message is encoded once and the same {@link SharedFrame} is queued on every
+ * recipient.
+ *
+ * A room is only touched by one thread at a time: on the event loops, the loop it
+ * lives on; in thread-per-session mode, whichever thread holds its {@link #lock}.
+ * {@link #buzz} is the exception. Its timeouts are timers on its owner's
+ * {@link TimerWheel}, so a room costs nothing while it waits, and a room its
+ * players have left idle for too long is closed.
+ *
+ * Players who disconnect mid-game keep their place and score, and their turns are
+ * skipped until they join again under the same name; if they all go, the game
+ * ends. In the lobby they are removed outright. Spectators can join at any time
+ * and come and go as they like.
+ *
+ * With a {@link WriteAheadLog}, each game is kept in a {@link GameLog} between the
+ * engine and the room, and what the log gains goes to the write-ahead log before
+ * the room sends anything about it; every frame carries the record it waits for.
+ * A game recovered after a crash comes back with its seats empty, and waits for
+ * its players to rejoin until the room has been idle too long.
+ */
+final class Room implements GameEngine.Listener {
+    private static final long ANSWER_NANOS = (long) (GameConfig.ANSWER_TIME * 1_000_000_000L);
+    private static final long BUZZ_NANOS = (long) (GameConfig.BUZZ_TIME * 1_000_000_000L);
+    // How often players' round trips are measured
+    private static final long PING_NANOS = 2_000_000_000L;
+
+    // The room's timers
+    private static final int CLUE_TIMER = 0;
+    private static final int BUZZ_TIMER = 1;
+    private static final int TURN_TIMER = 2;
+    private static final int PING_TIMER = 3;
+    private static final int IDLE_TIMER = 4;
+
+    final String name;
+    // Held around every call in thread-per-session mode, which the event loops don't
+    // need; the room's timers take it either way
+    final ReentrantLock lock = new ReentrantLock();
+    private final Owner owner;
+    private final WireWriter out;
+    private final FramePool frames;
+    private final int maxPlayers;
+    private final int maxSpectators;
+    private final long idleNanos;
+    // Null when games aren't logged
+    private final WriteAheadLog wal;
+    // The room's name as the write-ahead log keys it
+    private final byte[] walName;
+    // The game in progress, while there is one and a write-ahead log to save it to
+    private GameLog log;
+    // How much of the log has gone to the write-ahead log
+    private int logged;
+    // The last write-ahead log record appended; what the room sends waits for it
+    private long sequence;
+    // A recovered game that none of its players has rejoined yet
+    private boolean waiting;
+    private final Array<Player> players = new Array<>();
+    // Each player's session, null once they have left
+    private final Array<Session> members = new Array<>();
+    private final Array<Session> spectators = new Array<>(false, 16);
+    // Players still connected
+    private int connected;
+    // Created for the first game and reused for the rest
+    private GameEngine engine;
+    private long seed;
+    private int[] categories;
+    private QuestionData[][] board;
+    // Clue IDs of the board's questions, logged so a recovered game gets the same board
+    private int[][] clues;
+    private final BoardGenerator.Callback boardDrawn = new BoardGenerator.Callback() {
+        @Override
+        public void generated(long seed, QuestionData[][] generated, int[][] ids) {
+            board = generated;
+            clues = ids;
+        }
+    };
+    private boolean playing;
+    // Sequence number of the last change sent
+    private int seq;
+    // When the open clue times out, for buzzing in or answering, in System.nanoTime terms
+    private long clueDeadline;
+    // The open clue's number, the seq of its CLUE_OPENED
+    private int clueSeq;
+    private final BuzzArbiter buzzer = new BuzzArbiter();
+    // When a player last joined or played, in System.nanoTime terms
+    private long lastActive;
+    // The open clue's timeout, for buzzing in or answering
+    private final RoomTimer clueTimer = new RoomTimer(CLUE_TIMER);
+    // When the best buzz so far can be decided on
+    private final RoomTimer buzzTimer = new RoomTimer(BUZZ_TIMER);
+    // Skips the turn of a player who has gone
+    private final RoomTimer turnTimer = new RoomTimer(TURN_TIMER);
+    private final RoomTimer pingTimer = new RoomTimer(PING_TIMER);
+    private final RoomTimer idleTimer = new RoomTimer(IDLE_TIMER);
+
+    /** Keeps track of rooms, drops them once everyone has gone, and runs their timers. */
+    interface Owner {
+        void removeRoom(Room room);
+
+        /**
+         * Schedules one of a room's timers, or moves it if already scheduled. Called
+         * wherever the room is, including from {@link Room#buzz}.
+         *
+         * @param timer the timer
+         * @param deadline when it fires, in System.nanoTime terms
+         */
+        void schedule(TimerWheel.Timer timer, long deadline);
+
+        void cancel(TimerWheel.Timer timer);
+    }
+
+    /**
+     * One of the room's timeouts. Fired by whichever thread runs its owner's timers,
+     * possibly just after being rescheduled, so each checks that it is still due.
+     */
+    private final class RoomTimer extends TimerWheel.Timer {
+        private final int kind;
+
+        RoomTimer(int kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        void fire(long now) {
+            lock.lock();
+            try {
+                timerFired(kind, now);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @param name the room's name
+     * @param owner told when the room empties
+     * @param out where the room builds its messages, not used by anyone else at the same time
+     * @param frames where the room's messages are shared from; only taken from by the room's thread
+     * @param config how many players and spectators fit, and how long the room may sit idle
+     * @param wal where the room's games are logged, or null if they aren't
+     */
+    Room(String name, Owner owner, WireWriter out, FramePool frames, ServerConfig config, WriteAheadLog wal) {
+        this.name = name;
+        this.owner = owner;
+        this.out = out;
+        this.frames = frames;
+        this.maxPlayers = config.maxPlayers;
+        this.maxSpectators = config.maxSpectators;
+        this.idleNanos = config.idleMinutes * 60_000_000_000L;
+        this.wal = wal;
+        this.walName = wal != null ? name.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    /**
+     * Picks up a game recovered from the write-ahead log. Nobody is in the room
+     * until its players rejoin; a clue that was open comes back played, with
+     * nobody scoring for it.
+     *
+     * @param saved the game's log, from the write-ahead log
+     * @return false if there is no game left to play, in which case the room isn't needed
+     */
+    boolean restore(byte[] saved) {
+        GameState state;
+        try {
+            log = GameLog.read(saved, 0, saved.length);
+            state = log.rebuild();
+        } catch (GdxRuntimeException e) {
+            Gdx.app.error("Room", "Failed to recover the game in " + name + ": " + e.getMessage());
+            endLog();
+            return false;
+        }
+        players.addAll(state.getPlayers());
+        for (int i = 0; i < players.size; i++) {
+            members.add(null);
+        }
+        seed = state.getSeed();
+        categories = state.getCategories();
+        // The logged clue IDs, so the board is the one that was played even if the bank moved its clues
+        BoardGenerator.generate(seed, categories, state.getClues(), boardDrawn);
+        engine = new GameEngine(players, categories.length);
+        engine.setBuzzIn(true);
+        engine.load(players, state.getBoardState(), state.getCurrentPlayerIndex());
+        if (engine.getPhase() == GameEngine.Phase.GAME_OVER) {
+            // The last clue was open
+            endLog();
+            return false;
+        }
+        engine.setBoard(board);
+        log.setListener(this);
+        engine.setListener(log);
+        // Reading may have added a snapshot the write-ahead log doesn't have yet
+        logged = saved.length;
+        playing = true;
+        waiting = true;
+        lastActive = System.nanoTime();
+        owner.schedule(idleTimer, lastActive + idleNanos);
+        return true;
+    }
+
+    /**
+     * Adds a session to the room as a new player
+     *
+     * @param session the joining client
+     * @param playerName the name the player goes by
+     */
+    void join(Session session, String playerName) {
+        if (playing) {
+            for (int i = 0; i < players.size; i++) {
+                if (members.get(i) == null && players.get(i).getName().equals(playerName)) {
+                    rejoin(session, i);
+                    return;
+                }
+            }
+            error(session, "A game is in progress in " + name);
+            return;
+        }
+        if (players.size >= maxPlayers) {
+            error(session, "Room " + name + " is full");
+            return;
+        }
+
+        arrive();
+        lastActive = System.nanoTime();
+        int index = players.size;
+        broadcast(GameCodec.playerJoined(out, ++seq, index, playerName));
+        players.add(new Player(playerName));
+        members.add(session);
+        connected++;
+        session.room = this;
+        session.player = index;
+        sync(session);
+    }
+
+    /**
+     * Gives a player who left mid-game their seat back
+     *
+     * @param session the joining client
+     * @param index the player's seat
+     */
+    private void rejoin(Session session, int index) {
+        arrive();
+        lastActive = System.nanoTime();
+        broadcast(GameCodec.playerReturned(out, ++seq, index));
+        members.set(index, session);
+        connected++;
+        session.room = this;
+        session.player = index;
+        sync(session);
+        if (waiting) {
+            // The first back in a recovered game, which carries on from here
+            waiting = false;
+            owner.schedule(pingTimer, lastActive);
+            owner.schedule(turnTimer, lastActive);
+        }
+    }
+
+    /**
+     * Adds a session to the room as a spectator, who sees everything and plays nothing
+     *
+     * @param session the joining client
+     */
+    void watch(Session session) {
+        if (spectators.size >= maxSpectators) {
+            error(session, "Room " + name + " has no room for more spectators");
+            return;
+        }
+        arrive();
+        spectators.add(session);
+        session.room = this;
+        session.player = -1;
+        sync(session);
+    }
+
+    /**
+     * Sends a member a snapshot of the room, which later changes follow on from
+     *
+     * @param session the member, player or spectator
+     */
+    void sync(Session session) {
+        GameCodec.beginSnapshot(out, seq, session.player, name, players.size);
+        for (int i = 0; i < players.size; i++) {
+            GameCodec.snapshotPlayer(out, players.get(i), members.get(i) != null);
+        }
+        if (playing) {
+            int millisLeft = (int) ((clueDeadline - System.nanoTime()) / 1_000_000);
+            GameCodec.endSnapshot(out, seed, categories, engine, board, clueSeq, millisLeft);
+        } else {
+            GameCodec.endSnapshot(out);
+        }
+        send(session, out);
+    }
+
+    /**
+     * @return true if nobody is connected to the room, playing or watching
+     */
+    boolean isEmpty() {
+        return connected == 0 && spectators.size == 0;
+    }
+
+    /**
+     * Removes a session from the room, after it left or disconnected
+     *
+     * @param session a member of the room
+     */
+    void leave(Session session) {
+        int index = session.player;
+        session.room = null;
+        session.player = -1;
+        if (index < 0) {
+            spectators.removeValue(session, true);
+        } else if (members.get(index) == session) {
+            connected--;
+            if (playing) {
+                // Keep the seat so scores and indexes stay put; tick skips their turns
+                members.set(index, null);
+                broadcast(GameCodec.playerLeft(out, ++seq, index, false));
+                if (connected == 0) {
+                    // Nobody left to play it
+                    engine.endGame();
+                } else if (index == engine.getAnsweringPlayer()) {
+                    owner.schedule(clueTimer, System.nanoTime());
+                } else if (index == engine.getCurrentPlayer()) {
+                    owner.schedule(turnTimer, System.nanoTime());
+                }
+            } else {
+                removePlayer(index);
+            }
+        }
+        if (isEmpty() && !waiting) {
+            owner.cancel(clueTimer);
+            owner.cancel(buzzTimer);
+            owner.cancel(turnTimer);
+            owner.cancel(pingTimer);
+            owner.cancel(idleTimer);
+            owner.removeRoom(this);
+        }
+    }
+
+    /**
+     * Starts a game, if the room is in its lobby
+     *
+     * @param session the member asking
+     */
+    void start(Session session) {
+        if (session.player < 0) {
+            error(session, "Spectators can't start the game");
+            return;
+        }
+        if (playing) {
+            error(session, "The game has already started");
+            return;
+        }
+        start();
+    }
+
+    /**
+     * Opens a clue for the member whose turn it is
+     *
+     * @param session the member asking
+     * @param column the board column
+     * @param tier the 0-based value tier
+     */
+    void select(Session session, int column, int tier) {
+        if (!checkTurn(session)) {
+            return;
+        }
+        lastActive = System.nanoTime();
+        if (!engine.selectClue(column, tier)) {
+            error(session, "That clue can't be opened");
+        }
+    }
+
+    /**
+     * Buzzes in for the open clue. Unlike every other call this needs neither the
+     * room's thread nor its lock, so a crowd of buzzes can't queue up behind each
+     * other. Only a buzz that is the best so far takes the lock, to set the timer for
+     * when the winner can be decided. Late and stray buzzes are dropped without a
+     * word, since most lose.
+     *
+     * @param session the member buzzing
+     * @param clue the clue buzzed for, the seq of its CLUE_OPENED
+     * @param received when the buzz was received, in System.nanoTime terms
+     */
+    void buzz(Session session, int clue, long received) {
+        ServerMetrics.BUZZES.increment();
+        if (buzzer.buzz(clue, session, received)) {
+            ServerMetrics.BUZZES_LEADING.increment();
+            // Holding the lock, the clue can't be decided and the next one opened between
+            // the check and the schedule, which would move the next clue's timer
+            lock.lock();
+            try {
+                if (buzzer.isOpen(clue)) {
+                    owner.schedule(buzzTimer, buzzer.decidableAt());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Answers the open clue for the member who buzzed in for it
+     *
+     * @param session the member answering
+     * @param choice the index of the chosen answer
+     */
+    void answer(Session session, int choice) {
+        if (!checkPlayer(session)) {
+            return;
+        }
+        if (session.player != engine.getAnsweringPlayer()) {
+            error(session, "You haven't buzzed in for a clue");
+            return;
+        }
+        long now = System.nanoTime();
+        lastActive = now;
+        // Read before answering, which closes the clue
+        long given = clueDeadline - ANSWER_NANOS;
+        if (engine.answer(choice)) {
+            GameMetrics.ANSWER_TIME.recordNanos(now - given);
+        } else {
+            error(session, "That answer can't be given");
+        }
+    }
+
+    private void timerFired(int kind, long now) {
+        if (isEmpty() && !waiting) {
+            // Fired in thread-per-session mode as the last member left
+            return;
+        }
+        if (kind == IDLE_TIMER) {
+            if (now - lastActive < idleNanos) {
+                owner.schedule(idleTimer, lastActive + idleNanos);
+            } else if (waiting) {
+                // Nobody came back for the recovered game
+                waiting = false;
+                engine.endGame();
+                if (isEmpty()) {
+                    owner.removeRoom(this);
+                } else {
+                    close("nobody rejoined in " + idleNanos / 60_000_000_000L + " min");
+                }
+            } else {
+                close("idle for " + idleNanos / 60_000_000_000L + " min");
+            }
+            return;
+        }
+        if (!playing) {
+            return;
+        }
+        switch (kind) {
+            case CLUE_TIMER:
+                if (engine.getPhase() == GameEngine.Phase.BUZZING && now - clueDeadline >= 0) {
+                    buzzer.close();
+                    engine.timeout();
+                } else if (engine.getPhase() == GameEngine.Phase.CLUE_OPEN
+                    && (now - clueDeadline >= 0 || members.get(engine.getAnsweringPlayer()) == null)) {
+                    engine.timeout();
+                }
+                break;
+            case BUZZ_TIMER:
+                if (engine.getPhase() == GameEngine.Phase.BUZZING) {
+                    int winner = buzzer.decide(now);
+                    if (winner >= 0) {
+                        ServerMetrics.BUZZ_DECISION.recordNanos(now - (clueDeadline - BUZZ_NANOS));
+                        engine.buzz(winner);
+                    }
+                }
+                break;
+            case TURN_TIMER:
+                // Everyone still here has a turn before this gives up
+                for (int i = 0; i < players.size && playing && engine.getPhase() == GameEngine.Phase.SELECTING
+                    && members.get(engine.getCurrentPlayer()) == null; i++) {
+                    engine.nextTurn();
+                }
+                break;
+            case PING_TIMER:
+                if (wal != null && wal.durable() < sequence && !wal.isFailed()) {
+                    // Queued behind output waiting on the disk, a ping would time the disk too
+                    owner.schedule(pingTimer, now + TimerWheel.TICK_NANOS);
+                    break;
+                }
+                ping(now);
+                owner.schedule(pingTimer, now + PING_NANOS);
+                break;
+        }
+    }
+
+    /**
+     * Starts the idle timer when the first member arrives
+     */
+    private void arrive() {
+        if (isEmpty()) {
+            lastActive = System.nanoTime();
+            owner.schedule(idleTimer, lastActive + idleNanos);
+        }
+    }
+
+    /**
+     * Disconnects everyone; they leave as their sessions close, and the room goes with the last
+     */
+    private void close(String reason) {
+        Gdx.app.log("Room", "Closing room " + name + ": " + reason);
+        // Backwards, since leaving may take them out of these arrays as we go
+        for (int i = spectators.size - 1; i >= 0; i--) {
+            spectators.get(i).close(reason);
+        }
+        for (int i = members.size - 1; i >= 0; i--) {
+            Session member = members.get(i);
+            if (member != null) {
+                member.close(reason);
+            }
+        }
+    }
+
+    private void start() {
+        // Seats left empty by the last game go before the next one
+        for (int i = players.size - 1; i >= 0; i--) {
+            if (members.get(i) == null) {
+                removePlayer(i);
+            }
+        }
+        for (Player player : players) {
+            player.updateScore(-player.getScore());
+        }
+
+        seed = BoardGenerator.newSeed();
+        categories = BoardGenerator.pickCategories(seed);
+        // Categories are loaded up front by the server, so this never waits on a file
+        BoardGenerator.generate(seed, categories, null, boardDrawn);
+        if (engine == null) {
+            engine = new GameEngine(players, categories.length);
+            engine.setListener(this);
+            engine.setBuzzIn(true);
+        } else {
+            engine.reset(players, categories.length);
+        }
+        engine.setBoard(board);
+        if (wal != null) {
+            log = new GameLog(new GameState(new boolean[categories.length][GameConfig.QUESTIONS_PER_CATEGORY], players,
+                engine.getCurrentPlayer(), seed, categories, clues));
+            log.setListener(this);
+            engine.setListener(log);
+            logged = 0;
+            saveLog(WriteAheadLog.CHECKPOINT);
+        }
+        playing = true;
+        lastActive = System.nanoTime();
+        // Measure everyone before the first clue opens
+        owner.schedule(pingTimer, lastActive);
+
+        broadcast(GameCodec.gameStarted(out, ++seq, seed, categories));
+        turnChanged(engine.getCurrentPlayer());
+    }
+
+    private boolean checkPlayer(Session session) {
+        if (!playing) {
+            error(session, "The game hasn't started");
+            return false;
+        }
+        if (session.player < 0) {
+            error(session, "Spectators can't play");
+            return false;
+        }
+        return true;
+    }
+
+    private boolean checkTurn(Session session) {
+        if (!checkPlayer(session)) {
+            return false;
+        }
+        if (session.player != engine.getCurrentPlayer()) {
+            error(session, "It isn't your turn");
+            return false;
+        }
+        return true;
+    }
+
+    private void error(Session session, String message) {
+        send(session, GameCodec.error(out, message));
+    }
+
+    private void removePlayer(int index) {
+        players.removeIndex(index);
+        members.removeIndex(index);
+        for (int i = index; i < members.size; i++) {
+            Session member = members.get(i);
+            if (member != null) {
+                member.player = i;
+            }
+        }
+        broadcast(GameCodec.playerLeft(out, ++seq, index, true));
+    }
+
+    /**
+     * Hands what the game's log has gained to the write-ahead log; whatever the room sends next waits for it
+     *
+     * @param type {@link WriteAheadLog#CHECKPOINT} for the whole log, {@link WriteAheadLog#APPEND} for the rest
+     */
+    private void saveLog(int type) {
+        if (log != null && log.getLength() > logged) {
+            sequence = wal.append(type, walName, log.getBuffer(), logged, log.getLength() - logged);
+            logged = log.getLength();
+        }
+    }
+
+    /**
+     * Tells the write-ahead log the game is over, so it forgets it
+     */
+    private void endLog() {
+        log = null;
+        sequence = wal.append(WriteAheadLog.END, walName, null, 0, 0);
+    }
+
+    /**
+     * Sends the players, who are the only ones buzzing, the time to send back
+     */
+    private void ping(long now) {
+        SharedFrame frame = share(GameCodec.ping(out, now));
+        for (int i = 0; i < members.size; i++) {
+            Session member = members.get(i);
+            if (member != null) {
+                member.send(frame);
+            }
+        }
+        frame.release();
+    }
+
+    private void send(Session session, WireWriter message) {
+        SharedFrame frame = share(message);
+        session.send(frame);
+        frame.release();
+    }
+
+    /**
+     * Copies a message into a frame that waits for everything the room has logged so far
+     */
+    private SharedFrame share(WireWriter message) {
+        SharedFrame frame = frames.share(message);
+        frame.sequence = sequence;
+        return frame;
+    }
+
+    private void broadcast(WireWriter message) {
+        SharedFrame frame = share(message);
+        for (int i = 0; i < members.size; i++) {
+            Session member = members.get(i);
+            if (member != null) {
+                member.send(frame);
+            }
+        }
+        for (int i = 0; i < spectators.size; i++) {
+            spectators.get(i).send(frame);
+        }
+        frame.release();
+    }
+
+    @Override
+    public void clueSelected(int column, int tier, int player) {
+        saveLog(WriteAheadLog.APPEND);
+        long now = System.nanoTime();
+        clueDeadline = now + BUZZ_NANOS;
+        clueSeq = ++seq;
+        GameMetrics.CLUES_OPENED.increment();
+        broadcast(GameCodec.clueOpened(out, clueSeq, column, tier, player, (int) (BUZZ_NANOS / 1_000_000),
+            board[column][tier]));
+        buzzer.open(clueSeq, now);
+        owner.schedule(clueTimer, clueDeadline);
+    }
+
+    @Override
+    public void buzzedIn(int player) {
+        saveLog(WriteAheadLog.APPEND);
+        long now = System.nanoTime();
+        clueDeadline = now + ANSWER_NANOS;
+        broadcast(GameCodec.buzzed(out, ++seq, player, (int) (ANSWER_NANOS / 1_000_000)));
+        // Someone who has gone can still win; their time is up straight away
+        owner.schedule(clueTimer, members.get(player) != null ? clueDeadline : now);
+    }
+
+    @Override
+    public void clueClosed(int column, int tier, int player, GameEngine.Outcome outcome, int points) {
+        saveLog(WriteAheadLog.APPEND);
+        owner.cancel(clueTimer);
+        owner.cancel(buzzTimer);
+        broadcast(GameCodec.clueClosed(out, ++seq, column, tier, player, outcome, points,
+            board[column][tier].getCorrectAnswer()));
+    }
+
+    @Override
+    public void scoreChanged(int player, int score) {
+        saveLog(WriteAheadLog.APPEND);
+        broadcast(GameCodec.score(out, ++seq, player, score));
+    }
+
+    @Override
+    public void turnChanged(int player) {
+        saveLog(WriteAheadLog.APPEND);
+        broadcast(GameCodec.turn(out, ++seq, player));
+        if (members.get(player) == null) {
+            owner.schedule(turnTimer, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void gameOver() {
+        if (log != null) {
+            endLog();
+        }
+        playing = false;
+        buzzer.close();
+        owner.cancel(clueTimer);
+        owner.cancel(buzzTimer);
+        owner.cancel(turnTimer);
+        owner.cancel(pingTimer);
+        broadcast(GameCodec.gameOver(out, ++seq));
+    }
+}
@@ -0,0 +1,21 @@
+package me.runthebot.jeopardy.server;
+
+import java.io.IOException;
+
+/**
+ * A way of serving clients, chosen with --mode: {@link GameServer} runs a few
+ * event loops, {@link SessionServer} a thread per session.
+ */
+interface Server {
+    /**
+     * Opens the port and starts serving
+     *
+     * @throws IOException if the port can't be opened
+     */
+    void start() throws IOException;
+
+    /**
+     * Stops accepting and closes every connection
+     */
+    void stop();
+}
@@ -0,0 +1,95 @@
+package me.runthebot.jeopardy.server;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import java.io.IOException;
+import me.runthebot.jeopardy.data.QuestionManager;
+import me.runthebot.jeopardy.jvm.QuestionBankWatcher;
+import me.runthebot.jeopardy.jvm.ThreadRandomSource;
+import me.runthebot.jeopardy.jvm.ThreadStriping;
+
+/**
+ * The headless application hosting the game server.
+ *
+ * libGDX provides the file access and logging core relies on; the server's own
+ * threads do all the work, so the application loop itself has nothing to render.
+ * Metrics are striped by thread and served locally for scraping. With a
+ * write-ahead log, games a crash interrupted are recovered before the server opens.
+ */
+class ServerApplication extends ApplicationAdapter {
+    private final ServerConfig config;
+    private Server server;
+    private WriteAheadLog wal;
+    private QuestionBankWatcher watcher;
+    private MetricsEndpoint metrics;
+
+    ServerApplication(ServerConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public void create() {
+        // Before any thread records anything or draws a question
+        ThreadStriping.install();
+        ThreadRandomSource.install();
+
+        // Load every category now so the event loops never wait on a file
+        int[] categories = QuestionManager.getCategoryIds();
+        for (int category : categories) {
+            QuestionManager.getQuestionCount(category, 0);
+        }
+        Gdx.app.log("ServerApplication", "Loaded " + categories.length + " categories from " + QuestionManager.getBankFile());
+
+        try {
+            watcher = QuestionBankWatcher.start();
+        } catch (IOException e) {
+            Gdx.app.error("ServerApplication", "Question bank won't reload on changes: " + e.getMessage());
+        }
+
+        if (config.walDir != null) {
+            try {
+                wal = WriteAheadLog.open(config);
+            } catch (IOException e) {
+                throw new GdxRuntimeException("Failed to open write-ahead log in " + config.walDir, e);
+            }
+        }
+
+        try {
+            server = config.threads ? new SessionServer(config, wal) : new GameServer(config, wal);
+            // Once the event loops are listening for its commits
+            if (wal != null) {
+                wal.start();
+            }
+            server.start();
+        } catch (IOException e) {
+            throw new GdxRuntimeException("Failed to start server on port " + config.port, e);
+        }
+
+        if (config.metricsPort > 0) {
+            try {
+                metrics = MetricsEndpoint.start(config.metricsPort);
+            } catch (IOException e) {
+                Gdx.app.error("ServerApplication", "Metrics won't be served on port " + config.metricsPort + ": "
+                    + e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        if (server != null) {
+            server.stop();
+        }
+        // After the server, so everything the rooms sent is in it
+        if (wal != null) {
+            wal.close();
+        }
+        if (watcher != null) {
+            watcher.stop();
+        }
+        if (metrics != null) {
+            metrics.stop();
+        }
+    }
+}
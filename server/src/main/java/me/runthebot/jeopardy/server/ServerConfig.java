@@ -0,0 +1,83 @@
+package me.runthebot.jeopardy.server;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Settings for the game server, read from the command line.
+ *
+ * Usage: ServerLauncher [--port=7777] [--mode=loops|threads] [--loops=N] [--max-players=6] [--max-spectators=500]
+ *   [--idle-minutes=10] [--metrics-port=9777] [--wal-dir=PATH] [--wal-tick-ms=2] [--wal-segment-mb=16]
+ * The loops mode serves clients with event loops, by default one per processor;
+ * the threads mode with a thread per session. Metrics are served on the loopback
+ * address only, and not at all with a metrics port of 0. Games are only saved to
+ * a write-ahead log, and picked up again after a crash, when it has a directory.
+ */
+final class ServerConfig {
+    static final String USAGE = "Usage: ServerLauncher [--port=7777] [--mode=loops|threads] [--loops=N] [--max-players=6]"
+        + " [--max-spectators=500] [--idle-minutes=10] [--metrics-port=9777] [--wal-dir=PATH] [--wal-tick-ms=2]"
+        + " [--wal-segment-mb=16]";
+
+    int port = 7777;
+    // Thread per session instead of event loops
+    boolean threads;
+    int loops = Runtime.getRuntime().availableProcessors();
+    int maxPlayers = 6;
+    // Per room
+    int maxSpectators = 500;
+    // A room nobody has joined or played in for this long is closed
+    int idleMinutes = 10;
+    // Where /metrics is served on 127.0.0.1, 0 for nowhere
+    int metricsPort = 9777;
+    // Where games in progress are logged, null for nowhere
+    Path walDir;
+    // How often the log is forced to disk; what a room sends waits for this long at most, plus the fsync
+    int walTickMillis = 2;
+    // How large a log segment grows before the log is compacted
+    int walSegmentMegabytes = 16;
+
+    /**
+     * @param args the command line
+     * @return the settings, defaults where an option is missing
+     * @throws IllegalArgumentException if an option is unknown or malformed
+     */
+    static ServerConfig parse(String[] args) {
+        ServerConfig config = new ServerConfig();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --option=value: " + arg);
+            }
+            String option = arg.substring(2, equals);
+            String value = arg.substring(equals + 1);
+            if (option.equals("port")) {
+                config.port = Integer.parseInt(value);
+            } else if (option.equals("mode")) {
+                if (!value.equals("loops") && !value.equals("threads")) {
+                    throw new IllegalArgumentException("Mode must be loops or threads: " + arg);
+                }
+                config.threads = value.equals("threads");
+            } else if (option.equals("loops")) {
+                config.loops = Math.max(1, Integer.parseInt(value));
+            } else if (option.equals("max-players")) {
+                // Keeps player indexes to a one-byte varint
+                config.maxPlayers = Math.max(1, Math.min(Integer.parseInt(value), 127));
+            } else if (option.equals("max-spectators")) {
+                config.maxSpectators = Math.max(0, Integer.parseInt(value));
+            } else if (option.equals("idle-minutes")) {
+                config.idleMinutes = Math.max(1, Integer.parseInt(value));
+            } else if (option.equals("metrics-port")) {
+                config.metricsPort = Math.max(0, Integer.parseInt(value));
+            } else if (option.equals("wal-dir")) {
+                config.walDir = Paths.get(value);
+            } else if (option.equals("wal-tick-ms")) {
+                config.walTickMillis = Math.max(0, Integer.parseInt(value));
+            } else if (option.equals("wal-segment-mb")) {
+                config.walSegmentMegabytes = Math.max(1, Integer.parseInt(value));
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        return config;
+    }
+}
@@ -1,8 +1,24 @@
 package me.runthebot.jeopardy.server;
 
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
 /** Launches the server application. */
 public class ServerLauncher {
     public static void main(String[] args) {
-        // TODO Implement server application.
+        ServerConfig config;
+        try {
+            config = ServerConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(ServerConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        HeadlessApplicationConfiguration configuration = new HeadlessApplicationConfiguration();
+        // Nothing renders; the loop only runs posted tasks
+        configuration.updatesPerSecond = 10;
+        new HeadlessApplication(new ServerApplication(config), configuration);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,40 @@
+package me.runthebot.jeopardy.server;
+
+import me.runthebot.jeopardy.metrics.Counter;
+import me.runthebot.jeopardy.metrics.Gauge;
+import me.runthebot.jeopardy.metrics.Histogram;
+import me.runthebot.jeopardy.metrics.Metrics;
+
+/**
+ * The server's instruments, recorded by whichever thread does the work; the
+ * game's own are in {@link me.runthebot.jeopardy.metrics.GameMetrics}.
+ */
+final class ServerMetrics {
+    static final Gauge CONNECTIONS = Metrics.gauge("jeopardy_server_connections",
+        "Clients connected");
+    static final Gauge ROOMS = Metrics.gauge("jeopardy_server_rooms",
+        "Rooms open");
+    static final Counter MESSAGES_IN = Metrics.counter("jeopardy_server_messages_received_total",
+        "Messages received from clients");
+    static final Counter BYTES_OUT = Metrics.counter("jeopardy_server_bytes_sent_total",
+        "Bytes written to clients");
+    static final Gauge QUEUED_BYTES = Metrics.gauge("jeopardy_server_queued_bytes",
+        "Bytes queued for clients and not yet written");
+    static final Gauge LOOP_TASKS = Metrics.gauge("jeopardy_server_loop_tasks",
+        "Tasks handed to event loops and not yet run");
+    static final Counter TIMERS_FIRED = Metrics.counter("jeopardy_server_timers_fired_total",
+        "Room timers fired");
+    static final Counter BUZZES = Metrics.counter("jeopardy_server_buzzes_total",
+        "Buzzes received");
+    static final Counter BUZZES_LEADING = Metrics.counter("jeopardy_server_buzzes_leading_total",
+        "Buzzes that were the best so far when they arrived");
+    static final Histogram BUZZ_DECISION = Metrics.histogram("jeopardy_server_buzz_decision_seconds",
+        "Time from a clue opening to its buzz-in being decided");
+    static final Histogram WAL_COMMIT = Metrics.histogram("jeopardy_server_wal_commit_seconds",
+        "Time to write and fsync one batch of the write-ahead log");
+    static final Counter WAL_BYTES = Metrics.counter("jeopardy_server_wal_bytes_written_total",
+        "Bytes committed to the write-ahead log, checkpoints on compaction aside");
+
+    private ServerMetrics() {
+    }
+}
@@ -0,0 +1,97 @@
+package me.runthebot.jeopardy.server;
+
+import java.nio.ByteBuffer;
+import me.runthebot.jeopardy.net.Protocol;
+
+/**
+ * A client as a room sees it: somewhere to send frames, and the seat it holds.
+ *
+ * The event loops serve sessions as {@link Connection}s; the thread-per-session
+ * mode as {@link BlockingSession}s. Rooms work the same with either.
+ */
+abstract class Session {
+    // Holds the longest frame a client may send, length prefix included
+    static final int INPUT_SIZE = Protocol.MAX_CLIENT_FRAME + 2;
+    // Output a client may leave unread before it is disconnected
+    static final int MAX_QUEUED = 64 * 1024;
+    // Round trips longer than this are taken for a stalled client, not its network
+    private static final long MAX_RTT = 5_000_000_000L;
+
+    // Room and player index once joined, -1 for a spectator; changed only by the room, under its rules
+    Room room;
+    int player = -1;
+    // Smoothed round trip to the client in nanoseconds, 0 until measured; only touched
+    // by the thread handling the client's input
+    long rtt;
+
+    /**
+     * Queues a frame for the client, taking a reference to it. Never blocks on the
+     * network; a client too far behind to take it is disconnected.
+     *
+     * @param frame a frame; the caller keeps its own reference
+     */
+    abstract void send(SharedFrame frame);
+
+    /**
+     * Disconnects the client, which then leaves its room: straight away on the event
+     * loops, shortly after from its reader thread otherwise
+     *
+     * @param reason why, for the log, or null for an orderly disconnect
+     */
+    abstract void close(String reason);
+
+    /**
+     * Measures the round trip from a PING's answer
+     *
+     * @param sent the time the PING carried, as the client sent it back
+     * @param received when the PONG was received, in System.nanoTime terms
+     */
+    void pong(long sent, long received) {
+        long sample = received - sent;
+        if (sample < 0 || sample > MAX_RTT) {
+            // Not a time we sent
+            return;
+        }
+        // Smoothed the way TCP does, so one slow packet doesn't move it far
+        rtt = rtt == 0 ? sample : rtt + (sample - rtt) / 8;
+    }
+
+    /**
+     * Takes the next whole frame off the front of a client's input
+     *
+     * @param input the bytes received, flipped for reading
+     * @param body receives the frame's body; {@link Protocol#MAX_CLIENT_FRAME} long
+     * @return the length of the body, 0 if the whole frame isn't here yet, or -1 if
+     *         its length is out of bounds
+     */
+    static int nextFrame(ByteBuffer input, byte[] body) {
+        int position = input.position();
+        int remaining = input.remaining();
+        if (remaining == 0) {
+            return 0;
+        }
+        int length = input.get(position);
+        int header = 1;
+        if (length < 0) {
+            if (remaining < 2) {
+                return 0;
+            }
+            int high = input.get(position + 1);
+            if (high < 0) {
+                // A third byte would make it longer than any client frame
+                return -1;
+            }
+            length = length & 0x7F | high << 7;
+            header = 2;
+        }
+        if (length == 0 || length > Protocol.MAX_CLIENT_FRAME) {
+            return -1;
+        }
+        if (remaining < header + length) {
+            return 0;
+        }
+        input.position(position + header);
+        input.get(body, 0, length);
+        return length;
+    }
+}
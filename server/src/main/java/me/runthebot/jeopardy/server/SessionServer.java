@@ -0,0 +1,297 @@
+package me.runthebot.jeopardy.server;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.ObjectMap;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import me.runthebot.jeopardy.net.WireWriter;
+
+/**
+ * Multiplayer Jeopardy with a thread per session, the alternative to {@link GameServer}.
+ *
+ * Every client gets a reader and a writer thread doing plain blocking I/O, see
+ * {@link BlockingSession}. Rooms are shared by whichever threads their players are
+ * on, so every call into a room is made holding its lock. Every room's timers are
+ * on one {@link TimerWheel}, guarded by a lock of its own and run by one more
+ * thread, which fires each due timer after letting go of that lock, so firing
+ * never holds it while waiting for a room.
+ *
+ * On Java 21 and later the session threads are virtual threads, cheap enough to
+ * have tens of thousands of. Older runtimes get small-stack platform threads
+ * instead, which work but don't scale as far. The server itself still builds for
+ * Java 8, so virtual threads are looked up at run time. Only the platform thread
+ * path has been load tested (on Java 17); virtual threads have not been measured.
+ *
+ * Sessions closed by stopping the server don't leave their rooms, so games logged
+ * to the write-ahead log are still going when the next start recovers them.
+ */
+final class SessionServer implements Server, Room.Owner {
+    private static final long TICK_MILLIS = TimerWheel.TICK_NANOS / 1_000_000;
+    // Stack size for platform session threads, which never go deep
+    private static final long PLATFORM_STACK = 256 * 1024;
+
+    private final ServerConfig config;
+    private final WriteAheadLog wal;
+    private final ConcurrentHashMap<String, Room> rooms = new ConcurrentHashMap<>();
+    private final Set<BlockingSession> sessions = ConcurrentHashMap.newKeySet();
+    private final TimerWheel timers = new TimerWheel(System.nanoTime());
+    private final ReentrantLock timerLock = new ReentrantLock();
+    private final ThreadFactory sessionThreads;
+    private final boolean virtual;
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+    private Thread ticker;
+    private volatile boolean running;
+
+    /**
+     * @param config the server's settings
+     * @param wal where games are logged, or null if they aren't
+     */
+    SessionServer(ServerConfig config, WriteAheadLog wal) {
+        this.config = config;
+        this.wal = wal;
+        ThreadFactory threads = virtualThreads();
+        this.virtual = threads != null;
+        this.sessionThreads = virtual ? threads : platformThreads();
+    }
+
+    @Override
+    public void start() throws IOException {
+        if (wal != null) {
+            int restored = 0;
+            for (ObjectMap.Entry<String, byte[]> game : wal.takeRecovered()) {
+                Room room = new Room(game.key, this, new WireWriter(), new FramePool(), config, wal);
+                if (room.restore(game.value)) {
+                    rooms.put(game.key, room);
+                    ServerMetrics.ROOMS.increment();
+                    restored++;
+                }
+            }
+            Gdx.app.log("SessionServer", "Restored " + restored + " games in progress");
+        }
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        serverChannel.bind(new InetSocketAddress(config.port), 4096);
+        running = true;
+
+        acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        }, "Acceptor");
+        ticker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runTimers();
+            }
+        }, "RoomTimers");
+        ticker.setDaemon(true);
+        acceptor.start();
+        ticker.start();
+        Gdx.app.log("SessionServer", "Listening on port " + config.port + " with a "
+            + (virtual ? "virtual" : "platform") + " thread per session"
+            + (virtual ? "" : "; virtual threads need Java 21"));
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            serverChannel.close();
+            acceptor.join();
+            ticker.interrupt();
+            ticker.join();
+        } catch (IOException e) {
+            Gdx.app.error("SessionServer", "Failed to close server socket: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (BlockingSession session : sessions) {
+            session.close(null);
+        }
+    }
+
+    /**
+     * Adds a session to a room, opening the room if there isn't one by that name
+     *
+     * @param session the session, on its reader thread
+     * @param roomName the room to join
+     * @param playerName the name to join as, or null to watch
+     */
+    void join(BlockingSession session, String roomName, String playerName) {
+        while (true) {
+            Room room = rooms.get(roomName);
+            if (room == null) {
+                Room created = new Room(roomName, this, new WireWriter(), new FramePool(), config, wal);
+                room = rooms.putIfAbsent(roomName, created);
+                if (room == null) {
+                    room = created;
+                    ServerMetrics.ROOMS.increment();
+                }
+            }
+            room.lock.lock();
+            try {
+                if (rooms.get(roomName) != room) {
+                    // Emptied and dropped between the lookup and the lock; open a new one
+                    continue;
+                }
+                if (playerName != null) {
+                    room.join(session, playerName);
+                } else {
+                    room.watch(session);
+                }
+                if (session.room == null && room.isEmpty()) {
+                    removeRoom(room);
+                }
+                return;
+            } finally {
+                room.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Takes a closed session out of its room and forgets it
+     *
+     * @param session the session, on its reader thread
+     */
+    void leave(BlockingSession session) {
+        sessions.remove(session);
+        ServerMetrics.CONNECTIONS.decrement();
+        Room room = session.room;
+        if (room != null && running) {
+            room.lock.lock();
+            try {
+                room.leave(session);
+            } finally {
+                room.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return where games are logged, or null if they aren't
+     */
+    WriteAheadLog getWal() {
+        return wal;
+    }
+
+    /**
+     * Drops an empty room; called holding its lock
+     */
+    @Override
+    public void removeRoom(Room room) {
+        if (rooms.remove(room.name, room)) {
+            ServerMetrics.ROOMS.decrement();
+        }
+    }
+
+    @Override
+    public void schedule(TimerWheel.Timer timer, long deadline) {
+        timerLock.lock();
+        try {
+            timers.schedule(timer, deadline);
+        } finally {
+            timerLock.unlock();
+        }
+    }
+
+    @Override
+    public void cancel(TimerWheel.Timer timer) {
+        timerLock.lock();
+        try {
+            timers.cancel(timer);
+        } finally {
+            timerLock.unlock();
+        }
+    }
+
+    private void acceptConnections() {
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                BlockingSession session = new BlockingSession(this, channel);
+                ServerMetrics.CONNECTIONS.increment();
+                sessions.add(session);
+                session.start(sessionThreads);
+            } catch (ClosedChannelException e) {
+                // Stopped
+                return;
+            } catch (IOException e) {
+                // Typically out of file descriptors; keep serving the clients already here
+                Gdx.app.error("SessionServer", "Failed to accept connection: " + e.getMessage());
+            }
+        }
+    }
+
+    private void runTimers() {
+        while (running) {
+            try {
+                Thread.sleep(TICK_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+            while (true) {
+                TimerWheel.Timer timer;
+                timerLock.lock();
+                try {
+                    timer = timers.poll(now);
+                } finally {
+                    timerLock.unlock();
+                }
+                if (timer == null) {
+                    break;
+                }
+                ServerMetrics.TIMERS_FIRED.increment();
+                try {
+                    // Takes its room's lock
+                    timer.fire(now);
+                } catch (RuntimeException e) {
+                    // One bad room must not stop the others' timers
+                    Gdx.app.error("SessionServer", "Error in timer: " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a factory for virtual threads, or null before Java 21
+     */
+    private static ThreadFactory virtualThreads() {
+        try {
+            // Thread.ofVirtual().name("Session-", 0).factory()
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Method name = builderType.getMethod("name", String.class, long.class);
+            builder = name.invoke(builder, "Session-", 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory platformThreads() {
+        final AtomicInteger count = new AtomicInteger();
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable task) {
+                Thread thread = new Thread(null, task, "Session-" + count.getAndIncrement(), PLATFORM_STACK);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,67 @@
+package me.runthebot.jeopardy.server;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One encoded message, shared by every session it is sent to.
+ *
+ * A room encodes an event once, copies it into a SharedFrame, and queues that same
+ * frame on each recipient instead of copying it into each one's buffer. Every
+ * queue holds a reference; the frame goes back to its pool when the last recipient
+ * has written it, or has gone. The bytes never change while anyone holds it.
+ *
+ * A frame reporting a game event isn't written until the event is on disk in the
+ * {@link WriteAheadLog}, if there is one; {@link #sequence} says which record it waits for.
+ */
+final class SharedFrame {
+    // The frame's bytes, from 0 to length; see the notes on writing in Connection and BlockingSession
+    final ByteBuffer buffer;
+    private final FramePool pool;
+    private final AtomicInteger references = new AtomicInteger();
+    private int length;
+    // Write-ahead log record to wait for before writing the frame, 0 for none
+    long sequence;
+    // Next free frame, while in the pool
+    SharedFrame next;
+
+    SharedFrame(FramePool pool, int capacity) {
+        this.pool = pool;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * @return the length of the frame, length prefix included
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * Fills a frame taken from the pool; its one reference belongs to the caller
+     */
+    void set(byte[] bytes, int offset, int length) {
+        buffer.clear();
+        buffer.put(bytes, offset, length);
+        this.length = length;
+        sequence = 0;
+        references.set(1);
+    }
+
+    /**
+     * Adds a reference, for another recipient
+     */
+    void retain() {
+        references.incrementAndGet();
+    }
+
+    /**
+     * Drops a reference; the last one returns the frame to its pool. Safe to call
+     * from any thread.
+     */
+    void release() {
+        if (references.decrementAndGet() == 0 && pool != null) {
+            pool.free(this);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package me.runthebot.jeopardy.server;
+
+/**
+ * Timeouts for thousands of rooms without scanning them: a hashed timing wheel.
+ *
+ * Time is cut into ticks of {@link #TICK_NANOS}, and a timer goes in the bucket its
+ * deadline's tick hashes to, one of {@link #BUCKETS} in a ring. Each tick only its
+ * own bucket is looked at; timers more than a turn of the wheel away stay in their
+ * bucket until the wheel comes round to them again. Buckets are circular lists
+ * linked through the timers themselves, so scheduling, cancelling and rescheduling
+ * are a few pointer writes, and nothing is allocated once a timer exists.
+ *
+ * Timers fire up to a tick late, never early. The wheel is not thread-safe: each
+ * event loop has its own, and the thread-per-session server guards its one with a
+ * lock.
+ */
+final class TimerWheel {
+    static final long TICK_NANOS = 10_000_000L;
+    // A power of two; with 10ms ticks a turn of the wheel is about 5 seconds
+    private static final int BUCKETS = 512;
+    private static final int MASK = BUCKETS - 1;
+
+    /**
+     * Something to be done at a deadline. A timer is in at most one wheel, at most once.
+     */
+    abstract static class Timer {
+        // Links in its bucket's list, null while not scheduled
+        Timer previous;
+        Timer next;
+        // The tick it fires on
+        long tick;
+
+        /**
+         * @param now the current System.nanoTime
+         */
+        abstract void fire(long now);
+
+        boolean isScheduled() {
+            return previous != null;
+        }
+    }
+
+    // Heads of the bucket lists; a list with only its head is empty
+    private final Timer[] buckets = new Timer[BUCKETS];
+    // Timers taken out of their bucket to fire, for poll to hand out one at a time
+    private final Timer expired = new Head();
+    // The next tick to look at; every tick before it has been looked at
+    private long current;
+    private int size;
+
+    /**
+     * @param now the current System.nanoTime, from which ticks are counted
+     */
+    TimerWheel(long now) {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new Head();
+        }
+        current = Math.floorDiv(now, TICK_NANOS);
+    }
+
+    /**
+     * Schedules a timer, moving it if it is already scheduled
+     *
+     * @param timer the timer
+     * @param deadline when it should fire, in System.nanoTime terms; fires next tick if already past
+     */
+    void schedule(Timer timer, long deadline) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+        } else {
+            size++;
+        }
+        // Rounded up, so it never fires early; nanoTime may be negative
+        long tick = Math.max(-Math.floorDiv(-deadline, TICK_NANOS), current);
+        timer.tick = tick;
+        link(buckets[(int) tick & MASK], timer);
+    }
+
+    /**
+     * Cancels a timer if it is scheduled
+     *
+     * @param timer the timer
+     */
+    void cancel(Timer timer) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    /**
+     * Takes the next timer that is due, looking at the buckets of the ticks that
+     * have passed since the last call until it finds one. A timer scheduled for now
+     * or earlier while handling another fires on the next tick.
+     *
+     * @param now the current System.nanoTime
+     * @return a due timer, no longer scheduled, or null once there are none
+     */
+    Timer poll(long now) {
+        long until = Math.floorDiv(now, TICK_NANOS);
+        while (expired.next == expired) {
+            if (current > until || size == 0) {
+                // Nothing to look at until the next tick; when empty, skip straight to now
+                if (size == 0) {
+                    current = Math.max(current, until + 1);
+                }
+                return null;
+            }
+            Timer head = buckets[(int) current & MASK];
+            Timer timer = head.next;
+            while (timer != head) {
+                Timer next = timer.next;
+                if (timer.tick <= current) {
+                    unlink(timer);
+                    link(expired, timer);
+                }
+                timer = next;
+            }
+            current++;
+        }
+        Timer timer = expired.next;
+        unlink(timer);
+        size--;
+        return timer;
+    }
+
+    /**
+     * @return how many timers are scheduled
+     */
+    int size() {
+        return size;
+    }
+
+    private static void link(Timer head, Timer timer) {
+        Timer last = head.previous;
+        timer.previous = last;
+        timer.next = head;
+        last.next = timer;
+        head.previous = timer;
+    }
+
+    private static void unlink(Timer timer) {
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.previous = null;
+        timer.next = null;
+    }
+
+    /**
+     * The head of a list, linked to itself while the list is empty
+     */
+    private static final class Head extends Timer {
+        Head() {
+            previous = this;
+            next = this;
+        }
+
+        @Override
+        void fire(long now) {
+        }
+    }
+}
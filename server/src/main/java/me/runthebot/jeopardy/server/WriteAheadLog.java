@@ -0,0 +1,518 @@
+package me.runthebot.jeopardy.server;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongArray;
+import com.badlogic.gdx.utils.ObjectMap;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Every game in progress on the server, on disk, so a server that dies mid-game
+ * picks its games up again when it restarts.
+ *
+ * Each room keeps its game in a {@link me.runthebot.jeopardy.model.GameLog} and
+ * appends what the log gains to this one: the whole log when the game starts, the
+ * records each event adds after that, and an end marker when the game is over.
+ * Appending copies the bytes into a buffer and returns at once. One thread writes
+ * that buffer out and forces it to disk at most once a tick, so every room's
+ * events in that tick share one fsync; the sequence number each append returns is
+ * durable once {@link #durable} reaches it. Rooms hold back what they send until
+ * then, so no client ever sees an event the server could forget, and an event
+ * costs at most a tick and an fsync of latency.
+ *
+ * If writing fails, nothing more becomes durable. Sessions with output waiting on
+ * a record that never reached the disk are closed, since what they would be told
+ * could be forgotten, and the server plays on without saving games.
+ *
+ * The log is a directory of numbered segment files, each a run of records:
+ * <pre>
+ * int length, int CRC32 of the body, then the body:
+ *   byte type, short name length, name as UTF-8, then the game log bytes
+ * CHECKPOINT  a room's whole game log, replacing anything before it
+ * APPEND      game log records to add to the room's
+ * END         no bytes; the room's game is over
+ * </pre>
+ * Once a segment passes its size it is closed, and the next one starts with a
+ * checkpoint of every game still going, so the older segments can be deleted. On
+ * opening, the segments are read back in order, stopping at the first torn or
+ * corrupt record in each, and compacted the same way.
+ */
+final class WriteAheadLog {
+    // Record types
+    static final int CHECKPOINT = 1;
+    static final int APPEND = 2;
+    static final int END = 3;
+
+    private static final String SUFFIX = ".wal";
+    // Length and CRC
+    private static final int HEADER = 8;
+    // Type and name length
+    private static final int BODY_HEADER = 3;
+    // A record this long can only be a corrupt length
+    private static final int MAX_RECORD = 64 * 1024 * 1024;
+
+    private final Path dir;
+    private final long tickNanos;
+    private final long segmentBytes;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Signalled when records are appended, and when closing
+    private final Condition appended = lock.newCondition();
+    // Signalled when a commit makes more records durable
+    private final Condition committed = lock.newCondition();
+    // Records appended since the last commit, their CRCs not yet filled in; guarded by lock
+    private byte[] pending = new byte[64 * 1024];
+    private int pendingLength;
+    // Sequence number of the last record appended; guarded by lock
+    private long last;
+    private volatile boolean closed;
+    // The last sequence number on disk
+    private volatile long durable;
+    // Set by the writer once writing fails; durable stays where it was from then on
+    private volatile boolean failed;
+    // Told after each commit, from the writer thread; all added before the log starts
+    private final Array<Runnable> listeners = new Array<>();
+    private Thread writer;
+
+    // Everything below is only touched by the writer thread once it has started
+    private byte[] writing = new byte[64 * 1024];
+    // Each game still going: what a checkpoint of it would hold
+    private final ObjectMap<String, Game> games = new ObjectMap<>();
+    // What was recovered on opening, until the server takes it
+    private ObjectMap<String, byte[]> recovered;
+    private final CRC32 crc = new CRC32();
+    private FileChannel segment;
+    private long segmentNumber;
+    private long segmentLength;
+
+    /** One room's game log as the write-ahead log has it. */
+    private static final class Game {
+        final byte[] name;
+        byte[] bytes;
+        int length;
+
+        Game(byte[] name, int capacity) {
+            this.name = name;
+            this.bytes = new byte[Math.max(capacity, 1024)];
+        }
+
+        void append(byte[] data, int offset, int count) {
+            if (length + count > bytes.length) {
+                byte[] grown = new byte[Math.max(bytes.length * 2, length + count)];
+                System.arraycopy(bytes, 0, grown, 0, length);
+                bytes = grown;
+            }
+            System.arraycopy(data, offset, bytes, length, count);
+            length += count;
+        }
+    }
+
+    private WriteAheadLog(Path dir, long tickNanos, long segmentBytes) {
+        this.dir = dir;
+        this.tickNanos = tickNanos;
+        this.segmentBytes = segmentBytes;
+    }
+
+    /**
+     * Opens the log, recovering whatever games it holds, and compacts it into a new segment
+     *
+     * @param config where the log goes, how often it commits and how large its segments grow
+     * @return the log, not yet started
+     * @throws IOException if the directory can't be read or the new segment written
+     */
+    static WriteAheadLog open(ServerConfig config) throws IOException {
+        WriteAheadLog log = new WriteAheadLog(config.walDir, config.walTickMillis * 1_000_000L,
+            config.walSegmentMegabytes * 1024L * 1024L);
+        Files.createDirectories(log.dir);
+        LongArray numbers = log.listSegments();
+        for (int i = 0; i < numbers.size; i++) {
+            log.recover(numbers.get(i));
+        }
+        log.recovered = new ObjectMap<>(log.games.size);
+        for (ObjectMap.Entry<String, Game> game : log.games) {
+            byte[] bytes = new byte[game.value.length];
+            System.arraycopy(game.value.bytes, 0, bytes, 0, bytes.length);
+            log.recovered.put(game.key, bytes);
+        }
+        log.compact(numbers.size > 0 ? numbers.peek() + 1 : 0);
+        Gdx.app.log("WriteAheadLog", "Recovered " + log.games.size + " games from " + numbers.size
+            + " segments in " + log.dir);
+        return log;
+    }
+
+    /**
+     * @param listener told after each commit, on the writer thread; must not block
+     */
+    void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    void start() {
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                write();
+            }
+        }, "WriteAheadLog");
+        writer.start();
+    }
+
+    /**
+     * Commits everything appended so far and closes the log. Games still going stay
+     * in it, to be recovered on the next start.
+     */
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            appended.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            if (writer != null) {
+                writer.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            segment.close();
+        } catch (IOException e) {
+            Gdx.app.error("WriteAheadLog", "Failed to close segment: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Hands over the games recovered on opening; only the first call gets them
+     *
+     * @return each room's game log, by room name
+     */
+    ObjectMap<String, byte[]> takeRecovered() {
+        ObjectMap<String, byte[]> taken = recovered;
+        recovered = null;
+        return taken != null ? taken : new ObjectMap<String, byte[]>();
+    }
+
+    /**
+     * Appends a record without waiting for the disk. Safe to call from any thread.
+     *
+     * @param type {@link #CHECKPOINT}, {@link #APPEND} or {@link #END}
+     * @param room the room's name as UTF-8
+     * @param bytes holds the game log bytes, or null for none
+     * @param offset where they start
+     * @param count how many there are
+     * @return the record's sequence number, or 0 if the log is closed or has failed, as
+     *         nothing will be saved then anyway
+     */
+    long append(int type, byte[] room, byte[] bytes, int offset, int count) {
+        int length = BODY_HEADER + room.length + count;
+        lock.lock();
+        try {
+            if (closed || failed) {
+                return 0;
+            }
+            int at = pendingLength;
+            if (at + HEADER + length > pending.length) {
+                byte[] grown = new byte[Math.max(pending.length * 2, at + HEADER + length)];
+                System.arraycopy(pending, 0, grown, 0, at);
+                pending = grown;
+            }
+            putInt(pending, at, length);
+            at += HEADER;
+            pending[at] = (byte) type;
+            pending[at + 1] = (byte) (room.length >>> 8);
+            pending[at + 2] = (byte) room.length;
+            System.arraycopy(room, 0, pending, at + BODY_HEADER, room.length);
+            if (count > 0) {
+                System.arraycopy(bytes, offset, pending, at + BODY_HEADER + room.length, count);
+            }
+            if (pendingLength == 0) {
+                appended.signal();
+            }
+            pendingLength = at + length;
+            return ++last;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the sequence number of the last record on disk; everything up to it is durable
+     */
+    long durable() {
+        return durable;
+    }
+
+    /**
+     * @return true once writing has failed; records not durable by then never will be
+     */
+    boolean isFailed() {
+        return failed;
+    }
+
+    /**
+     * Waits until a record is on disk
+     *
+     * @param sequence a sequence number returned by {@link #append}
+     * @throws IOException if writing failed before the record reached the disk
+     */
+    void awaitDurable(long sequence) throws InterruptedException, IOException {
+        if (durable >= sequence) {
+            return;
+        }
+        lock.lock();
+        try {
+            while (durable < sequence) {
+                if (failed) {
+                    throw new IOException("the game could not be saved");
+                }
+                committed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The writer thread: commits what has been appended, then waits out the rest
+     * of the tick so the next commit takes everything appended meanwhile
+     */
+    private void write() {
+        while (true) {
+            int length;
+            long sequence;
+            lock.lock();
+            try {
+                while (pendingLength == 0 && !closed) {
+                    appended.awaitUninterruptibly();
+                }
+                if (pendingLength == 0) {
+                    // Nothing can be waiting on a record that will never come, unless writing failed
+                    if (!failed) {
+                        durable = Long.MAX_VALUE;
+                    }
+                    committed.signalAll();
+                    return;
+                }
+                byte[] taken = pending;
+                pending = writing;
+                writing = taken;
+                length = pendingLength;
+                pendingLength = 0;
+                sequence = last;
+            } finally {
+                lock.unlock();
+            }
+
+            long started = System.nanoTime();
+            boolean written = commit(length);
+            ServerMetrics.WAL_COMMIT.recordNanos(System.nanoTime() - started);
+            lock.lock();
+            try {
+                if (written) {
+                    durable = sequence;
+                }
+                // Either way, so waiters find out if it failed
+                committed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+            for (int i = 0; i < listeners.size; i++) {
+                listeners.get(i).run();
+            }
+
+            long wait = started + tickNanos - System.nanoTime();
+            if (wait > 0 && !closed) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    /**
+     * Fills in the CRCs of a batch of records, writes it and forces it to disk
+     *
+     * @return true if the batch is on disk, false if writing has failed
+     */
+    private boolean commit(int length) {
+        for (int at = 0; at < length; ) {
+            int body = getInt(writing, at);
+            crc.reset();
+            crc.update(writing, at + HEADER, body);
+            putInt(writing, at + 4, (int) crc.getValue());
+            apply(writing, at + HEADER, body);
+            at += HEADER + body;
+        }
+        if (failed) {
+            return false;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(writing, 0, length);
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            segment.force(false);
+            segmentLength += length;
+            ServerMetrics.WAL_BYTES.add(length);
+            if (segmentLength >= segmentBytes) {
+                compact(segmentNumber + 1);
+            }
+            return true;
+        } catch (IOException e) {
+            failed = true;
+            Gdx.app.error("WriteAheadLog", "Failed to write " + dir + ", games are no longer saved: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Brings a game up to date with a record
+     */
+    private void apply(byte[] data, int at, int length) {
+        int type = data[at];
+        int nameLength = (data[at + 1] & 0xFF) << 8 | data[at + 2] & 0xFF;
+        String name = new String(data, at + BODY_HEADER, nameLength, StandardCharsets.UTF_8);
+        int offset = at + BODY_HEADER + nameLength;
+        int count = length - BODY_HEADER - nameLength;
+        if (type == CHECKPOINT) {
+            Game game = games.get(name);
+            if (game == null) {
+                byte[] bytes = new byte[nameLength];
+                System.arraycopy(data, at + BODY_HEADER, bytes, 0, nameLength);
+                game = new Game(bytes, count);
+                games.put(name, game);
+            }
+            game.length = 0;
+            game.append(data, offset, count);
+        } else if (type == APPEND) {
+            Game game = games.get(name);
+            if (game != null) {
+                game.append(data, offset, count);
+            }
+        } else if (type == END) {
+            games.remove(name);
+        }
+    }
+
+    /**
+     * Starts a new segment with a checkpoint of every game still going, then deletes the segments before it
+     */
+    private void compact(long number) throws IOException {
+        if (segment != null) {
+            segment.close();
+        }
+        segmentNumber = number;
+        segment = FileChannel.open(segmentPath(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentLength = 0;
+
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        for (Game game : games.values()) {
+            int body = BODY_HEADER + game.name.length + game.length;
+            if (buffer.capacity() < HEADER + body) {
+                buffer = ByteBuffer.allocate(HEADER + body);
+            }
+            buffer.clear();
+            buffer.putInt(body).putInt(0).put((byte) CHECKPOINT).putShort((short) game.name.length).put(game.name)
+                .put(game.bytes, 0, game.length);
+            crc.reset();
+            crc.update(buffer.array(), HEADER, body);
+            buffer.putInt(4, (int) crc.getValue());
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                segment.write(buffer);
+            }
+            segmentLength += HEADER + body;
+        }
+        segment.force(false);
+        syncDirectory();
+
+        // Everything in the older segments is in this one now
+        LongArray numbers = listSegments();
+        for (int i = 0; i < numbers.size; i++) {
+            if (numbers.get(i) < number) {
+                Files.delete(segmentPath(numbers.get(i)));
+            }
+        }
+        syncDirectory();
+    }
+
+    /**
+     * Reads a segment back into the games, as far as its records are whole and intact
+     */
+    private void recover(long number) throws IOException {
+        byte[] data = Files.readAllBytes(segmentPath(number));
+        int at = 0;
+        while (data.length - at >= HEADER) {
+            int body = getInt(data, at);
+            if (body < BODY_HEADER || body > MAX_RECORD || body > data.length - at - HEADER) {
+                break;
+            }
+            crc.reset();
+            crc.update(data, at + HEADER, body);
+            if ((int) crc.getValue() != getInt(data, at + 4)) {
+                break;
+            }
+            apply(data, at + HEADER, body);
+            at += HEADER + body;
+        }
+        if (at < data.length) {
+            Gdx.app.error("WriteAheadLog", "Dropped " + (data.length - at) + " bytes of torn or corrupt records at the end of "
+                + segmentPath(number));
+        }
+    }
+
+    /**
+     * @return the numbers of the segments in the directory, in order
+     */
+    private LongArray listSegments() throws IOException {
+        LongArray numbers = new LongArray();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    numbers.add(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        }
+        numbers.sort();
+        return numbers;
+    }
+
+    private Path segmentPath(long number) {
+        return dir.resolve(String.format("%020d", number) + SUFFIX);
+    }
+
+    /**
+     * Makes files created and deleted in the directory durable, where the platform allows it
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Directories can't be opened on Windows, which doesn't need this
+        }
+    }
+
+    private static int getInt(byte[] data, int at) {
+        return (data[at] & 0xFF) << 24 | (data[at + 1] & 0xFF) << 16 | (data[at + 2] & 0xFF) << 8 | data[at + 3] & 0xFF;
+    }
+
+    private static void putInt(byte[] data, int at, int value) {
+        data[at] = (byte) (value >>> 24);
+        data[at + 1] = (byte) (value >>> 16);
+        data[at + 2] = (byte) (value >>> 8);
+        data[at + 3] = (byte) value;
+    }
+}
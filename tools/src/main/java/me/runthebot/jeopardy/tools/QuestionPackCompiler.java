@@ -0,0 +1,149 @@
+package me.runthebot.jeopardy.tools;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import me.runthebot.jeopardy.data.QuestionPackWriter;
+import me.runthebot.jeopardy.data.QuestionStore;
+
+/**
+ * Validates question sources and compiles them into a question pack.
+ *
+ * Usage: QuestionPackCompiler output.jqp source...
+ * Each source is a .json manifest, a .csv or a .jsonl file, or a directory that is
+ * searched for them. Every problem found is reported before the build fails, so a
+ * bad bank can be fixed in one pass.
+ *
+ * The pack is written next to the output and renamed over it once complete, so a
+ * game or server that has the old pack mapped, or is watching for a new one, never
+ * sees a half-written file.
+ */
+public class QuestionPackCompiler implements QuestionSources.Sink {
+    private final QuestionPackWriter writer = new QuestionPackWriter();
+    // Category and normalized question text -> where it was first seen
+    private final ObjectMap<String, String> seen = new ObjectMap<>();
+    // Lower case category name -> display name as first spelled in the sources
+    private final ObjectMap<String, String> categoryNames = new ObjectMap<>();
+    private final Array<String> errors = new Array<>();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: QuestionPackCompiler <output.jqp> <source>...");
+            System.exit(2);
+        }
+
+        QuestionPackCompiler compiler = new QuestionPackCompiler();
+        for (int i = 1; i < args.length; i++) {
+            compiler.addSource(new File(args[i]));
+        }
+
+        if (compiler.errors.size > 0) {
+            for (String error : compiler.errors) {
+                System.err.println(error);
+            }
+            System.err.println(compiler.errors.size + " problem(s) found, question pack not written");
+            System.exit(1);
+        }
+
+        File output = new File(args[0]).getAbsoluteFile();
+        File temp = File.createTempFile(output.getName(), ".tmp", output.getParentFile());
+        try {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+                compiler.writer.write(out);
+            }
+            Files.move(temp.toPath(), output.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        System.out.println("Compiled " + compiler.writer.size() + " questions into " + output.getPath());
+    }
+
+    /**
+     * Reads a source file, or every source file under a directory
+     *
+     * @param source the file or directory
+     * @throws IOException if a file cannot be read
+     */
+    public void addSource(File source) throws IOException {
+        if (source.isDirectory()) {
+            File[] children = source.listFiles();
+            if (children != null) {
+                // Sort so the pack comes out the same on every machine
+                Arrays.sort(children);
+                for (File child : children) {
+                    String name = child.getName();
+                    if (child.isDirectory() || name.endsWith(".json") || name.endsWith(".csv") || name.endsWith(".jsonl")) {
+                        addSource(child);
+                    }
+                }
+            }
+        } else if (source.exists()) {
+            QuestionSources.read(source, this);
+        } else {
+            error(source.getPath(), "Source not found");
+        }
+    }
+
+    @Override
+    public void question(String location, String category, int value, String question, String answer, String[] choices) {
+        if (isBlank(category) || isBlank(question) || isBlank(answer)) {
+            error(location, "Category, question and answer must not be empty");
+            return;
+        }
+        if (QuestionStore.tierOf(value) < 0) {
+            error(location, "Value $" + value + " is not on the board");
+            return;
+        }
+        if (choices.length < 2) {
+            error(location, "At least two choices are needed");
+            return;
+        }
+
+        boolean hasAnswer = false;
+        for (int i = 0; i < choices.length; i++) {
+            hasAnswer |= choices[i].equals(answer);
+            for (int j = 0; j < i; j++) {
+                if (choices[i].equals(choices[j])) {
+                    error(location, "Choice listed twice: " + choices[i]);
+                    return;
+                }
+            }
+        }
+        if (!hasAnswer) {
+            error(location, "Choices do not contain the correct answer: " + answer);
+            return;
+        }
+
+        String key = category.trim().toLowerCase() + '\n' + question.trim().toLowerCase();
+        String firstSeen = seen.get(key);
+        if (firstSeen != null) {
+            error(location, "Duplicate of the question at " + firstSeen);
+            return;
+        }
+        seen.put(key, location);
+
+        String categoryKey = category.trim().toLowerCase();
+        String categoryName = categoryNames.get(categoryKey);
+        if (categoryName == null) {
+            categoryName = category.trim();
+            categoryNames.put(categoryKey, categoryName);
+        }
+        writer.add(categoryName, value, question, answer, choices);
+    }
+
+    @Override
+    public void error(String location, String message) {
+        errors.add(location + ": " + message);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
@@ -0,0 +1,181 @@
+package me.runthebot.jeopardy.tools;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.badlogic.gdx.utils.SerializationException;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import me.runthebot.jeopardy.data.QuestionBankLoader;
+
+/**
+ * Reads question source files in the formats accepted by the pack compiler.
+ *
+ * - .json: a bank manifest, as read by the game through {@link QuestionBankLoader}
+ * - .csv: a header row, then category,value,question,answer,choice,choice,...
+ * - .jsonl: one {"category", "value", "question", "answer", "choices"} object per line
+ */
+public class QuestionSources {
+    /**
+     * Receives questions along with where they were read from
+     */
+    public interface Sink {
+        void question(String location, String category, int value, String question, String answer, String[] choices);
+
+        void error(String location, String message);
+    }
+
+    /**
+     * Reads a source file, picking the format from its extension
+     *
+     * @param file the source file
+     * @param sink receives questions and parse errors
+     * @throws IOException if the file cannot be read
+     */
+    public static void read(File file, Sink sink) throws IOException {
+        String name = file.getName().toLowerCase();
+        if (name.endsWith(".json")) {
+            readManifest(file, sink);
+        } else if (name.endsWith(".csv")) {
+            readCsv(file, sink);
+        } else if (name.endsWith(".jsonl")) {
+            readJsonLines(file, sink);
+        } else {
+            sink.error(file.getPath(), "Unknown question source format");
+        }
+    }
+
+    private static void readManifest(File file, Sink sink) {
+        QuestionBankLoader loader = new QuestionBankLoader(new FileHandle(file));
+        Array<String> categories;
+        try {
+            categories = loader.getCategoryNames();
+        } catch (SerializationException e) {
+            sink.error(file.getPath(), e.getMessage());
+            return;
+        }
+
+        for (final String category : categories) {
+            final String location = file.getPath() + " [" + category + "]";
+            try {
+                loader.loadCategory(category, new QuestionBankLoader.Listener() {
+                    private int index;
+
+                    @Override
+                    public void question(int value, String question, String answer, String[] choices) {
+                        index++;
+                        sink.question(location + " #" + index, category, value, question, answer, choices);
+                    }
+                });
+            } catch (SerializationException e) {
+                sink.error(location, e.getMessage());
+            }
+        }
+    }
+
+    private static void readJsonLines(File file, Sink sink) throws IOException {
+        JsonReader reader = new JsonReader();
+        try (BufferedReader lines = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                String location = file.getPath() + ":" + lineNumber;
+                try {
+                    JsonValue entry = reader.parse(line);
+                    JsonValue choicesJson = entry.get("choices");
+                    String[] choices = choicesJson == null ? new String[0] : choicesJson.asStringArray();
+                    sink.question(location, entry.getString("category"), entry.getInt("value"),
+                        entry.getString("question"), entry.getString("answer"), choices);
+                } catch (SerializationException | IllegalArgumentException e) {
+                    sink.error(location, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void readCsv(File file, Sink sink) throws IOException {
+        try (BufferedReader lines = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                // First row is the header
+                if (lineNumber == 1 || line.trim().isEmpty()) {
+                    continue;
+                }
+
+                String location = file.getPath() + ":" + lineNumber;
+                Array<String> fields = splitCsv(line);
+                if (fields == null) {
+                    sink.error(location, "Unterminated quoted field");
+                    continue;
+                }
+                if (fields.size < 4) {
+                    sink.error(location, "Expected category,value,question,answer,choices...");
+                    continue;
+                }
+
+                int value;
+                try {
+                    value = Integer.parseInt(fields.get(1).trim());
+                } catch (NumberFormatException e) {
+                    sink.error(location, "Value is not a number: " + fields.get(1));
+                    continue;
+                }
+
+                String[] choices = new String[fields.size - 4];
+                for (int i = 0; i < choices.length; i++) {
+                    choices[i] = fields.get(i + 4);
+                }
+                sink.question(location, fields.get(0), value, fields.get(2), fields.get(3), choices);
+            }
+        }
+    }
+
+    /**
+     * Splits one CSV record. Fields may be quoted, with "" standing for a quote.
+     *
+     * @return the fields, or null if a quoted field is not closed on this line
+     */
+    static Array<String> splitCsv(String line) {
+        Array<String> fields = new Array<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}